@@ -0,0 +1,476 @@
+package uk.badamson.mc.history;
+/*
+ * © Copyright Benedict Adamson 2022.
+ *
+ * This file is part of MC-des.
+ *
+ * MC-des is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC-des is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MC-des.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * <p>
+ * Base class for modifiable histories of values of a primitive type,
+ * which record their transitions in arrays, so they need not box their values.
+ * </p>
+ * <p>
+ * The times of the transitions are held, in ascending order, in an array.
+ * The array holds the given time objects, rather than copies,
+ * because the {@linkplain ValueHistory#getTransitionTimes() transition times} of a history
+ * must be the same objects as its {@linkplain ValueHistory#getFirstTransitionTime() first} and
+ * {@linkplain ValueHistory#getLastTransitionTime() last} transition times.
+ * Derived classes that need to record the values at the transitions
+ * hold them in an array of the primitive type, which this class allocates
+ * and keeps in step with the transition times.
+ * The derived classes provide only the typed accessors of the values,
+ * and the comparison of values through {@link #equalValues(int, int)}.
+ * </p>
+ *
+ * @param <VALUES> The class of the array of values at the transitions,
+ *                 or {@link Void} if the derived class does not record the values.
+ */
+@NotThreadSafe
+abstract class AbstractPrimitiveValueHistory<VALUES> {
+
+    /**
+     * <p>
+     * The index that denotes the value before the first transition,
+     * rather than the value at a transition.
+     * </p>
+     */
+    static final int FIRST_VALUE = -1;
+
+    private static final int MINIMUM_CAPACITY = 4;
+
+    @Nullable
+    private final IntFunction<VALUES> valuesFactory;
+
+    private Duration[] transitionTimes = new Duration[0];
+
+    private int nTransitions;
+
+    /**
+     * <p>
+     * The values at the transitions, in the same order as the transition times,
+     * or null if the derived class does not record the values.
+     * </p>
+     * <p>
+     * The array might be longer than the number of transitions.
+     * It is replaced when this history needs more capacity.
+     * </p>
+     */
+    @Nullable
+    VALUES values;
+
+    /**
+     * @param valuesFactory Creates an array of values with a given length,
+     *                      or null if the derived class does not record the values.
+     */
+    AbstractPrimitiveValueHistory(@Nullable final IntFunction<VALUES> valuesFactory) {
+        this.valuesFactory = valuesFactory;
+        this.values = valuesFactory == null ? null : valuesFactory.apply(0);
+    }
+
+    /**
+     * <p>
+     * The number of transitions of this history.
+     * </p>
+     * <ul>
+     * <li>The number of transitions is not negative.</li>
+     * <li>The number of transitions is zero if, and only if, this {@linkplain #isEmpty() is empty}.</li>
+     * </ul>
+     */
+    public final int getNumberOfTransitions() {
+        return nTransitions;
+    }
+
+    /**
+     * <p>
+     * The first point in time when the value of this history changes.
+     * </p>
+     *
+     * @return The first transition time, or null if this {@linkplain #isEmpty() is empty}.
+     * @see ValueHistory#getFirstTransitionTime()
+     */
+    @Nullable
+    public final Duration getFirstTransitionTime() {
+        return nTransitions == 0 ? null : getTransitionTime(0);
+    }
+
+    /**
+     * <p>
+     * The last point in time when the value of this history changes.
+     * </p>
+     *
+     * @return The last transition time, or null if this {@linkplain #isEmpty() is empty}.
+     * @see ValueHistory#getLastTransitionTime()
+     */
+    @Nullable
+    public final Duration getLastTransitionTime() {
+        return nTransitions == 0 ? null : getTransitionTime(nTransitions - 1);
+    }
+
+    /**
+     * <p>
+     * The first point in time, at or after a given point in time, when the value of this history changes.
+     * </p>
+     *
+     * @return The transition time, or null if there are no transitions at or after the given time.
+     * @throws NullPointerException If {@code when} is null
+     * @see ValueHistory#getTransitionTimeAtOrAfter(Duration)
+     */
+    @Nullable
+    public final Duration getTransitionTimeAtOrAfter(@Nonnull final Duration when) {
+        Objects.requireNonNull(when, "when");
+        final int index = indexOfFirstTransitionAtOrAfter(when);
+        return index < nTransitions ? getTransitionTime(index) : null;
+    }
+
+    /**
+     * <p>
+     * The points in time when the value of this history changes.
+     * </p>
+     * <ul>
+     * <li>The returned set is a newly constructed copy.</li>
+     * <li>The {@linkplain SortedSet#size() number of} transition times is equal to the
+     * {@linkplain #getNumberOfTransitions() number of transitions}.</li>
+     * </ul>
+     *
+     * @see ValueHistory#getTransitionTimes()
+     */
+    @Nonnull
+    public final SortedSet<Duration> getTransitionTimes() {
+        final SortedSet<Duration> transitionTimes = new TreeSet<>();
+        for (int i = 0; i < nTransitions; ++i) {
+            transitionTimes.add(getTransitionTime(i));
+        }
+        return transitionTimes;
+    }
+
+    /**
+     * <p>
+     * Remove all transitions at or after a given point in time.
+     * </p>
+     *
+     * @throws NullPointerException If {@code when} is null
+     * @see ModifiableValueHistory#removeTransitionsFrom(Duration)
+     */
+    public final void removeTransitionsFrom(@Nonnull final Duration when) {
+        Objects.requireNonNull(when, "when");
+        removeTransitions(indexOfFirstTransitionAtOrAfter(when), nTransitions);
+    }
+
+    /**
+     * <p>
+     * Whether this history has no transitions.
+     * </p>
+     *
+     * @see ValueHistory#isEmpty()
+     */
+    public final boolean isEmpty() {
+        return nTransitions == 0;
+    }
+
+    /**
+     * <p>
+     * A stream of the {@linkplain #getTransitionTimes() transition times} of this history,
+     * in ascending order.
+     * </p>
+     */
+    @Nonnull
+    public final Stream<Duration> streamOfTransitionTimes() {
+        return IntStream.range(0, nTransitions).mapToObj(this::getTransitionTime);
+    }
+
+    @Nonnull
+    final Duration getTransitionTime(final int index) {
+        return transitionTimes[index];
+    }
+
+    /**
+     * <p>
+     * The sum of the hash codes of the transition times, each combined with the hash code of the value at that time,
+     * consistent with the {@linkplain ValueHistory#hashCode() hash code of a value history}.
+     * </p>
+     */
+    final int transitionsHashCode(@Nonnull final IntUnaryOperator valueHashCode) {
+        int result = 0;
+        for (int i = 0; i < nTransitions; ++i) {
+            result += transitionTimes[i].hashCode() ^ valueHashCode.applyAsInt(i);
+        }
+        return result;
+    }
+
+    final boolean equalTransitionTimes(@Nonnull final AbstractPrimitiveValueHistory<?> that) {
+        return nTransitions == that.nTransitions
+                && Arrays.equals(transitionTimes, 0, nTransitions, that.transitionTimes, 0, nTransitions);
+    }
+
+    /**
+     * <p>
+     * The index of the value of this history at a given point in time:
+     * the index of the last transition at or before that time,
+     * or {@link #FIRST_VALUE} if there are no such transitions.
+     * </p>
+     */
+    final int indexOfValueAt(@Nonnull final Duration when) {
+        return indexOfFirstTransitionAfter(when) - 1;
+    }
+
+    /**
+     * <p>
+     * The index of the value of this history at the end of time.
+     * </p>
+     */
+    final int indexOfLastValue() {
+        return nTransitions - 1;
+    }
+
+    /**
+     * <p>
+     * The number of transitions at or before a given point in time,
+     * which is the index of the first transition after that time.
+     * </p>
+     */
+    final int indexOfFirstTransitionAfter(@Nonnull final Duration when) {
+        return search(when, true);
+    }
+
+    /**
+     * <p>
+     * The number of transitions before a given point in time,
+     * which is the index of the first transition at or after that time.
+     * </p>
+     */
+    final int indexOfFirstTransitionAtOrAfter(@Nonnull final Duration when) {
+        return search(when, false);
+    }
+
+    private int search(@Nonnull final Duration when, final boolean includeEqual) {
+        int low = 0;
+        int high = nTransitions;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            final int c = transitionTimes[mid].compareTo(when);
+            if (c < 0 || c == 0 && includeEqual) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    final void requireAfterLastTransition(@Nonnull final Duration when) throws IllegalStateException {
+        if (indexOfFirstTransitionAtOrAfter(when) != nTransitions) {
+            throw new IllegalStateException("Timestamp out of order");
+        }
+    }
+
+    /**
+     * <p>
+     * Add a transition after the last transition,
+     * for the caller to set the value of.
+     * </p>
+     *
+     * @return the index of the added transition.
+     */
+    final int appendTransitionTime(@Nonnull final Duration when) {
+        final int index = nTransitions;
+        insertTransitionTime(index, when);
+        return index;
+    }
+
+    /**
+     * <p>
+     * Begin changing this history so the value at all points in time at or after a given point in time
+     * is equal to a given value.
+     * </p>
+     * <p>
+     * This removes the transitions at or after the given time.
+     * Unless the given time is the {@linkplain ValueHistory#START_OF_TIME start of time},
+     * it then adds a transition at the given time.
+     * The caller must set the value at the returned index to the given value,
+     * then call {@link #removeRedundantLastTransition()}.
+     * </p>
+     *
+     * @return the index of the added transition, or {@link #FIRST_VALUE} if the given time is the start of time.
+     * @throws NullPointerException If {@code when} is null
+     * @see ModifiableValueHistory#setValueFrom(Duration, Object)
+     */
+    final int prepareToSetValueFrom(@Nonnull final Duration when) {
+        removeTransitionsFrom(when);
+        if (ValueHistory.START_OF_TIME.equals(when)) {
+            return FIRST_VALUE;
+        } else {
+            return appendTransitionTime(when);
+        }
+    }
+
+    /**
+     * <p>
+     * Remove the last transition if its value is equal to the value before it.
+     * </p>
+     */
+    final void removeRedundantLastTransition() {
+        final int last = nTransitions - 1;
+        if (0 <= last && equalValues(last - 1, last)) {
+            removeTransitions(last, nTransitions);
+        }
+    }
+
+    /**
+     * <p>
+     * Begin changing this history so the value at all points in time at or before a given point in time
+     * is equal to a given value.
+     * </p>
+     * <p>
+     * This removes the transitions at or before the given time,
+     * except that, unless the given time is the {@linkplain ValueHistory#END_OF_TIME end of time},
+     * the first remaining transition is just after the given time,
+     * and has the value that this history has just after the given time.
+     * The caller must set the first value to the given value,
+     * then call {@link #removeRedundantFirstTransition()}.
+     * </p>
+     *
+     * @throws NullPointerException If {@code when} is null
+     * @see ModifiableValueHistory#setValueUntil(Duration, Object)
+     */
+    final void prepareToSetValueUntil(@Nonnull final Duration when) {
+        Objects.requireNonNull(when, "when");
+        if (ValueHistory.END_OF_TIME.equals(when)) {
+            removeTransitions(0, nTransitions);
+        } else {
+            final Duration justAfter = when.plusNanos(1L);
+            final int index = indexOfValueAt(justAfter);
+            if (index == FIRST_VALUE) {
+                insertTransitionTime(0, justAfter);
+                copyValue(FIRST_VALUE, 0);
+            } else {
+                removeTransitions(0, index);
+                transitionTimes[0] = justAfter;
+                transitionsChangedFrom(0);
+            }
+        }
+    }
+
+    /**
+     * <p>
+     * Remove the first transition if its value is equal to the first value.
+     * </p>
+     */
+    final void removeRedundantFirstTransition() {
+        if (0 < nTransitions && equalValues(FIRST_VALUE, 0)) {
+            removeTransitions(0, 1);
+        }
+    }
+
+    /**
+     * <p>
+     * Add a transition time at a given position, moving the values of later transitions up one place.
+     * </p>
+     * <p>
+     * The caller must then set the value at the given position, if the derived class records values.
+     * </p>
+     */
+    final void insertTransitionTime(final int index, @Nonnull final Duration when) {
+        assert 0 <= index && index <= nTransitions;
+        ensureCapacity(nTransitions + 1);
+        final int nMoved = nTransitions - index;
+        System.arraycopy(transitionTimes, index, transitionTimes, index + 1, nMoved);
+        if (values != null) {
+            System.arraycopy(values, index, values, index + 1, nMoved);
+        }
+        transitionTimes[index] = when;
+        ++nTransitions;
+        transitionsChangedFrom(index);
+    }
+
+    /**
+     * <p>
+     * Remove a contiguous range of transitions, with indices from {@code from} (inclusive) to {@code to} (exclusive).
+     * </p>
+     */
+    final void removeTransitions(final int from, final int to) {
+        assert 0 <= from && from <= to && to <= nTransitions;
+        final int nMoved = nTransitions - to;
+        System.arraycopy(transitionTimes, to, transitionTimes, from, nMoved);
+        if (values != null) {
+            System.arraycopy(values, to, values, from, nMoved);
+        }
+        final int newNTransitions = nTransitions - (to - from);
+        Arrays.fill(transitionTimes, newNTransitions, nTransitions, null);
+        nTransitions = newNTransitions;
+        transitionsChangedFrom(from);
+    }
+
+    private void ensureCapacity(final int capacity) {
+        if (transitionTimes.length < capacity) {
+            final int newCapacity = Math.max(capacity, Math.max(MINIMUM_CAPACITY, transitionTimes.length * 2));
+            transitionTimes = Arrays.copyOf(transitionTimes, newCapacity);
+            if (valuesFactory != null) {
+                final VALUES newValues = valuesFactory.apply(newCapacity);
+                System.arraycopy(values, 0, newValues, 0, nTransitions);
+                values = newValues;
+            }
+        }
+    }
+
+    /**
+     * <p>
+     * Whether the values with given indices are equal.
+     * </p>
+     * <p>
+     * An index is either the index of a transition or {@link #FIRST_VALUE}.
+     * </p>
+     */
+    abstract boolean equalValues(int index1, int index2);
+
+    /**
+     * <p>
+     * Set the value with a given index to the value with another index.
+     * </p>
+     * <p>
+     * An index is either the index of a transition or {@link #FIRST_VALUE}.
+     * </p>
+     */
+    abstract void copyValue(int source, int destination);
+
+    /**
+     * <p>
+     * Note that the transitions with indices at or after a given index
+     * have been added, removed, moved or changed.
+     * </p>
+     * <p>
+     * Derived classes that index the transitions override this to invalidate their index.
+     * </p>
+     */
+    void transitionsChangedFrom(final int index) {
+        // Do nothing
+    }
+
+}
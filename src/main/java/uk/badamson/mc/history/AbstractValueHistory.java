@@ -38,6 +38,74 @@ import java.util.stream.Stream;
 @NotThreadSafe
 abstract class AbstractValueHistory<VALUE> implements ValueHistory<VALUE> {
 
+    /**
+     * <p>
+     * The point in time within a range of time that has the same value in a
+     * {@linkplain ValueHistory#subHistory(Duration, Duration) sub history} as a given point in time.
+     * </p>
+     *
+     * @param to The (exclusive) end of the range, or null if the range is unbounded above.
+     */
+    @Nonnull
+    static Duration clamp(@Nonnull final Duration when, @Nonnull final Duration from, @Nullable final Duration to) {
+        if (when.compareTo(from) < 0) {
+            return from;
+        } else if (to != null && to.compareTo(when) <= 0) {
+            return to.minusNanos(1L);
+        } else {
+            return when;
+        }
+    }
+
+    static void requireValidRange(@Nonnull final Duration from, @Nonnull final Duration to) {
+        Objects.requireNonNull(from, "from");
+        Objects.requireNonNull(to, "to");
+        if (to.compareTo(from) <= 0) {
+            throw new IllegalArgumentException("from not before to");
+        }
+    }
+
+    /**
+     * <p>
+     * Whether two sequences of transitions, each in ascending time order, are equivalent.
+     * </p>
+     * <p>
+     * Walks the two sequences in step, so it does not need to construct any maps.
+     * </p>
+     */
+    static boolean equalTransitions(
+            @Nonnull final Iterator<? extends Map.Entry<Duration, ?>> transitions1,
+            @Nonnull final Iterator<? extends Map.Entry<Duration, ?>> transitions2) {
+        while (transitions1.hasNext() && transitions2.hasNext()) {
+            final var transition1 = transitions1.next();
+            final var transition2 = transitions2.next();
+            if (!transition1.getKey().equals(transition2.getKey())
+                    || !Objects.equals(transition1.getValue(), transition2.getValue())) {
+                return false;
+            }
+        }
+        return !transitions1.hasNext() && !transitions2.hasNext();
+    }
+
+    @Nonnull
+    private static Iterator<? extends Map.Entry<Duration, ?>> iteratorOfTransitions(@Nonnull final ValueHistory<?> history) {
+        if (history instanceof AbstractValueHistory) {
+            return ((AbstractValueHistory<?>) history).iteratorOfTransitions();
+        } else {
+            return history.getTransitions().entrySet().iterator();
+        }
+    }
+
+    /**
+     * <p>
+     * The hash code of one {@linkplain #getTransitions() transition},
+     * consistent with {@link Map.Entry#hashCode()}.
+     * </p>
+     */
+    static int transitionHashCode(@Nonnull final Duration when, @Nullable final Object value) {
+        return when.hashCode() ^ Objects.hashCode(value);
+    }
+
     @Override
     public boolean equals(final Object that) {
         if (that == null) {
@@ -49,7 +117,7 @@ abstract class AbstractValueHistory<VALUE> implements ValueHistory<VALUE> {
         if (that instanceof ValueHistory) {
             final ValueHistory<?> thatValueHistory = (ValueHistory<?>) that;
             return Objects.equals(getFirstValue(), thatValueHistory.getFirstValue())
-                    && getTransitions().equals(thatValueHistory.getTransitions());
+                    && equalTransitions(iteratorOfTransitions(), iteratorOfTransitions(thatValueHistory));
         } else {
             return false;
         }
@@ -110,7 +178,44 @@ abstract class AbstractValueHistory<VALUE> implements ValueHistory<VALUE> {
     @Override
     public int hashCode() {
         final VALUE firstValue = getFirstValue();
-        return (firstValue == null ? 0 : firstValue.hashCode()) + getTransitions().hashCode();
+        return (firstValue == null ? 0 : firstValue.hashCode())
+                + streamOfTransitions().mapToInt(Map.Entry::hashCode).sum();
+    }
+
+    /**
+     * <p>
+     * Iterate over the {@linkplain #getTransitions() transitions} of this history,
+     * in ascending order of time.
+     * </p>
+     * <p>
+     * Derived classes should override this if they can provide the iterator
+     * without copying their transitions.
+     * </p>
+     */
+    @Nonnull
+    Iterator<Map.Entry<Duration, VALUE>> iteratorOfTransitions() {
+        return getTransitions().entrySet().iterator();
+    }
+
+    @Nonnull
+    @Override
+    public ValueHistory<VALUE> headHistory(@Nonnull final Duration to) {
+        requireValidRange(START_OF_TIME, to);
+        return new SubValueHistory<>(this, START_OF_TIME, to);
+    }
+
+    @Nonnull
+    @Override
+    public ValueHistory<VALUE> subHistory(@Nonnull final Duration from, @Nonnull final Duration to) {
+        requireValidRange(from, to);
+        return new SubValueHistory<>(this, from, to);
+    }
+
+    @Nonnull
+    @Override
+    public ValueHistory<VALUE> tailHistory(@Nonnull final Duration from) {
+        Objects.requireNonNull(from, "from");
+        return new SubValueHistory<>(this, from, null);
     }
 
     @Override
@@ -0,0 +1,353 @@
+package uk.badamson.mc.history;
+/*
+ * © Copyright Benedict Adamson 2022.
+ *
+ * This file is part of MC-des.
+ *
+ * MC-des is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC-des is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MC-des.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * <p>
+ * A modifiable history of a {@code boolean} value, which does not box its values.
+ * </p>
+ * <p>
+ * Because consecutive values of a history must be different, the values of a boolean history
+ * alternate at each transition. This therefore records only the first value and
+ * an array of the transition times; the values at the transitions are implied.
+ * Use the {@linkplain #asValueHistory() value history view} to use this history where a
+ * {@link ValueHistory} is required.
+ * </p>
+ *
+ * @see ModifiableValueHistory
+ */
+@NotThreadSafe
+public final class BooleanValueHistory extends AbstractPrimitiveValueHistory<Void> {
+
+    private boolean firstValue;
+
+    /**
+     * <p>
+     * Construct a value history that has a given value for all points in time.
+     * </p>
+     * <ul>
+     * <li>The {@linkplain #getFirstValueAsBoolean() first value} of this history is the given value.</li>
+     * <li>This history {@linkplain #isEmpty() is empty}.</li>
+     * </ul>
+     */
+    public BooleanValueHistory(final boolean value) {
+        super(null);
+        firstValue = value;
+    }
+
+    /**
+     * <p>
+     * The value of this history at a given point in time.
+     * </p>
+     *
+     * @throws NullPointerException If {@code when} is null
+     * @see ValueHistory#get(Duration)
+     */
+    public boolean getAsBoolean(@Nonnull final Duration when) {
+        Objects.requireNonNull(when, "when");
+        return valueAfterTransitions(indexOfFirstTransitionAfter(when));
+    }
+
+    /**
+     * <p>
+     * The value of this history at the start of time.
+     * </p>
+     *
+     * @see ValueHistory#getFirstValue()
+     */
+    public boolean getFirstValueAsBoolean() {
+        return firstValue;
+    }
+
+    /**
+     * <p>
+     * The value of this history at the end of time.
+     * </p>
+     *
+     * @see ValueHistory#getLastValue()
+     */
+    public boolean getLastValueAsBoolean() {
+        return valueAfterTransitions(getNumberOfTransitions());
+    }
+
+    /**
+     * <p>
+     * Append a value transition to this history of value transitions.
+     * </p>
+     * <ul>
+     * <li>Appending a transition increments the {@linkplain #getNumberOfTransitions() number of transitions}.</li>
+     * <li>The given point in time becomes the {@linkplain #getLastTransitionTime() last transition time}.</li>
+     * <li>The given value becomes the {@linkplain #getLastValueAsBoolean() last value}.</li>
+     * </ul>
+     *
+     * @throws NullPointerException  If {@code when} is null
+     * @throws IllegalStateException If
+     *                               <ul>
+     *                                   <li>{@code when} is at or before the {@linkplain #getLastTransitionTime() last transition time}.</li>
+     *                                   <li>{@code value} is equal to the {@linkplain #getLastValueAsBoolean() last value}.</li>
+     *                               </ul>
+     *                               This history is unchanged if the method throws IllegalStateException.
+     * @see ModifiableValueHistory#appendTransition(Duration, Object)
+     */
+    public void appendTransition(@Nonnull final Duration when, final boolean value) throws IllegalStateException {
+        Objects.requireNonNull(when, "when");
+        requireAfterLastTransition(when);
+        if (getLastValueAsBoolean() == value) {
+            throw new IllegalStateException("Equal values");
+        }
+        appendTransitionUnchecked(when);
+    }
+
+    private void appendTransitionUnchecked(@Nonnull final Duration when) {
+        insertTransitionTime(getNumberOfTransitions(), when);
+    }
+
+    /**
+     * <p>
+     * The value of this history after a given number of its transitions.
+     * </p>
+     */
+    private boolean valueAfterTransitions(final int n) {
+        return firstValue ^ ((n & 1) == 1);
+    }
+
+    /**
+     * <p>
+     * The value of this history at and after the transition with a given index.
+     * </p>
+     */
+    boolean getTransitionValue(final int index) {
+        return valueAfterTransitions(index + 1);
+    }
+
+    /**
+     * <p>
+     * Change this value history so the value at all points in time at or after a given point in time
+     * is equal to a given value.
+     * </p>
+     * <ul>
+     * <li>Setting the value from a given time does not change the values before the given point in time.</li>
+     * <li>The given value is the {@linkplain #getLastValueAsBoolean() last value}.</li>
+     * </ul>
+     *
+     * @throws NullPointerException If {@code when} is null
+     * @see ModifiableValueHistory#setValueFrom(Duration, Object)
+     */
+    public void setValueFrom(@Nonnull final Duration when, final boolean value) {
+        removeTransitionsFrom(when);
+        if (ValueHistory.START_OF_TIME.equals(when)) {
+            firstValue = value;
+        } else if (getLastValueAsBoolean() != value) {
+            appendTransitionUnchecked(when);
+        }
+    }
+
+    /**
+     * <p>
+     * Change this value history so the value at all points in time at or before a given point in time
+     * is equal to a given value.
+     * </p>
+     * <ul>
+     * <li>Setting the value until a given time does not change the values after the given point in time.</li>
+     * <li>The given value is the {@linkplain #getFirstValueAsBoolean() first value}.</li>
+     * </ul>
+     *
+     * @throws NullPointerException If {@code when} is null
+     * @see ModifiableValueHistory#setValueUntil(Duration, Object)
+     */
+    public void setValueUntil(@Nonnull final Duration when, final boolean value) {
+        Objects.requireNonNull(when, "when");
+        if (ValueHistory.END_OF_TIME.equals(when)) {
+            removeTransitions(0, getNumberOfTransitions());
+        } else {
+            final Duration justAfter = when.plusNanos(1L);
+            final boolean valueJustAfter = getAsBoolean(justAfter);
+            removeTransitions(0, indexOfFirstTransitionAfter(justAfter));
+            if (value != valueJustAfter) {
+                insertTransitionTime(0, justAfter);
+            }
+        }
+        firstValue = value;
+    }
+
+    /**
+     * <p>
+     * A view of this history as a {@link ValueHistory} of boxed values.
+     * </p>
+     * <ul>
+     * <li>The view incorporates any subsequent changes to this history.</li>
+     * <li>The view boxes values only when they are retrieved through it.</li>
+     * <li>The {@linkplain Object#hashCode() hash code} of the view is equal to the hash code of this history.</li>
+     * </ul>
+     */
+    @Nonnull
+    public ValueHistory<Boolean> asValueHistory() {
+        return new View();
+    }
+
+    /**
+     * <p>
+     * Whether this object is <dfn>equivalent</dfn> to another object.
+     * </p>
+     * <p>
+     * BooleanValueHistory objects have value semantics: they are equivalent if they have
+     * equal first values and equal transitions.
+     * </p>
+     */
+    @Override
+    public boolean equals(final Object that) {
+        if (this == that) {
+            return true;
+        }
+        if (!(that instanceof BooleanValueHistory)) {
+            return false;
+        }
+        final BooleanValueHistory other = (BooleanValueHistory) that;
+        return firstValue == other.firstValue && equalTransitionTimes(other);
+    }
+
+    /**
+     * <p>
+     * The hash code of this history, which is computed without boxing its values,
+     * and is equal to the hash code of the {@linkplain #asValueHistory() value history view} of this history.
+     * </p>
+     */
+    @Override
+    public int hashCode() {
+        return Boolean.hashCode(firstValue) + transitionsHashCode(i -> Boolean.hashCode(getTransitionValue(i)));
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " [" + firstValue + ", " + asValueHistory().getTransitions() + "]";
+    }
+
+    @Override
+    boolean equalValues(final int index1, final int index2) {
+        return valueAfterTransitions(index1 + 1) == valueAfterTransitions(index2 + 1);
+    }
+
+    @Override
+    void copyValue(final int source, final int destination) {
+        throw new UnsupportedOperationException("The values are implied");
+    }
+
+    @NotThreadSafe
+    private final class View extends AbstractValueHistory<Boolean> {
+
+        @Nonnull
+        @Override
+        public Boolean get(@Nonnull final Duration when) {
+            return getAsBoolean(when);
+        }
+
+        @Nonnull
+        @Override
+        public Boolean getFirstValue() {
+            return firstValue;
+        }
+
+        @Nonnull
+        @Override
+        public Boolean getLastValue() {
+            return getLastValueAsBoolean();
+        }
+
+        @Nullable
+        @Override
+        public Duration getFirstTransitionTime() {
+            return BooleanValueHistory.this.getFirstTransitionTime();
+        }
+
+        @Nullable
+        @Override
+        public Duration getLastTransitionTime() {
+            return BooleanValueHistory.this.getLastTransitionTime();
+        }
+
+        @Nullable
+        @Override
+        public Duration getTransitionTimeAtOrAfter(@Nonnull final Duration when) {
+            return BooleanValueHistory.this.getTransitionTimeAtOrAfter(when);
+        }
+
+        @Nonnull
+        @Override
+        public SortedMap<Duration, Boolean> getTransitions() {
+            final SortedMap<Duration, Boolean> transitions = new TreeMap<>();
+            for (int i = 0, n = getNumberOfTransitions(); i < n; ++i) {
+                transitions.put(getTransitionTime(i), getTransitionValue(i));
+            }
+            return transitions;
+        }
+
+        @Nonnull
+        @Override
+        public SortedSet<Duration> getTransitionTimes() {
+            return BooleanValueHistory.this.getTransitionTimes();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return BooleanValueHistory.this.isEmpty();
+        }
+
+        @Nonnull
+        @Override
+        public Stream<Map.Entry<Duration, Boolean>> streamOfTransitions() {
+            return IntStream.range(0, getNumberOfTransitions())
+                    .mapToObj(i -> new AbstractMap.SimpleImmutableEntry<>(getTransitionTime(i), getTransitionValue(i)));
+        }
+
+        @Nonnull
+        @Override
+        Iterator<Map.Entry<Duration, Boolean>> iteratorOfTransitions() {
+            return streamOfTransitions().iterator();
+        }
+
+        @Nonnull
+        private BooleanValueHistory getHistory() {
+            return BooleanValueHistory.this;
+        }
+
+        @Override
+        public boolean equals(final Object that) {
+            if (that instanceof BooleanValueHistory.View) {
+                // Optimisation
+                return getHistory().equals(((BooleanValueHistory.View) that).getHistory());
+            } else {
+                return super.equals(that);
+            }
+        }
+
+        @Override
+        public int hashCode() {
+            return BooleanValueHistory.this.hashCode();
+        }
+    }
+}
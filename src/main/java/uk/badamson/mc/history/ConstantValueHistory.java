@@ -61,11 +61,16 @@ public final class ConstantValueHistory<VALUE> extends AbstractValueHistory<VALU
         if (obj == null) {
             return false;
         }
-        if (!(obj instanceof ConstantValueHistory)) {
+        if (obj instanceof ConstantValueHistory) {
+            // Optimisation
+            final ConstantValueHistory<?> other = (ConstantValueHistory<?>) obj;
+            return Objects.equals(value, other.value);
+        } else if (obj instanceof ValueHistory) {
+            final ValueHistory<?> other = (ValueHistory<?>) obj;
+            return other.isEmpty() && Objects.equals(value, other.getFirstValue());
+        } else {
             return false;
         }
-        final ConstantValueHistory<?> other = (ConstantValueHistory<?>) obj;
-        return Objects.equals(value, other.value);
     }
 
     @Override
@@ -189,6 +194,57 @@ public final class ConstantValueHistory<VALUE> extends AbstractValueHistory<VALU
         return value == null ? 0 : value.hashCode();
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Furthermore, for the ConstantValueHistory type
+     * </p>
+     * <ul>
+     * <li>Returns this history, because it has the same value at all points in time.</li>
+     * </ul>
+     */
+    @Nonnull
+    @Override
+    public ValueHistory<VALUE> headHistory(@Nonnull final Duration to) {
+        requireValidRange(START_OF_TIME, to);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Furthermore, for the ConstantValueHistory type
+     * </p>
+     * <ul>
+     * <li>Returns this history, because it has the same value at all points in time.</li>
+     * </ul>
+     */
+    @Nonnull
+    @Override
+    public ValueHistory<VALUE> subHistory(@Nonnull final Duration from, @Nonnull final Duration to) {
+        requireValidRange(from, to);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Furthermore, for the ConstantValueHistory type
+     * </p>
+     * <ul>
+     * <li>Returns this history, because it has the same value at all points in time.</li>
+     * </ul>
+     */
+    @Nonnull
+    @Override
+    public ValueHistory<VALUE> tailHistory(@Nonnull final Duration from) {
+        Objects.requireNonNull(from, "from");
+        return this;
+    }
+
     /**
      * <p>
      * Whether this history is empty.
@@ -0,0 +1,588 @@
+package uk.badamson.mc.history;
+/*
+ * © Copyright Benedict Adamson 2022.
+ *
+ * This file is part of MC-des.
+ *
+ * MC-des is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC-des is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MC-des.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * <p>
+ * A modifiable history of a {@code double} value, which does not box its values.
+ * </p>
+ * <p>
+ * The values at the transitions are held in a {@code double[]} array, alongside an array of the transition times.
+ * Values are compared as if by {@link Double#compare(double, double)},
+ * which is consistent with {@link Double#equals(Object)}.
+ * Use the {@linkplain #asValueHistory() value history view} to use this history where a
+ * {@link ValueHistory} is required.
+ * </p>
+ * <p>
+ * The {@linkplain #integral(Duration, Duration) integral}, {@linkplain #timeAverage(Duration, Duration) time average},
+ * {@linkplain #min(Duration, Duration) minimum} and {@linkplain #max(Duration, Duration) maximum} of the value
+ * over a range of time are answered in O(log n) time, using an index of prefix integrals and
+ * segment trees of the values. The index is built when it is first needed, and thereafter brought up to date
+ * incrementally: only the transitions that have been added or moved since the previous query are re-indexed,
+ * so the usual pattern of appending transitions and querying recent windows costs O(log n) per transition.
+ * </p>
+ *
+ * @see ModifiableValueHistory
+ */
+@NotThreadSafe
+public final class DoubleValueHistory extends AbstractPrimitiveValueHistory<double[]> {
+
+    private double firstValue;
+
+    @Nullable
+    private AggregateIndex aggregateIndex;
+
+    /**
+     * <p>
+     * Construct a value history that has a given value for all points in time.
+     * </p>
+     * <ul>
+     * <li>The {@linkplain #getFirstValueAsDouble() first value} of this history is the given value.</li>
+     * <li>This history {@linkplain #isEmpty() is empty}.</li>
+     * </ul>
+     */
+    public DoubleValueHistory(final double value) {
+        super(double[]::new);
+        firstValue = value;
+    }
+
+    private static boolean equal(final double value1, final double value2) {
+        return Double.compare(value1, value2) == 0;
+    }
+
+    /**
+     * <p>
+     * The length of time from one point in time to another, in seconds.
+     * </p>
+     * <p>
+     * Computed in floating point, so it can not overflow, even for the
+     * {@linkplain ValueHistory#START_OF_TIME start} and {@linkplain ValueHistory#END_OF_TIME end} of time.
+     * </p>
+     */
+    private static double secondsBetween(@Nonnull final Duration from, @Nonnull final Duration to) {
+        return ((double) to.getSeconds() - from.getSeconds()) + (to.getNano() - from.getNano()) * 1E-9;
+    }
+
+    /**
+     * <p>
+     * The value of this history at a given point in time.
+     * </p>
+     *
+     * @throws NullPointerException If {@code when} is null
+     * @see ValueHistory#get(Duration)
+     */
+    public double getAsDouble(@Nonnull final Duration when) {
+        Objects.requireNonNull(when, "when");
+        return getValue(indexOfValueAt(when));
+    }
+
+    /**
+     * <p>
+     * The value of this history at the start of time.
+     * </p>
+     *
+     * @see ValueHistory#getFirstValue()
+     */
+    public double getFirstValueAsDouble() {
+        return firstValue;
+    }
+
+    /**
+     * <p>
+     * The value of this history at the end of time.
+     * </p>
+     *
+     * @see ValueHistory#getLastValue()
+     */
+    public double getLastValueAsDouble() {
+        return getValue(indexOfLastValue());
+    }
+
+    private double getValue(final int index) {
+        return index == FIRST_VALUE ? firstValue : values[index];
+    }
+
+    /**
+     * <p>
+     * Append a value transition to this history of value transitions.
+     * </p>
+     * <ul>
+     * <li>Appending a transition increments the {@linkplain #getNumberOfTransitions() number of transitions}.</li>
+     * <li>The given point in time becomes the {@linkplain #getLastTransitionTime() last transition time}.</li>
+     * <li>The given value becomes the {@linkplain #getLastValueAsDouble() last value}.</li>
+     * </ul>
+     *
+     * @throws NullPointerException  If {@code when} is null
+     * @throws IllegalStateException If
+     *                               <ul>
+     *                                   <li>{@code when} is at or before the {@linkplain #getLastTransitionTime() last transition time}.</li>
+     *                                   <li>{@code value} is equal to the {@linkplain #getLastValueAsDouble() last value}.</li>
+     *                               </ul>
+     *                               This history is unchanged if the method throws IllegalStateException.
+     * @see ModifiableValueHistory#appendTransition(Duration, Object)
+     */
+    public void appendTransition(@Nonnull final Duration when, final double value) throws IllegalStateException {
+        Objects.requireNonNull(when, "when");
+        requireAfterLastTransition(when);
+        if (equal(getLastValueAsDouble(), value)) {
+            throw new IllegalStateException("Equal values");
+        }
+        final int index = appendTransitionTime(when);
+        values[index] = value;
+    }
+
+    /**
+     * <p>
+     * Change this value history so the value at all points in time at or after a given point in time
+     * is equal to a given value.
+     * </p>
+     * <ul>
+     * <li>Setting the value from a given time does not change the values before the given point in time.</li>
+     * <li>The given value is the {@linkplain #getLastValueAsDouble() last value}.</li>
+     * </ul>
+     *
+     * @throws NullPointerException If {@code when} is null
+     * @see ModifiableValueHistory#setValueFrom(Duration, Object)
+     */
+    public void setValueFrom(@Nonnull final Duration when, final double value) {
+        final int index = prepareToSetValueFrom(when);
+        if (index == FIRST_VALUE) {
+            firstValue = value;
+        } else {
+            values[index] = value;
+        }
+        removeRedundantLastTransition();
+    }
+
+    /**
+     * <p>
+     * Change this value history so the value at all points in time at or before a given point in time
+     * is equal to a given value.
+     * </p>
+     * <ul>
+     * <li>Setting the value until a given time does not change the values after the given point in time.</li>
+     * <li>The given value is the {@linkplain #getFirstValueAsDouble() first value}.</li>
+     * </ul>
+     *
+     * @throws NullPointerException If {@code when} is null
+     * @see ModifiableValueHistory#setValueUntil(Duration, Object)
+     */
+    public void setValueUntil(@Nonnull final Duration when, final double value) {
+        prepareToSetValueUntil(when);
+        firstValue = value;
+        removeRedundantFirstTransition();
+    }
+
+    /**
+     * <p>
+     * The integral of the value of this history over a range of time.
+     * </p>
+     * <ul>
+     * <li>The integral is with respect to time measured in seconds.</li>
+     * <li>The integral is over the time range from {@code from} (inclusive) to {@code to} (exclusive).</li>
+     * <li>The method takes O(log n) time, once the index of this history is up to date.</li>
+     * </ul>
+     *
+     * @throws NullPointerException     If {@code from} or {@code to} is null
+     * @throws IllegalArgumentException If {@code from} is not {@linkplain Duration#compareTo(Duration) before}
+     *                                  {@code to}.
+     */
+    public double integral(@Nonnull final Duration from, @Nonnull final Duration to) {
+        AbstractValueHistory.requireValidRange(from, to);
+        final int first = indexOfFirstTransitionAfter(from);
+        final int last = indexOfFirstTransitionAfter(to);
+        final double valueAtFrom = getValue(first - 1);
+        if (first == last) {
+            return valueAtFrom * secondsBetween(from, to);
+        } else {
+            final AggregateIndex index = getAggregateIndex();
+            return valueAtFrom * secondsBetween(from, getTransitionTime(first))
+                    + (index.prefixIntegrals[last - 1] - index.prefixIntegrals[first])
+                    + values[last - 1] * secondsBetween(getTransitionTime(last - 1), to);
+        }
+    }
+
+    /**
+     * <p>
+     * The time-weighted average of the value of this history over a range of time.
+     * </p>
+     * <ul>
+     * <li>The time average is the {@linkplain #integral(Duration, Duration) integral} over the range,
+     * divided by the length of the range, in seconds.</li>
+     * <li>The method takes O(log n) time, once the index of this history is up to date.</li>
+     * </ul>
+     *
+     * @throws NullPointerException     If {@code from} or {@code to} is null
+     * @throws IllegalArgumentException If {@code from} is not {@linkplain Duration#compareTo(Duration) before}
+     *                                  {@code to}.
+     */
+    public double timeAverage(@Nonnull final Duration from, @Nonnull final Duration to) {
+        return integral(from, to) / secondsBetween(from, to);
+    }
+
+    /**
+     * <p>
+     * The smallest value of this history over a range of time.
+     * </p>
+     * <ul>
+     * <li>The range is from {@code from} (inclusive) to {@code to} (exclusive).</li>
+     * <li>The minimum is computed as if by {@link Math#min(double, double)},
+     * so it is NaN if the value is NaN at any time in the range.</li>
+     * <li>The method takes O(log n) time, once the index of this history is up to date.</li>
+     * </ul>
+     *
+     * @throws NullPointerException     If {@code from} or {@code to} is null
+     * @throws IllegalArgumentException If {@code from} is not {@linkplain Duration#compareTo(Duration) before}
+     *                                  {@code to}.
+     */
+    public double min(@Nonnull final Duration from, @Nonnull final Duration to) {
+        AbstractValueHistory.requireValidRange(from, to);
+        final int first = indexOfFirstTransitionAfter(from);
+        final int last = indexOfFirstTransitionAtOrAfter(to);
+        final double valueAtFrom = getValue(first - 1);
+        if (first < last) {
+            return Math.min(valueAtFrom, getAggregateIndex().min(first, last));
+        } else {
+            return valueAtFrom;
+        }
+    }
+
+    /**
+     * <p>
+     * The largest value of this history over a range of time.
+     * </p>
+     * <ul>
+     * <li>The range is from {@code from} (inclusive) to {@code to} (exclusive).</li>
+     * <li>The maximum is computed as if by {@link Math#max(double, double)},
+     * so it is NaN if the value is NaN at any time in the range.</li>
+     * <li>The method takes O(log n) time, once the index of this history is up to date.</li>
+     * </ul>
+     *
+     * @throws NullPointerException     If {@code from} or {@code to} is null
+     * @throws IllegalArgumentException If {@code from} is not {@linkplain Duration#compareTo(Duration) before}
+     *                                  {@code to}.
+     */
+    public double max(@Nonnull final Duration from, @Nonnull final Duration to) {
+        AbstractValueHistory.requireValidRange(from, to);
+        final int first = indexOfFirstTransitionAfter(from);
+        final int last = indexOfFirstTransitionAtOrAfter(to);
+        final double valueAtFrom = getValue(first - 1);
+        if (first < last) {
+            return Math.max(valueAtFrom, getAggregateIndex().max(first, last));
+        } else {
+            return valueAtFrom;
+        }
+    }
+
+    @Nonnull
+    private AggregateIndex getAggregateIndex() {
+        if (aggregateIndex == null) {
+            aggregateIndex = new AggregateIndex();
+        }
+        aggregateIndex.update();
+        return aggregateIndex;
+    }
+
+    /**
+     * <p>
+     * A view of this history as a {@link ValueHistory} of boxed values.
+     * </p>
+     * <ul>
+     * <li>The view incorporates any subsequent changes to this history.</li>
+     * <li>The view boxes values only when they are retrieved through it.</li>
+     * <li>The {@linkplain Object#hashCode() hash code} of the view is equal to the hash code of this history.</li>
+     * </ul>
+     */
+    @Nonnull
+    public ValueHistory<Double> asValueHistory() {
+        return new View();
+    }
+
+    /**
+     * <p>
+     * Whether this object is <dfn>equivalent</dfn> to another object.
+     * </p>
+     * <p>
+     * DoubleValueHistory objects have value semantics: they are equivalent if they have
+     * equal first values and equal transitions.
+     * </p>
+     */
+    @Override
+    public boolean equals(final Object that) {
+        if (this == that) {
+            return true;
+        }
+        if (!(that instanceof DoubleValueHistory)) {
+            return false;
+        }
+        final DoubleValueHistory other = (DoubleValueHistory) that;
+        final int nTransitions = getNumberOfTransitions();
+        return equal(firstValue, other.firstValue) && equalTransitionTimes(other)
+                && Arrays.equals(values, 0, nTransitions, other.values, 0, nTransitions);
+    }
+
+    /**
+     * <p>
+     * The hash code of this history, which is computed without boxing its values,
+     * and is equal to the hash code of the {@linkplain #asValueHistory() value history view} of this history.
+     * </p>
+     */
+    @Override
+    public int hashCode() {
+        return Double.hashCode(firstValue) + transitionsHashCode(i -> Double.hashCode(values[i]));
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " [" + firstValue + ", " + asValueHistory().getTransitions() + "]";
+    }
+
+    @Override
+    boolean equalValues(final int index1, final int index2) {
+        return equal(getValue(index1), getValue(index2));
+    }
+
+    @Override
+    void copyValue(final int source, final int destination) {
+        final double value = getValue(source);
+        if (destination == FIRST_VALUE) {
+            firstValue = value;
+        } else {
+            values[destination] = value;
+        }
+    }
+
+    @Override
+    void transitionsChangedFrom(final int index) {
+        if (aggregateIndex != null) {
+            aggregateIndex.invalidateFrom(index);
+        }
+    }
+
+    /**
+     * <p>
+     * Prefix integrals and min and max segment trees of the values at the transitions.
+     * </p>
+     * <p>
+     * The entries for the first {@link #nIndexed} transitions are up to date;
+     * the {@link #update()} method recomputes the entries for later transitions.
+     * The segment trees are iterative (bottom up) trees, with the leaves at indices from {@link #nLeaves}.
+     * Leaves at or after the number of transitions might hold stale values,
+     * but a tree node that covers only up-to-date leaves is always up to date,
+     * and queries use only such nodes.
+     * </p>
+     */
+    @NotThreadSafe
+    private final class AggregateIndex {
+
+        private double[] prefixIntegrals = new double[0];
+        private double[] minTree = new double[0];
+        private double[] maxTree = new double[0];
+        private int nLeaves;
+        private int nIndexed;
+
+        void invalidateFrom(final int index) {
+            nIndexed = Math.min(nIndexed, index);
+        }
+
+        void update() {
+            final int nTransitions = getNumberOfTransitions();
+            if (nLeaves < nTransitions) {
+                grow(nTransitions);
+            }
+            for (int i = nIndexed; i < nTransitions; ++i) {
+                prefixIntegrals[i] = i == 0 ? 0.0
+                        : prefixIntegrals[i - 1] + values[i - 1] * secondsBetween(getTransitionTime(i - 1), getTransitionTime(i));
+                setLeaf(i, values[i]);
+            }
+            nIndexed = nTransitions;
+        }
+
+        private void grow(final int capacity) {
+            int newNLeaves = Math.max(1, nLeaves);
+            while (newNLeaves < capacity) {
+                newNLeaves *= 2;
+            }
+            prefixIntegrals = Arrays.copyOf(prefixIntegrals, newNLeaves);
+            minTree = new double[2 * newNLeaves];
+            maxTree = new double[2 * newNLeaves];
+            nLeaves = newNLeaves;
+            /* Rebuilding costs O(n), but the capacity doubles, so the amortised cost is O(1) per transition. */
+            System.arraycopy(values, 0, minTree, nLeaves, nIndexed);
+            System.arraycopy(values, 0, maxTree, nLeaves, nIndexed);
+            for (int node = nLeaves - 1; 0 < node; --node) {
+                minTree[node] = Math.min(minTree[2 * node], minTree[2 * node + 1]);
+                maxTree[node] = Math.max(maxTree[2 * node], maxTree[2 * node + 1]);
+            }
+        }
+
+        private void setLeaf(final int index, final double value) {
+            int node = nLeaves + index;
+            minTree[node] = value;
+            maxTree[node] = value;
+            for (node >>>= 1; 0 < node; node >>>= 1) {
+                minTree[node] = Math.min(minTree[2 * node], minTree[2 * node + 1]);
+                maxTree[node] = Math.max(maxTree[2 * node], maxTree[2 * node + 1]);
+            }
+        }
+
+        /**
+         * <p>
+         * The smallest of the values at the transitions with indices from {@code from} (inclusive)
+         * to {@code to} (exclusive), which must be a non-empty range.
+         * </p>
+         */
+        double min(final int from, final int to) {
+            assert from < to && to <= nIndexed;
+            double result = Double.POSITIVE_INFINITY;
+            for (int low = from + nLeaves, high = to + nLeaves; low < high; low >>>= 1, high >>>= 1) {
+                if ((low & 1) == 1) {
+                    result = Math.min(result, minTree[low++]);
+                }
+                if ((high & 1) == 1) {
+                    result = Math.min(result, minTree[--high]);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * <p>
+         * The largest of the values at the transitions with indices from {@code from} (inclusive)
+         * to {@code to} (exclusive), which must be a non-empty range.
+         * </p>
+         */
+        double max(final int from, final int to) {
+            assert from < to && to <= nIndexed;
+            double result = Double.NEGATIVE_INFINITY;
+            for (int low = from + nLeaves, high = to + nLeaves; low < high; low >>>= 1, high >>>= 1) {
+                if ((low & 1) == 1) {
+                    result = Math.max(result, maxTree[low++]);
+                }
+                if ((high & 1) == 1) {
+                    result = Math.max(result, maxTree[--high]);
+                }
+            }
+            return result;
+        }
+    }
+
+    @NotThreadSafe
+    private final class View extends AbstractValueHistory<Double> {
+
+        @Nonnull
+        @Override
+        public Double get(@Nonnull final Duration when) {
+            return getAsDouble(when);
+        }
+
+        @Nonnull
+        @Override
+        public Double getFirstValue() {
+            return firstValue;
+        }
+
+        @Nonnull
+        @Override
+        public Double getLastValue() {
+            return getLastValueAsDouble();
+        }
+
+        @Nullable
+        @Override
+        public Duration getFirstTransitionTime() {
+            return DoubleValueHistory.this.getFirstTransitionTime();
+        }
+
+        @Nullable
+        @Override
+        public Duration getLastTransitionTime() {
+            return DoubleValueHistory.this.getLastTransitionTime();
+        }
+
+        @Nullable
+        @Override
+        public Duration getTransitionTimeAtOrAfter(@Nonnull final Duration when) {
+            return DoubleValueHistory.this.getTransitionTimeAtOrAfter(when);
+        }
+
+        @Nonnull
+        @Override
+        public SortedMap<Duration, Double> getTransitions() {
+            final SortedMap<Duration, Double> transitions = new TreeMap<>();
+            for (int i = 0, n = getNumberOfTransitions(); i < n; ++i) {
+                transitions.put(getTransitionTime(i), values[i]);
+            }
+            return transitions;
+        }
+
+        @Nonnull
+        @Override
+        public SortedSet<Duration> getTransitionTimes() {
+            return DoubleValueHistory.this.getTransitionTimes();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return DoubleValueHistory.this.isEmpty();
+        }
+
+        @Nonnull
+        @Override
+        public Stream<Map.Entry<Duration, Double>> streamOfTransitions() {
+            return IntStream.range(0, getNumberOfTransitions())
+                    .mapToObj(i -> new AbstractMap.SimpleImmutableEntry<>(getTransitionTime(i), values[i]));
+        }
+
+        @Nonnull
+        @Override
+        Iterator<Map.Entry<Duration, Double>> iteratorOfTransitions() {
+            return streamOfTransitions().iterator();
+        }
+
+        @Nonnull
+        private DoubleValueHistory getHistory() {
+            return DoubleValueHistory.this;
+        }
+
+        @Override
+        public boolean equals(final Object that) {
+            if (that instanceof DoubleValueHistory.View) {
+                // Optimisation
+                return getHistory().equals(((DoubleValueHistory.View) that).getHistory());
+            } else {
+                return super.equals(that);
+            }
+        }
+
+        @Override
+        public int hashCode() {
+            return DoubleValueHistory.this.hashCode();
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package uk.badamson.mc.history;
+/*
+ * © Copyright Benedict Adamson 2022.
+ *
+ * This file is part of MC-des.
+ *
+ * MC-des is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC-des is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MC-des.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * <p>
+ * A modifiable history of a {@code long} value, which does not box its values.
+ * </p>
+ * <p>
+ * The values at the transitions are held in a {@code long[]} array, alongside an array of the transition times.
+ * Values are compared as if by {@link Long#compare(long, long)},
+ * which is consistent with {@link Long#equals(Object)}.
+ * Use the {@linkplain #asValueHistory() value history view} to use this history where a
+ * {@link ValueHistory} is required.
+ * </p>
+ *
+ * @see ModifiableValueHistory
+ */
+@NotThreadSafe
+public final class LongValueHistory extends AbstractPrimitiveValueHistory<long[]> {
+
+    private long firstValue;
+
+    /**
+     * <p>
+     * Construct a value history that has a given value for all points in time.
+     * </p>
+     * <ul>
+     * <li>The {@linkplain #getFirstValueAsLong() first value} of this history is the given value.</li>
+     * <li>This history {@linkplain #isEmpty() is empty}.</li>
+     * </ul>
+     */
+    public LongValueHistory(final long value) {
+        super(long[]::new);
+        firstValue = value;
+    }
+
+    private static boolean equal(final long value1, final long value2) {
+        return Long.compare(value1, value2) == 0;
+    }
+
+    /**
+     * <p>
+     * The value of this history at a given point in time.
+     * </p>
+     *
+     * @throws NullPointerException If {@code when} is null
+     * @see ValueHistory#get(Duration)
+     */
+    public long getAsLong(@Nonnull final Duration when) {
+        Objects.requireNonNull(when, "when");
+        return getValue(indexOfValueAt(when));
+    }
+
+    /**
+     * <p>
+     * The value of this history at the start of time.
+     * </p>
+     *
+     * @see ValueHistory#getFirstValue()
+     */
+    public long getFirstValueAsLong() {
+        return firstValue;
+    }
+
+    /**
+     * <p>
+     * The value of this history at the end of time.
+     * </p>
+     *
+     * @see ValueHistory#getLastValue()
+     */
+    public long getLastValueAsLong() {
+        return getValue(indexOfLastValue());
+    }
+
+    private long getValue(final int index) {
+        return index == FIRST_VALUE ? firstValue : values[index];
+    }
+
+    /**
+     * <p>
+     * Append a value transition to this history of value transitions.
+     * </p>
+     * <ul>
+     * <li>Appending a transition increments the {@linkplain #getNumberOfTransitions() number of transitions}.</li>
+     * <li>The given point in time becomes the {@linkplain #getLastTransitionTime() last transition time}.</li>
+     * <li>The given value becomes the {@linkplain #getLastValueAsLong() last value}.</li>
+     * </ul>
+     *
+     * @throws NullPointerException  If {@code when} is null
+     * @throws IllegalStateException If
+     *                               <ul>
+     *                                   <li>{@code when} is at or before the {@linkplain #getLastTransitionTime() last transition time}.</li>
+     *                                   <li>{@code value} is equal to the {@linkplain #getLastValueAsLong() last value}.</li>
+     *                               </ul>
+     *                               This history is unchanged if the method throws IllegalStateException.
+     * @see ModifiableValueHistory#appendTransition(Duration, Object)
+     */
+    public void appendTransition(@Nonnull final Duration when, final long value) throws IllegalStateException {
+        Objects.requireNonNull(when, "when");
+        requireAfterLastTransition(when);
+        if (equal(getLastValueAsLong(), value)) {
+            throw new IllegalStateException("Equal values");
+        }
+        final int index = appendTransitionTime(when);
+        values[index] = value;
+    }
+
+    /**
+     * <p>
+     * Change this value history so the value at all points in time at or after a given point in time
+     * is equal to a given value.
+     * </p>
+     * <ul>
+     * <li>Setting the value from a given time does not change the values before the given point in time.</li>
+     * <li>The given value is the {@linkplain #getLastValueAsLong() last value}.</li>
+     * </ul>
+     *
+     * @throws NullPointerException If {@code when} is null
+     * @see ModifiableValueHistory#setValueFrom(Duration, Object)
+     */
+    public void setValueFrom(@Nonnull final Duration when, final long value) {
+        final int index = prepareToSetValueFrom(when);
+        if (index == FIRST_VALUE) {
+            firstValue = value;
+        } else {
+            values[index] = value;
+        }
+        removeRedundantLastTransition();
+    }
+
+    /**
+     * <p>
+     * Change this value history so the value at all points in time at or before a given point in time
+     * is equal to a given value.
+     * </p>
+     * <ul>
+     * <li>Setting the value until a given time does not change the values after the given point in time.</li>
+     * <li>The given value is the {@linkplain #getFirstValueAsLong() first value}.</li>
+     * </ul>
+     *
+     * @throws NullPointerException If {@code when} is null
+     * @see ModifiableValueHistory#setValueUntil(Duration, Object)
+     */
+    public void setValueUntil(@Nonnull final Duration when, final long value) {
+        prepareToSetValueUntil(when);
+        firstValue = value;
+        removeRedundantFirstTransition();
+    }
+
+    /**
+     * <p>
+     * A view of this history as a {@link ValueHistory} of boxed values.
+     * </p>
+     * <ul>
+     * <li>The view incorporates any subsequent changes to this history.</li>
+     * <li>The view boxes values only when they are retrieved through it.</li>
+     * <li>The {@linkplain Object#hashCode() hash code} of the view is equal to the hash code of this history.</li>
+     * </ul>
+     */
+    @Nonnull
+    public ValueHistory<Long> asValueHistory() {
+        return new View();
+    }
+
+    /**
+     * <p>
+     * Whether this object is <dfn>equivalent</dfn> to another object.
+     * </p>
+     * <p>
+     * LongValueHistory objects have value semantics: they are equivalent if they have
+     * equal first values and equal transitions.
+     * </p>
+     */
+    @Override
+    public boolean equals(final Object that) {
+        if (this == that) {
+            return true;
+        }
+        if (!(that instanceof LongValueHistory)) {
+            return false;
+        }
+        final LongValueHistory other = (LongValueHistory) that;
+        final int nTransitions = getNumberOfTransitions();
+        return equal(firstValue, other.firstValue) && equalTransitionTimes(other)
+                && Arrays.equals(values, 0, nTransitions, other.values, 0, nTransitions);
+    }
+
+    /**
+     * <p>
+     * The hash code of this history, which is computed without boxing its values,
+     * and is equal to the hash code of the {@linkplain #asValueHistory() value history view} of this history.
+     * </p>
+     */
+    @Override
+    public int hashCode() {
+        return Long.hashCode(firstValue) + transitionsHashCode(i -> Long.hashCode(values[i]));
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " [" + firstValue + ", " + asValueHistory().getTransitions() + "]";
+    }
+
+    @Override
+    boolean equalValues(final int index1, final int index2) {
+        return equal(getValue(index1), getValue(index2));
+    }
+
+    @Override
+    void copyValue(final int source, final int destination) {
+        final long value = getValue(source);
+        if (destination == FIRST_VALUE) {
+            firstValue = value;
+        } else {
+            values[destination] = value;
+        }
+    }
+
+    @NotThreadSafe
+    private final class View extends AbstractValueHistory<Long> {
+
+        @Nonnull
+        @Override
+        public Long get(@Nonnull final Duration when) {
+            return getAsLong(when);
+        }
+
+        @Nonnull
+        @Override
+        public Long getFirstValue() {
+            return firstValue;
+        }
+
+        @Nonnull
+        @Override
+        public Long getLastValue() {
+            return getLastValueAsLong();
+        }
+
+        @Nullable
+        @Override
+        public Duration getFirstTransitionTime() {
+            return LongValueHistory.this.getFirstTransitionTime();
+        }
+
+        @Nullable
+        @Override
+        public Duration getLastTransitionTime() {
+            return LongValueHistory.this.getLastTransitionTime();
+        }
+
+        @Nullable
+        @Override
+        public Duration getTransitionTimeAtOrAfter(@Nonnull final Duration when) {
+            return LongValueHistory.this.getTransitionTimeAtOrAfter(when);
+        }
+
+        @Nonnull
+        @Override
+        public SortedMap<Duration, Long> getTransitions() {
+            final SortedMap<Duration, Long> transitions = new TreeMap<>();
+            for (int i = 0, n = getNumberOfTransitions(); i < n; ++i) {
+                transitions.put(getTransitionTime(i), values[i]);
+            }
+            return transitions;
+        }
+
+        @Nonnull
+        @Override
+        public SortedSet<Duration> getTransitionTimes() {
+            return LongValueHistory.this.getTransitionTimes();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return LongValueHistory.this.isEmpty();
+        }
+
+        @Nonnull
+        @Override
+        public Stream<Map.Entry<Duration, Long>> streamOfTransitions() {
+            return IntStream.range(0, getNumberOfTransitions())
+                    .mapToObj(i -> new AbstractMap.SimpleImmutableEntry<>(getTransitionTime(i), values[i]));
+        }
+
+        @Nonnull
+        @Override
+        Iterator<Map.Entry<Duration, Long>> iteratorOfTransitions() {
+            return streamOfTransitions().iterator();
+        }
+
+        @Nonnull
+        private LongValueHistory getHistory() {
+            return LongValueHistory.this;
+        }
+
+        @Override
+        public boolean equals(final Object that) {
+            if (that instanceof LongValueHistory.View) {
+                // Optimisation
+                return getHistory().equals(((LongValueHistory.View) that).getHistory());
+            } else {
+                return super.equals(that);
+            }
+        }
+
+        @Override
+        public int hashCode() {
+            return LongValueHistory.this.hashCode();
+        }
+    }
+}
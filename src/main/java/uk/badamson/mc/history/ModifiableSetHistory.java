@@ -32,6 +32,10 @@ import java.util.stream.Stream;
  * The modifiable time-wise variation of a set of values that changes at discrete
  * points in time.
  * </p>
+ * <p>
+ * The membership of each value is recorded as a {@link BooleanValueHistory},
+ * so querying membership does not box values.
+ * </p>
  *
  * @param <VALUE> The class of values of this set history. This must be {@link Immutable immutable}, or have reference semantics.
  * @see ModifiableValueHistory
@@ -43,7 +47,14 @@ public final class ModifiableSetHistory<VALUE> extends AbstractValueHistory<Set<
 
     private final Set<VALUE> firstValue = new HashSet<>();
 
-    private final Map<VALUE, ModifiableValueHistory<Boolean>> containsMap = new HashMap<>();
+    private final Map<VALUE, BooleanValueHistory> containsMap = new HashMap<>();
+
+    /**
+     * The cached {@linkplain #hashCode() hash code}, or null if it must be recomputed
+     * because this history has changed since it was last computed.
+     */
+    @Nullable
+    private Integer cachedHashCode;
 
     /**
      * <p>
@@ -74,17 +85,18 @@ public final class ModifiableSetHistory<VALUE> extends AbstractValueHistory<Set<
      * is at or before the given time.</li>
      * </ul>
      *
-     * @see ModifiableValueHistory#setValueFrom(Duration, Object)
+     * @see BooleanValueHistory#setValueFrom(Duration, boolean)
      * @see Set#add(Object)
      */
     public void addFrom(@Nonnull final Duration when, @Nullable final VALUE value) {
         Objects.requireNonNull(when, "when");
         var c = containsMap.get(value);
         if (c == null) {
-            c = new ModifiableValueHistory<>(Boolean.FALSE);
+            c = new BooleanValueHistory(false);
             containsMap.put(value, c);
         }
-        c.setValueFrom(when, Boolean.TRUE);
+        c.setValueFrom(when, true);
+        cachedHashCode = null;
     }
 
     /**
@@ -107,25 +119,26 @@ public final class ModifiableSetHistory<VALUE> extends AbstractValueHistory<Set<
      * time} after the given time.</li>
      * </ul>
      *
-     * @see ModifiableValueHistory#setValueUntil(Duration, Object)
+     * @see BooleanValueHistory#setValueUntil(Duration, boolean)
      * @see Set#add(Object)
      */
     public void addUntil(@Nonnull final Duration when, @Nullable final VALUE value) {
         Objects.requireNonNull(when, "when");
         var c = containsMap.get(value);
         if (c == null) {
-            c = new ModifiableValueHistory<>(Boolean.FALSE);
+            c = new BooleanValueHistory(false);
             containsMap.put(value, c);
         }
-        c.setValueUntil(when, Boolean.TRUE);
+        c.setValueUntil(when, true);
         firstValue.add(value);
+        cachedHashCode = null;
     }
 
     @Nonnull
     @Override
     public ValueHistory<Boolean> contains(@Nullable final VALUE value) {
         final var c = containsMap.get(value);
-        return c == null ? ABSENT : c;
+        return c == null ? ABSENT : c.asValueHistory();
     }
 
     @Override
@@ -148,7 +161,7 @@ public final class ModifiableSetHistory<VALUE> extends AbstractValueHistory<Set<
     @Override
     public Set<VALUE> get(@Nonnull final Duration when) {
         Objects.requireNonNull(when, "when");
-        return containsMap.entrySet().stream().filter(e -> e.getValue().get(when))
+        return containsMap.entrySet().stream().filter(e -> e.getValue().getAsBoolean(when))
                 .map(Map.Entry::getKey).collect(Collectors.toSet());
     }
 
@@ -163,7 +176,7 @@ public final class ModifiableSetHistory<VALUE> extends AbstractValueHistory<Set<
     @Nullable
     @Override
     public Duration getFirstTransitionTime() {
-        return containsMap.values().stream().map(ModifiableValueHistory::getFirstTransitionTime)
+        return containsMap.values().stream().map(BooleanValueHistory::getFirstTransitionTime)
                 .filter(Objects::nonNull)
                 .min(Comparator.naturalOrder()).orElse(null);
     }
@@ -177,7 +190,7 @@ public final class ModifiableSetHistory<VALUE> extends AbstractValueHistory<Set<
     @Nullable
     @Override
     public Duration getLastTransitionTime() {
-        return containsMap.values().stream().map(ModifiableValueHistory::getLastTransitionTime)
+        return containsMap.values().stream().map(BooleanValueHistory::getLastTransitionTime)
                 .filter(Objects::nonNull)
                 .max(Comparator.naturalOrder()).orElse(null);
     }
@@ -211,9 +224,48 @@ public final class ModifiableSetHistory<VALUE> extends AbstractValueHistory<Set<
         return new HashSet<>(containsMap.keySet());
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Furthermore, for the ModifiableSetHistory type
+     * </p>
+     * <ul>
+     * <li>The hash code is cached until this history is next modified.</li>
+     * <li>Computing the hash code does not require construction of the
+     * {@linkplain #get(Duration) set of values} at each transition.</li>
+     * </ul>
+     */
     @Override
     public int hashCode() {
-        return getFirstValue().hashCode() + streamOfTransitions().mapToInt(Map.Entry::hashCode).sum();
+        if (cachedHashCode == null) {
+            cachedHashCode = computeHashCode();
+        }
+        return cachedHashCode;
+    }
+
+    private int computeHashCode() {
+        /* The hash code of a set is the sum of the hash codes of its elements,
+         * so the hash code of the set at each transition time can be accumulated
+         * from the changes in the sums at each transition time.
+         */
+        final NavigableMap<Duration, Integer> changesOfSetHashCode = new TreeMap<>();
+        for (final var entry : containsMap.entrySet()) {
+            final int elementHashCode = Objects.hashCode(entry.getKey());
+            final BooleanValueHistory c = entry.getValue();
+            for (int i = 0, n = c.getNumberOfTransitions(); i < n; ++i) {
+                changesOfSetHashCode.merge(c.getTransitionTime(i),
+                        c.getTransitionValue(i) ? elementHashCode : -elementHashCode,
+                        Integer::sum);
+            }
+        }
+        int setHashCode = firstValue.hashCode();
+        int result = setHashCode;
+        for (final var change : changesOfSetHashCode.entrySet()) {
+            setHashCode += change.getValue();
+            result += change.getKey().hashCode() ^ setHashCode;
+        }
+        return result;
     }
 
     @Override
@@ -240,6 +292,7 @@ public final class ModifiableSetHistory<VALUE> extends AbstractValueHistory<Set<
     public void remove(@Nullable final VALUE value) {
         containsMap.remove(value);
         firstValue.remove(value);
+        cachedHashCode = null;
     }
 
     @Nonnull
@@ -249,8 +302,186 @@ public final class ModifiableSetHistory<VALUE> extends AbstractValueHistory<Set<
     }
 
     private Stream<Duration> streamOfTransitionTimes() {
-        return containsMap.values().stream().flatMap(ModifiableValueHistory::streamOfTransitions)
-                .map(Map.Entry::getKey);
+        return containsMap.values().stream().flatMap(BooleanValueHistory::streamOfTransitionTimes);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Furthermore, for the ModifiableSetHistory type
+     * </p>
+     * <ul>
+     * <li>The head history is a {@link SetHistory}.</li>
+     * <li>The head history is backed by head history views of the
+     * {@linkplain #contains(Object) contains histories} of this set history.</li>
+     * </ul>
+     */
+    @Nonnull
+    @Override
+    public SetHistory<VALUE> headHistory(@Nonnull final Duration to) {
+        requireValidRange(START_OF_TIME, to);
+        return new SubHistory(START_OF_TIME, to);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Furthermore, for the ModifiableSetHistory type
+     * </p>
+     * <ul>
+     * <li>The sub history is a {@link SetHistory}.</li>
+     * <li>The sub history is backed by sub history views of the
+     * {@linkplain #contains(Object) contains histories} of this set history.</li>
+     * </ul>
+     */
+    @Nonnull
+    @Override
+    public SetHistory<VALUE> subHistory(@Nonnull final Duration from, @Nonnull final Duration to) {
+        requireValidRange(from, to);
+        return new SubHistory(from, to);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Furthermore, for the ModifiableSetHistory type
+     * </p>
+     * <ul>
+     * <li>The tail history is a {@link SetHistory}.</li>
+     * <li>The tail history is backed by tail history views of the
+     * {@linkplain #contains(Object) contains histories} of this set history.</li>
+     * </ul>
+     */
+    @Nonnull
+    @Override
+    public SetHistory<VALUE> tailHistory(@Nonnull final Duration from) {
+        Objects.requireNonNull(from, "from");
+        return new SubHistory(from, null);
+    }
+
+    /**
+     * <p>
+     * A view of the part of this set history within a range of time,
+     * backed by the corresponding views of the {@linkplain #contains(Object) contains histories}.
+     * </p>
+     */
+    @NotThreadSafe
+    private final class SubHistory extends AbstractValueHistory<Set<VALUE>> implements SetHistory<VALUE> {
+
+        @Nonnull
+        private final Duration from;
+
+        /**
+         * Null if the range is unbounded above.
+         */
+        @Nullable
+        private final Duration to;
+
+        SubHistory(@Nonnull final Duration from, @Nullable final Duration to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Nonnull
+        private ValueHistory<Boolean> restrict(@Nonnull final ValueHistory<Boolean> c) {
+            return to == null ? c.tailHistory(from) : c.subHistory(from, to);
+        }
+
+        @Nonnull
+        @Override
+        public ValueHistory<Boolean> contains(@Nullable final VALUE value) {
+            return restrict(ModifiableSetHistory.this.contains(value));
+        }
+
+        @Nonnull
+        @Override
+        public Set<VALUE> getUniverse() {
+            return ModifiableSetHistory.this.getUniverse();
+        }
+
+        @Nonnull
+        @Override
+        public Set<VALUE> get(@Nonnull final Duration when) {
+            Objects.requireNonNull(when, "when");
+            return ModifiableSetHistory.this.get(clamp(when, from, to));
+        }
+
+        @Nonnull
+        @Override
+        public Set<VALUE> getFirstValue() {
+            return ModifiableSetHistory.this.get(from);
+        }
+
+        @Nonnull
+        @Override
+        public Set<VALUE> getLastValue() {
+            return to == null ? ModifiableSetHistory.this.getLastValue() : ModifiableSetHistory.this.get(to.minusNanos(1L));
+        }
+
+        @Nullable
+        @Override
+        public Duration getFirstTransitionTime() {
+            return streamOfRestrictedContainsHistories().map(ValueHistory::getFirstTransitionTime)
+                    .filter(Objects::nonNull)
+                    .min(Comparator.naturalOrder()).orElse(null);
+        }
+
+        @Nullable
+        @Override
+        public Duration getLastTransitionTime() {
+            return streamOfRestrictedContainsHistories().map(ValueHistory::getLastTransitionTime)
+                    .filter(Objects::nonNull)
+                    .max(Comparator.naturalOrder()).orElse(null);
+        }
+
+        @Nullable
+        @Override
+        public Duration getTransitionTimeAtOrAfter(@Nonnull final Duration when) {
+            Objects.requireNonNull(when, "when");
+            return streamOfRestrictedContainsHistories().map(c -> c.getTransitionTimeAtOrAfter(when))
+                    .filter(Objects::nonNull)
+                    .min(Comparator.naturalOrder()).orElse(null);
+        }
+
+        @Nonnull
+        @Override
+        public SortedMap<Duration, Set<VALUE>> getTransitions() {
+            final SortedMap<Duration, Set<VALUE>> transitions = new TreeMap<>();
+            for (final var t : getTransitionTimes()) {
+                transitions.put(t, get(t));
+            }
+            return transitions;
+        }
+
+        @Nonnull
+        @Override
+        public SortedSet<Duration> getTransitionTimes() {
+            return streamOfTransitionTimes().collect(Collectors.toCollection(TreeSet::new));
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return streamOfRestrictedContainsHistories().allMatch(ValueHistory::isEmpty);
+        }
+
+        @Nonnull
+        @Override
+        public Stream<Map.Entry<Duration, Set<VALUE>>> streamOfTransitions() {
+            return streamOfTransitionTimes().distinct().map(t -> new AbstractMap.SimpleImmutableEntry<>(t, get(t)));
+        }
+
+        @Nonnull
+        private Stream<ValueHistory<Boolean>> streamOfRestrictedContainsHistories() {
+            return containsMap.values().stream().map(BooleanValueHistory::asValueHistory).map(this::restrict);
+        }
+
+        @Nonnull
+        private Stream<Duration> streamOfTransitionTimes() {
+            return streamOfRestrictedContainsHistories().flatMap(c -> c.getTransitionTimes().stream());
+        }
     }
 
 }
@@ -39,6 +39,12 @@ public final class ModifiableValueHistory<VALUE> extends AbstractValueHistory<VA
 
     private final NavigableMap<Duration, VALUE> transitions = new TreeMap<>();
 
+    /**
+     * The {@linkplain Map#hashCode() hash code} of the {@link #transitions},
+     * maintained as transitions are added and removed.
+     */
+    private int transitionsHashCode;
+
     @Nullable
     private VALUE firstValue;
 
@@ -87,22 +93,33 @@ public final class ModifiableValueHistory<VALUE> extends AbstractValueHistory<VA
      *                                  {@code transitions} are
      *                                  {@linkplain Objects#equals(Object, Object) equivalent or
      *                                  equivalently null}.
+     * @see Builder
      */
     public ModifiableValueHistory(@Nullable final VALUE firstValue,
                                   @Nonnull final SortedMap<Duration, VALUE> transitions) {
         Objects.requireNonNull(transitions, "transitions");
         this.firstValue = firstValue;
-        appendTransitions(transitions.entrySet().stream());
+        // Takes linear time if transitions uses the natural ordering.
+        this.transitions.putAll(transitions);
         // Check after copy to avoid race hazards.
         var previous = firstValue;
-        for (final var value : this.transitions.values()) {
+        for (final var transition : this.transitions.entrySet()) {
+            final var value = transition.getValue();
             if (Objects.equals(previous, value)) {
                 throw new IllegalArgumentException("transitions " + this.transitions);
             }
+            transitionsHashCode += transitionHashCode(transition.getKey(), value);
             previous = value;
         }
     }
 
+    private ModifiableValueHistory(@Nonnull final Builder<VALUE> builder) {
+        firstValue = builder.firstValue;
+        // Takes linear time because the view has the natural ordering.
+        transitions.putAll(new SortedListMap<>(builder.times, builder.values));
+        transitionsHashCode = builder.transitionsHashCode;
+    }
+
     /**
      * <p>
      * Construct a value history that is initially a copy of a given value history
@@ -114,7 +131,14 @@ public final class ModifiableValueHistory<VALUE> extends AbstractValueHistory<VA
     public ModifiableValueHistory(@Nonnull final ValueHistory<VALUE> that) {
         Objects.requireNonNull(that, "that");
         firstValue = that.getFirstValue();
-        appendTransitions(that.streamOfTransitions());
+        if (that instanceof ModifiableValueHistory) {
+            // Optimisation: linear time
+            final ModifiableValueHistory<VALUE> thatValueHistory = (ModifiableValueHistory<VALUE>) that;
+            transitions.putAll(thatValueHistory.transitions);
+            transitionsHashCode = thatValueHistory.transitionsHashCode;
+        } else {
+            appendTransitions(that.streamOfTransitions());
+        }
     }
 
     /**
@@ -156,16 +180,37 @@ public final class ModifiableValueHistory<VALUE> extends AbstractValueHistory<VA
         } else if (lastTransition == null && Objects.equals(firstValue, value)) {
             throw new IllegalStateException("First appended value equals value at start of time");
         }
-        transitions.put(when, value);
+        putTransition(when, value);
     }
 
     private void appendTransitions(@Nonnull final Stream<Map.Entry<Duration, VALUE>> streamOfTransitions) {
-        streamOfTransitions.sequential().forEach(entry -> transitions.put(entry.getKey(), entry.getValue()));
+        streamOfTransitions.sequential().forEach(entry -> putTransition(entry.getKey(), entry.getValue()));
     }
 
     private void clear(final VALUE value) {
         firstValue = value;
         transitions.clear();
+        transitionsHashCode = 0;
+    }
+
+    /**
+     * Requires that there is not already a transition at {@code when}.
+     */
+    private void putTransition(@Nonnull final Duration when, @Nullable final VALUE value) {
+        final var previous = transitions.put(when, value);
+        assert previous == null;
+        transitionsHashCode += transitionHashCode(when, value);
+    }
+
+    /**
+     * Remove a contiguous range of the transitions, taking time proportional to the size of the range,
+     * rather than to the total number of transitions.
+     */
+    private void removeTransitions(@Nonnull final NavigableMap<Duration, VALUE> range) {
+        for (final var transition : range.entrySet()) {
+            transitionsHashCode -= transitionHashCode(transition.getKey(), transition.getValue());
+        }
+        range.clear();
     }
 
     @Override
@@ -179,8 +224,10 @@ public final class ModifiableValueHistory<VALUE> extends AbstractValueHistory<VA
         if (that instanceof ModifiableValueHistory) {
             // Optimisation
             final ModifiableValueHistory<?> thatValueHistory = (ModifiableValueHistory<?>) that;
-            return Objects.equals(firstValue, thatValueHistory.firstValue)
-                    && transitions.equals(thatValueHistory.transitions);
+            return transitionsHashCode == thatValueHistory.transitionsHashCode
+                    && transitions.size() == thatValueHistory.transitions.size()
+                    && Objects.equals(firstValue, thatValueHistory.firstValue)
+                    && equalTransitions(transitions.entrySet().iterator(), thatValueHistory.transitions.entrySet().iterator());
         } else {
             return super.equals(that);
         }
@@ -280,9 +327,26 @@ public final class ModifiableValueHistory<VALUE> extends AbstractValueHistory<VA
         return Collections.unmodifiableSortedSet(transitions.navigableKeySet());
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Furthermore, for the ModifiableValueHistory type
+     * </p>
+     * <ul>
+     * <li>The hash code of the transitions is maintained as the history is modified,
+     * so computing the hash code takes constant time.</li>
+     * </ul>
+     */
     @Override
     public int hashCode() {
-        return (firstValue == null ? 0 : firstValue.hashCode()) + transitions.hashCode();
+        return (firstValue == null ? 0 : firstValue.hashCode()) + transitionsHashCode;
+    }
+
+    @Nonnull
+    @Override
+    Iterator<Map.Entry<Duration, VALUE>> iteratorOfTransitions() {
+        return transitions.entrySet().iterator();
     }
 
     @Override
@@ -303,13 +367,16 @@ public final class ModifiableValueHistory<VALUE> extends AbstractValueHistory<VA
      * given time.</li>
      * <li>Removing transitions from a given point in time does not change the
      * {@linkplain #getTransitions() transitions} before the point in time.</li>
+     * <li>Takes time proportional to the number of transitions removed,
+     * plus the logarithm of the number of transitions.</li>
      * </ul>
      *
      * @see #appendTransition(Duration, Object)
+     * @see #truncateAfter(Duration)
      */
     public void removeTransitionsFrom(@Nonnull final Duration when) {
         Objects.requireNonNull(when, "when");
-        transitions.keySet().removeIf(t -> when.compareTo(t) <= 0);
+        removeTransitions(transitions.tailMap(when, true));
     }
 
     /**
@@ -337,9 +404,9 @@ public final class ModifiableValueHistory<VALUE> extends AbstractValueHistory<VA
         if (when.equals(START_OF_TIME)) {
             clear(value);
         } else {
-            transitions.keySet().removeIf(t -> when.compareTo(t) < 0);
+            removeTransitions(transitions.tailMap(when, true));
             if (!Objects.equals(getLastValue(), value)) {
-                transitions.put(when, value);
+                putTransition(when, value);
             }
         }
     }
@@ -368,19 +435,559 @@ public final class ModifiableValueHistory<VALUE> extends AbstractValueHistory<VA
         if (when.equals(END_OF_TIME)) {
             clear(value);
         } else {
-            final VALUE lastValue0 = getLastValue();
+            final Duration justAfter = when.plusNanos(1L);
+            final VALUE valueJustAfter = get(justAfter);
             firstValue = value;
-            transitions.keySet().removeIf(t -> t.compareTo(when) <= 0);
-            if (!Objects.equals(lastValue0, getLastValue())) {
-                transitions.put(when.plusNanos(1L), lastValue0);
+            removeTransitions(transitions.headMap(justAfter, true));
+            if (!Objects.equals(valueJustAfter, value)) {
+                putTransition(justAfter, valueJustAfter);
             }
         }
     }
 
+    /**
+     * <p>
+     * Change this value history so it has no transitions
+     * {@linkplain Duration#compareTo(Duration) after} a given point in time,
+     * returning the transitions removed.
+     * </p>
+     * <ul>
+     * <li>The {@linkplain #getFirstValue() first value} of the history is
+     * unchanged.</li>
+     * <li>The {@linkplain #get(Duration) values} at and before the given point in time
+     * are unchanged.</li>
+     * <li>The {@linkplain #getTransitionTimes() set of transition times}
+     * {@linkplain SortedSet#contains(Object) contains} no times after the
+     * given time.</li>
+     * <li>The returned map contains the transitions removed,
+     * so they can be reused (for example, by rolling-back and then restoring a computation).
+     * It is a newly constructed object.</li>
+     * <li>Takes time proportional to the number of transitions removed,
+     * plus the logarithm of the number of transitions.</li>
+     * </ul>
+     *
+     * @return the removed transitions.
+     * @see #removeTransitionsFrom(Duration)
+     * @see #truncateBefore(Duration)
+     */
+    @Nonnull
+    public SortedMap<Duration, VALUE> truncateAfter(@Nonnull final Duration when) {
+        Objects.requireNonNull(when, "when");
+        final var range = transitions.tailMap(when, false);
+        final SortedMap<Duration, VALUE> removed = new TreeMap<>(range);
+        removeTransitions(range);
+        return removed;
+    }
+
+    /**
+     * <p>
+     * Change this value history so it has no transitions
+     * {@linkplain Duration#compareTo(Duration) at or before} a given point in time,
+     * returning the transitions removed.
+     * </p>
+     * <ul>
+     * <li>The {@linkplain #getFirstValue() first value} of the history becomes
+     * the {@linkplain #get(Duration) value at} the given time.</li>
+     * <li>The {@linkplain #get(Duration) values} at and after the given point in time
+     * are unchanged.</li>
+     * <li>The {@linkplain #getTransitionTimes() set of transition times}
+     * {@linkplain SortedSet#contains(Object) contains} no times at or before the
+     * given time.</li>
+     * <li>The returned map contains the transitions removed.
+     * It is a newly constructed object.
+     * The previous first value is not included, so a caller that needs it should
+     * {@linkplain #getFirstValue() get} it first.</li>
+     * <li>Takes time proportional to the number of transitions removed,
+     * plus the logarithm of the number of transitions.</li>
+     * </ul>
+     *
+     * @return the removed transitions.
+     * @see #setValueUntil(Duration, Object)
+     * @see #truncateAfter(Duration)
+     */
+    @Nonnull
+    public SortedMap<Duration, VALUE> truncateBefore(@Nonnull final Duration when) {
+        Objects.requireNonNull(when, "when");
+        final var range = transitions.headMap(when, true);
+        final SortedMap<Duration, VALUE> removed = new TreeMap<>(range);
+        firstValue = get(when);
+        removeTransitions(range);
+        return removed;
+    }
+
     @Nonnull
     @Override
     public Stream<Map.Entry<Duration, VALUE>> streamOfTransitions() {
         return transitions.entrySet().stream();
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Furthermore, for the ModifiableValueHistory type
+     * </p>
+     * <ul>
+     * <li>The head history is backed by a {@linkplain NavigableMap#headMap(Object, boolean) head map}
+     * view of the transitions, so queries of it are as efficient as queries of this history.</li>
+     * </ul>
+     */
+    @Nonnull
+    @Override
+    public ValueHistory<VALUE> headHistory(@Nonnull final Duration to) {
+        requireValidRange(START_OF_TIME, to);
+        return new SubHistory(START_OF_TIME, to, transitions.headMap(to, false));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Furthermore, for the ModifiableValueHistory type
+     * </p>
+     * <ul>
+     * <li>The sub history is backed by a {@linkplain NavigableMap#subMap(Object, boolean, Object, boolean) sub map}
+     * view of the transitions, so queries of it are as efficient as queries of this history.</li>
+     * </ul>
+     */
+    @Nonnull
+    @Override
+    public ValueHistory<VALUE> subHistory(@Nonnull final Duration from, @Nonnull final Duration to) {
+        requireValidRange(from, to);
+        return new SubHistory(from, to, transitions.subMap(from, false, to, false));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Furthermore, for the ModifiableValueHistory type
+     * </p>
+     * <ul>
+     * <li>The tail history is backed by a {@linkplain NavigableMap#tailMap(Object, boolean) tail map}
+     * view of the transitions, so queries of it are as efficient as queries of this history.</li>
+     * </ul>
+     */
+    @Nonnull
+    @Override
+    public ValueHistory<VALUE> tailHistory(@Nonnull final Duration from) {
+        Objects.requireNonNull(from, "from");
+        return new SubHistory(from, null, transitions.tailMap(from, false));
+    }
+
+    /**
+     * <p>
+     * A view of the part of this history within a range of time,
+     * backed by a view of the {@link #transitions} map within that range.
+     * </p>
+     */
+    @NotThreadSafe
+    private final class SubHistory extends AbstractValueHistory<VALUE> {
+
+        @Nonnull
+        private final Duration from;
+
+        /**
+         * Null if the range is unbounded above.
+         */
+        @Nullable
+        private final Duration to;
+
+        @Nonnull
+        private final NavigableMap<Duration, VALUE> range;
+
+        SubHistory(@Nonnull final Duration from,
+                   @Nullable final Duration to,
+                   @Nonnull final NavigableMap<Duration, VALUE> range) {
+            this.from = from;
+            this.to = to;
+            this.range = range;
+        }
+
+        @Nullable
+        @Override
+        public VALUE get(@Nonnull final Duration when) {
+            Objects.requireNonNull(when, "when");
+            return ModifiableValueHistory.this.get(clamp(when, from, to));
+        }
+
+        @Nullable
+        @Override
+        public Duration getFirstTransitionTime() {
+            return range.isEmpty() ? null : range.firstKey();
+        }
+
+        @Nullable
+        @Override
+        public VALUE getFirstValue() {
+            return ModifiableValueHistory.this.get(from);
+        }
+
+        @Nullable
+        @Override
+        public Duration getLastTransitionTime() {
+            return range.isEmpty() ? null : range.lastKey();
+        }
+
+        @Nullable
+        @Override
+        public VALUE getLastValue() {
+            final var lastTransition = range.lastEntry();
+            return lastTransition == null ? getFirstValue() : lastTransition.getValue();
+        }
+
+        @Nullable
+        @Override
+        public Duration getTransitionTimeAtOrAfter(@Nonnull final Duration when) {
+            Objects.requireNonNull(when, "when");
+            return range.ceilingKey(when);
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * <p>
+         * Furthermore, for this type
+         * </p>
+         * <ul>
+         * <li>The transitions map is an
+         * {@linkplain Collections#unmodifiableSortedMap(SortedMap) unmodifiable} view.</li>
+         * </ul>
+         */
+        @Nonnull
+        @Override
+        public SortedMap<Duration, VALUE> getTransitions() {
+            return Collections.unmodifiableSortedMap(range);
+        }
+
+        @Nonnull
+        @Override
+        public SortedSet<Duration> getTransitionTimes() {
+            return Collections.unmodifiableSortedSet(range.navigableKeySet());
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return range.isEmpty();
+        }
+
+        @Nonnull
+        @Override
+        Iterator<Map.Entry<Duration, VALUE>> iteratorOfTransitions() {
+            return range.entrySet().iterator();
+        }
+
+        @Nonnull
+        @Override
+        public Stream<Map.Entry<Duration, VALUE>> streamOfTransitions() {
+            return range.entrySet().stream();
+        }
+    }
+
+    /**
+     * <p>
+     * A builder for constructing a {@link ModifiableValueHistory} from a long
+     * sequence of transitions that are already in time order,
+     * such as a history loaded from a file.
+     * </p>
+     * <p>
+     * The builder checks each transition as it is appended, and
+     * {@linkplain #build() builds} the history in time proportional to the number of transitions.
+     * That is faster than {@linkplain ModifiableValueHistory#appendTransition(Duration, Object) appending}
+     * the transitions one by one.
+     * </p>
+     *
+     * @param <VALUE> The class of values of the value history. This must be {@link Immutable immutable},
+     *                or have reference semantics.
+     */
+    @NotThreadSafe
+    public static final class Builder<VALUE> {
+
+        private final List<Duration> times = new ArrayList<>();
+
+        private final List<VALUE> values = new ArrayList<>();
+
+        @Nullable
+        private final VALUE firstValue;
+
+        private int transitionsHashCode;
+
+        /**
+         * <p>
+         * Construct a builder for a value history that has a given
+         * {@linkplain ValueHistory#getFirstValue() first value}, and initially no transitions.
+         * </p>
+         */
+        public Builder(@Nullable final VALUE firstValue) {
+            this.firstValue = firstValue;
+        }
+
+        /**
+         * <p>
+         * Append a value transition to the history being built.
+         * </p>
+         *
+         * @param when  The point in time when the transition occurs, represented as the
+         *              duration since an (implied) epoch.
+         * @param value The value at and after the transition.
+         * @return this builder
+         * @throws NullPointerException     If {@code when} is null.
+         * @throws IllegalArgumentException If
+         *                                  <ul>
+         *                                      <li>{@code when} is at or before the time of the previous transition appended.</li>
+         *                                      <li>{@code value} is {@linkplain Objects#equals(Object, Object) equivalent to}
+         *                                      the value of the previous transition appended,
+         *                                      or to the first value if no transitions have been appended.</li>
+         *                                  </ul>
+         *                                  This builder is unchanged if the method throws IllegalArgumentException.
+         * @see ModifiableValueHistory#appendTransition(Duration, Object)
+         */
+        @Nonnull
+        public Builder<VALUE> append(@Nonnull final Duration when, @Nullable final VALUE value) {
+            Objects.requireNonNull(when, "when");
+            final int n = times.size();
+            if (0 < n && when.compareTo(times.get(n - 1)) <= 0) {
+                throw new IllegalArgumentException("Timestamp out of order");
+            }
+            if (Objects.equals(value, n == 0 ? firstValue : values.get(n - 1))) {
+                throw new IllegalArgumentException("Equal values");
+            }
+            times.add(when);
+            values.add(value);
+            transitionsHashCode += transitionHashCode(when, value);
+            return this;
+        }
+
+        /**
+         * <p>
+         * Append a sequence of value transitions to the history being built,
+         * with their times and values given as parallel arrays.
+         * </p>
+         *
+         * @param times  The points in time when the transitions occur, in ascending order.
+         * @param values The values at and after each of the transitions.
+         * @return this builder
+         * @throws NullPointerException     If {@code times} or {@code values} is null, or {@code times} contains a null.
+         * @throws IllegalArgumentException <ul>
+         *                                      <li>If {@code times} and {@code values} have different lengths.</li>
+         *                                      <li>In the cases for which {@link #append(Duration, Object)} throws
+         *                                      {@link IllegalArgumentException}.</li>
+         *                                  </ul>
+         *                                  This builder is unchanged if the method throws IllegalArgumentException
+         *                                  or NullPointerException.
+         */
+        @Nonnull
+        public Builder<VALUE> appendAll(@Nonnull final Duration[] times, @Nonnull final VALUE[] values) {
+            Objects.requireNonNull(times, "times");
+            Objects.requireNonNull(values, "values");
+            if (times.length != values.length) {
+                throw new IllegalArgumentException("Inconsistent lengths");
+            }
+            final int n0 = this.times.size();
+            final int hashCode0 = transitionsHashCode;
+            try {
+                for (int i = 0; i < times.length; ++i) {
+                    append(times[i], values[i]);
+                }
+            } catch (final RuntimeException e) {
+                truncate(n0, hashCode0);
+                throw e;
+            }
+            return this;
+        }
+
+        /**
+         * <p>
+         * Append a sequence of value transitions to the history being built,
+         * with their times given as an array of nanosecond counts since the (implied) epoch.
+         * </p>
+         * <p>
+         * This is convenient for loading transitions that were saved in that compact form.
+         * The time represented by each element of {@code whenNanos} is
+         * {@linkplain Duration#ofNanos(long) the duration of that many nanoseconds}.
+         * </p>
+         *
+         * @param whenNanos The points in time when the transitions occur, in ascending order.
+         * @param values    The values at and after each of the transitions.
+         * @return this builder
+         * @throws NullPointerException     If {@code whenNanos} or {@code values} is null.
+         * @throws IllegalArgumentException In the cases for which {@link #appendAll(Duration[], Object[])} throws
+         *                                  {@link IllegalArgumentException}.
+         *                                  This builder is unchanged if the method throws IllegalArgumentException.
+         */
+        @Nonnull
+        public Builder<VALUE> appendAll(@Nonnull final long[] whenNanos, @Nonnull final VALUE[] values) {
+            Objects.requireNonNull(whenNanos, "whenNanos");
+            Objects.requireNonNull(values, "values");
+            final Duration[] times = new Duration[whenNanos.length];
+            for (int i = 0; i < whenNanos.length; ++i) {
+                times[i] = Duration.ofNanos(whenNanos[i]);
+            }
+            return appendAll(times, values);
+        }
+
+        /**
+         * <p>
+         * Append a sequence of value transitions to the history being built,
+         * with the transitions provided by a stream.
+         * </p>
+         * <p>
+         * The transitions are appended in the {@linkplain Stream#forEachOrdered(java.util.function.Consumer) encounter order}
+         * of the stream, so {@link ValueHistory#streamOfTransitions()} of a {@link ModifiableValueHistory}
+         * is a suitable source.
+         * </p>
+         *
+         * @return this builder
+         * @throws NullPointerException     If {@code transitions} is null, or contains a null time.
+         * @throws IllegalArgumentException In the cases for which {@link #append(Duration, Object)} throws
+         *                                  {@link IllegalArgumentException}.
+         *                                  This builder is unchanged if the method throws IllegalArgumentException
+         *                                  or NullPointerException.
+         */
+        @Nonnull
+        public Builder<VALUE> appendAll(@Nonnull final Stream<Map.Entry<Duration, VALUE>> transitions) {
+            Objects.requireNonNull(transitions, "transitions");
+            final int n0 = times.size();
+            final int hashCode0 = transitionsHashCode;
+            try {
+                transitions.forEachOrdered(transition -> append(transition.getKey(), transition.getValue()));
+            } catch (final RuntimeException e) {
+                truncate(n0, hashCode0);
+                throw e;
+            }
+            return this;
+        }
+
+        /**
+         * <p>
+         * Construct a value history that has the first value of this builder
+         * and the transitions that have been appended to this builder.
+         * </p>
+         * <ul>
+         * <li>The {@linkplain ValueHistory#getFirstValue() first value} of the history is the same
+         * as the value given to the constructor of this builder.</li>
+         * <li>The {@linkplain ValueHistory#getTransitions() transitions} of the history are
+         * the appended transitions.</li>
+         * <li>The builder may continue to be used after building:
+         * the constructed history does not incorporate any further changes to the builder.</li>
+         * </ul>
+         */
+        @Nonnull
+        public ModifiableValueHistory<VALUE> build() {
+            return new ModifiableValueHistory<>(this);
+        }
+
+        private void truncate(final int n, final int hashCode) {
+            times.subList(n, times.size()).clear();
+            values.subList(n, values.size()).clear();
+            transitionsHashCode = hashCode;
+        }
+    }
+
+    /**
+     * <p>
+     * A read-only view of parallel lists of (strictly ascending) times and values, as a sorted map
+     * with natural ordering. Just enough to enable {@link TreeMap#putAll(Map)} to build
+     * a tree in linear time.
+     * </p>
+     */
+    private static final class SortedListMap<VALUE> extends AbstractMap<Duration, VALUE>
+            implements SortedMap<Duration, VALUE> {
+
+        private final List<Duration> times;
+        private final List<VALUE> values;
+
+        SortedListMap(@Nonnull final List<Duration> times, @Nonnull final List<VALUE> values) {
+            assert times.size() == values.size();
+            this.times = times;
+            this.values = values;
+        }
+
+        @Nullable
+        @Override
+        public Comparator<? super Duration> comparator() {
+            return null;// natural ordering
+        }
+
+        @Nonnull
+        @Override
+        public Set<Entry<Duration, VALUE>> entrySet() {
+            return new AbstractSet<>() {
+                @Nonnull
+                @Override
+                public Iterator<Entry<Duration, VALUE>> iterator() {
+                    return new Iterator<>() {
+                        private int next;
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < times.size();
+                        }
+
+                        @Override
+                        public Entry<Duration, VALUE> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            final var entry = new SimpleImmutableEntry<>(times.get(next), values.get(next));
+                            ++next;
+                            return entry;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return times.size();
+                }
+            };
+        }
+
+        @Override
+        public Duration firstKey() {
+            if (times.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            return times.get(0);
+        }
+
+        @Override
+        public Duration lastKey() {
+            if (times.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            return times.get(times.size() - 1);
+        }
+
+        @Nonnull
+        @Override
+        public SortedMap<Duration, VALUE> headMap(final Duration toKey) {
+            return subList(0, indexOf(toKey));
+        }
+
+        @Nonnull
+        @Override
+        public SortedMap<Duration, VALUE> subMap(final Duration fromKey, final Duration toKey) {
+            if (fromKey.compareTo(toKey) > 0) {
+                throw new IllegalArgumentException("fromKey > toKey");
+            }
+            return subList(indexOf(fromKey), indexOf(toKey));
+        }
+
+        @Nonnull
+        @Override
+        public SortedMap<Duration, VALUE> tailMap(final Duration fromKey) {
+            return subList(indexOf(fromKey), times.size());
+        }
+
+        private int indexOf(@Nonnull final Duration key) {
+            final int i = Collections.binarySearch(times, key);
+            return i < 0 ? -(i + 1) : i;
+        }
+
+        private SortedListMap<VALUE> subList(final int from, final int to) {
+            return new SortedListMap<>(times.subList(from, to), values.subList(from, to));
+        }
+    }
+
 }
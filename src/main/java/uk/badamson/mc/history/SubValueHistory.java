@@ -0,0 +1,165 @@
+package uk.badamson.mc.history;
+/*
+ * © Copyright Benedict Adamson 2022.
+ *
+ * This file is part of MC-des.
+ *
+ * MC-des is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC-des is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MC-des.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * <p>
+ * A view of the part of a {@link ValueHistory} within a range of time,
+ * that makes no assumptions about how the underlying history is implemented.
+ * </p>
+ * <p>
+ * The view delegates to the underlying history, so it incorporates any subsequent changes to that history.
+ * </p>
+ *
+ * @param <VALUE> The class of values of this value history. This must be {@link Immutable immutable},
+ *                or have reference semantics.
+ * @see ValueHistory#subHistory(Duration, Duration)
+ */
+@NotThreadSafe
+final class SubValueHistory<VALUE> extends AbstractValueHistory<VALUE> {
+
+    @Nonnull
+    private final ValueHistory<VALUE> history;
+
+    @Nonnull
+    private final Duration from;
+
+    /**
+     * The first point in time at which this view may have a transition,
+     * or null if this view can have no transitions.
+     */
+    @Nullable
+    private final Duration firstPossibleTransition;
+
+    /**
+     * Null if the range is unbounded above.
+     */
+    @Nullable
+    private final Duration to;
+
+    SubValueHistory(@Nonnull final ValueHistory<VALUE> history,
+                    @Nonnull final Duration from,
+                    @Nullable final Duration to) {
+        this.history = history;
+        this.from = from;
+        this.to = to;
+        firstPossibleTransition = END_OF_TIME.equals(from) ? null : from.plusNanos(1L);
+    }
+
+    @Nullable
+    @Override
+    public VALUE get(@Nonnull final Duration when) {
+        Objects.requireNonNull(when, "when");
+        return history.get(clamp(when, from, to));
+    }
+
+    @Nullable
+    @Override
+    public VALUE getFirstValue() {
+        return history.get(from);
+    }
+
+    @Nullable
+    @Override
+    public VALUE getLastValue() {
+        return to == null ? history.getLastValue() : history.get(to.minusNanos(1L));
+    }
+
+    @Nullable
+    @Override
+    public Duration getFirstTransitionTime() {
+        return getTransitionTimeAtOrAfter(from);
+    }
+
+    @Nullable
+    @Override
+    public Duration getLastTransitionTime() {
+        if (firstPossibleTransition == null) {
+            return null;
+        }
+        final Duration last;
+        if (to == null) {
+            last = history.getLastTransitionTime();
+        } else {
+            last = history.getTimestampedValue(to.minusNanos(1L)).getStart();
+        }
+        return last == null || last.compareTo(firstPossibleTransition) < 0 ? null : last;
+    }
+
+    @Nullable
+    @Override
+    public Duration getTransitionTimeAtOrAfter(@Nonnull final Duration when) {
+        Objects.requireNonNull(when, "when");
+        if (firstPossibleTransition == null) {
+            return null;
+        }
+        final Duration t = history.getTransitionTimeAtOrAfter(
+                when.compareTo(firstPossibleTransition) < 0 ? firstPossibleTransition : when);
+        return t == null || !isBeforeTo(t) ? null : t;
+    }
+
+    @Nonnull
+    @Override
+    public SortedMap<Duration, VALUE> getTransitions() {
+        if (firstPossibleTransition == null) {
+            return Collections.emptySortedMap();
+        }
+        final SortedMap<Duration, VALUE> transitions = history.getTransitions();
+        return to == null ? transitions.tailMap(firstPossibleTransition) : transitions.subMap(firstPossibleTransition, to);
+    }
+
+    @Nonnull
+    @Override
+    public SortedSet<Duration> getTransitionTimes() {
+        if (firstPossibleTransition == null) {
+            return Collections.emptySortedSet();
+        }
+        final SortedSet<Duration> transitionTimes = history.getTransitionTimes();
+        return to == null ? transitionTimes.tailSet(firstPossibleTransition) : transitionTimes.subSet(firstPossibleTransition, to);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return getFirstTransitionTime() == null;
+    }
+
+    @Nonnull
+    @Override
+    public Stream<Map.Entry<Duration, VALUE>> streamOfTransitions() {
+        if (firstPossibleTransition == null) {
+            return Stream.empty();
+        }
+        return history.streamOfTransitions()
+                .filter(transition -> firstPossibleTransition.compareTo(transition.getKey()) <= 0
+                        && isBeforeTo(transition.getKey()));
+    }
+
+    private boolean isBeforeTo(@Nonnull final Duration when) {
+        return to == null || when.compareTo(to) < 0;
+    }
+
+}
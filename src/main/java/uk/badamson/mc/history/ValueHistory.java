@@ -310,6 +310,76 @@ public interface ValueHistory<VALUE> {
     @Override
     int hashCode();
 
+    /**
+     * <p>
+     * A view of the part of this history before a given point in time.
+     * </p>
+     * <ul>
+     * <li>The head history is equivalent to the {@linkplain #subHistory(Duration, Duration) sub history}
+     * from the {@linkplain #START_OF_TIME start of time} to the given point in time.</li>
+     * <li>The {@linkplain #getFirstValue() first value} of the head history is the same as the
+     * first value of this history.</li>
+     * </ul>
+     *
+     * @param to The (exclusive) end of the range of time of interest.
+     * @throws NullPointerException     If {@code to} is null.
+     * @throws IllegalArgumentException If {@code to} is the {@linkplain #START_OF_TIME start of time}.
+     * @see #subHistory(Duration, Duration)
+     * @see NavigableMap#headMap(Object)
+     */
+    @Nonnull
+    ValueHistory<VALUE> headHistory(@Nonnull Duration to);
+
+    /**
+     * <p>
+     * A view of the part of this history within a given range of time.
+     * </p>
+     * <ul>
+     * <li>The {@linkplain #get(Duration) value} of the sub history at points in time
+     * {@linkplain Duration#compareTo(Duration) at or after} {@code from} and before {@code to}
+     * is equal to (or equally null as) the value of this history at those points in time.</li>
+     * <li>The value of the sub history at points in time before {@code from} is the value of this
+     * history at {@code from}. In particular, the {@linkplain #getFirstValue() first value} of the sub
+     * history is the value of this history at {@code from}.</li>
+     * <li>The value of the sub history at points in time at or after {@code to} is the value of this
+     * history just before {@code to}.</li>
+     * <li>The {@linkplain #getTransitionTimes() transition times} of the sub history are the
+     * transition times of this history after {@code from} and before {@code to}.</li>
+     * <li>The sub history is backed by this history, so it incorporates any subsequent changes to this
+     * history. Creating it does not copy the transitions of this history.</li>
+     * </ul>
+     *
+     * @param from The (inclusive) start of the range of time of interest.
+     * @param to   The (exclusive) end of the range of time of interest.
+     * @throws NullPointerException     If {@code from} or {@code to} is null.
+     * @throws IllegalArgumentException If {@code from} is not {@linkplain Duration#compareTo(Duration) before}
+     *                                  {@code to}.
+     * @see NavigableMap#subMap(Object, boolean, Object, boolean)
+     */
+    @Nonnull
+    ValueHistory<VALUE> subHistory(@Nonnull Duration from, @Nonnull Duration to);
+
+    /**
+     * <p>
+     * A view of the part of this history at and after a given point in time.
+     * </p>
+     * <ul>
+     * <li>The tail history is equivalent to a {@linkplain #subHistory(Duration, Duration) sub history}
+     * from the given point in time that has no end.</li>
+     * <li>The {@linkplain #getFirstValue() first value} of the tail history is the
+     * {@linkplain #get(Duration) value} of this history at the given point in time.</li>
+     * <li>The {@linkplain #getLastValue() last value} of the tail history is the same as the
+     * last value of this history.</li>
+     * </ul>
+     *
+     * @param from The (inclusive) start of the range of time of interest.
+     * @throws NullPointerException If {@code from} is null.
+     * @see #subHistory(Duration, Duration)
+     * @see NavigableMap#tailMap(Object)
+     */
+    @Nonnull
+    ValueHistory<VALUE> tailHistory(@Nonnull Duration from);
+
     /**
      * <p>
      * Whether this history is empty.
@@ -47,11 +47,19 @@ import java.util.stream.Collectors;
 @ThreadSafe
 public final class Actor<STATE> {
 
+    /**
+     * The maximum number of receivers of a {@link Multicast} that are locked at once
+     * to deliver the signals of the multicast.
+     */
+    static final int MULTICAST_BATCH_SIZE = 64;
+
     /**
      * Comparable so can predictably order locks to avoid deadlock.
      */
     final UUID lock = UUID.randomUUID();
 
+    private final long randomSeed;
+
     @GuardedBy("lock")
     private final ModifiableValueHistory<STATE> stateHistory = new ModifiableValueHistory<>();
 
@@ -67,6 +75,21 @@ public final class Actor<STATE> {
     @GuardedBy("lock")
     private final Map<Signal<STATE>, Event<STATE>> eventsForSignals = new HashMap<>();
 
+    /**
+     * <p>
+     * The events of this actor that have emitted {@linkplain Event#getMulticastsEmitted() multicasts}
+     * whose signals have not yet all been delivered to their receivers.
+     * </p>
+     */
+    @GuardedBy("lock")
+    private final NavigableSet<Event<STATE>> eventsWithUndeliveredMulticasts = new TreeSet<>();
+
+    @GuardedBy("lock")
+    private final List<SpatialMedium<STATE>> spatialMedia = new ArrayList<>(0);
+
+    @GuardedBy("lock")
+    private final List<EventObserver<STATE>> eventObservers = new ArrayList<>(0);
+
     @GuardedBy("lock")
     Signal<STATE> nextSignalToReceive = null;
 
@@ -80,6 +103,20 @@ public final class Actor<STATE> {
     @GuardedBy("lock")
     private long version;
 
+    /**
+     * <p>
+     * A summary of the current state of this actor, for reading without acquiring the lock.
+     * </p>
+     * <p>
+     * Replaced, while holding the lock, whenever the information it summarises changes.
+     * </p>
+     */
+    @Nonnull
+    private volatile Summary summary;
+
+    @Nonnull
+    private final ActorLoad load = new ActorLoad();
+
     /**
      * <p>
      * Construct an actor with given start information and no events.
@@ -87,15 +124,58 @@ public final class Actor<STATE> {
      * <ul>
      * <li>The {@linkplain #getEvents() events} sequence
      * {@linkplain List#isEmpty() is empty}.</li>
+     * <li>The {@linkplain #getRandomSeed() random seed} is derived from the unique identity of the actor,
+     * so it differs from the seeds of other actors, but it is not reproducible.</li>
      * </ul>
      *
      * @param start The first point in time for which the actor has a known state.
      * @param state The first (known) state of the actor.
+     * @see #Actor(Duration, Object, long)
      */
     public Actor(@Nonnull final Duration start, @Nonnull final STATE state) {
         Objects.requireNonNull(state, "state");
         this.start = Objects.requireNonNull(start, "start");
+        this.randomSeed = lock.getMostSignificantBits() ^ lock.getLeastSignificantBits();
         this.stateHistory.appendTransition(start, state);
+        this.summary = new Summary(0L, start, Signal.NEVER_RECEIVED, 0, 0, null, null);
+    }
+
+    /**
+     * <p>
+     * Construct an actor with given start information, a given {@linkplain #getRandomSeed() random seed},
+     * and no events.
+     * </p>
+     * <ul>
+     * <li>The {@linkplain #getEvents() events} sequence
+     * {@linkplain List#isEmpty() is empty}.</li>
+     * </ul>
+     *
+     * @param start      The first point in time for which the actor has a known state.
+     * @param state      The first (known) state of the actor.
+     * @param randomSeed The seed of the random number streams of the events of the actor.
+     */
+    public Actor(@Nonnull final Duration start, @Nonnull final STATE state, final long randomSeed) {
+        Objects.requireNonNull(state, "state");
+        this.start = Objects.requireNonNull(start, "start");
+        this.randomSeed = randomSeed;
+        this.stateHistory.appendTransition(start, state);
+        this.summary = new Summary(0L, start, Signal.NEVER_RECEIVED, 0, 0, null, null);
+    }
+
+    /**
+     * <p>
+     * Construct an actor with no events and no signals to receive,
+     * that has a given start time and the states of a given state history from that time.
+     * </p>
+     */
+    private Actor(
+            @Nonnull final Duration start, @Nonnull final ValueHistory<STATE> stateHistory, final long randomSeed) {
+        this.start = start;
+        this.randomSeed = randomSeed;
+        this.stateHistory.appendTransition(start, stateHistory.get(start));
+        stateHistory.tailHistory(start).streamOfTransitions()
+                .forEachOrdered(transition -> this.stateHistory.appendTransition(transition.getKey(), transition.getValue()));
+        this.summary = new Summary(0L, start, Signal.NEVER_RECEIVED, 0, 0, null, null);
     }
 
     private static <STATE> int compareTo(
@@ -116,12 +196,20 @@ public final class Actor<STATE> {
         return compare;
     }
 
-    @Nullable
-    private static <STATE, RESULT> RESULT doWithAllActorsLocked(
+    /**
+     * <p>
+     * Perform an operation while holding the locks of some actors,
+     * if those actors have given versions.
+     * </p>
+     *
+     * @return whether the operation was performed.
+     */
+    private static <STATE> boolean doWithAllActorsLocked(
             @Nonnull final NavigableMap<Actor<STATE>, Long> actorVersions,
-            @Nonnull final Supplier<RESULT> operation) {
+            @Nonnull final Runnable operation) {
         if (actorVersions.isEmpty()) {
-            return operation.get();
+            operation.run();
+            return true;
         } else {
             final var firstEntry = actorVersions.firstEntry();
             final Actor<STATE> firstActor = firstEntry.getKey();
@@ -131,7 +219,7 @@ public final class Actor<STATE> {
                 if (firstActor.version == firstVersion) {
                     return doWithAllActorsLocked(remainingActorVersions, operation);
                 } else {
-                    return null;
+                    return false;
                 }
             }
         }
@@ -142,55 +230,82 @@ public final class Actor<STATE> {
         return new TreeMap<>(Comparator.comparing(a -> a.lock));
     }
 
-    static <STATE> CompletableFuture<AffectedActors<STATE>> advanceSeveralActors(
-            @Nonnull final Duration when,
+    static <STATE> CompletableFuture<AffectedActorsAccumulator<STATE>> advanceSeveralActors(
+            @Nonnull final Supplier<Duration> target,
+            @Nonnull final Collection<Actor<STATE>> actors,
+            @Nonnull final Executor executor,
+            @Nonnull final EventBudget budget,
+            @Nonnull final CommitTracker commitTracker
+    ) {
+        return advanceSeveralActorsWithAffinity(target, actors, ActorAffinity.of(executor), budget, commitTracker);
+    }
+
+    private static <STATE> CompletableFuture<AffectedActorsAccumulator<STATE>> advanceSeveralActorsWithAffinity(
+            @Nonnull final Supplier<Duration> target,
             @Nonnull final Collection<Actor<STATE>> actors,
-            @Nonnull final Executor executor
+            @Nonnull final ActorAffinity affinity,
+            @Nonnull final EventBudget budget,
+            @Nonnull final CommitTracker commitTracker
     ) {
         if (actors.isEmpty()) {
-            return CompletableFuture.completedFuture(AffectedActors.emptyInstance());
+            return CompletableFuture.completedFuture(new AffectedActorsAccumulator<>());
         } else {
             final Iterator<Actor<STATE>> a = actors.iterator();
             final Actor<STATE> actor1 = a.next();
-            CompletableFuture<AffectedActors<STATE>> result = actor1.advanceTo(when, executor);
+            CompletableFuture<AffectedActorsAccumulator<STATE>> result = actor1.advanceTo(target, affinity, budget, commitTracker);
             while (a.hasNext()) {
                 final Actor<STATE> nextActor = a.next();
-                final CompletableFuture<AffectedActors<STATE>> nextFuture = nextActor.advanceTo(when, executor);
-                result = result.thenCombine(nextFuture, AffectedActors::plus);
+                final CompletableFuture<AffectedActorsAccumulator<STATE>> nextFuture = nextActor.advanceTo(
+                        target, affinity, budget, commitTracker);
+                result = result.thenCombine(nextFuture, Actor::combine);
             }
             return result;
         }
     }
 
-    private static <STATE> CompletableFuture<AffectedActors<STATE>> advanceToWithCompletableFuture(
-            @Nonnull final Duration when,
+    @Nonnull
+    private static <STATE> AffectedActorsAccumulator<STATE> combine(
+            @Nonnull final AffectedActorsAccumulator<STATE> affectedActorsA,
+            @Nonnull final AffectedActorsAccumulator<STATE> affectedActorsB) {
+        affectedActorsA.add(affectedActorsB);
+        return affectedActorsA;
+    }
+
+    private static <STATE> CompletableFuture<AffectedActorsAccumulator<STATE>> advanceToWithCompletableFuture(
+            @Nonnull final Supplier<Duration> target,
             @Nonnull final Set<Actor<STATE>> actors,
-            @Nonnull final Executor executor
+            @Nonnull final ActorAffinity affinity,
+            @Nonnull final EventBudget budget,
+            @Nonnull final CommitTracker commitTracker
     ) {
         final int nActors = actors.size();
         if (nActors == 0) {
-            return CompletableFuture.completedFuture(null);
+            return CompletableFuture.completedFuture(new AffectedActorsAccumulator<>());
         } else if (nActors == 1) {
             final var actor = actors.iterator().next();
-            return actor.advanceTo(when, executor);
+            return actor.advanceTo(target, affinity, budget, commitTracker);
         } else {
-            return advanceSeveralActors(when, actors, executor);
+            return advanceSeveralActorsWithAffinity(target, actors, affinity, budget, commitTracker);
         }
     }
 
     private static <STATE> void addActorVersionsToLockToRemoveEvents(
             @Nonnull final NavigableMap<Actor<STATE>, Long> versions,
             @Nonnull final Set<Event<STATE>> events) {
+        final Set<Event<STATE>> visited = new HashSet<>();
         while (!events.isEmpty()) {
             final Event<STATE> event = events.iterator().next();
             events.remove(event);
+            if (!visited.add(event)) {
+                continue;
+            }
             for (final var signal : event.getSignalsEmitted()) {
                 final var receiver = signal.getReceiver();
                 synchronized (receiver.lock) {
                     versions.putIfAbsent(receiver, receiver.version);
                     final var causedEvent = receiver.eventsForSignals.get(signal);
                     if (causedEvent != null) {
-                        events.addAll(receiver.events.tailSet(causedEvent, false));
+                        events.addAll(receiver.events.tailSet(causedEvent, true));
                     }
                 }
             }
@@ -203,14 +318,15 @@ public final class Actor<STATE> {
         }
     }
 
-    @Nonnull
-    private static <STATE> AffectedActors<STATE> removeEventsWhileLocked(@Nonnull final Collection<Event<STATE>> invalidatedEvents) {
-        //noinspection FieldAccessNotGuarded
-        return invalidatedEvents.stream()
-                .flatMap(invalidatedEvent -> invalidatedEvent.getSignalsEmitted().stream())
-                .map(signal -> signal.getReceiver().removeSignalWhileLocked(signal))
-                .reduce(AffectedActors::plus)
-                .orElse(AffectedActors.emptyInstance());
+    private static <STATE> void removeEventsWhileLocked(
+            @Nonnull final Collection<Event<STATE>> invalidatedEvents,
+            @Nonnull final AffectedActorsAccumulator<STATE> affectedActors) {
+        for (final var invalidatedEvent : invalidatedEvents) {
+            for (final var signal : invalidatedEvent.getSignalsEmitted()) {
+                //noinspection FieldAccessNotGuarded
+                signal.getReceiver().removeSignalWhileLocked(signal, affectedActors);
+            }
+        }
     }
 
     @Nonnull
@@ -229,38 +345,36 @@ public final class Actor<STATE> {
         }
     }
 
-    private CompletableFuture<AffectedActors<STATE>> advanceTo(
-            @Nonnull final Duration when,
-            @Nonnull final Executor executor) {
-        final CompletableFuture<AffectedActors<STATE>> future = new CompletableFuture<>();
-        executor.execute(() -> {
-            final AffectedActors<STATE> affectedActors;
-            try {
-                if (getWhenReceiveNextSignal().compareTo(when) < 0) {
-                    affectedActors = receiveSignal();
-                } else {
-                    affectedActors = AffectedActors.emptyInstance();
-                }
-            } catch (final SignalException e) {
-                future.completeExceptionally(e);
-                return;
+    private CompletableFuture<AffectedActorsAccumulator<STATE>> advanceTo(
+            @Nonnull final Supplier<Duration> target,
+            @Nonnull final ActorAffinity affinity,
+            @Nonnull final EventBudget budget,
+            @Nonnull final CommitTracker commitTracker) {
+        /* Composing the stages, rather than completing a future from within a callback,
+         * lets CompletableFuture complete long chains of dependent stages without deep recursion. */
+        return CompletableFuture.supplyAsync(() -> {
+            final AffectedActorsAccumulator<STATE> affectedActors = new AffectedActorsAccumulator<>();
+            /* The target is read afresh for each signal,
+             * so a continuous run can raise it while the actors are advancing. */
+            final Duration when = target.get();
+            final Duration whenReceiveNextSignal = getWhenReceiveNextSignal();
+            if (whenReceiveNextSignal.compareTo(when) < 0 && !budget.isExhaustedFor(whenReceiveNextSignal)) {
+                final int numberOfEventsBefore = getNumberOfEvents();
+                final long startNanos = System.nanoTime();
+                receiveSignal(when, commitTracker, affectedActors);
+                load.recordSignalReceived(System.nanoTime() - startNanos);
+                budget.consume((long) getNumberOfEvents() - numberOfEventsBefore);
             }
+            return affectedActors;
+        }, affinity.forActor(this)).thenCompose(affectedActors -> {
             if (affectedActors.isEmpty()) {
-                future.complete(affectedActors);
+                return CompletableFuture.completedFuture(affectedActors);
             } else {
-                final Set<Actor<STATE>> furtherActorsToAdvance = plus(affectedActors.getChanged(), affectedActors.getAdded());
-                advanceToWithCompletableFuture(when, furtherActorsToAdvance, executor)
-                        .handle((indirectlyAffectedActors, exception) -> {
-                            if (exception == null) {
-                                future.complete(affectedActors.plus(indirectlyAffectedActors));
-                            } else {
-                                future.completeExceptionally(exception);
-                            }
-                            return null;
-                        });
+                return advanceToWithCompletableFuture(
+                        target, affectedActors.getChangedOrAdded(), affinity, budget, commitTracker)
+                        .thenApply(indirectlyAffectedActors -> combine(affectedActors, indirectlyAffectedActors));
             }
         });
-        return future;
     }
 
     /**
@@ -319,6 +433,38 @@ public final class Actor<STATE> {
         }
     }
 
+    /**
+     * <p>
+     * Add the {@linkplain #getEvents() events} of this actor that occurred in a range of time
+     * to a collection, in ascending order.
+     * </p>
+     * <p>
+     * Unlike {@link #getEvents()}, this does not copy all the events.
+     * It examines only the events in the range and the events after the range,
+     * so it is efficient for ranges near the end of the events.
+     * </p>
+     *
+     * @param from The time at or after which events are added, or null if there is no lower limit.
+     * @param to   The time before which events are added.
+     */
+    void addEvents(
+            @Nullable final Duration from, @Nonnull final Duration to,
+            @Nonnull final Collection<Event<STATE>> destination) {
+        final Deque<Event<STATE>> eventsInRange = new ArrayDeque<>();
+        synchronized (lock) {
+            for (final var e = events.descendingIterator(); e.hasNext(); ) {
+                final var event = e.next();
+                final Duration when = event.getWhen();
+                if (from != null && when.compareTo(from) < 0) {
+                    break;
+                } else if (when.compareTo(to) < 0) {
+                    eventsInRange.addFirst(event);
+                }
+            }
+        }
+        destination.addAll(eventsInRange);
+    }
+
     /**
      * <p>
      * The earliest point in time for which the state of this actor is known.
@@ -333,9 +479,7 @@ public final class Actor<STATE> {
      */
     @Nonnull
     public Duration getStart() {
-        synchronized (lock) {
-            return start;
-        }
+        return summary.getStart();
     }
 
     /**
@@ -366,6 +510,30 @@ public final class Actor<STATE> {
         }
     }
 
+    /**
+     * <p>
+     * The state of this actor at a given point in time.
+     * </p>
+     * <ul>
+     * <li>The state is the {@linkplain ValueHistory#get(Duration) value} of the
+     * {@linkplain #getStateHistory() state history} at the given time.</li>
+     * <li>The state is null before the {@linkplain #getStart() start} time,
+     * and after the actor has been destroyed.</li>
+     * <li>This method is likely to be more efficient than using
+     * {@link #getStateHistory()} and then getting the value of the history,
+     * because it reads the state history without copying it.</li>
+     * </ul>
+     *
+     * @throws NullPointerException If {@code when} is null.
+     */
+    @Nullable
+    public STATE getState(@Nonnull final Duration when) {
+        Objects.requireNonNull(when, "when");
+        synchronized (lock) {
+            return stateHistory.get(when);
+        }
+    }
+
     /**
      * <p>
      * The signals that, when received, will add to the {@linkplain #getEvents() sequence of events}
@@ -410,11 +578,128 @@ public final class Actor<STATE> {
      */
     @Nonnull
     public Duration getWhenReceiveNextSignal() {
-        synchronized (lock) {
-            return computeNextSignalToReceive();
+        final Duration whenReceived = summary.getWhenReceiveNextSignal();
+        if (whenReceived == null) {
+            return scheduleNextSignal().whenReceived;
+        } else {
+            return whenReceived;
         }
     }
 
+    /**
+     * <p>
+     * The earliest time at which this actor might yet change the state of any actor, including itself.
+     * </p>
+     * <p>
+     * That is the {@linkplain #getWhenReceiveNextSignal() time of its next signal}, or,
+     * if this actor has {@linkplain Summary#getWhenUndeliveredMulticasts() not yet delivered} all the signals
+     * of the {@linkplain Event#getMulticastsEmitted() multicasts} emitted by one of its events,
+     * the time of that event, if that is earlier.
+     * The signals of a multicast can not be received before the multicast was sent.
+     * </p>
+     *
+     * @throws SignalException If a {@link Signal} object throws a {@link RuntimeException}.
+     */
+    @Nonnull
+    Duration getWhenUncommitted() {
+        final Duration whenReceiveNextSignal = getWhenReceiveNextSignal();
+        final Duration whenUndeliveredMulticasts = summary.getWhenUndeliveredMulticasts();
+        if (whenUndeliveredMulticasts != null && whenUndeliveredMulticasts.compareTo(whenReceiveNextSignal) < 0) {
+            return whenUndeliveredMulticasts;
+        } else {
+            return whenReceiveNextSignal;
+        }
+    }
+
+    /**
+     * <p>
+     * The number of {@linkplain #getSignalsToReceive() signals to receive}.
+     * </p>
+     * <p>
+     * This is likely to be more efficient than using {@link #getSignalsToReceive()}
+     * and then getting the size of the set. It does not acquire the lock of this actor.
+     * </p>
+     */
+    public int getNumberOfSignalsToReceive() {
+        return summary.getNumberOfSignalsToReceive();
+    }
+
+    /**
+     * <p>
+     * The number of {@linkplain #getEvents() events} of this actor.
+     * </p>
+     * <p>
+     * This is likely to be more efficient than using {@link #getEvents()}
+     * and then getting the size of the set. It does not acquire the lock of this actor.
+     * </p>
+     */
+    public int getNumberOfEvents() {
+        return summary.getNumberOfEvents();
+    }
+
+    /**
+     * <p>
+     * Measurements of the computational load of this actor.
+     * </p>
+     * <p>
+     * This does not acquire the lock of this actor.
+     * </p>
+     */
+    @Nonnull
+    public ActorLoad getLoad() {
+        return load;
+    }
+
+    /**
+     * <p>
+     * The seed from which the random number streams of the events of this actor are derived.
+     * </p>
+     * <p>
+     * For a reproducible stochastic simulation, construct the actors with seeds derived from a seed for the
+     * whole {@link Universe}, using a {@link SplittableRandom}, for example.
+     * An actor created by an event can be given a seed drawn from the random number stream of that event.
+     * </p>
+     *
+     * @see Signal#createRandom(Duration)
+     */
+    public long getRandomSeed() {
+        return randomSeed;
+    }
+
+    /**
+     * <p>
+     * Derive a seed for a random number stream from a given seed and a key.
+     * </p>
+     * <p>
+     * This uses the mixing function of the SplitMix64 algorithm,
+     * so streams derived with different keys are statistically independent.
+     * </p>
+     */
+    static long deriveRandomSeed(final long seed, final long key) {
+        long z = seed + 0x9E3779B97F4A7C15L * (key + 1L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * <p>
+     * A consistent snapshot of summary information about this actor.
+     * </p>
+     * <p>
+     * This does not acquire the lock of this actor,
+     * so it is suitable for frequent use, such as by monitoring code.
+     * </p>
+     * <ul>
+     * <li>The {@linkplain Summary#getStart() start} time of the summary is the {@linkplain #getStart() start}
+     * time of this actor.</li>
+     * </ul>
+     */
+    @Nonnull
+    public Summary getSummary() {
+        return summary;
+    }
+
     /**
      * <p>
      * Add a given event to the {@linkplain #getEvents() sequence of events} of this actor.
@@ -441,7 +726,49 @@ public final class Actor<STATE> {
                     throw new IllegalStateException("not after the last event");
                 }
             }
-            appendEventWhileLocked(event);
+            appendEventWhileLocked(event, new AffectedActorsAccumulator<>());
+        }
+        deliverMulticastsEmitted(event, new AffectedActorsAccumulator<>());
+    }
+
+    /**
+     * <p>
+     * Have a given spatial medium index the positions of this actor,
+     * updating the index whenever the {@linkplain #getStateHistory() state history} changes.
+     * </p>
+     */
+    void addSpatialMedium(@Nonnull final SpatialMedium<STATE> spatialMedium) {
+        synchronized (lock) {
+            if (!spatialMedia.contains(spatialMedium)) {
+                spatialMedia.add(spatialMedium);
+                spatialMedium.trackWhileLocked(this, stateHistory);
+            }
+        }
+    }
+
+    /**
+     * <p>
+     * Have a given observer be told of the changes to the {@linkplain #getEvents() events} of this actor.
+     * </p>
+     * <p>
+     * The observer is immediately told of the current events of this actor, as if they had just been appended,
+     * so it can later be told of their removal.
+     * Adding an observer that this actor already has has no effect.
+     * </p>
+     *
+     * @see EventObserver
+     */
+    public void addEventObserver(@Nonnull final EventObserver<STATE> observer) {
+        Objects.requireNonNull(observer, "observer");
+        synchronized (lock) {
+            if (!eventObservers.contains(observer)) {
+                eventObservers.add(observer);
+                Event<STATE> previousEvent = null;
+                for (final var event : events) {
+                    notifyEventObserver(observer, true, event, previousEvent);
+                    previousEvent = event;
+                }
+            }
         }
     }
 
@@ -472,8 +799,10 @@ public final class Actor<STATE> {
     @GuardedBy("lock")
     private void addUnscheduledSignalToReceive(@Nonnull final Signal<STATE> signal) {
         assert Thread.holdsLock(lock);
-        if (!eventsForSignals.containsKey(signal) && unscheduledSignalsToReceive.add(signal)) {
+        if (!eventsForSignals.containsKey(signal) && !signalsToReceive.contains(signal)
+                && unscheduledSignalsToReceive.add(signal)) {
             version++;
+            publishSummaryWhileLocked();
         }
     }
 
@@ -489,6 +818,11 @@ public final class Actor<STATE> {
      * {@linkplain  #getEvents() event} for this actor,
      * which will be the {@linkplain SortedSet#last() last} of the events.
      * </p>
+     * <p>
+     * This does not hold the lock of this actor while it calls methods of {@link Signal} objects,
+     * which may be expensive. Instead, it validates, when it commits a change,
+     * that the actor has not been changed concurrently, and tries again if it has.
+     * </p>
      *
      * @return The actors affected by this change.
      * <ul>
@@ -500,44 +834,80 @@ public final class Actor<STATE> {
      */
     @Nonnull
     public AffectedActors<STATE> receiveSignal() {
+        final AffectedActorsAccumulator<STATE> affectedActors = new AffectedActorsAccumulator<>();
+        receiveSignal(null, new CommitTracker(), affectedActors);
+        return affectedActors.toAffectedActors();
+    }
+
+    /**
+     * <p>
+     * Receive the first signal to receive, unless it would be received at or after a given time.
+     * </p>
+     * <p>
+     * A null {@code until} indicates that there is no limit.
+     * </p>
+     * <p>
+     * The limit is checked for the signal actually received,
+     * because a concurrent change might make that a different signal from the one
+     * that was first to receive when the caller decided to call this method.
+     * </p>
+     * <p>
+     * Each attempt to receive or roll back is recorded as a change, at the time of the signal,
+     * by a given {@link CommitTracker}, so concurrent computations of the committed time account for it.
+     * </p>
+     */
+    private void receiveSignal(
+            @Nullable final Duration until,
+            @Nonnull final CommitTracker commitTracker,
+            @Nonnull final AffectedActorsAccumulator<STATE> affectedActors) {
         boolean done = false;
-        AffectedActors<STATE> totalResult = AffectedActors.emptyInstance();
         do {
-            final long previousVersion;
-            final Event<STATE> eventToAdd;
+            final Schedule<STATE> schedule = scheduleNextSignal();
+            final STATE state;
             final Event<STATE> eventToRemove;
             synchronized (lock) {
-                computeNextSignalToReceive();
-                previousVersion = version;
-                if (nextSignalToReceive == null) {
-                    eventToAdd = null;
+                if (version != schedule.version) {
+                    continue;// changed concurrently, so try again
+                }
+                if (schedule.signal == null) {
+                    state = null;
                     eventToRemove = null;
                 } else {
-                    eventToAdd = createNextEvent();
+                    state = stateHistory.get(schedule.whenReceived);
                     final var lastEvent = events.isEmpty() ? null : events.last();
-                    if (lastEvent != null && eventToAdd.compareTo(lastEvent) <= 0) {
+                    if (lastEvent != null && compareTo(
+                            schedule.signal, schedule.whenReceived,
+                            lastEvent.getCausingSignal(), lastEvent.getWhen()) <= 0) {
                         eventToRemove = lastEvent;
                     } else {
                         eventToRemove = null;
                     }
                 }
             }
-            if (eventToRemove != null) {
-                final AffectedActors<STATE> intermediateResult = tryToRemoveEvent(previousVersion, eventToRemove);
-                if (intermediateResult != null) {
-                    totalResult = totalResult.plus(intermediateResult);
-                }
-            } else if (eventToAdd != null) {
-                final AffectedActors<STATE> intermediateResult = tryToAddEvent(previousVersion, eventToAdd);
-                if (intermediateResult != null) {
-                    totalResult = totalResult.plus(intermediateResult);
-                    done = true;
-                }
-            } else {
+            if (schedule.signal == null || until != null && until.compareTo(schedule.whenReceived) <= 0) {
                 done = true;
+                continue;
+            }
+            commitTracker.startChange(schedule.whenReceived);
+            try {
+                if (eventToRemove != null) {
+                    tryToRemoveEvent(schedule.version, eventToRemove, affectedActors);
+                } else {
+                    assert state != null;
+                    // Compute the event without holding the lock; tryToAddEvent validates the version.
+                    final Event<STATE> eventToAdd = receive(schedule.signal, schedule.whenReceived, state);
+                    done = tryToAddEvent(schedule.version, eventToAdd, affectedActors);
+                    if (done) {
+                        if (!eventToAdd.getCreatedActors().isEmpty()) {
+                            commitTracker.actorsCreated(eventToAdd.getWhen());
+                        }
+                        deliverMulticastsEmitted(eventToAdd, affectedActors);
+                    }
+                }
+            } finally {
+                commitTracker.finishChange(schedule.whenReceived);
             }
         } while (!done);
-        return totalResult;
     }
 
     /**
@@ -556,45 +926,205 @@ public final class Actor<STATE> {
      */
     public void clearEventsBefore(@Nonnull final Duration when) {
         Objects.requireNonNull(when, "when");
-        synchronized (lock) {
-            final var whenNextSignal = computeNextSignalToReceive();
-            if (whenNextSignal != null && whenNextSignal.compareTo(when) < 0) {
-                throw new IllegalStateException("when before whenReceiveNextSignal");
-            }
-            final var e = events.iterator();
-            Event<STATE> lastEvent = null;
-            while (e.hasNext()) {
-                final var event = e.next();
-                if (event.getWhen().compareTo(when) < 0) {
-                    e.remove();
-                    lastEvent = event;
-                } else {
-                    break;
+        boolean done = false;
+        do {
+            final Schedule<STATE> schedule = scheduleNextSignal();
+            synchronized (lock) {
+                if (version == schedule.version) {
+                    if (schedule.whenReceived.compareTo(when) < 0) {
+                        throw new IllegalStateException("when before whenReceiveNextSignal");
+                    }
+                    clearEventsBeforeWhileLocked(when);
+                    done = true;
                 }
             }
-            if (lastEvent != null) {
-                start = lastEvent.getWhen();
-                stateHistory.setValueUntil(start.minusNanos(1), null);
+        } while (!done);
+    }
+
+    @GuardedBy("lock")
+    private void clearEventsBeforeWhileLocked(@Nonnull final Duration when) {
+        final var e = events.iterator();
+        Event<STATE> lastEvent = null;
+        while (e.hasNext()) {
+            final var event = e.next();
+            if (event.getWhen().compareTo(when) < 0) {
+                e.remove();
+                lastEvent = event;
+            } else {
+                break;
+            }
+        }
+        if (lastEvent != null) {
+            start = lastEvent.getWhen();
+            stateHistory.setValueUntil(start.minusNanos(1), null);
+            for (final var spatialMedium : spatialMedia) {
+                spatialMedium.clearBeforeWhileLocked(this, start);
+            }
+            publishSummaryWhileLocked();
+        }
+    }
+
+    /**
+     * <p>
+     * Roll back the {@linkplain #getLastEvent() last event} of this actor,
+     * if it occurred after a given time,
+     * returning its causing signal to the {@linkplain #getSignalsToReceive() signals to receive}.
+     * </p>
+     * <p>
+     * This is the <i>cancelback</i> operation of a {@link Universe} that has exceeded its memory budget.
+     * The rolled back event is removed in the same manner as an event invalidated by a straggler signal,
+     * so the effects of the event on other actors are also rolled back.
+     * </p>
+     *
+     * @param after The time at or before which events must not be rolled back.
+     * @return Whether an event was rolled back.
+     */
+    boolean cancelBackLastEvent(
+            @Nonnull final Duration after,
+            @Nonnull final AffectedActorsAccumulator<STATE> affectedActors) {
+        while (true) {
+            final long previousVersion;
+            final Event<STATE> lastEvent;
+            synchronized (lock) {
+                previousVersion = version;
+                lastEvent = events.isEmpty() ? null : events.last();
+            }
+            if (lastEvent == null || lastEvent.getWhen().compareTo(after) <= 0) {
+                return false;
+            }
+            if (tryToRemoveEvent(previousVersion, lastEvent, affectedActors)) {
+                return true;
             }
         }
     }
 
-    @Nullable
-    private AffectedActors<STATE> tryToRemoveEvent(
+    /**
+     * <p>
+     * Create the fork of this actor for a {@linkplain Universe#fork() fork} of a universe,
+     * without any {@linkplain #getSignalsToReceive() signals to receive}.
+     * </p>
+     * <p>
+     * The fork has no {@linkplain #getEvents() events}.
+     * Its {@linkplain #getStart() start} time is as late as possible while still including the part
+     * of the {@linkplain #getStateHistory() state history} of this actor that its signals to receive
+     * and its last event depend on. It shares the (immutable) states of that part of the history,
+     * so creating the fork is cheap.
+     * </p>
+     */
+    @Nonnull
+    Actor<STATE> forkWithoutSignals(final long randomSeed) {
+        synchronized (lock) {
+            Duration forkStart = start;
+            if (!events.isEmpty()) {
+                forkStart = events.last().getWhen().minusNanos(1L);
+                for (final var signal : signalsToReceive) {
+                    forkStart = min(forkStart, signal.getWhenSent());
+                }
+                for (final var signal : unscheduledSignalsToReceive) {
+                    forkStart = min(forkStart, signal.getWhenSent());
+                }
+            }
+            return new Actor<>(forkStart, stateHistory, randomSeed);
+        }
+    }
+
+    @Nonnull
+    private static Duration min(@Nonnull final Duration a, @Nonnull final Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    private boolean tryToRemoveEvent(
             final long previousVersion,
-            @Nonnull final Event<STATE> event
+            @Nonnull final Event<STATE> event,
+            @Nonnull final AffectedActorsAccumulator<STATE> affectedActors
     ) {
         //noinspection FieldAccessNotGuarded
-        return doWithAllActorsLocked(actorVersionsToLockToRemoveEvent(previousVersion, event), () -> removeEventWhileLocked(event));
+        return doWithAllActorsLocked(actorVersionsToLockToRemoveEvent(previousVersion, event),
+                () -> removeEventWhileLocked(event, affectedActors));
     }
 
-    @Nullable
-    private AffectedActors<STATE> tryToAddEvent(
+    private boolean tryToAddEvent(
             final long previousVersion,
-            @Nonnull final Event<STATE> event
+            @Nonnull final Event<STATE> event,
+            @Nonnull final AffectedActorsAccumulator<STATE> affectedActors
     ) {
         //noinspection FieldAccessNotGuarded
-        return doWithAllActorsLocked(actorVersionsToLockToAddEvent(previousVersion, event), () -> appendEventWhileLocked(event));
+        return doWithAllActorsLocked(actorVersionsToLockToAddEvent(previousVersion, event),
+                () -> appendEventWhileLocked(event, affectedActors));
+    }
+
+    /**
+     * <p>
+     * Deliver the signals of the {@linkplain Event#getMulticastsEmitted() multicasts emitted} by an event
+     * that this actor has appended to its events.
+     * </p>
+     * <p>
+     * This locks the receivers of the signals in batches, together with this actor,
+     * rather than locking them all at once.
+     * It stops if the event is concurrently rolled back,
+     * because rolling back the event removes any signals already delivered.
+     * Until this has delivered all the signals, the receivers that have yet to receive them
+     * behave as if the signals had not yet arrived, so delivering a signal might cause its receiver to roll back.
+     * The {@linkplain Summary#getWhenUndeliveredMulticasts() summary} of this actor records the time of the event
+     * until this has delivered all the signals,
+     * so the {@linkplain #getWhenUncommitted() uncommitted time} of this actor accounts for the undelivered signals.
+     * </p>
+     */
+    private void deliverMulticastsEmitted(
+            @Nonnull final Event<STATE> event,
+            @Nonnull final AffectedActorsAccumulator<STATE> affectedActors) {
+        if (event.getMulticastsEmitted().isEmpty()) {
+            return;
+        }
+        for (final var multicast : event.getMulticastsEmitted()) {
+            final List<Signal<STATE>> signals = multicast.getSignals();
+            final int nSignals = signals.size();
+            for (int from = 0; from < nSignals; from += MULTICAST_BATCH_SIZE) {
+                final var batch = signals.subList(from, Math.min(nSignals, from + MULTICAST_BATCH_SIZE));
+                if (!deliverSignals(event, batch, affectedActors)) {
+                    return;
+                }
+            }
+        }
+        synchronized (lock) {
+            if (eventsWithUndeliveredMulticasts.remove(event)) {
+                publishSummaryWhileLocked();
+            }
+        }
+    }
+
+    /**
+     * @return whether the event is still one of the events of this actor.
+     */
+    private boolean deliverSignals(
+            @Nonnull final Event<STATE> event,
+            @Nonnull final List<Signal<STATE>> signals,
+            @Nonnull final AffectedActorsAccumulator<STATE> affectedActors) {
+        final Set<Actor<STATE>> createdActors = event.getCreatedActors();
+        final boolean[] committed = new boolean[1];
+        boolean done;
+        do {
+            final NavigableMap<Actor<STATE>, Long> versions = createActorToVersionMapInLockOrder();
+            versions.put(this, getVersion());
+            for (final var signal : signals) {
+                final var receiver = signal.getReceiver();
+                versions.putIfAbsent(receiver, receiver.getVersion());
+            }
+            //noinspection FieldAccessNotGuarded
+            done = doWithAllActorsLocked(versions, () -> {
+                committed[0] = eventsForSignals.get(event.getCausingSignal()) == event;
+                if (committed[0]) {
+                    for (final var signal : signals) {
+                        final Actor<STATE> receiver = signal.getReceiver();
+                        receiver.addUnscheduledSignalToReceive(signal);
+                        if (!createdActors.contains(receiver)) {
+                            affectedActors.addChanged(receiver);
+                        }
+                    }
+                }
+            });
+        } while (!done);
+        return committed[0];
     }
 
     @Nonnull
@@ -604,7 +1134,7 @@ public final class Actor<STATE> {
         assert event.getAffectedObject() == this;
         final NavigableMap<Actor<STATE>, Long> result = createActorToVersionMapInLockOrder();
         result.put(this, previousVersion);
-        for (final var signal : event.getSignalsEmitted()) {
+        for (final var signal : event.getUnicastSignalsEmitted()) {
             final var receiver = signal.getReceiver();
             result.putIfAbsent(receiver, receiver.getVersion());
         }
@@ -621,63 +1151,109 @@ public final class Actor<STATE> {
         assert event.getAffectedObject() == this;
         final NavigableMap<Actor<STATE>, Long> result = createActorToVersionMapInLockOrder();
         result.put(this, previousVersion);
-        final Set<Event<STATE>> events = new HashSet<>();
+        final Set<Event<STATE>> events;
+        synchronized (lock) {
+            events = new HashSet<>(this.events.tailSet(event, true));
+        }
         events.add(event);
         addActorVersionsToLockToRemoveEvents(result, events);
         return result;
     }
 
-    @GuardedBy("lock")
-    private Duration computeNextSignalToReceive() throws SignalException {
-        if (whenReceiveNextSignal == null) {
-            nextSignalToReceive = null;
-            whenReceiveNextSignal = Signal.NEVER_RECEIVED;
-            signalsToReceive.addAll(unscheduledSignalsToReceive);
-            unscheduledSignalsToReceive.clear();
-            for (final var signal : signalsToReceive) {
-                considerAsNextSignalToReceive(signal);
+    /**
+     * <p>
+     * Compute which signal this actor will receive next, and when.
+     * </p>
+     * <p>
+     * This does not hold the lock while it calls methods of {@link Signal} objects,
+     * which may be expensive. It takes a snapshot of the signals to consider,
+     * and of the part of the state history that can affect when they are received, while holding the lock.
+     * It computes the reception times without holding the lock.
+     * It records the result only if the {@linkplain #version version} of this actor has not changed in the meantime,
+     * and tries again if it has.
+     * </p>
+     *
+     * @return The next signal to receive, for a version that was current when this method returned.
+     */
+    @Nonnull
+    private Schedule<STATE> scheduleNextSignal() throws SignalException {
+        Schedule<STATE> result = null;
+        do {
+            final long snapshotVersion;
+            final List<Signal<STATE>> signalsToConsider;
+            final ValueHistory<STATE> stateHistorySnapshot;
+            Signal<STATE> signal;
+            Duration whenReceived;
+            synchronized (lock) {
+                if (whenReceiveNextSignal != null && unscheduledSignalsToReceive.isEmpty()) {
+                    return new Schedule<>(version, nextSignalToReceive, whenReceiveNextSignal);
+                }
+                snapshotVersion = version;
+                signalsToConsider = new ArrayList<>(unscheduledSignalsToReceive);
+                if (whenReceiveNextSignal == null) {
+                    signalsToConsider.addAll(signalsToReceive);
+                    signal = null;
+                    whenReceived = Signal.NEVER_RECEIVED;
+                } else {
+                    signal = nextSignalToReceive;
+                    whenReceived = whenReceiveNextSignal;
+                }
+                stateHistorySnapshot = snapshotStateHistoryWhileLocked(signalsToConsider);
             }
-        } else {
-            for (final var signal : List.copyOf(unscheduledSignalsToReceive)) {
-                considerAsNextSignalToReceive(signal);
+            for (final var candidate : signalsToConsider) {
+                final Duration candidateWhenReceived = computeWhenReceived(candidate, stateHistorySnapshot);
+                if (compareTo(candidate, candidateWhenReceived, signal, whenReceived) < 0) {
+                    signal = candidate;
+                    whenReceived = candidateWhenReceived;
+                }
             }
-        }
-        assert unscheduledSignalsToReceive.isEmpty();
-        return whenReceiveNextSignal;
+            synchronized (lock) {
+                if (version == snapshotVersion) {
+                    // Any change to the signals to receive would have changed the version.
+                    signalsToReceive.addAll(signalsToConsider);
+                    unscheduledSignalsToReceive.clear();
+                    nextSignalToReceive = signal;
+                    whenReceiveNextSignal = whenReceived;
+                    publishSummaryWhileLocked();
+                    result = new Schedule<>(version, signal, whenReceived);
+                }
+            }
+        } while (result == null);
+        return result;
     }
 
+    /**
+     * <p>
+     * A copy of the part of the state history of this actor that can affect when given signals are received.
+     * A signal can not be received before it is sent, so that is the part at and after the earliest sending time.
+     * </p>
+     */
     @GuardedBy("lock")
     @Nonnull
-    private Event<STATE> createNextEvent() throws SignalException {
-        final STATE state = stateHistory.get(whenReceiveNextSignal);
-        assert state != null;
-        assert nextSignalToReceive != null;
-        try {
-            return nextSignalToReceive.receive(whenReceiveNextSignal, state);
-        } catch (final RuntimeException e) {
-            throw new SignalException(nextSignalToReceive, e);
-        }
+    private ValueHistory<STATE> snapshotStateHistoryWhileLocked(@Nonnull final Collection<Signal<STATE>> signals) {
+        final Duration earliestWhenSent = signals.stream()
+                .map(Signal::getWhenSent)
+                .min(Comparator.naturalOrder())
+                .orElse(ValueHistory.END_OF_TIME);
+        return new ModifiableValueHistory<>(stateHistory.tailHistory(earliestWhenSent));
     }
 
-    @GuardedBy("lock")
-    private void considerAsNextSignalToReceive(@Nonnull final Signal<STATE> signal) throws SignalException {
+    @Nonnull
+    private static <STATE> Event<STATE> receive(
+            @Nonnull final Signal<STATE> signal,
+            @Nonnull final Duration when,
+            @Nonnull final STATE state) throws SignalException {
         try {
-            final Duration whenReceived = computeWhenReceived(signal);
-            if (compareTo(signal, whenReceived, nextSignalToReceive, whenReceiveNextSignal) < 0) {
-                nextSignalToReceive = signal;
-                whenReceiveNextSignal = whenReceived;
-            }
-            signalsToReceive.add(signal);
-            unscheduledSignalsToReceive.remove(signal);
-        } catch (final SignalException e) {
-            invalidateNextSignalToReceive();
-            throw e;
+            return signal.receive(when, state);
+        } catch (final RuntimeException e) {
+            throw new SignalException(signal, e);
         }
     }
 
     @Nonnull
-    @GuardedBy("lock")
-    private Duration computeWhenReceived(@Nonnull final Signal<STATE> signal) throws SignalException {
+    private static <STATE> Duration computeWhenReceived(
+            @Nonnull final Signal<STATE> signal,
+            @Nonnull final ValueHistory<STATE> stateHistory) throws SignalException {
         try {
             return signal.getWhenReceived(stateHistory);
         } catch (final RuntimeException e) {
@@ -686,14 +1262,25 @@ public final class Actor<STATE> {
     }
 
     private long getVersion() {
-        synchronized (lock) {
-            return version;
-        }
+        return summary.getVersion();
     }
 
-    @Nonnull
     @GuardedBy("lock")
-    private AffectedActors<STATE> appendEventWhileLocked(@Nonnull final Event<STATE> event)
+    private void publishSummaryWhileLocked() {
+        assert Thread.holdsLock(lock);
+        summary = new Summary(
+                version, start,
+                unscheduledSignalsToReceive.isEmpty() ? whenReceiveNextSignal : null,
+                signalsToReceive.size() + unscheduledSignalsToReceive.size(),
+                events.size(),
+                events.isEmpty() ? null : events.last().getWhen(),
+                eventsWithUndeliveredMulticasts.isEmpty() ? null : eventsWithUndeliveredMulticasts.first().getWhen());
+    }
+
+    @GuardedBy("lock")
+    private void appendEventWhileLocked(
+            @Nonnull final Event<STATE> event,
+            @Nonnull final AffectedActorsAccumulator<STATE> affectedActors)
             throws SignalException {
         assert Thread.holdsLock(lock);
         final Signal<STATE> causingSignal = event.getCausingSignal();
@@ -701,27 +1288,41 @@ public final class Actor<STATE> {
         assert this == event.getAffectedObject();
         invalidateNextSignalToReceive();
         version++;
+        if (!eventObservers.isEmpty()) {
+            final Event<STATE> previousEvent = events.isEmpty() ? null : events.last();
+            for (final var observer : eventObservers) {
+                notifyEventObserver(observer, true, event, previousEvent);
+            }
+        }
         events.add(event);
         assert events.last() == event;
+        load.recordEventAdded();
         eventsForSignals.put(causingSignal, event);
         stateHistory.setValueFrom(event.getWhen(), event.getState());
+        for (final var spatialMedium : spatialMedia) {
+            spatialMedium.setStateFromWhileLocked(this, event.getWhen(), event.getState());
+        }
         signalsToReceive.remove(causingSignal);
-        final Collection<Signal<STATE>> signalsEmitted = event.getSignalsEmitted();
+        if (!event.getMulticastsEmitted().isEmpty()) {
+            eventsWithUndeliveredMulticasts.add(event);
+        }
+        publishSummaryWhileLocked();
         final Set<Actor<STATE>> createdActors = event.getCreatedActors();
-        final Set<Actor<STATE>> changedActors = new HashSet<>();
-        for (final var emittedSignal : signalsEmitted) {
+        affectedActors.add(Set.of(), createdActors, Set.of());
+        for (final var emittedSignal : event.getUnicastSignalsEmitted()) {
             final Actor<STATE> receiver = emittedSignal.getReceiver();
             receiver.addUnscheduledSignalToReceive(emittedSignal);
-            changedActors.add(receiver);
+            if (!createdActors.contains(receiver)) {
+                affectedActors.addChanged(receiver);
+            }
         }
-        changedActors.removeAll(createdActors);
-        changedActors.add(this);
-        return new AffectedActors<>(changedActors, createdActors, Set.of());
+        affectedActors.addChanged(this);
     }
 
-    @Nonnull
     @GuardedBy("lock")
-    private AffectedActors<STATE> removeEventWhileLocked(@Nonnull final Event<STATE> event) {
+    private void removeEventWhileLocked(
+            @Nonnull final Event<STATE> event,
+            @Nonnull final AffectedActorsAccumulator<STATE> affectedActors) {
         assert this == event.getAffectedObject();
         assert Thread.holdsLock(lock);
         final List<Event<STATE>> invalidatedEvents = new ArrayList<>(events.tailSet(event, true));
@@ -730,47 +1331,151 @@ public final class Actor<STATE> {
                 .map(Event::getCausingSignal)
                 .collect(Collectors.toUnmodifiableList());
         invalidatedEvents.forEach(events::remove);
+        invalidatedEvents.forEach(eventsWithUndeliveredMulticasts::remove);
+        load.recordEventsRolledBack(invalidatedEvents.size());
         invalidatedCausingSignals.forEach(eventsForSignals.keySet()::remove);
+        notifyEventObserversOfRemovalWhileLocked(invalidatedEvents);
+        restoreStateWhileLocked(invalidatedEvents);
         signalsToReceive.addAll(invalidatedCausingSignals);
         invalidateNextSignalToReceive();
         version++;
-        var result = new AffectedActors<>(Set.of(this), Set.of(), Set.of());
-        result = result.plus(removeEventsWhileLocked(invalidatedEvents));
-        result = result.plus(invalidatedEvents.stream().sequential()
-                .flatMap(invalidatedEvent -> invalidatedEvent.getCreatedActors().stream())
-                .map(Actor::removeWhileLocked)
-                .reduce(AffectedActors::plus)
-                .orElse(AffectedActors.emptyInstance()));
-        return result;
+        publishSummaryWhileLocked();
+        affectedActors.addChanged(this);
+        removeEventsWhileLocked(invalidatedEvents, affectedActors);
+        for (final var invalidatedEvent : invalidatedEvents) {
+            for (final var createdActor : invalidatedEvent.getCreatedActors()) {
+                //noinspection FieldAccessNotGuarded
+                createdActor.removeWhileLocked(affectedActors);
+            }
+        }
     }
 
-    @Nonnull
+    /**
+     * <p>
+     * Tell the {@linkplain #addEventObserver(EventObserver) event observers} of this actor
+     * that given events, which are in reverse order, have been removed.
+     * </p>
+     * <p>
+     * The {@link #events} must not contain any events between the given events,
+     * but they may still contain the given events themselves.
+     * </p>
+     */
+    @GuardedBy("lock")
+    private void notifyEventObserversOfRemovalWhileLocked(@Nonnull final List<Event<STATE>> invalidatedEvents) {
+        assert Thread.holdsLock(lock);
+        if (eventObservers.isEmpty() || invalidatedEvents.isEmpty()) {
+            return;
+        }
+        final int nInvalidatedEvents = invalidatedEvents.size();
+        final Event<STATE> earliestPreviousEvent = events.lower(invalidatedEvents.get(nInvalidatedEvents - 1));
+        for (int i = 0; i < nInvalidatedEvents; ++i) {
+            final var invalidatedEvent = invalidatedEvents.get(i);
+            final var previousEvent = i + 1 < nInvalidatedEvents ? invalidatedEvents.get(i + 1) : earliestPreviousEvent;
+            for (final var observer : eventObservers) {
+                notifyEventObserver(observer, false, invalidatedEvent, previousEvent);
+            }
+        }
+    }
+
+    /**
+     * <p>
+     * Tell an event observer that an event has been appended or removed,
+     * given the event before it, or null if it is the first of the events.
+     * </p>
+     */
+    @GuardedBy("lock")
+    private void notifyEventObserver(
+            @Nonnull final EventObserver<STATE> observer, final boolean appended,
+            @Nonnull final Event<STATE> event, @Nullable final Event<STATE> previousEvent) {
+        final Duration previousWhen;
+        final STATE previousState;
+        if (previousEvent == null) {
+            previousWhen = start;
+            previousState = stateHistory.get(start);
+        } else {
+            previousWhen = previousEvent.getWhen();
+            previousState = previousEvent.getState();
+        }
+        assert previousState != null;
+        if (appended) {
+            observer.eventAppended(event, previousWhen, previousState);
+        } else {
+            observer.eventRemoved(event, previousWhen, previousState);
+        }
+    }
+
+    /**
+     * <p>
+     * Roll back the {@link #stateHistory} to before the given events,
+     * which have already been removed from the {@link #events}, and are in reverse order.
+     * </p>
+     * <p>
+     * Restores the state in effect just before the earliest of the events:
+     * the state of the latest remaining event if that is simultaneous with the earliest of the events,
+     * and the saved state from just before the earliest of the events otherwise.
+     * The saved state need not be the state of a remaining event,
+     * because the state history of a {@linkplain #forkWithoutSignals(long) fork} begins with states
+     * of the actor it was forked from.
+     * </p>
+     */
     @GuardedBy("lock")
-    private AffectedActors<STATE> removeSignalWhileLocked(@Nonnull final Signal<STATE> signal) {
+    private void restoreStateWhileLocked(@Nonnull final List<Event<STATE>> invalidatedEvents) {
+        assert Thread.holdsLock(lock);
+        assert !invalidatedEvents.isEmpty();
+        final var earliestInvalidatedEvent = invalidatedEvents.get(invalidatedEvents.size() - 1);
+        final Duration when = earliestInvalidatedEvent.getWhen();
+        final STATE state;
+        if (!events.isEmpty() && events.last().getWhen().equals(when)) {
+            state = events.last().getState();// a simultaneous event
+        } else {
+            state = stateHistory.get(when.minusNanos(1L));
+        }
+        stateHistory.setValueFrom(when, state);
+        for (final var spatialMedium : spatialMedia) {
+            spatialMedium.setStateFromWhileLocked(this, when, state);
+        }
+    }
+
+    @GuardedBy("lock")
+    private void removeSignalWhileLocked(
+            @Nonnull final Signal<STATE> signal,
+            @Nonnull final AffectedActorsAccumulator<STATE> affectedActors) {
         assert Thread.holdsLock(lock);
         version++;
-        if (unscheduledSignalsToReceive.remove(signal)) {
+        final boolean wasUnscheduled = unscheduledSignalsToReceive.remove(signal);
+        final boolean wasScheduled = signalsToReceive.remove(signal);
+        if (wasUnscheduled || wasScheduled) {
             invalidateNextSignalToReceive();
-            return new AffectedActors<>(Set.of(this), Set.of(), Set.of());
+            publishSummaryWhileLocked();
+            affectedActors.addChanged(this);
         } else {
             final var invalidatedEvent = eventsForSignals.get(signal);
             if (invalidatedEvent == null) {
-                return AffectedActors.emptyInstance();
+                publishSummaryWhileLocked();
             } else {
-                return removeEventWhileLocked(invalidatedEvent);
+                removeEventWhileLocked(invalidatedEvent, affectedActors);
+                // Removing the event returned the signal to the signals to receive, but it must not be received.
+                signalsToReceive.remove(signal);
+                publishSummaryWhileLocked();
             }
         }
     }
 
-    @Nonnull
     @GuardedBy("lock")
-    private AffectedActors<STATE> removeWhileLocked() {
+    private void removeWhileLocked(@Nonnull final AffectedActorsAccumulator<STATE> affectedActors) {
         assert Thread.holdsLock(lock);
         final List<Event<STATE>> invalidatedEvents = new ArrayList<>(events);
         Collections.reverse(invalidatedEvents);
-        var result = new AffectedActors<>(Set.of(), Set.of(), Set.of(this));
-        result = result.plus(removeEventsWhileLocked(invalidatedEvents));
-        return result;
+        notifyEventObserversOfRemovalWhileLocked(invalidatedEvents);
+        load.recordEventsRolledBack(invalidatedEvents.size());
+        affectedActors.add(Set.of(), Set.of(), Set.of(this));
+        eventsWithUndeliveredMulticasts.clear();
+        publishSummaryWhileLocked();
+        removeEventsWhileLocked(invalidatedEvents, affectedActors);
+        for (final var spatialMedium : spatialMedia) {
+            spatialMedium.untrackWhileLocked(this);
+        }
+        spatialMedia.clear();
     }
 
     @GuardedBy("lock")
@@ -799,6 +1504,166 @@ public final class Actor<STATE> {
         return "Actor@" + lock;
     }
 
+    /**
+     * <p>
+     * A consistent snapshot of summary information about an {@link Actor}.
+     * </p>
+     *
+     * @see #getSummary()
+     */
+    @Immutable
+    public static final class Summary {
+
+        private final long version;
+
+        @Nonnull
+        private final Duration start;
+
+        @Nullable
+        private final Duration whenReceiveNextSignal;
+
+        private final int numberOfSignalsToReceive;
+
+        private final int numberOfEvents;
+
+        @Nullable
+        private final Duration whenLastEvent;
+
+        @Nullable
+        private final Duration whenUndeliveredMulticasts;
+
+        Summary(
+                final long version,
+                @Nonnull final Duration start,
+                @Nullable final Duration whenReceiveNextSignal,
+                final int numberOfSignalsToReceive,
+                final int numberOfEvents,
+                @Nullable final Duration whenLastEvent,
+                @Nullable final Duration whenUndeliveredMulticasts) {
+            this.version = version;
+            this.start = start;
+            this.whenReceiveNextSignal = whenReceiveNextSignal;
+            this.numberOfSignalsToReceive = numberOfSignalsToReceive;
+            this.numberOfEvents = numberOfEvents;
+            this.whenLastEvent = whenLastEvent;
+            this.whenUndeliveredMulticasts = whenUndeliveredMulticasts;
+        }
+
+        /**
+         * <p>
+         * A count of the changes made to the actor.
+         * </p>
+         * <p>
+         * Summaries of the same actor with the same version describe the same state of the actor.
+         * Later summaries of an actor have larger versions if the actor has changed
+         * {@linkplain Actor#getEvents() events} or {@linkplain Actor#getSignalsToReceive() signals to receive}.
+         * </p>
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * <p>
+         * The {@linkplain Actor#getStart() start} time of the actor.
+         * </p>
+         */
+        @Nonnull
+        public Duration getStart() {
+            return start;
+        }
+
+        /**
+         * <p>
+         * When the actor will {@linkplain Actor#getWhenReceiveNextSignal() next receive a signal},
+         * or null if that has not yet been computed for this version of the actor.
+         * </p>
+         */
+        @Nullable
+        public Duration getWhenReceiveNextSignal() {
+            return whenReceiveNextSignal;
+        }
+
+        /**
+         * <p>
+         * The {@linkplain Actor#getNumberOfSignalsToReceive() number of signals to receive} of the actor.
+         * </p>
+         */
+        public int getNumberOfSignalsToReceive() {
+            return numberOfSignalsToReceive;
+        }
+
+        /**
+         * <p>
+         * The {@linkplain Actor#getNumberOfEvents() number of events} of the actor.
+         * </p>
+         */
+        public int getNumberOfEvents() {
+            return numberOfEvents;
+        }
+
+        /**
+         * <p>
+         * The {@linkplain Event#getWhen() time of occurrence} of the {@linkplain Actor#getLastEvent() last event}
+         * of the actor, or null if the actor has no events.
+         * </p>
+         */
+        @Nullable
+        public Duration getWhenLastEvent() {
+            return whenLastEvent;
+        }
+
+        /**
+         * <p>
+         * The {@linkplain Event#getWhen() time of occurrence} of the earliest event of the actor
+         * that emitted {@linkplain Event#getMulticastsEmitted() multicasts}
+         * whose signals the actor has not yet delivered to all their receivers,
+         * or null if the actor has no such events.
+         * </p>
+         */
+        @Nullable
+        public Duration getWhenUndeliveredMulticasts() {
+            return whenUndeliveredMulticasts;
+        }
+
+        @Override
+        public String toString() {
+            return "Summary{" +
+                    "version=" + version +
+                    ", start=" + start +
+                    ", whenReceiveNextSignal=" + whenReceiveNextSignal +
+                    ", numberOfSignalsToReceive=" + numberOfSignalsToReceive +
+                    ", numberOfEvents=" + numberOfEvents +
+                    ", whenLastEvent=" + whenLastEvent +
+                    ", whenUndeliveredMulticasts=" + whenUndeliveredMulticasts +
+                    '}';
+        }
+    }
+
+    /**
+     * <p>
+     * Which signal an actor will receive next, and when,
+     * as computed for a given {@linkplain #version version} of the actor.
+     * </p>
+     */
+    @Immutable
+    private static final class Schedule<STATE> {
+
+        private final long version;
+
+        @Nullable
+        private final Signal<STATE> signal;
+
+        @Nonnull
+        private final Duration whenReceived;
+
+        Schedule(final long version, @Nullable final Signal<STATE> signal, @Nonnull final Duration whenReceived) {
+            this.version = version;
+            this.signal = signal;
+            this.whenReceived = whenReceived;
+        }
+    }
+
     /**
      * <p>
      * Indicates that a method of the {@link Signal} class threw a {@link RuntimeException},
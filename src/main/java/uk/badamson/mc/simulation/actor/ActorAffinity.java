@@ -0,0 +1,58 @@
+package uk.badamson.mc.simulation.actor;
+/*
+ * © Copyright Benedict Adamson 2022.
+ *
+ * This file is part of MC-des.
+ *
+ * MC-des is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC-des is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MC-des.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.Executor;
+
+/**
+ * <p>
+ * Chooses the {@link Executor} that runs the work of each {@link Actor} while the actors are advancing.
+ * </p>
+ * <p>
+ * This keeps the actors independent of the kind of executor used to advance them.
+ * An {@link AffinityExecutor} runs the work of each actor on the home worker of that actor;
+ * any other executor runs the work of all the actors.
+ * </p>
+ */
+@FunctionalInterface
+interface ActorAffinity {
+
+    /**
+     * <p>
+     * The affinity to use for advancing actors with a given executor.
+     * </p>
+     */
+    @Nonnull
+    static ActorAffinity of(@Nonnull final Executor executor) {
+        if (executor instanceof AffinityExecutor) {
+            return ((AffinityExecutor) executor)::forActor;
+        } else {
+            return actor -> executor;
+        }
+    }
+
+    /**
+     * <p>
+     * The executor that runs the work of a given actor.
+     * </p>
+     */
+    @Nonnull
+    Executor forActor(@Nonnull Actor<?> actor);
+}
@@ -0,0 +1,115 @@
+package uk.badamson.mc.simulation.actor;
+/*
+ * © Copyright Benedict Adamson 2022.
+ *
+ * This file is part of MC-des.
+ *
+ * MC-des is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC-des is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MC-des.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ * Measurements of the computational load of an {@link Actor}.
+ * </p>
+ * <p>
+ * The measurements are cumulative, from the creation of the actor.
+ * Rates, such as events per second, can be computed from the differences between
+ * measurements taken at different times, as the
+ * {@linkplain AffinityExecutor#rebalance(java.util.Collection) rebalancing} of an {@link AffinityExecutor} does.
+ * The measurements are updated without acquiring the lock of the actor,
+ * so a set of measurements read together need not be mutually consistent.
+ * </p>
+ */
+@ThreadSafe
+public final class ActorLoad {
+
+    private final LongAdder processingNanos = new LongAdder();
+    private final LongAdder numberOfSignalsReceived = new LongAdder();
+    private final LongAdder numberOfEventsAdded = new LongAdder();
+    private final LongAdder numberOfEventsRolledBack = new LongAdder();
+
+    ActorLoad() {
+    }
+
+    /**
+     * <p>
+     * The total wall-clock time that threads have spent having the actor receive signals,
+     * including the time spent creating events that were later rolled back.
+     * </p>
+     */
+    @Nonnull
+    public Duration getProcessingTime() {
+        return Duration.ofNanos(getProcessingNanos());
+    }
+
+    @Nonnegative
+    long getProcessingNanos() {
+        return processingNanos.sum();
+    }
+
+    /**
+     * <p>
+     * The number of times that the actor has received a signal while being advanced.
+     * </p>
+     */
+    @Nonnegative
+    public long getNumberOfSignalsReceived() {
+        return numberOfSignalsReceived.sum();
+    }
+
+    /**
+     * <p>
+     * The number of events that have been added to the actor.
+     * </p>
+     */
+    @Nonnegative
+    public long getNumberOfEventsAdded() {
+        return numberOfEventsAdded.sum();
+    }
+
+    /**
+     * <p>
+     * The number of events of the actor that have been rolled back:
+     * removed because they were invalidated, or to reclaim memory.
+     * </p>
+     * <ul>
+     *     <li>Events removed because they were
+     *     {@linkplain Actor#clearEventsBefore(Duration) committed and cleared} are not rolled back.</li>
+     * </ul>
+     */
+    @Nonnegative
+    public long getNumberOfEventsRolledBack() {
+        return numberOfEventsRolledBack.sum();
+    }
+
+    void recordSignalReceived(@Nonnegative final long nanos) {
+        processingNanos.add(nanos);
+        numberOfSignalsReceived.increment();
+    }
+
+    void recordEventAdded() {
+        numberOfEventsAdded.increment();
+    }
+
+    void recordEventsRolledBack(@Nonnegative final int nEvents) {
+        numberOfEventsRolledBack.add(nEvents);
+    }
+}
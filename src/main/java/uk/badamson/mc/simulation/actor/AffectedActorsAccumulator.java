@@ -0,0 +1,162 @@
+package uk.badamson.mc.simulation.actor;
+/*
+ * © Copyright Benedict Adamson 2022.
+ *
+ * This file is part of MC-des.
+ *
+ * MC-des is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC-des is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MC-des.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * <p>
+ * A mutable accumulator of the {@linkplain Actor.AffectedActors#getChanged() changed},
+ * {@linkplain Actor.AffectedActors#getAdded() added} and {@linkplain Actor.AffectedActors#getRemoved() removed}
+ * actors of a sequence of changes.
+ * </p>
+ * <p>
+ * Adding changes to an accumulator has the same effect as
+ * {@linkplain Actor.AffectedActors#plus(Actor.AffectedActors) adding} {@link Actor.AffectedActors} objects,
+ * but modifies the accumulator in place, rather than copying sets.
+ * It is therefore suitable for use in the inner loops of the simulation engine,
+ * with an immutable {@link Actor.AffectedActors} object {@linkplain #toAffectedActors() created} only at the end.
+ * </p>
+ *
+ * @param <STATE> The class of states of the Actors. This must be
+ *                {@link Immutable immutable}. It ought to have value semantics, but
+ *                that is not required.
+ */
+@NotThreadSafe
+final class AffectedActorsAccumulator<STATE> {
+
+    private final Set<Actor<STATE>> changed = new HashSet<>();
+    private final Set<Actor<STATE>> added = new HashSet<>();
+    private final Set<Actor<STATE>> removed = new HashSet<>();
+
+    /**
+     * <p>
+     * Whether no actors have been affected.
+     * </p>
+     */
+    boolean isEmpty() {
+        return changed.isEmpty() && added.isEmpty() && removed.isEmpty();
+    }
+
+    /**
+     * <p>
+     * Record that an actor has been changed.
+     * </p>
+     * <p>
+     * Has no effect if the actor has already been recorded as added or removed.
+     * </p>
+     */
+    void addChanged(@Nonnull final Actor<STATE> actor) {
+        if (!added.contains(actor) && !removed.contains(actor)) {
+            changed.add(actor);
+        }
+    }
+
+    /**
+     * <p>
+     * Record the affected actors of a subsequent change.
+     * </p>
+     * <p>
+     * An actor that has been both added and removed is neither changed, added nor removed,
+     * and an added or removed actor is not recorded as changed.
+     * </p>
+     */
+    void add(
+            @Nonnull final Collection<Actor<STATE>> thatChanged,
+            @Nonnull final Collection<Actor<STATE>> thatAdded,
+            @Nonnull final Collection<Actor<STATE>> thatRemoved) {
+        final List<Actor<STATE>> cancelled = new ArrayList<>(0);
+        for (final var actor : thatAdded) {
+            changed.remove(actor);
+            if (removed.contains(actor) || thatRemoved.contains(actor)) {
+                cancelled.add(actor);
+            } else {
+                added.add(actor);
+            }
+        }
+        for (final var actor : thatRemoved) {
+            changed.remove(actor);
+            if (added.contains(actor) || thatAdded.contains(actor)) {
+                cancelled.add(actor);
+            } else {
+                removed.add(actor);
+            }
+        }
+        for (final var actor : cancelled) {
+            added.remove(actor);
+            removed.remove(actor);
+        }
+        for (final var actor : thatChanged) {
+            if (!cancelled.contains(actor)) {
+                addChanged(actor);
+            }
+        }
+    }
+
+    void add(@Nonnull final Actor.AffectedActors<STATE> that) {
+        add(that.getChanged(), that.getAdded(), that.getRemoved());
+    }
+
+    void add(@Nonnull final AffectedActorsAccumulator<STATE> that) {
+        add(that.changed, that.added, that.removed);
+    }
+
+    /**
+     * <p>
+     * The actors that might have further signals to receive because of the accumulated changes:
+     * the {@linkplain Actor.AffectedActors#getChanged() changed} and {@linkplain Actor.AffectedActors#getAdded() added}
+     * actors.
+     * </p>
+     * <p>
+     * The returned set is a newly constructed copy.
+     * </p>
+     */
+    @Nonnull
+    Set<Actor<STATE>> getChangedOrAdded() {
+        final Set<Actor<STATE>> result = new HashSet<>(changed);
+        result.addAll(added);
+        return result;
+    }
+
+    @Nonnull
+    Actor.AffectedActors<STATE> toAffectedActors() {
+        if (isEmpty()) {
+            return Actor.AffectedActors.emptyInstance();
+        } else {
+            return new Actor.AffectedActors<>(changed, added, removed);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "{" +
+                "changed=" + changed +
+                ", added=" + added +
+                ", removed=" + removed +
+                '}';
+    }
+}
@@ -0,0 +1,796 @@
+package uk.badamson.mc.simulation.actor;
+/*
+ * © Copyright Benedict Adamson 2022.
+ *
+ * This file is part of MC-des.
+ *
+ * MC-des is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC-des is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MC-des.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.annotation.concurrent.ThreadSafe;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * <p>
+ * An {@link Executor} that runs the work of each {@link Actor} on a <dfn>home worker</dfn> thread of that actor,
+ * so the state, histories and signal sets of the actor stay in the cache of one processor core.
+ * </p>
+ * <p>
+ * When a {@link Universe} is {@linkplain Universe#advanceTo(java.time.Duration, Executor) advanced}
+ * using an affinity executor, the work of an actor receiving a signal is queued for the home worker of that actor.
+ * </p>
+ * <ul>
+ *     <li>An actor is given a home worker when it first has work to do.
+ *     If that work is submitted by a worker, such as when the actor is sent a signal by an actor of that worker,
+ *     the submitting worker becomes its home; otherwise the workers are used in rotation.</li>
+ *     <li>Each worker has its own queue of work.
+ *     Work for an actor whose home is the submitting worker is <dfn>local</dfn>:
+ *     it is added to the queue of the submitting worker without waking any other thread.</li>
+ *     <li>Actors <dfn>migrate</dfn> to a different home worker only on load imbalance:
+ *     a worker that has no work of its own takes work from the worker with the longest queue,
+ *     if that queue has at least {@value #MIGRATION_THRESHOLD} entries,
+ *     and becomes the home of the actor of the work it took.</li>
+ *     <li>Work submitted by the {@link #execute(Runnable)} method, which is not associated with an actor,
+ *     is queued for the submitting worker, or for a worker chosen in rotation.</li>
+ * </ul>
+ * <p>
+ * Migration on demand corrects short-term imbalance. For long-term imbalance, such as a few hot actors
+ * sharing a home worker, the executor can {@linkplain #rebalance(Collection) rebalance} its workers,
+ * using the {@linkplain Actor#getLoad() load measurements} of the actors, either on demand or
+ * {@linkplain #scheduleRebalancing(ScheduledExecutorService, Collection, Duration, Consumer) periodically}.
+ * </p>
+ * <p>
+ * The executor records the home worker of each actor it has run,
+ * so it holds references to those actors until a {@linkplain #rebalance(Collection) rebalancing}
+ * finds that they are idle or no longer among the actors to rebalance.
+ * The worker threads are daemon threads.
+ * </p>
+ */
+@ThreadSafe
+public final class AffinityExecutor implements Executor {
+
+    /**
+     * <p>
+     * The minimum length of the queue of a worker for other workers to take work from it.
+     * </p>
+     */
+    static final int MIGRATION_THRESHOLD = 2;
+
+    private static final long[] NO_LOAD = {0L, 0L, 0L};
+
+    @Nonnull
+    private final Worker[] workers;
+    /**
+     * The index of the home worker of each actor that has been given a home worker.
+     */
+    private final Map<Actor<?>, Integer> homeWorkers = new ConcurrentHashMap<>();
+    private final AtomicInteger nextWorker = new AtomicInteger(0);
+    private final LongAdder numberOfLocalSubmissions = new LongAdder();
+    private final LongAdder numberOfRemoteSubmissions = new LongAdder();
+    private final LongAdder numberOfMigrations = new LongAdder();
+    private volatile boolean shutdown;
+
+    private final Object rebalancingLock = new Object();
+    @GuardedBy("rebalancingLock")
+    private long previousRebalancingNanos;
+    /**
+     * The cumulative processing time, number of events rolled back and number of events added
+     * of each actor at the previous rebalancing.
+     */
+    @GuardedBy("rebalancingLock")
+    @Nonnull
+    private Map<Actor<?>, long[]> previousLoads = new HashMap<>();
+
+    /**
+     * <p>
+     * Construct an executor with a given number of worker threads, and start the threads.
+     * </p>
+     *
+     * @throws IllegalArgumentException If {@code numberOfWorkers} is not positive.
+     */
+    public AffinityExecutor(@Nonnegative final int numberOfWorkers) {
+        if (numberOfWorkers <= 0) {
+            throw new IllegalArgumentException("numberOfWorkers");
+        }
+        workers = new Worker[numberOfWorkers];
+        for (int w = 0; w < numberOfWorkers; ++w) {
+            workers[w] = new Worker(w);
+        }
+        previousRebalancingNanos = System.nanoTime();
+        for (final var worker : workers) {
+            worker.start();
+        }
+    }
+
+    /**
+     * <p>
+     * The number of worker threads of this executor.
+     * </p>
+     */
+    @Nonnegative
+    public int getNumberOfWorkers() {
+        return workers.length;
+    }
+
+    /**
+     * <p>
+     * The number of tasks that were queued for the worker that submitted them.
+     * </p>
+     */
+    @Nonnegative
+    public long getNumberOfLocalSubmissions() {
+        return numberOfLocalSubmissions.sum();
+    }
+
+    /**
+     * <p>
+     * The number of tasks that were queued for a different worker from the thread that submitted them.
+     * </p>
+     */
+    @Nonnegative
+    public long getNumberOfRemoteSubmissions() {
+        return numberOfRemoteSubmissions.sum();
+    }
+
+    /**
+     * <p>
+     * The number of times that an actor has migrated to a different home worker because of load imbalance.
+     * </p>
+     */
+    @Nonnegative
+    public long getNumberOfMigrations() {
+        return numberOfMigrations.sum();
+    }
+
+    /**
+     * <p>
+     * The index of the home worker of a given actor,
+     * or -1 if the actor does not yet have a home worker of this executor.
+     * </p>
+     */
+    int getHomeWorker(@Nonnull final Actor<?> actor) {
+        return homeWorkers.getOrDefault(actor, -1);
+    }
+
+    /**
+     * <p>
+     * Make a given worker the home worker of a given actor.
+     * </p>
+     */
+    void setHomeWorker(@Nonnull final Actor<?> actor, final int home) {
+        assert 0 <= home && home < workers.length;
+        homeWorkers.put(actor, home);
+    }
+
+    @Override
+    public void execute(@Nonnull final Runnable task) {
+        Objects.requireNonNull(task, "task");
+        final Worker current = getCurrentWorker();
+        submit(current == null ? workers[nextWorkerIndex()] : current, new Task(null, task), current);
+    }
+
+    /**
+     * <p>
+     * Run a task on the home worker of a given actor.
+     * </p>
+     *
+     * @throws RejectedExecutionException If this executor has been {@linkplain #shutdown() shut down}.
+     */
+    void execute(@Nonnull final Actor<?> actor, @Nonnull final Runnable task) {
+        Objects.requireNonNull(task, "task");
+        final Worker current = getCurrentWorker();
+        submit(getHomeWorker(actor, current), new Task(actor, task), current);
+    }
+
+    /**
+     * <p>
+     * An {@link Executor} that runs its tasks on the home worker of a given actor.
+     * </p>
+     */
+    @Nonnull
+    Executor forActor(@Nonnull final Actor<?> actor) {
+        Objects.requireNonNull(actor, "actor");
+        return task -> execute(actor, task);
+    }
+
+    /**
+     * <p>
+     * Reassign the home workers of given actors, to even out the load of the workers.
+     * </p>
+     * <p>
+     * The rebalancing uses the changes in the {@linkplain Actor#getLoad() load measurements} of the actors
+     * since the previous rebalancing (or since the creation of the actors, for the first rebalancing).
+     * It balances a combined load, which gives equal weight to each actor's share of the total
+     * {@linkplain ActorLoad#getProcessingTime() processing time} and its share of the total
+     * {@linkplain ActorLoad#getNumberOfEventsRolledBack() number of events rolled back},
+     * so workers share both the work and the rollbacks fairly.
+     * It repeatedly migrates an actor from the most loaded worker to the least loaded worker,
+     * choosing the actor that best closes the gap between them,
+     * until no such migration would reduce the imbalance.
+     * Actors that do not yet have a home worker, and actors that had no load, are not migrated.
+     * </p>
+     * <p>
+     * Actors that had no load, and actors that are not among the given actors, lose their home worker,
+     * so the executor does not retain actors that have been destroyed or discarded.
+     * Such an actor is given a new home worker if it later has work to do,
+     * in the same manner as an actor that has never had a home worker.
+     * </p>
+     * <p>
+     * It is safe to rebalance while the actors are advancing,
+     * because the home worker of an actor affects only where its subsequent work is done.
+     * </p>
+     *
+     * @param actors The actors to rebalance; typically a {@link Universe}.
+     * @return Metrics of the load imbalance before and after the rebalancing.
+     * @throws NullPointerException If {@code actors} is null or has a null element.
+     */
+    @Nonnull
+    public Rebalancing rebalance(@Nonnull final Collection<? extends Actor<?>> actors) {
+        Objects.requireNonNull(actors, "actors");
+        synchronized (rebalancingLock) {
+            return rebalanceWhileLocked(actors);
+        }
+    }
+
+    @GuardedBy("rebalancingLock")
+    @Nonnull
+    private Rebalancing rebalanceWhileLocked(@Nonnull final Collection<? extends Actor<?>> actors) {
+        final long now = System.nanoTime();
+        final Duration interval = Duration.ofNanos(now - previousRebalancingNanos);
+        previousRebalancingNanos = now;
+
+        final int nWorkers = workers.length;
+        final Map<Actor<?>, long[]> loads = new HashMap<>();
+        final List<ActorSample> samples = new ArrayList<>();
+        long totalProcessing = 0L;
+        long totalRollbacks = 0L;
+        long totalEventsAdded = 0L;
+        for (final Actor<?> actor : actors) {
+            final ActorLoad load = actor.getLoad();
+            final long[] current = {load.getProcessingNanos(), load.getNumberOfEventsRolledBack(), load.getNumberOfEventsAdded()};
+            loads.put(actor, current);
+            final long[] previous = previousLoads.getOrDefault(actor, NO_LOAD);
+            final long processing = current[0] - previous[0];
+            final long rollbacks = current[1] - previous[1];
+            totalProcessing += processing;
+            totalRollbacks += rollbacks;
+            totalEventsAdded += current[2] - previous[2];
+            final int home = getHomeWorker(actor);
+            if (0 <= home && (0L < processing || 0L < rollbacks)) {
+                samples.add(new ActorSample(actor, home, processing, rollbacks));
+            } else if (0 <= home) {
+                homeWorkers.remove(actor);
+            }
+        }
+        previousLoads = loads;
+        homeWorkers.keySet().removeIf(actor -> !loads.containsKey(actor));
+
+        final double[] processing = new double[nWorkers];
+        final double[] rollbacks = new double[nWorkers];
+        final double[] weights = new double[nWorkers];
+        final List<List<ActorSample>> samplesOfWorkers = new ArrayList<>(nWorkers);
+        for (int w = 0; w < nWorkers; ++w) {
+            samplesOfWorkers.add(new ArrayList<>());
+        }
+        for (final var sample : samples) {
+            sample.weight = (totalProcessing == 0L ? 0.0 : (double) sample.processing / totalProcessing)
+                    + (totalRollbacks == 0L ? 0.0 : (double) sample.rollbacks / totalRollbacks);
+            processing[sample.home] += sample.processing;
+            rollbacks[sample.home] += sample.rollbacks;
+            weights[sample.home] += sample.weight;
+            samplesOfWorkers.get(sample.home).add(sample);
+        }
+        final double loadImbalanceBefore = computeImbalance(processing);
+        final double rollbackImbalanceBefore = computeImbalance(rollbacks);
+
+        /* Each migration strictly reduces the sum of the squares of the worker weights,
+         * so this terminates even without the limit on the number of migrations. */
+        for (int m = 0; m < samples.size(); ++m) {
+            final int most = indexOfExtreme(weights, true);
+            final int least = indexOfExtreme(weights, false);
+            final double gap = weights[most] - weights[least];
+            final List<ActorSample> candidates = samplesOfWorkers.get(most);
+            int best = -1;
+            double bestGap = gap;
+            for (int c = 0, n = candidates.size(); c < n; ++c) {
+                final double newGap = Math.abs(gap - 2.0 * candidates.get(c).weight);
+                if (newGap < bestGap) {
+                    best = c;
+                    bestGap = newGap;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            final ActorSample migrant = candidates.get(best);
+            candidates.set(best, candidates.get(candidates.size() - 1));
+            candidates.remove(candidates.size() - 1);
+            samplesOfWorkers.get(least).add(migrant);
+            processing[most] -= migrant.processing;
+            rollbacks[most] -= migrant.rollbacks;
+            weights[most] -= migrant.weight;
+            processing[least] += migrant.processing;
+            rollbacks[least] += migrant.rollbacks;
+            weights[least] += migrant.weight;
+            migrant.newHome = least;
+        }
+
+        int nMigrations = 0;
+        for (final var sample : samples) {
+            if (sample.newHome != sample.home) {
+                setHomeWorker(sample.actor, sample.newHome);
+                ++nMigrations;
+            }
+        }
+        numberOfMigrations.add(nMigrations);
+        return new Rebalancing(interval, samples.size(), nMigrations, totalEventsAdded,
+                loadImbalanceBefore, computeImbalance(processing),
+                rollbackImbalanceBefore, computeImbalance(rollbacks));
+    }
+
+    /**
+     * <p>
+     * The load imbalance of a set of workers, given the load of each worker:
+     * the ratio of the maximum load to the mean load, minus 1.
+     * </p>
+     * <ul>
+     *     <li>0 indicates perfect balance, and also no load.</li>
+     * </ul>
+     */
+    static double computeImbalance(@Nonnull final double[] loads) {
+        double sum = 0.0;
+        double maximum = 0.0;
+        for (final double load : loads) {
+            sum += load;
+            maximum = Math.max(maximum, load);
+        }
+        return sum <= 0.0 ? 0.0 : maximum * loads.length / sum - 1.0;
+    }
+
+    private static int indexOfExtreme(@Nonnull final double[] values, final boolean maximum) {
+        int result = 0;
+        for (int i = 1; i < values.length; ++i) {
+            if (maximum ? values[result] < values[i] : values[i] < values[result]) {
+                result = i;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * <p>
+     * Periodically {@linkplain #rebalance(Collection) rebalance} given actors.
+     * </p>
+     *
+     * @param scheduler The executor that performs the rebalancing.
+     * @param actors    The actors to rebalance; typically a {@link Universe}.
+     *                  This should be a threadsafe collection, because it is iterated in the threads of the scheduler.
+     * @param period    The wall-clock time between rebalancings.
+     * @param listener  Receives the metrics of each rebalancing.
+     * @return The scheduled rebalancing, which the caller can cancel.
+     * @throws NullPointerException     If any argument is null.
+     * @throws IllegalArgumentException If {@code period} is not positive.
+     */
+    @Nonnull
+    public ScheduledFuture<?> scheduleRebalancing(
+            @Nonnull final ScheduledExecutorService scheduler,
+            @Nonnull final Collection<? extends Actor<?>> actors,
+            @Nonnull final Duration period,
+            @Nonnull final Consumer<? super Rebalancing> listener) {
+        Objects.requireNonNull(scheduler, "scheduler");
+        Objects.requireNonNull(actors, "actors");
+        Objects.requireNonNull(listener, "listener");
+        if (period.isNegative() || period.isZero()) {
+            throw new IllegalArgumentException("period");
+        }
+        final long periodNanos = period.toNanos();
+        return scheduler.scheduleAtFixedRate(() -> listener.accept(rebalance(actors)),
+                periodNanos, periodNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * <p>
+     * Stop accepting new tasks.
+     * </p>
+     * <p>
+     * The workers complete the tasks already queued, then terminate.
+     * </p>
+     */
+    public void shutdown() {
+        shutdown = true;
+        for (final var worker : workers) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    /**
+     * <p>
+     * Whether this executor has been {@linkplain #shutdown() shut down}.
+     * </p>
+     */
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    /**
+     * <p>
+     * Wait until all the workers have terminated after a {@linkplain #shutdown() shut down},
+     * or a timeout elapses.
+     * </p>
+     *
+     * @return whether all the workers terminated.
+     * @throws InterruptedException If the current thread was interrupted while waiting.
+     */
+    public boolean awaitTermination(final long timeout, @Nonnull final TimeUnit unit) throws InterruptedException {
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (final var worker : workers) {
+            final long remaining = deadline - System.nanoTime();
+            if (remaining <= 0L && worker.isAlive()) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.timedJoin(worker, Math.max(remaining, 1L));
+            if (worker.isAlive()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int nextWorkerIndex() {
+        return Math.floorMod(nextWorker.getAndIncrement(), workers.length);
+    }
+
+    @Nullable
+    private Worker getCurrentWorker() {
+        final Thread thread = Thread.currentThread();
+        if (thread instanceof Worker) {
+            final Worker worker = (Worker) thread;
+            if (worker.getExecutor() == this) {
+                return worker;
+            }
+        }
+        return null;
+    }
+
+    @Nonnull
+    private Worker getHomeWorker(@Nonnull final Actor<?> actor, @Nullable final Worker current) {
+        final Integer home = homeWorkers.get(actor);
+        if (home == null) {
+            /* Racing threads could assign different homes;
+             * that is harmless, because a home is only a hint for performance. */
+            final int newHome = current == null ? nextWorkerIndex() : current.index;
+            homeWorkers.put(actor, newHome);
+            return workers[newHome];
+        } else {
+            return workers[home];
+        }
+    }
+
+    private void submit(@Nonnull final Worker worker, @Nonnull final Task task, @Nullable final Worker current) {
+        if (shutdown) {
+            throw new RejectedExecutionException("shut down");
+        }
+        worker.queue.addLast(task);
+        final int backlog = worker.backlog.incrementAndGet();
+        if (worker == current) {
+            numberOfLocalSubmissions.increment();
+        } else {
+            numberOfRemoteSubmissions.increment();
+            worker.wake();
+        }
+        if (MIGRATION_THRESHOLD <= backlog) {
+            wakeIdleWorker(worker);
+        }
+    }
+
+    private void wakeIdleWorker(@Nonnull final Worker busy) {
+        for (final var worker : workers) {
+            if (worker != busy && worker.waiting) {
+                worker.wake();
+                return;
+            }
+        }
+    }
+
+    @Nullable
+    private Worker findMostLoadedWorker(@Nonnull final Worker exclude) {
+        Worker result = null;
+        int maximum = MIGRATION_THRESHOLD - 1;
+        for (final var worker : workers) {
+            final int backlog = worker.backlog.get();
+            if (worker != exclude && maximum < backlog) {
+                result = worker;
+                maximum = backlog;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * <p>
+     * Metrics of a {@linkplain #rebalance(Collection) rebalancing} of the workers of an {@link AffinityExecutor}.
+     * </p>
+     * <p>
+     * The imbalances are computed from the loads of the workers during the interval before the rebalancing.
+     * The imbalances after the rebalancing are therefore predictions:
+     * the imbalances there would have been had the actors had their new home workers during that interval.
+     * An imbalance is the ratio of the maximum load of a worker to the mean load, minus 1,
+     * so 0 indicates perfect balance.
+     * </p>
+     */
+    @Immutable
+    public static final class Rebalancing {
+
+        @Nonnull
+        private final Duration interval;
+        private final int numberOfActors;
+        private final int numberOfMigrations;
+        private final long numberOfEventsAdded;
+        private final double loadImbalanceBefore;
+        private final double loadImbalanceAfter;
+        private final double rollbackImbalanceBefore;
+        private final double rollbackImbalanceAfter;
+
+        Rebalancing(
+                @Nonnull final Duration interval,
+                final int numberOfActors, final int numberOfMigrations, final long numberOfEventsAdded,
+                final double loadImbalanceBefore, final double loadImbalanceAfter,
+                final double rollbackImbalanceBefore, final double rollbackImbalanceAfter) {
+            this.interval = interval;
+            this.numberOfActors = numberOfActors;
+            this.numberOfMigrations = numberOfMigrations;
+            this.numberOfEventsAdded = numberOfEventsAdded;
+            this.loadImbalanceBefore = loadImbalanceBefore;
+            this.loadImbalanceAfter = loadImbalanceAfter;
+            this.rollbackImbalanceBefore = rollbackImbalanceBefore;
+            this.rollbackImbalanceAfter = rollbackImbalanceAfter;
+        }
+
+        /**
+         * <p>
+         * The wall-clock time since the previous rebalancing, or since the creation of the executor.
+         * </p>
+         */
+        @Nonnull
+        public Duration getInterval() {
+            return interval;
+        }
+
+        /**
+         * <p>
+         * The number of actors that had a home worker and some load during the {@linkplain #getInterval() interval}.
+         * </p>
+         */
+        @Nonnegative
+        public int getNumberOfActors() {
+            return numberOfActors;
+        }
+
+        /**
+         * <p>
+         * The number of actors that migrated to a different home worker.
+         * </p>
+         */
+        @Nonnegative
+        public int getNumberOfMigrations() {
+            return numberOfMigrations;
+        }
+
+        /**
+         * <p>
+         * The rate at which events were added to the actors during the {@linkplain #getInterval() interval},
+         * in events per second.
+         * </p>
+         */
+        @Nonnegative
+        public double getEventsPerSecond() {
+            final long nanos = interval.toNanos();
+            return nanos <= 0L ? 0.0 : numberOfEventsAdded * 1.0E9 / nanos;
+        }
+
+        /**
+         * <p>
+         * The imbalance of the {@linkplain ActorLoad#getProcessingTime() processing time} of the workers
+         * before the rebalancing.
+         * </p>
+         */
+        @Nonnegative
+        public double getLoadImbalanceBefore() {
+            return loadImbalanceBefore;
+        }
+
+        /**
+         * <p>
+         * The predicted imbalance of the {@linkplain ActorLoad#getProcessingTime() processing time} of the workers
+         * after the rebalancing.
+         * </p>
+         */
+        @Nonnegative
+        public double getLoadImbalanceAfter() {
+            return loadImbalanceAfter;
+        }
+
+        /**
+         * <p>
+         * The imbalance of the {@linkplain ActorLoad#getNumberOfEventsRolledBack() number of events rolled back}
+         * by the actors of the workers before the rebalancing.
+         * </p>
+         */
+        @Nonnegative
+        public double getRollbackImbalanceBefore() {
+            return rollbackImbalanceBefore;
+        }
+
+        /**
+         * <p>
+         * The predicted imbalance of the {@linkplain ActorLoad#getNumberOfEventsRolledBack() number of events rolled back}
+         * by the actors of the workers after the rebalancing.
+         * </p>
+         */
+        @Nonnegative
+        public double getRollbackImbalanceAfter() {
+            return rollbackImbalanceAfter;
+        }
+    }
+
+    @NotThreadSafe
+    private static final class ActorSample {
+
+        @Nonnull
+        final Actor<?> actor;
+        final int home;
+        final long processing;
+        final long rollbacks;
+        double weight;
+        int newHome;
+
+        ActorSample(@Nonnull final Actor<?> actor, final int home, final long processing, final long rollbacks) {
+            this.actor = actor;
+            this.home = home;
+            this.newHome = home;
+            this.processing = processing;
+            this.rollbacks = rollbacks;
+        }
+    }
+
+    @Immutable
+    private static final class Task {
+
+        @Nullable
+        final Actor<?> actor;
+        @Nonnull
+        final Runnable runnable;
+
+        Task(@Nullable final Actor<?> actor, @Nonnull final Runnable runnable) {
+            this.actor = actor;
+            this.runnable = runnable;
+        }
+    }
+
+    private final class Worker extends Thread {
+
+        final int index;
+        final ConcurrentLinkedDeque<Task> queue = new ConcurrentLinkedDeque<>();
+        /**
+         * The number of tasks in the queue; maintained separately
+         * because the size of a concurrent deque is expensive to compute.
+         */
+        final AtomicInteger backlog = new AtomicInteger(0);
+        volatile boolean waiting;
+
+        Worker(final int index) {
+            super("affinity-worker-" + index);
+            this.index = index;
+            setDaemon(true);
+        }
+
+        @Nonnull
+        AffinityExecutor getExecutor() {
+            return AffinityExecutor.this;
+        }
+
+        void wake() {
+            if (waiting) {
+                LockSupport.unpark(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Task task = poll();
+                if (task == null) {
+                    task = takeFromMostLoadedWorker();
+                }
+                if (task != null) {
+                    runTask(task);
+                } else if (shutdown) {
+                    return;
+                } else {
+                    waitForTask();
+                }
+            }
+        }
+
+        @Nullable
+        private Task poll() {
+            final Task task = queue.pollFirst();
+            if (task != null) {
+                backlog.decrementAndGet();
+            }
+            return task;
+        }
+
+        @Nullable
+        private Task takeFromMostLoadedWorker() {
+            final Worker victim = findMostLoadedWorker(this);
+            if (victim == null) {
+                return null;
+            }
+            // Take the newest task, so the victim keeps the work for which its cache is warmest.
+            final Task task = victim.queue.pollLast();
+            if (task != null) {
+                victim.backlog.decrementAndGet();
+                if (task.actor != null) {
+                    setHomeWorker(task.actor, index);
+                    numberOfMigrations.increment();
+                }
+            }
+            return task;
+        }
+
+        private void runTask(@Nonnull final Task task) {
+            try {
+                task.runnable.run();
+            } catch (final RuntimeException e) {
+                getUncaughtExceptionHandler().uncaughtException(this, e);
+            }
+        }
+
+        private void waitForTask() {
+            waiting = true;
+            /* Checking for work after announcing that we are waiting,
+             * and submitters checking whether we are waiting after adding work,
+             * ensures that we do not miss a wake-up. */
+            if (queue.isEmpty() && !shutdown && findMostLoadedWorker(this) == null) {
+                LockSupport.park(this);
+            }
+            waiting = false;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package uk.badamson.mc.simulation.actor;
+/*
+ * © Copyright Benedict Adamson 2022.
+ *
+ * This file is part of MC-des.
+ *
+ * MC-des is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC-des is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MC-des.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * <p>
+ * Records the changes that actors are making while a {@link Universe} is
+ * {@linkplain Universe#advanceTo(Duration, java.util.concurrent.Executor) advancing},
+ * so the committed time of the universe can be computed without stopping the actors.
+ * </p>
+ * <p>
+ * Reading the {@linkplain Actor#getWhenUncommitted() uncommitted times} of the actors one at a time
+ * does not give a consistent cut of the computation.
+ * An actor that has already been read can receive a signal that sends a signal to an actor that has yet to be read,
+ * or rolls back events of that actor, and then advance past the time of that signal,
+ * so the earliest of the times read can be later than the time of a signal that is still to be received.
+ * This is the <i>transient message</i> problem of computing the global virtual time of an optimistic simulation.
+ * </p>
+ * <p>
+ * Every change that can make the uncommitted time of an actor earlier is made by receiving a signal
+ * (or rolling back an event) at some time, and makes the uncommitted times of the affected actors
+ * no earlier than that time. So the earliest of the times read is a lower bound of the committed time
+ * if it is combined with the times of the changes that overlapped the reading:
+ * </p>
+ * <ul>
+ *     <li>the changes in progress when the reading finishes, and</li>
+ *     <li>the changes that finished while the actors were being read.</li>
+ * </ul>
+ * <p>
+ * Actors created by events are added to the universe only when the advancement completes,
+ * so the tracker also records the earliest time at which an actor was created and not yet added.
+ * </p>
+ */
+@ThreadSafe
+final class CommitTracker {
+
+    /**
+     * The number of changes in progress at each time.
+     */
+    private final NavigableMap<Duration, Integer> changesInProgress = new ConcurrentSkipListMap<>();
+    /**
+     * The earliest time of the changes that finished while each computation of the committed time was in progress.
+     */
+    private final List<AtomicReference<Duration>> computations = new CopyOnWriteArrayList<>();
+    private final AtomicReference<Duration> earliestCreation = new AtomicReference<>(Signal.NEVER_RECEIVED);
+
+    @Nonnull
+    private static Duration min(@Nonnull final Duration a, @Nonnull final Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    /**
+     * <p>
+     * Record that an actor has started a change, by receiving a signal or rolling back events, at a given time.
+     * </p>
+     * <p>
+     * The caller must {@linkplain #finishChange(Duration) finish} the change, even if it fails.
+     * </p>
+     */
+    void startChange(@Nonnull final Duration when) {
+        Objects.requireNonNull(when, "when");
+        changesInProgress.merge(when, 1, Integer::sum);
+    }
+
+    /**
+     * <p>
+     * Record that an actor has finished a {@linkplain #startChange(Duration) change} at a given time.
+     * </p>
+     */
+    void finishChange(@Nonnull final Duration when) {
+        Objects.requireNonNull(when, "when");
+        // Recording the change before removing it ensures that a computation in progress sees it in one or the other.
+        for (final var computation : computations) {
+            computation.accumulateAndGet(when, CommitTracker::min);
+        }
+        changesInProgress.computeIfPresent(when, (w, n) -> n == 1 ? null : n - 1);
+    }
+
+    /**
+     * <p>
+     * Record that an event at a given time created actors,
+     * which are not yet actors of the universe.
+     * </p>
+     */
+    void actorsCreated(@Nonnull final Duration when) {
+        Objects.requireNonNull(when, "when");
+        earliestCreation.accumulateAndGet(when, CommitTracker::min);
+    }
+
+    /**
+     * <p>
+     * Record that all the {@linkplain #actorsCreated(Duration) created actors} have been added to the universe.
+     * </p>
+     */
+    void createdActorsAdded() {
+        earliestCreation.set(Signal.NEVER_RECEIVED);
+    }
+
+    /**
+     * <p>
+     * Compute a lower bound of the committed time of the universe,
+     * given a computation of the earliest uncommitted time of its actors.
+     * </p>
+     * <ul>
+     *     <li>The result is no later than the time given by the {@code earliestUncommittedTimeOfActors} computation.</li>
+     *     <li>If no changes are in progress, and none are made while computing,
+     *     the result is the time given by the computation (or the earliest time at which an actor was created
+     *     and not yet added, if that is earlier).</li>
+     * </ul>
+     *
+     * @param earliestUncommittedTimeOfActors Reads the uncommitted times of the actors of the universe,
+     *                                        and gives the earliest of them.
+     */
+    @Nonnull
+    Duration computeCommittedTime(@Nonnull final Supplier<Duration> earliestUncommittedTimeOfActors) {
+        final var computation = new AtomicReference<>(Signal.NEVER_RECEIVED);
+        computations.add(computation);
+        try {
+            // Read before the actors, because created actors can be added while they are being read.
+            Duration result = earliestCreation.get();
+            result = min(result, earliestUncommittedTimeOfActors.get());
+            final Map.Entry<Duration, Integer> earliestChangeInProgress = changesInProgress.firstEntry();
+            if (earliestChangeInProgress != null) {
+                result = min(result, earliestChangeInProgress.getKey());
+            }
+            return min(result, computation.get());
+        } finally {
+            computations.remove(computation);
+        }
+    }
+}
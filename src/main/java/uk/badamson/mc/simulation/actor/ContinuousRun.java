@@ -0,0 +1,350 @@
+package uk.badamson.mc.simulation.actor;
+/*
+ * © Copyright Benedict Adamson 2022.
+ *
+ * This file is part of MC-des.
+ *
+ * MC-des is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC-des is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MC-des.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * <p>
+ * A background computation that continuously {@linkplain Universe#advanceTo(Duration, Executor) advances}
+ * the actors of a {@link Universe} towards a target time, which the caller can raise at any time.
+ * </p>
+ * <p>
+ * Unlike repeated calls of {@link Universe#advanceTo(Duration, Executor)},
+ * the caller need not wait for one advancement to complete before requesting the next,
+ * so the threads of the executor do not idle at each step.
+ * Actors that are still advancing when the {@linkplain #getTarget() target} is raised
+ * continue to the new target without stopping,
+ * and a further advancement, for the actors that had already stopped, starts as soon as the current one completes.
+ * {@linkplain Actor.AffectedActors#getAdded() Additions} and
+ * {@linkplain Actor.AffectedActors#getRemoved() removals} of actors, cancelback and
+ * {@linkplain Universe#publishCommittedEvents(Executor, int) publication of committed events}
+ * are done when each advancement completes.
+ * </p>
+ * <p>
+ * The run reports its progress through its {@linkplain #getFrontier() frontier},
+ * which it recomputes when each advancement completes,
+ * and every {@linkplain #FRONTIER_REFRESH_INTERVAL refresh interval} while an advancement is in progress,
+ * so a run whose target is repeatedly raised before the actors reach it still reports progress.
+ * A frontier computed while the actors are advancing accounts for the signals that actors are receiving,
+ * and the events they are rolling back, while it is computed,
+ * so no event before a published frontier is later rolled back.
+ * While the run is in progress, the caller should not advance or otherwise change the universe by other means.
+ * </p>
+ *
+ * @see Universe#runContinuously(Duration, Executor, Consumer)
+ */
+@ThreadSafe
+public final class ContinuousRun<STATE> {
+
+    /**
+     * <p>
+     * The wall-clock time between recomputations of the {@linkplain #getFrontier() frontier}
+     * while an advancement is in progress.
+     * </p>
+     */
+    static final Duration FRONTIER_REFRESH_INTERVAL = Duration.ofMillis(100);
+
+    @Nonnull
+    private final Universe<STATE> universe;
+    @Nonnull
+    private final Executor executor;
+    @Nonnull
+    private final Consumer<? super Duration> frontierListener;
+    @Nonnull
+    private final AtomicReference<Duration> target;
+    private final AtomicBoolean stopRequested = new AtomicBoolean(false);
+    private final CompletableFuture<Void> stopped = new CompletableFuture<>();
+
+    private final Object frontierLock = new Object();
+
+    @GuardedBy("this")
+    private boolean advancing;
+    /**
+     * The number of advancements that have started.
+     */
+    @GuardedBy("this")
+    private long nAdvancements;
+    /**
+     * The target when the most recent advancement started, or null if no advancement has started.
+     */
+    @GuardedBy("this")
+    @Nullable
+    private Duration targetAtStartOfAdvancement;
+    @GuardedBy("this")
+    @Nullable
+    private Duration frontierAtStartOfAdvancement;
+    /**
+     * An exception thrown while refreshing the frontier during an advancement,
+     * which causes the run to stop when the advancement completes.
+     */
+    @GuardedBy("frontierLock")
+    @Nullable
+    private RuntimeException refreshException;
+    @Nonnull
+    private volatile Duration frontier;
+
+    ContinuousRun(
+            @Nonnull final Universe<STATE> universe,
+            @Nonnull final Duration target,
+            @Nonnull final Executor executor,
+            @Nonnull final Consumer<? super Duration> frontierListener) {
+        this.universe = Objects.requireNonNull(universe, "universe");
+        this.target = new AtomicReference<>(Objects.requireNonNull(target, "target"));
+        this.executor = Objects.requireNonNull(executor, "executor");
+        this.frontierListener = Objects.requireNonNull(frontierListener, "frontierListener");
+        frontier = computeFrontier();
+    }
+
+    /**
+     * <p>
+     * The point in time to which the actors are to be advanced.
+     * </p>
+     * <ul>
+     *     <li>The target never decreases.</li>
+     * </ul>
+     */
+    @Nonnull
+    public Duration getTarget() {
+        return target.get();
+    }
+
+    /**
+     * <p>
+     * The progress frontier of this run:
+     * the point in time to which all the actors of the universe have been advanced.
+     * </p>
+     * <ul>
+     *     <li>This is the earliest {@linkplain Actor#getWhenReceiveNextSignal() time of the next signal}
+     *     of any actor, or the {@linkplain #getTarget() target}, whichever is earlier,
+     *     as at the end of the most recent advancement,
+     *     or as at the most recent refresh during the current advancement, if that is later.</li>
+     *     <li>The frontier never decreases.</li>
+     *     <li>The states of all the actors before the frontier are known,
+     *     and their events before the frontier are committed.</li>
+     * </ul>
+     */
+    @Nonnull
+    public Duration getFrontier() {
+        return frontier;
+    }
+
+    /**
+     * <p>
+     * Whether this run has {@linkplain #stop() stopped}.
+     * </p>
+     */
+    public boolean isStopped() {
+        return stopped.isDone();
+    }
+
+    /**
+     * <p>
+     * Raise the {@linkplain #getTarget() target} of this run to a given time,
+     * and start advancing the actors towards it if they are not already advancing.
+     * </p>
+     * <ul>
+     *     <li>If the given time is not after the current target, the target is unchanged.</li>
+     *     <li>Once a {@linkplain #stop() stop} has been requested, this has no effect on the actors.</li>
+     * </ul>
+     *
+     * @throws NullPointerException If {@code when} is null.
+     */
+    public void raiseTargetTo(@Nonnull final Duration when) {
+        Objects.requireNonNull(when, "when");
+        target.accumulateAndGet(when, (t1, t2) -> t1.compareTo(t2) < 0 ? t2 : t1);
+        advanceWhileNecessary();
+    }
+
+    /**
+     * <p>
+     * Stop this run.
+     * </p>
+     * <p>
+     * Actors that are advancing stop before receiving their next signal,
+     * so the actors are left in a consistent state.
+     * </p>
+     *
+     * @return a Future that {@linkplain Future#isDone() is done} when the actors are no longer advancing.
+     * It completes exceptionally if an advancement failed.
+     */
+    @Nonnull
+    public Future<Void> stop() {
+        stopRequested.set(true);
+        synchronized (this) {
+            if (!advancing) {
+                stopped.complete(null);
+            }
+        }
+        return stopped;
+    }
+
+    void advanceWhileNecessary() {
+        CompletableFuture<Throwable> advancement;
+        while ((advancement = startAdvancementIfNecessary()) != null) {
+            if (!advancement.isDone()) {
+                advancement.thenAccept(exception -> {
+                    if (finishAdvancement(exception)) {
+                        advanceWhileNecessary();
+                    }
+                });
+                return;
+            }
+            // Completed synchronously: loop, rather than recurse, to start any further advancement.
+            if (!finishAdvancement(advancement.getNow(null))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return a Future that provides the exception that caused the advancement to fail, or null if it succeeded;
+     * or null if no advancement was necessary.
+     */
+    @Nullable
+    private CompletableFuture<Throwable> startAdvancementIfNecessary() {
+        synchronized (this) {
+            final Duration currentTarget = target.get();
+            /* If an advancement neither advanced the frontier nor had its target raised
+             * (for example, because it was limited by the maximum number of events), repeating it would be futile. */
+            final boolean necessary = !advancing && !stopRequested.get()
+                    && frontier.compareTo(currentTarget) < 0
+                    && (!currentTarget.equals(targetAtStartOfAdvancement) || !frontier.equals(frontierAtStartOfAdvancement));
+            if (!necessary) {
+                return null;
+            }
+            advancing = true;
+            nAdvancements++;
+            targetAtStartOfAdvancement = currentTarget;
+            frontierAtStartOfAdvancement = frontier;
+            scheduleFrontierRefresh(nAdvancements);
+        }
+        try {
+            return universe.advanceToWithCompletableFuture(target::get, executor, Long.MAX_VALUE, stopRequested::get)
+                    .handle((affectedActors, exception) -> exception);
+        } catch (final RuntimeException e) {
+            return CompletableFuture.completedFuture(e);
+        }
+    }
+
+    /**
+     * @return whether to continue advancing.
+     */
+    private boolean finishAdvancement(@Nullable final Throwable advancementException) {
+        Throwable exception = advancementException;
+        synchronized (frontierLock) {
+            if (exception == null) {
+                exception = refreshException;
+            }
+            if (exception == null) {
+                try {
+                    publishFrontierWhileLocked();
+                } catch (final RuntimeException e) {
+                    exception = e;
+                }
+            }
+        }
+        synchronized (this) {
+            advancing = false;
+            if (exception != null) {
+                stopRequested.set(true);
+                stopped.completeExceptionally(exception);
+            } else if (stopRequested.get()) {
+                stopped.complete(null);
+            }
+            return !stopRequested.get();
+        }
+    }
+
+    @GuardedBy("this")
+    private void scheduleFrontierRefresh(final long advancement) {
+        CompletableFuture.runAsync(
+                () -> refreshFrontier(advancement),
+                CompletableFuture.delayedExecutor(FRONTIER_REFRESH_INTERVAL.toNanos(), TimeUnit.NANOSECONDS, executor));
+    }
+
+    /**
+     * <p>
+     * Recompute the frontier during a given advancement,
+     * and schedule the next refresh, if that advancement is still in progress.
+     * </p>
+     */
+    private void refreshFrontier(final long advancement) {
+        synchronized (this) {
+            if (!advancing || nAdvancements != advancement) {
+                return;
+            }
+        }
+        synchronized (frontierLock) {
+            if (refreshException != null) {
+                return;
+            }
+            try {
+                publishFrontierWhileLocked();
+            } catch (final RuntimeException e) {
+                refreshException = e;
+                stopRequested.set(true);
+                return;
+            }
+        }
+        synchronized (this) {
+            if (advancing && nAdvancements == advancement) {
+                scheduleFrontierRefresh(advancement);
+            }
+        }
+    }
+
+    /**
+     * <p>
+     * Recompute the frontier and, if it has advanced, give the new frontier to the listener.
+     * </p>
+     * <p>
+     * Holding the lock ensures that the listener is not called concurrently,
+     * and is called with increasing frontiers.
+     * </p>
+     */
+    @GuardedBy("frontierLock")
+    private void publishFrontierWhileLocked() {
+        final Duration newFrontier = computeFrontier();
+        if (frontier.compareTo(newFrontier) < 0) {
+            frontier = newFrontier;
+            frontierListener.accept(newFrontier);
+        }
+    }
+
+    @Nonnull
+    private Duration computeFrontier() {
+        final Duration earliest = universe.getEarliestWhenReceiveNextSignal();
+        final Duration currentTarget = target.get();
+        return earliest.compareTo(currentTarget) < 0 ? earliest : currentTarget;
+    }
+}
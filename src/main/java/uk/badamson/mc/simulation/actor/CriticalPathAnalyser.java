@@ -0,0 +1,450 @@
+package uk.badamson.mc.simulation.actor;
+/*
+ * © Copyright Benedict Adamson 2022.
+ *
+ * This file is part of MC-des.
+ *
+ * MC-des is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC-des is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MC-des.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * <p>
+ * An offline analyser of the available parallelism of a simulation,
+ * computed from its committed {@linkplain Event events}.
+ * </p>
+ * <p>
+ * The analyser considers the events to form a directed acyclic graph, in which each event depends on
+ * the previous event of the same {@linkplain Event#getAffectedObject() actor},
+ * and on the event that emitted its {@linkplain Event#getCausingSignal() causing signal}
+ * (the event of the {@linkplain Signal#getSender() sender} at the {@linkplain Signal#getWhenSent() time it was sent}).
+ * Each event counts as one unit of work. From that graph it computes
+ * </p>
+ * <ul>
+ *     <li>the {@linkplain #getCriticalPathLength() critical path length}:
+ *     the largest number of events in any chain of dependencies,</li>
+ *     <li>the {@linkplain #getMaximumSpeedUp() theoretical maximum speed-up}
+ *     of a computation with unlimited processors, and</li>
+ *     <li>the {@linkplain #getParallelismProfile() available parallelism profile} over simulated time.</li>
+ * </ul>
+ * <p>
+ * If those figures indicate plenty of available parallelism, but a run does not speed up with more processors,
+ * the engine, rather than the model, is at fault.
+ * </p>
+ * <p>
+ * The analyser streams over the events: the caller {@linkplain #accept(Event) gives} it the events
+ * in {@linkplain Event#compareTo(Event) ascending order}, such as the batches emitted by a
+ * {@linkplain Universe#publishCommittedEvents(java.util.concurrent.Executor, int) publisher of committed events}.
+ * It does not build the graph. It retains only the depth of the last event of each actor,
+ * the depths of events whose emitted signals have not yet all been received,
+ * and the profile, which has an entry for each occupied interval of simulated time.
+ * The memory needed for events whose signals are never received can be bounded by setting a horizon.
+ * </p>
+ */
+@NotThreadSafe
+public final class CriticalPathAnalyser<STATE> implements Consumer<Event<STATE>> {
+
+    @Nonnull
+    private final Duration profileInterval;
+    @Nullable
+    private final Duration horizon;
+
+    private final Map<Actor<STATE>, Long> depthOfLastEvent = new HashMap<>();
+    private final Map<SendingEvent<STATE>, Sending> sendings = new HashMap<>();
+    /**
+     * The keys of the {@link #sendings}, in the order they were added, for discarding sendings beyond the horizon.
+     */
+    private final ArrayDeque<SendingEvent<STATE>> sendingsInOrder = new ArrayDeque<>();
+    private final List<ParallelismSample> profile = new ArrayList<>();
+
+    @Nullable
+    private Duration whenLastEvent;
+    private long numberOfEvents;
+    private long criticalPathLength;
+    private long numberOfUnresolvedDependencies;
+    private long profileIndex = -1L;
+    private long profileNumberOfEvents;
+    private long profileMinimumDepth;
+    private long profileMaximumDepth;
+
+    /**
+     * <p>
+     * Construct an analyser that retains the depths of events until all their emitted signals have been received.
+     * </p>
+     *
+     * @param profileInterval The width of the intervals of simulated time of the
+     *                        {@linkplain #getParallelismProfile() parallelism profile}.
+     * @throws NullPointerException     If {@code profileInterval} is null.
+     * @throws IllegalArgumentException If {@code profileInterval} is not positive.
+     */
+    public CriticalPathAnalyser(@Nonnull final Duration profileInterval) {
+        this(profileInterval, null);
+    }
+
+    /**
+     * <p>
+     * Construct an analyser that bounds the memory it uses by discarding information about events
+     * that were more than a given simulated time before the latest event given to it.
+     * </p>
+     * <p>
+     * If an event was caused by a signal sent by a discarded event, or by an event that occurred before
+     * the first event given to the analyser, the analyser counts an
+     * {@linkplain #getNumberOfUnresolvedDependencies() unresolved dependency}
+     * and ignores that dependency, so the critical path length can be underestimated.
+     * </p>
+     *
+     * @param profileInterval The width of the intervals of simulated time of the
+     *                        {@linkplain #getParallelismProfile() parallelism profile}.
+     * @param horizon         The maximum simulated time for which to retain information about events,
+     *                        or null for no maximum.
+     * @throws NullPointerException     If {@code profileInterval} is null.
+     * @throws IllegalArgumentException If {@code profileInterval} is not positive, or {@code horizon} is negative.
+     */
+    public CriticalPathAnalyser(@Nonnull final Duration profileInterval, @Nullable final Duration horizon) {
+        Objects.requireNonNull(profileInterval, "profileInterval");
+        if (profileInterval.isNegative() || profileInterval.isZero()) {
+            throw new IllegalArgumentException("profileInterval");
+        }
+        if (horizon != null && horizon.isNegative()) {
+            throw new IllegalArgumentException("horizon");
+        }
+        this.profileInterval = profileInterval;
+        this.horizon = horizon;
+    }
+
+    /**
+     * <p>
+     * Add an event to the analysis.
+     * </p>
+     *
+     * @throws NullPointerException     If {@code event} is null.
+     * @throws IllegalArgumentException If the {@linkplain Event#getWhen() time} of the event is before the time
+     *                                  of the event previously given to this analyser.
+     */
+    @Override
+    public void accept(@Nonnull final Event<STATE> event) {
+        Objects.requireNonNull(event, "event");
+        final Duration when = event.getWhen();
+        if (whenLastEvent != null && when.compareTo(whenLastEvent) < 0) {
+            throw new IllegalArgumentException("event out of order");
+        }
+        whenLastEvent = when;
+        discardSendingsBeyondHorizon(when);
+
+        final Actor<STATE> actor = event.getAffectedObject();
+        final long depth = 1L + Math.max(
+                depthOfLastEvent.getOrDefault(actor, 0L),
+                getDepthOfSendingEvent(event.getCausingSignal()));
+        depthOfLastEvent.put(actor, depth);
+        ++numberOfEvents;
+        criticalPathLength = Math.max(criticalPathLength, depth);
+
+        final int nSignalsEmitted = event.getSignalsEmitted().size();
+        if (0 < nSignalsEmitted) {
+            final var key = new SendingEvent<>(actor, when);
+            final Sending sending = sendings.get(key);
+            if (sending == null) {
+                sendings.put(key, new Sending(depth, nSignalsEmitted));
+                if (horizon != null) {
+                    sendingsInOrder.addLast(key);
+                }
+            } else {
+                // Measured as simultaneous with a previous event of the same actor.
+                sending.depth = Math.max(sending.depth, depth);
+                sending.nSignalsNotReceived += nSignalsEmitted;
+            }
+        }
+        addToProfile(when, depth);
+    }
+
+    private long getDepthOfSendingEvent(@Nonnull final Signal<STATE> signal) {
+        final Actor<STATE> sender = signal.getSender();
+        if (sender == null) {
+            // An external signal.
+            return 0L;
+        }
+        final var key = new SendingEvent<>(sender, signal.getWhenSent());
+        final Sending sending = sendings.get(key);
+        if (sending == null) {
+            ++numberOfUnresolvedDependencies;
+            return 0L;
+        }
+        if (--sending.nSignalsNotReceived <= 0) {
+            sendings.remove(key);
+        }
+        return sending.depth;
+    }
+
+    private void discardSendingsBeyondHorizon(@Nonnull final Duration when) {
+        if (horizon == null) {
+            return;
+        }
+        final Duration oldest = when.minus(horizon);
+        while (!sendingsInOrder.isEmpty() && sendingsInOrder.peekFirst().when.compareTo(oldest) < 0) {
+            sendings.remove(sendingsInOrder.removeFirst());
+        }
+    }
+
+    private void addToProfile(@Nonnull final Duration when, final long depth) {
+        final long index = when.dividedBy(profileInterval);
+        if (index != profileIndex) {
+            completeProfileSample();
+            profileIndex = index;
+            profileNumberOfEvents = 0L;
+            profileMinimumDepth = depth;
+            profileMaximumDepth = depth;
+        }
+        ++profileNumberOfEvents;
+        profileMinimumDepth = Math.min(profileMinimumDepth, depth);
+        profileMaximumDepth = Math.max(profileMaximumDepth, depth);
+    }
+
+    private void completeProfileSample() {
+        if (0L < profileNumberOfEvents) {
+            profile.add(createCurrentProfileSample());
+        }
+    }
+
+    @Nonnull
+    private ParallelismSample createCurrentProfileSample() {
+        return new ParallelismSample(profileInterval.multipliedBy(profileIndex), profileInterval,
+                profileNumberOfEvents, profileMaximumDepth - profileMinimumDepth + 1L);
+    }
+
+    /**
+     * <p>
+     * The number of events given to this analyser.
+     * </p>
+     * <p>
+     * This is the total work of the simulation.
+     * </p>
+     */
+    @Nonnegative
+    public long getNumberOfEvents() {
+        return numberOfEvents;
+    }
+
+    /**
+     * <p>
+     * The largest number of events in any chain of dependent events.
+     * </p>
+     * <p>
+     * This is the minimum number of sequential steps that any computation of the events must take,
+     * even with unlimited processors.
+     * </p>
+     */
+    @Nonnegative
+    public long getCriticalPathLength() {
+        return criticalPathLength;
+    }
+
+    /**
+     * <p>
+     * The theoretical maximum speed-up of computing the events,
+     * relative to a sequential computation, with unlimited processors and no overheads.
+     * </p>
+     * <ul>
+     *     <li>The ratio of the {@linkplain #getNumberOfEvents() number of events} to the
+     *     {@linkplain #getCriticalPathLength() critical path length}.</li>
+     *     <li>1 if there are no events.</li>
+     * </ul>
+     */
+    public double getMaximumSpeedUp() {
+        return criticalPathLength == 0L ? 1.0 : (double) numberOfEvents / criticalPathLength;
+    }
+
+    /**
+     * <p>
+     * The number of events caused by signals whose sending event was not available to this analyser,
+     * because it occurred before the first event given to this analyser, or it was beyond the horizon.
+     * </p>
+     */
+    @Nonnegative
+    public long getNumberOfUnresolvedDependencies() {
+        return numberOfUnresolvedDependencies;
+    }
+
+    /**
+     * <p>
+     * The number of events for which this analyser retains information
+     * because some of their emitted signals have not been received.
+     * </p>
+     * <p>
+     * This indicates the memory used by this analyser.
+     * </p>
+     */
+    @Nonnegative
+    public int getNumberOfRetainedSendingEvents() {
+        return sendings.size();
+    }
+
+    /**
+     * <p>
+     * The available parallelism profile over simulated time.
+     * </p>
+     * <ul>
+     *     <li>The profile has one sample for each interval of simulated time in which there are events.</li>
+     *     <li>The samples are in ascending order of their {@linkplain ParallelismSample#getStart() start} times.</li>
+     *     <li>The returned list is a snapshot; it is not updated by subsequent events.</li>
+     * </ul>
+     */
+    @Nonnull
+    public List<ParallelismSample> getParallelismProfile() {
+        final List<ParallelismSample> result = new ArrayList<>(profile.size() + 1);
+        result.addAll(profile);
+        if (0L < profileNumberOfEvents) {
+            result.add(createCurrentProfileSample());
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * <p>
+     * The available parallelism of the events in an interval of simulated time.
+     * </p>
+     */
+    @Immutable
+    public static final class ParallelismSample {
+
+        @Nonnull
+        private final Duration start;
+        @Nonnull
+        private final Duration width;
+        private final long numberOfEvents;
+        private final long numberOfLevels;
+
+        ParallelismSample(
+                @Nonnull final Duration start, @Nonnull final Duration width,
+                @Nonnegative final long numberOfEvents, @Nonnegative final long numberOfLevels) {
+            this.start = start;
+            this.width = width;
+            this.numberOfEvents = numberOfEvents;
+            this.numberOfLevels = numberOfLevels;
+        }
+
+        /**
+         * <p>
+         * The start of the interval, inclusive.
+         * </p>
+         */
+        @Nonnull
+        public Duration getStart() {
+            return start;
+        }
+
+        /**
+         * <p>
+         * The end of the interval, exclusive.
+         * </p>
+         */
+        @Nonnull
+        public Duration getEnd() {
+            return start.plus(width);
+        }
+
+        /**
+         * <p>
+         * The number of events in the interval.
+         * </p>
+         */
+        @Nonnegative
+        public long getNumberOfEvents() {
+            return numberOfEvents;
+        }
+
+        /**
+         * <p>
+         * The number of levels of the critical path spanned by the events in the interval:
+         * the difference between the largest and smallest depths of the events, plus 1.
+         * </p>
+         */
+        @Nonnegative
+        public long getNumberOfLevels() {
+            return numberOfLevels;
+        }
+
+        /**
+         * <p>
+         * The mean number of events of the interval that could be computed in parallel:
+         * the {@linkplain #getNumberOfEvents() number of events} per {@linkplain #getNumberOfLevels() level}.
+         * </p>
+         */
+        public double getAvailableParallelism() {
+            return (double) numberOfEvents / numberOfLevels;
+        }
+
+        @Override
+        public String toString() {
+            return "ParallelismSample{" + start + ", " + numberOfEvents + " events, " + numberOfLevels + " levels}";
+        }
+    }
+
+    @Immutable
+    private static final class SendingEvent<STATE> {
+
+        @Nonnull
+        final Actor<STATE> actor;
+        @Nonnull
+        final Duration when;
+
+        SendingEvent(@Nonnull final Actor<STATE> actor, @Nonnull final Duration when) {
+            this.actor = actor;
+            this.when = when;
+        }
+
+        @Override
+        public boolean equals(final Object that) {
+            if (this == that) {
+                return true;
+            }
+            if (!(that instanceof SendingEvent)) {
+                return false;
+            }
+            final SendingEvent<?> other = (SendingEvent<?>) that;
+            return actor.equals(other.actor) && when.equals(other.when);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * actor.hashCode() + when.hashCode();
+        }
+    }
+
+    @NotThreadSafe
+    private static final class Sending {
+
+        long depth;
+        int nSignalsNotReceived;
+
+        Sending(final long depth, final int nSignalsNotReceived) {
+            this.depth = depth;
+            this.nSignalsNotReceived = nSignalsNotReceived;
+        }
+    }
+}
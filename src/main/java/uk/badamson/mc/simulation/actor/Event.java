@@ -25,8 +25,12 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
 import java.time.Duration;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.Objects;
 import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * <p>
@@ -51,6 +55,12 @@ public final class Event<STATE> implements Comparable<Event<STATE>> {
     @Nullable
     private final STATE state;
 
+    @Nonnull
+    private final Set<Signal<STATE>> unicastSignalsEmitted;
+
+    @Nonnull
+    private final Set<Multicast<STATE>> multicastsEmitted;
+
     @Nonnull
     private final Set<Signal<STATE>> signalsEmitted;
 
@@ -69,7 +79,9 @@ public final class Event<STATE> implements Comparable<Event<STATE>> {
     ) {
         this.id = new Id<>(causingSignal, when);
         this.state = state;
-        this.signalsEmitted = Set.of();
+        this.unicastSignalsEmitted = Set.of();
+        this.multicastsEmitted = Set.of();
+        this.signalsEmitted = unicastSignalsEmitted;
         this.createdActors = Set.of();
     }
 
@@ -100,13 +112,50 @@ public final class Event<STATE> implements Comparable<Event<STATE>> {
                  @Nullable final STATE state,
                  @Nonnull final Set<Signal<STATE>> signalsEmitted,
                  @Nonnull final Set<Actor<STATE>> createdActors) {
+        this(causingSignal, when, state, signalsEmitted, Set.of(), createdActors);
+    }
+
+    /**
+     * <p>
+     * Construct an event with given attribute values,
+     * which emits some of its signals as {@linkplain Multicast multicasts}.
+     * </p>
+     *
+     * @throws NullPointerException     <ul>
+     *                                  <li>If any {@link Nonnull} argument is null.</li>
+     *                                  <li>If {@code signalsEmitted} contains a null.</li>
+     *                                  <li>If {@code multicastsEmitted} contains a null.</li>
+     *                                  <li>If {@code createdActors} contains a null.</li>
+     *                                  </ul>
+     * @throws IllegalArgumentException <ul>
+     *                                  <li>If {@code signalsEmitted} contains a signal,
+     *                                  or {@code multicastsEmitted} contains a multicast, that was not
+     *                                  sent from the {@linkplain Signal#getReceiver() receiver} of the {@code causingSignal}</li>
+     *                                  <li>If {@code signalsEmitted} contains a signal,
+     *                                  or {@code multicastsEmitted} contains a multicast, that was not
+     *                                  sent at the same time as {@code when}.</li>
+     *                                  <li>If a signal of {@code signalsEmitted} is also a signal of one of
+     *                                  the {@code multicastsEmitted}, or two of the {@code multicastsEmitted}
+     *                                  have a signal in common.</li>
+     *                                  <li> If {@code createdActors} {@linkplain Set#contains(Object) contains} the {@linkplain Signal#getReceiver() receiver} of the {@code causingSignal}.</li>
+     *                                  <li>If any of the {@code createdActors} have a
+     *                                  {@linkplain Actor#getStart() start time} that is not {@linkplain Duration#equals(Object) equal to} {@code when}.</li>
+     *                                  </ul>
+     */
+    public Event(@Nonnull final Signal<STATE> causingSignal,
+                 @Nonnull final Duration when,
+                 @Nullable final STATE state,
+                 @Nonnull final Set<Signal<STATE>> signalsEmitted,
+                 @Nonnull final Set<Multicast<STATE>> multicastsEmitted,
+                 @Nonnull final Set<Actor<STATE>> createdActors) {
         this.id = new Id<>(causingSignal, when);
         this.state = state;
-        this.signalsEmitted = Set.copyOf(signalsEmitted);
+        this.unicastSignalsEmitted = Set.copyOf(signalsEmitted);
+        this.multicastsEmitted = Set.copyOf(multicastsEmitted);
         this.createdActors = Set.copyOf(createdActors);
         final Actor<STATE> affectedObject = causingSignal.getReceiver();
         /* Check after copy to avoid race hazards. */
-        this.signalsEmitted.forEach(signal -> {
+        this.unicastSignalsEmitted.forEach(signal -> {
             if (affectedObject != signal.getSender()) {
                 throw new IllegalArgumentException("signalEmitted not sent from sender.");
             }
@@ -114,6 +163,20 @@ public final class Event<STATE> implements Comparable<Event<STATE>> {
                 throw new IllegalArgumentException("signalEmitted not sent at event time.");
             }
         });
+        this.multicastsEmitted.forEach(multicast -> {
+            if (affectedObject != multicast.getSender()) {
+                throw new IllegalArgumentException("multicastEmitted not sent from sender.");
+            }
+            if (when != multicast.getWhenSent()) {
+                throw new IllegalArgumentException("multicastEmitted not sent at event time.");
+            }
+            if (this.unicastSignalsEmitted.stream().anyMatch(multicast::contains)) {
+                throw new IllegalArgumentException("signalsEmitted and multicastEmitted have a signal in common.");
+            }
+            if (this.multicastsEmitted.stream().anyMatch(that -> that != multicast && overlap(multicast, that))) {
+                throw new IllegalArgumentException("multicastsEmitted have a signal in common.");
+            }
+        });
         this.createdActors.forEach(actor -> {
             if (!when.equals(actor.getStart())) {
                 throw new IllegalArgumentException("createdActors.start not equal to when.");
@@ -122,6 +185,16 @@ public final class Event<STATE> implements Comparable<Event<STATE>> {
                 throw new IllegalArgumentException("affectedObject is a createdActors.");
             }
         });
+        if (this.multicastsEmitted.isEmpty()) {
+            this.signalsEmitted = this.unicastSignalsEmitted;
+        } else {
+            this.signalsEmitted = new SignalsEmitted<>(this.unicastSignalsEmitted, this.multicastsEmitted);
+        }
+    }
+
+    private static boolean overlap(@Nonnull final Multicast<?> multicast1, @Nonnull final Multicast<?> multicast2) {
+        return multicast1.getMedium().equals(multicast2.getMedium())
+                && !Collections.disjoint(multicast1.getReceivers(), multicast2.getReceivers());
     }
 
     /**
@@ -144,6 +217,13 @@ public final class Event<STATE> implements Comparable<Event<STATE>> {
      * <p>
      * Signals emitted from the {@linkplain #getAffectedObject() affected object} as part of this event.
      * </p>
+     * <p>
+     * The signals emitted include the {@linkplain Multicast#getSignals() signals} of the
+     * {@linkplain #getMulticastsEmitted() multicasts emitted}.
+     * Iterating through the set creates those signals, if they have not already been created,
+     * but {@linkplain Set#size() computing its size} and {@linkplain Set#contains(Object) testing whether it contains}
+     * a signal do not.
+     * </p>
      * <ul>
      * <li>The returned set of signals emitted is a constant (the method always
      * returns a reference to the same object).</li>
@@ -159,6 +239,35 @@ public final class Event<STATE> implements Comparable<Event<STATE>> {
         return signalsEmitted;
     }
 
+    /**
+     * <p>
+     * The signals emitted from the {@linkplain #getAffectedObject() affected object} as part of this event
+     * that are not part of {@linkplain #getMulticastsEmitted() multicasts}.
+     * </p>
+     */
+    @Nonnull
+    Set<Signal<STATE>> getUnicastSignalsEmitted() {
+        return unicastSignalsEmitted;
+    }
+
+    /**
+     * <p>
+     * The {@linkplain Multicast multicasts} emitted from the {@linkplain #getAffectedObject() affected object}
+     * as part of this event.
+     * </p>
+     * <ul>
+     * <li>The returned set of multicasts emitted is unmodifiable.</li>
+     * <li>The set of multicasts emitted does not contain null.</li>
+     * <li>The {@linkplain Multicast#getSignals() signals} of the multicasts are all
+     * {@linkplain #getSignalsEmitted() signals emitted} by this event.</li>
+     * </ul>
+     */
+    @SuppressFBWarnings(value = "EI_EXPOSE_REP", justification = "multicastsEmitted is unmodifiable")
+    @Nonnull
+    public Set<Multicast<STATE>> getMulticastsEmitted() {
+        return multicastsEmitted;
+    }
+
     /**
      * <p>
      * The state that the {@linkplain #getAffectedObject() affected object} has as a result of this event.
@@ -343,4 +452,57 @@ public final class Event<STATE> implements Comparable<Event<STATE>> {
         }
 
     }
-}
\ No newline at end of file
+
+    /**
+     * <p>
+     * An unmodifiable view of the union of the unicast signals emitted by an event
+     * and the signals of its multicasts, which does not need to create the signals of the multicasts
+     * to compute its size or test whether it contains a signal.
+     * </p>
+     */
+    @Immutable
+    private static final class SignalsEmitted<STATE> extends AbstractSet<Signal<STATE>> {
+
+        @Nonnull
+        private final Set<Signal<STATE>> unicastSignals;
+
+        @Nonnull
+        private final Set<Multicast<STATE>> multicasts;
+
+        private final int size;
+
+        SignalsEmitted(@Nonnull final Set<Signal<STATE>> unicastSignals,
+                       @Nonnull final Set<Multicast<STATE>> multicasts) {
+            this.unicastSignals = unicastSignals;
+            this.multicasts = multicasts;
+            size = unicastSignals.size() + multicasts.stream()
+                    .mapToInt(multicast -> multicast.getReceivers().size())
+                    .sum();
+        }
+
+        @Nonnull
+        @Override
+        public Iterator<Signal<STATE>> iterator() {
+            return Stream.concat(
+                    unicastSignals.stream(),
+                    multicasts.stream().flatMap(multicast -> multicast.getSignals().stream())
+            ).iterator();
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean contains(final Object o) {
+            if (o instanceof Signal<?>) {
+                final Signal<?> signal = (Signal<?>) o;
+                return unicastSignals.contains(signal)
+                        || multicasts.stream().anyMatch(multicast -> multicast.contains(signal));
+            } else {
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package uk.badamson.mc.simulation.actor;
+/*
+ * © Copyright Benedict Adamson 2022.
+ *
+ * This file is part of MC-des.
+ *
+ * MC-des is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC-des is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MC-des.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+import uk.badamson.mc.history.ValueHistory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * <p>
+ * A limit on the number of {@linkplain Actor#getEvents() events} that the actors of a {@link Universe}
+ * may add while {@linkplain Universe#advanceTo(java.time.Duration, java.util.concurrent.Executor) advancing},
+ * and on the wall-clock time they may spend doing so.
+ * </p>
+ * <p>
+ * Actors {@linkplain #consume(long) consume} the budget as they add events,
+ * and return some of it when they remove events.
+ * Actors do not receive signals while the budget is {@linkplain #isExhausted() exhausted}.
+ * The accounting is approximate, because several actors can consume the budget concurrently,
+ * so the budget limits, rather than prevents, excess events.
+ * </p>
+ * <p>
+ * Receiving a signal no later than a {@linkplain #isExhaustedFor(Duration) committed time} is exempt from
+ * the limit on the number of events. The caller chooses that time so that such events can not be rolled back,
+ * which guarantees that advancing always makes some progress, even if the limit has been reached.
+ * </p>
+ * <p>
+ * The budget is also exhausted once its time limit has elapsed, or once it has been cancelled.
+ * Because actors check the budget only before receiving a signal,
+ * an actor part way through receiving a signal completes it,
+ * so the actors are always left in a consistent state.
+ * </p>
+ */
+@ThreadSafe
+final class EventBudget {
+
+    private static final BooleanSupplier NEVER_CANCELLED = () -> false;
+
+    private final AtomicLong remaining;
+    @Nonnull
+    private final Duration committedUntil;
+    private final long startNanos;
+    private final long timeLimitNanos;
+    @Nonnull
+    private final BooleanSupplier cancelled;
+
+    /**
+     * @param remaining The number of events that may be added.
+     *                  This may be negative, in which case the budget is already exhausted.
+     */
+    EventBudget(final long remaining) {
+        this(remaining, Long.MAX_VALUE, NEVER_CANCELLED);
+    }
+
+    /**
+     * @param remaining      The number of events that may be added.
+     *                       This may be negative, in which case the budget is already exhausted.
+     * @param timeLimitNanos The wall-clock time, in nanoseconds, from construction of this budget,
+     *                       after which the budget is exhausted.
+     *                       {@link Long#MAX_VALUE} indicates no time limit.
+     * @param cancelled      Indicates whether the budget has been cancelled.
+     *                       It may be called often and from several threads, so it should be fast and threadsafe.
+     */
+    EventBudget(final long remaining, final long timeLimitNanos, @Nonnull final BooleanSupplier cancelled) {
+        this(remaining, ValueHistory.START_OF_TIME, timeLimitNanos, cancelled);
+    }
+
+    /**
+     * @param remaining      The number of events that may be added.
+     *                       This may be negative, in which case the budget is already exhausted.
+     * @param committedUntil The time at or before which receiving a signal is exempt
+     *                       from the limit on the number of events.
+     * @param timeLimitNanos The wall-clock time, in nanoseconds, from construction of this budget,
+     *                       after which the budget is exhausted.
+     *                       {@link Long#MAX_VALUE} indicates no time limit.
+     * @param cancelled      Indicates whether the budget has been cancelled.
+     *                       It may be called often and from several threads, so it should be fast and threadsafe.
+     */
+    EventBudget(
+            final long remaining, @Nonnull final Duration committedUntil,
+            final long timeLimitNanos, @Nonnull final BooleanSupplier cancelled) {
+        this.remaining = new AtomicLong(remaining);
+        this.committedUntil = Objects.requireNonNull(committedUntil, "committedUntil");
+        this.timeLimitNanos = timeLimitNanos;
+        this.cancelled = Objects.requireNonNull(cancelled, "cancelled");
+        startNanos = timeLimitNanos == Long.MAX_VALUE ? 0L : System.nanoTime();
+    }
+
+    /**
+     * <p>
+     * A budget that will never be {@linkplain #isExhausted() exhausted} in practice.
+     * </p>
+     */
+    static EventBudget unlimited() {
+        return new EventBudget(Long.MAX_VALUE);
+    }
+
+    /**
+     * <p>
+     * The number of events that may yet be added.
+     * </p>
+     */
+    long getRemaining() {
+        return remaining.get();
+    }
+
+    /**
+     * <p>
+     * Whether no more events may be added,
+     * because none {@linkplain #getRemaining() remain},
+     * the time limit has elapsed, or the budget has been cancelled.
+     * </p>
+     */
+    boolean isExhausted() {
+        return remaining.get() <= 0L || isTimedOut() || cancelled.getAsBoolean();
+    }
+
+    /**
+     * <p>
+     * Whether an actor may not receive a signal at a given time,
+     * because that would add an event that this budget does not allow.
+     * </p>
+     * <ul>
+     *     <li>If the time is after the committed time, this is the same as {@link #isExhausted()}.</li>
+     *     <li>If the time is at or before the committed time, the budget is exhausted only if
+     *     the time limit has elapsed, or the budget has been cancelled.</li>
+     * </ul>
+     */
+    boolean isExhaustedFor(@Nonnull final Duration whenReceived) {
+        return remaining.get() <= 0L && committedUntil.compareTo(whenReceived) < 0
+                || isTimedOut() || cancelled.getAsBoolean();
+    }
+
+    private boolean isTimedOut() {
+        // Subtraction, rather than comparison of absolute times, copes with wrap-around of System.nanoTime().
+        return timeLimitNanos != Long.MAX_VALUE && timeLimitNanos <= System.nanoTime() - startNanos;
+    }
+
+    /**
+     * <p>
+     * Record that a number of events have been added,
+     * or, if the number is negative, removed.
+     * </p>
+     * <p>
+     * The {@linkplain #getRemaining() remaining} number of events saturates
+     * rather than overflowing.
+     * </p>
+     */
+    void consume(final long nEvents) {
+        remaining.getAndUpdate(r -> {
+            final long result = r - nEvents;
+            // Overflow iff the arguments have different signs and the result has a different sign from r
+            if (((r ^ nEvents) & (r ^ result)) < 0L) {
+                return r < 0L ? Long.MIN_VALUE : Long.MAX_VALUE;
+            }
+            return result;
+        });
+    }
+}
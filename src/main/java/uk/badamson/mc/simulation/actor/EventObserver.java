@@ -0,0 +1,90 @@
+package uk.badamson.mc.simulation.actor;
+/*
+ * © Copyright Benedict Adamson 2022.
+ *
+ * This file is part of MC-des.
+ *
+ * MC-des is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC-des is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MC-des.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+import java.time.Duration;
+
+/**
+ * <p>
+ * An observer of the changes to the {@linkplain Actor#getEvents() events} of {@link Actor actors},
+ * which can be used to compute output statistics of a simulation online,
+ * rather than by examining the {@linkplain Actor#getStateHistory() state histories} of the actors afterwards.
+ * </p>
+ * <p>
+ * An observer is told when an event is appended to the events of an actor it
+ * {@linkplain Actor#addEventObserver(EventObserver) observes},
+ * and when an event is removed because it has been rolled back.
+ * Because every removal of an event is reported, an observer can retract the contribution of the event,
+ * so the information it records is always consistent with the current (optimistic) events of the actors.
+ * Once the events before a time have been {@linkplain Actor#clearEventsBefore(Duration) cleared},
+ * they can not be rolled back, so observers need not be told about the clearing.
+ * </p>
+ * <p>
+ * The methods of an observer are called while holding the lock of the actor,
+ * by whichever thread changed the events of the actor.
+ * They may therefore be called concurrently for different actors,
+ * so implementations must be thread-safe.
+ * They should be simple and fast, and must not throw exceptions or call methods of actors.
+ * </p>
+ * <p>
+ * Each method is also given the <dfn>previous state</dfn> of the actor, and when that state began:
+ * the state of the event before the given event, or the state of the actor at its
+ * {@linkplain Actor#getStart() start} time if there is no such event.
+ * The previous state is therefore the state that the given event ends,
+ * which enables time-weighted statistics to be computed.
+ * </p>
+ *
+ * @param <STATE> The class of states of the actors. This must be {@link Immutable
+ *                immutable}.
+ * @see StatisticsCollector
+ */
+public interface EventObserver<STATE> {
+
+    /**
+     * <p>
+     * Record that an event has been appended to the {@linkplain Actor#getEvents() events} of its
+     * {@linkplain Event#getAffectedObject() affected actor}.
+     * </p>
+     *
+     * @param event         The appended event.
+     * @param previousWhen  The point in time at which the previous state of the actor began.
+     * @param previousState The state of the actor just before the event.
+     */
+    void eventAppended(@Nonnull Event<STATE> event, @Nonnull Duration previousWhen, @Nonnull STATE previousState);
+
+    /**
+     * <p>
+     * Record that an event has been removed from the {@linkplain Actor#getEvents() events} of its
+     * {@linkplain Event#getAffectedObject() affected actor}, because it has been rolled back,
+     * or because the actor was created by an event that has been rolled back.
+     * </p>
+     * <p>
+     * The arguments are equal to those given when the event was {@linkplain #eventAppended(Event, Duration, Object) appended}.
+     * When several events of an actor are removed together, they are reported in reverse order.
+     * </p>
+     *
+     * @param event         The removed event.
+     * @param previousWhen  The point in time at which the previous state of the actor began.
+     * @param previousState The state of the actor just before the event.
+     */
+    void eventRemoved(@Nonnull Event<STATE> event, @Nonnull Duration previousWhen, @Nonnull STATE previousState);
+}
@@ -0,0 +1,224 @@
+package uk.badamson.mc.simulation.actor;
+/*
+ * © Copyright Benedict Adamson 2022.
+ *
+ * This file is part of MC-des.
+ *
+ * MC-des is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC-des is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MC-des.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * <p>
+ * The transmission of one {@linkplain Signal signal} through a {@link Medium}
+ * from one {@linkplain #getSender() sender} to a set of {@linkplain #getReceivers() receivers}.
+ * </p>
+ * <p>
+ * An {@link Event} that broadcasts to many actors can {@linkplain Event#getMulticastsEmitted() emit}
+ * one multicast, rather than many individual signals.
+ * The multicast fans out to the individual {@linkplain #getSignals() signals}, one for each receiver, lazily:
+ * only when the signals are first needed.
+ * The signals all have the {@linkplain #getMedium() medium} of the multicast,
+ * so their {@linkplain Signal#getId() IDs} differ only in their receivers.
+ * Appending an event to the events of its actor delivers the signals of its multicasts to their receivers in batches,
+ * so it does not need to hold the locks of all the receivers at once.
+ * </p>
+ * <p>
+ * The multicast saves the cost of emitting the signals, but not the cost of receiving them.
+ * Each receiver holds its own signal, so delivering a multicast creates one signal for each receiver,
+ * even if the event is later rolled back.
+ * Rolling back the event creates the signals if they have not already been created,
+ * and locks all the receivers at once, because it must remove the signals from all of them.
+ * So multicasts from events that are likely to be rolled back are as costly as individual signals.
+ * </p>
+ *
+ * @param <STATE> The class of states of the receivers. This must be {@link Immutable
+ *                immutable}. It ought to have value semantics, but that is not
+ *                required.
+ */
+@ThreadSafe
+public abstract class Multicast<STATE> {
+
+    @Nonnull
+    private final Duration whenSent;
+
+    @Nonnull
+    private final Actor<STATE> sender;
+
+    @Nonnull
+    private final Medium medium;
+
+    @Nonnull
+    private final Set<Actor<STATE>> receivers;
+
+    private final Object lock = new Object();
+
+    @Nullable
+    @GuardedBy("lock")
+    private List<Signal<STATE>> signals;
+
+    /**
+     * <p>
+     * Construct a multicast with given attribute values.
+     * </p>
+     *
+     * @throws NullPointerException If any {@link Nonnull} argument is null,
+     *                              or if {@code receivers} contains a null.
+     */
+    @SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "sender has reference semantics")
+    protected Multicast(
+            @Nonnull final Duration whenSent,
+            @Nonnull final Actor<STATE> sender,
+            @Nonnull final Medium medium,
+            @Nonnull final Set<Actor<STATE>> receivers) {
+        this.whenSent = Objects.requireNonNull(whenSent, "whenSent");
+        this.sender = Objects.requireNonNull(sender, "sender");
+        this.medium = Objects.requireNonNull(medium, "medium");
+        this.receivers = Set.copyOf(receivers);
+    }
+
+    /**
+     * <p>
+     * The point in time when the signals of this multicast were sent.
+     * </p>
+     */
+    @Nonnull
+    public final Duration getWhenSent() {
+        return whenSent;
+    }
+
+    /**
+     * <p>
+     * The {@link Actor} that sent the signals of this multicast.
+     * </p>
+     */
+    @Nonnull
+    @SuppressFBWarnings(value = "EI_EXPOSE_REP", justification = "reference semantics")
+    public final Actor<STATE> getSender() {
+        return sender;
+    }
+
+    @Nonnull
+    public final Medium getMedium() {
+        return medium;
+    }
+
+    /**
+     * <p>
+     * The actors that receive the signals of this multicast.
+     * </p>
+     * <ul>
+     *     <li>The returned set is unmodifiable.</li>
+     *     <li>The set of receivers does not contain null.</li>
+     *     <li>The set of receivers may be {@linkplain Set#isEmpty() empty}.</li>
+     * </ul>
+     */
+    @Nonnull
+    @SuppressFBWarnings(value = "EI_EXPOSE_REP", justification = "receivers is unmodifiable")
+    public final Set<Actor<STATE>> getReceivers() {
+        return receivers;
+    }
+
+    /**
+     * <p>
+     * Whether a given signal is one of the {@linkplain #getSignals() signals} of this multicast.
+     * </p>
+     * <p>
+     * This compares the {@linkplain Signal#getId() ID} of the signal with the attributes of this multicast,
+     * so it does not need to create the signals.
+     * </p>
+     */
+    public final boolean contains(@Nonnull final Signal<?> signal) {
+        Objects.requireNonNull(signal, "signal");
+        return medium.equals(signal.getMedium()) && sender == signal.getSender()
+                && whenSent.equals(signal.getWhenSent()) && receivers.contains(signal.getReceiver());
+    }
+
+    /**
+     * <p>
+     * The individual signals of this multicast, one for each of the {@linkplain #getReceivers() receivers}.
+     * </p>
+     * <p>
+     * The method creates the signals when it is first called,
+     * using the {@link #createSignal(Signal.Id)} <i>primitive operation</i>.
+     * </p>
+     * <ul>
+     *     <li>The returned list is a constant (the method always returns a reference to the same object).</li>
+     *     <li>The returned list is unmodifiable.</li>
+     *     <li>The list has one signal for each of the {@linkplain #getReceivers() receivers}.</li>
+     *     <li>The signals have the {@linkplain #getWhenSent() sending time}, {@linkplain #getSender() sender}
+     *     and {@linkplain #getMedium() medium} of this multicast.</li>
+     * </ul>
+     *
+     * @throws IllegalStateException If {@link #createSignal(Signal.Id)} returns a signal with a different ID.
+     */
+    @Nonnull
+    @SuppressFBWarnings(value = "EI_EXPOSE_REP", justification = "unmodifiable")
+    public final List<Signal<STATE>> getSignals() {
+        synchronized (lock) {
+            if (signals == null) {
+                final List<Signal<STATE>> created = new ArrayList<>(receivers.size());
+                for (final var receiver : receivers) {
+                    final var id = new Signal.Id<>(whenSent, sender, receiver, medium);
+                    final var signal = createSignal(id);
+                    if (!id.equals(signal.getId())) {
+                        throw new IllegalStateException("createSignal returned a signal with a different ID");
+                    }
+                    created.add(signal);
+                }
+                signals = Collections.unmodifiableList(created);
+            }
+            return signals;
+        }
+    }
+
+    /**
+     * <p>
+     * Create the signal of this multicast that has a given ID.
+     * </p>
+     * <p>
+     * This is a <i>primitive operation</i>, which the {@link #getSignals()} method calls
+     * once for each of the {@linkplain #getReceivers() receivers}.
+     * </p>
+     * <ul>
+     *     <li>The {@linkplain Signal#getId() ID} of the created signal must be the given ID.</li>
+     * </ul>
+     */
+    @Nonnull
+    protected abstract Signal<STATE> createSignal(@Nonnull Signal.Id<STATE> id);
+
+    @Override
+    public String toString() {
+        return "Multicast{" +
+                "whenSent=" + whenSent +
+                ", sender=" + sender +
+                ", medium=" + medium +
+                ", receivers=" + receivers.size() +
+                '}';
+    }
+}
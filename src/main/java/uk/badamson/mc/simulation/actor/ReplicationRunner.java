@@ -0,0 +1,288 @@
+package uk.badamson.mc.simulation.actor;
+/*
+ * © Copyright Benedict Adamson 2022.
+ *
+ * This file is part of MC-des.
+ *
+ * MC-des is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC-des is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MC-des.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.stream.Collector;
+
+/**
+ * <p>
+ * Runs many independent <dfn>replications</dfn> of a simulation,
+ * as for a Monte Carlo study.
+ * </p>
+ * <p>
+ * Each replication is a {@link Universe}, created by a factory,
+ * which is {@linkplain Universe#advanceTo(Duration, java.util.concurrent.Executor) advanced} to a given time,
+ * and then measured.
+ * The measurements are passed to a {@link Collector} as the replications finish.
+ * </p>
+ * <p>
+ * All the replications use the same {@link Executor}.
+ * Several replications run concurrently, so their work is interleaved in that executor.
+ * If the executor is a work-stealing pool, such as a {@link ForkJoinPool},
+ * its threads can therefore be kept busy even if the replications take different amounts of time.
+ * The runner starts a new replication as soon as one finishes,
+ * but limits the number of concurrent replications, to limit the memory needed for their universes.
+ * </p>
+ *
+ * @param <STATE> The class of states of the simulated objects. This must be
+ *                {@link Immutable immutable}.
+ */
+@ThreadSafe
+public final class ReplicationRunner<STATE> {
+
+    @Nonnull
+    private final IntFunction<Universe<STATE>> universeFactory;
+
+    @Nonnull
+    private final Executor executor;
+
+    @Nonnegative
+    private final int maximumConcurrentReplications;
+
+    /**
+     * <p>
+     * Construct a runner that uses given collaborators.
+     * </p>
+     *
+     * @param universeFactory               Creates the universe for a replication, given the index of the replication.
+     *                                      The index is in the range [0, number of replications),
+     *                                      so it can be used to choose a different random seed for each replication.
+     * @param executor                      The executor that does all the work of the replications,
+     *                                      including creating and measuring them.
+     * @param maximumConcurrentReplications The maximum number of replications that may be running at once.
+     * @throws NullPointerException     If a {@link Nonnull} argument is null.
+     * @throws IllegalArgumentException If {@code maximumConcurrentReplications} is not positive.
+     */
+    public ReplicationRunner(
+            @Nonnull final IntFunction<Universe<STATE>> universeFactory,
+            @Nonnull final Executor executor,
+            @Nonnegative final int maximumConcurrentReplications) {
+        this.universeFactory = Objects.requireNonNull(universeFactory, "universeFactory");
+        this.executor = Objects.requireNonNull(executor, "executor");
+        if (maximumConcurrentReplications <= 0) {
+            throw new IllegalArgumentException("maximumConcurrentReplications " + maximumConcurrentReplications);
+        }
+        this.maximumConcurrentReplications = maximumConcurrentReplications;
+    }
+
+    /**
+     * <p>
+     * Construct a runner that uses given collaborators,
+     * and that runs twice as many replications at once as there are available processors.
+     * </p>
+     *
+     * @see #ReplicationRunner(IntFunction, Executor, int)
+     */
+    public ReplicationRunner(
+            @Nonnull final IntFunction<Universe<STATE>> universeFactory,
+            @Nonnull final Executor executor) {
+        this(universeFactory, executor, 2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    @Nonnull
+    public IntFunction<Universe<STATE>> getUniverseFactory() {
+        return universeFactory;
+    }
+
+    @Nonnull
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    @Nonnegative
+    public int getMaximumConcurrentReplications() {
+        return maximumConcurrentReplications;
+    }
+
+    /**
+     * <p>
+     * Run a number of replications.
+     * </p>
+     * <ul>
+     *     <li>Each replication creates a universe, using the {@linkplain #getUniverseFactory() universe factory},
+     *     advances it to the given time, and then applies the given measurement to it.</li>
+     *     <li>The measurement of each replication is given to the {@linkplain Collector#accumulator() accumulator}
+     *     of the given collector as soon as the replication has finished.
+     *     The collector is used serially, so it need not be concurrent,
+     *     but the measurements are accumulated in the order in which the replications finish,
+     *     which might not be the order of their indices.</li>
+     *     <li>The method does not wait for the replications to finish.
+     *     The returned future completes with the {@linkplain Collector#finisher() finished} result
+     *     of the collector once all the replications have finished.</li>
+     *     <li>If any replication fails, the returned future completes exceptionally,
+     *     and the runner starts no more replications.</li>
+     * </ul>
+     *
+     * @param nReplications The number of replications to run.
+     * @param when          The time to which to advance each universe.
+     * @param measurement   Computes the result of a replication from its advanced universe.
+     * @param collector     Reduces the results of the replications.
+     * @param <RESULT>      The class of the results of individual replications.
+     * @param <ACCUMULATION> The mutable accumulation class of the collector.
+     * @param <REDUCTION>   The class of the reduced result of all the replications.
+     * @throws NullPointerException     If a {@link Nonnull} argument is null.
+     * @throws IllegalArgumentException If {@code nReplications} is negative.
+     */
+    @Nonnull
+    public <RESULT, ACCUMULATION, REDUCTION> CompletableFuture<REDUCTION> run(
+            @Nonnegative final int nReplications,
+            @Nonnull final Duration when,
+            @Nonnull final Function<? super Universe<STATE>, ? extends RESULT> measurement,
+            @Nonnull final Collector<? super RESULT, ACCUMULATION, REDUCTION> collector) {
+        Objects.requireNonNull(when, "when");
+        Objects.requireNonNull(measurement, "measurement");
+        Objects.requireNonNull(collector, "collector");
+        if (nReplications < 0) {
+            throw new IllegalArgumentException("nReplications " + nReplications);
+        }
+        final Run<RESULT, ACCUMULATION, REDUCTION> run = new Run<>(nReplications, when, measurement, collector);
+        run.start();
+        return run.result;
+    }
+
+    @ThreadSafe
+    private final class Run<RESULT, ACCUMULATION, REDUCTION> {
+
+        private final Object lock = new Object();
+
+        private final CompletableFuture<REDUCTION> result = new CompletableFuture<>();
+
+        private final int nReplications;
+
+        @Nonnull
+        private final Duration when;
+
+        @Nonnull
+        private final Function<? super Universe<STATE>, ? extends RESULT> measurement;
+
+        @Nonnull
+        private final Collector<? super RESULT, ACCUMULATION, REDUCTION> collector;
+
+        @GuardedBy("lock")
+        private final ACCUMULATION accumulation;
+
+        @GuardedBy("lock")
+        private int nStarted;
+
+        @GuardedBy("lock")
+        private int nFinished;
+
+        @GuardedBy("lock")
+        private int nStartsRequested;
+
+        @GuardedBy("lock")
+        private boolean starting;
+
+        Run(final int nReplications,
+            @Nonnull final Duration when,
+            @Nonnull final Function<? super Universe<STATE>, ? extends RESULT> measurement,
+            @Nonnull final Collector<? super RESULT, ACCUMULATION, REDUCTION> collector) {
+            this.nReplications = nReplications;
+            this.when = when;
+            this.measurement = measurement;
+            this.collector = collector;
+            this.accumulation = collector.supplier().get();
+        }
+
+        void start() {
+            if (nReplications == 0) {
+                synchronized (lock) {
+                    result.complete(collector.finisher().apply(accumulation));
+                }
+            } else {
+                startReplications(Math.min(nReplications, maximumConcurrentReplications));
+            }
+        }
+
+        /**
+         * <p>
+         * Start some more replications, if any remain to be started.
+         * </p>
+         * <p>
+         * If the executor runs tasks in the calling thread, a finishing replication calls this method
+         * while an earlier call is still starting replications. In that case the method does not start
+         * the replication itself, but leaves the earlier call to do it, so the stack does not grow with
+         * the number of replications.
+         * </p>
+         */
+        private void startReplications(final int n) {
+            synchronized (lock) {
+                nStartsRequested += n;
+                if (starting) {
+                    return;
+                }
+                starting = true;
+            }
+            while (true) {
+                final int replication;
+                synchronized (lock) {
+                    if (nStartsRequested == 0 || result.isDone() || nStarted == nReplications) {
+                        starting = false;
+                        return;
+                    }
+                    nStartsRequested--;
+                    replication = nStarted++;
+                }
+                startReplication(replication);
+            }
+        }
+
+        private void startReplication(final int replication) {
+            CompletableFuture.supplyAsync(() -> universeFactory.apply(replication), executor)
+                    .thenCompose(universe -> universe.advanceToWithCompletableFuture(when, executor)
+                            .thenApply(affectedActors -> measurement.apply(universe)))
+                    .whenComplete(this::finishReplication);
+        }
+
+        private void finishReplication(final RESULT replicationResult, final Throwable exception) {
+            if (exception == null) {
+                synchronized (lock) {
+                    if (result.isDone()) {
+                        return;
+                    }
+                    try {
+                        collector.accumulator().accept(accumulation, replicationResult);
+                        nFinished++;
+                        if (nFinished == nReplications) {
+                            result.complete(collector.finisher().apply(accumulation));
+                        }
+                    } catch (final RuntimeException e) {
+                        result.completeExceptionally(e);
+                    }
+                }
+                startReplications(1);
+            } else {
+                result.completeExceptionally(exception);
+            }
+        }
+    }
+}
@@ -28,6 +28,7 @@ import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
 import java.time.Duration;
 import java.util.Objects;
+import java.util.SplittableRandom;
 
 /**
  * <p>
@@ -352,6 +353,94 @@ public abstract class Signal<STATE> {
     protected abstract Event<STATE> receive(@Nonnull Duration when, @Nonnull STATE receiverState)
             throws UnreceivableSignalException;
 
+    /**
+     * <p>
+     * Create a source of random numbers for the event of the {@linkplain #getReceiver() receiver}
+     * receiving this signal at a given time.
+     * </p>
+     * <p>
+     * Implementations of {@link #receive(Duration, Object)} that need randomness should use this,
+     * rather than a shared {@link java.util.Random}, which would be contended by concurrent computations,
+     * and which would give different numbers if an event were computed again after a rollback.
+     * </p>
+     * <ul>
+     * <li>The seed of the returned generator is a deterministic function of
+     * the {@linkplain Actor#getRandomSeed() random seed} of the receiver,
+     * the random seed of the {@linkplain #getSender() sender} (if there is a sender),
+     * the {@linkplain #getWhenSent() sending time}
+     * and the given reception time.
+     * So repeated calls with the same reception time produce the same sequence of random numbers,
+     * and the sequence is reproducible if the seeds of the actors are reproducible.</li>
+     * <li>The sequence does not depend on the {@linkplain #getMedium() medium}, so signals that differ only
+     * in their medium produce the same sequence.</li>
+     * <li>Each call creates a new generator, so this method does not acquire any locks.</li>
+     * </ul>
+     *
+     * @param when The point in time that reception of the signal occurs.
+     * @throws NullPointerException If {@code when} is null.
+     */
+    @Nonnull
+    protected final SplittableRandom createRandom(@Nonnull final Duration when) {
+        Objects.requireNonNull(when, "when");
+        final Actor<STATE> sender = getSender();
+        long seed = getReceiver().getRandomSeed();
+        if (sender != null) {
+            seed = Actor.deriveRandomSeed(seed, sender.getRandomSeed());
+        }
+        final Duration whenSent = getWhenSent();
+        seed = Actor.deriveRandomSeed(seed, whenSent.getSeconds());
+        seed = Actor.deriveRandomSeed(seed, whenSent.getNano());
+        seed = Actor.deriveRandomSeed(seed, when.getSeconds());
+        seed = Actor.deriveRandomSeed(seed, when.getNano());
+        return new SplittableRandom(seed);
+    }
+
+    /**
+     * <p>
+     * Create a copy of this signal that has a given ID,
+     * but is otherwise the same as this signal.
+     * </p>
+     * <p>
+     * This is an optional <i>primitive operation</i>, used to {@linkplain Universe#fork() fork} a {@link Universe}:
+     * signals that the actors of the universe have yet to receive are copied,
+     * to be sent to and from the corresponding actors of the fork.
+     * The default implementation throws an {@link UnsupportedOperationException},
+     * so universes with signals of classes that do not override this method can not be forked.
+     * Classes that override this method must also override {@link #isCopyable()}.
+     * </p>
+     * <ul>
+     * <li>The {@linkplain #getId() ID} of the copy is the given ID.</li>
+     * <li>The copy must behave in the same manner as this signal, if its receiver has the same states.</li>
+     * </ul>
+     *
+     * @throws NullPointerException          If {@code id} is null.
+     * @throws UnsupportedOperationException If this signal can not be copied.
+     * @see #isCopyable()
+     */
+    @Nonnull
+    protected Signal<STATE> copy(@Nonnull final Id<STATE> id) {
+        Objects.requireNonNull(id, "id");
+        throw new UnsupportedOperationException("Signal can not be copied: " + getClass());
+    }
+
+    /**
+     * <p>
+     * Whether this signal can be {@linkplain #copy(Id) copied}.
+     * </p>
+     * <p>
+     * This is an optional <i>primitive operation</i>, which must be overridden together with {@link #copy(Id)}.
+     * It enables a {@link Universe} to check that it can be {@linkplain Universe#fork() forked}
+     * before it starts copying its actors.
+     * The default implementation returns {@code false}.
+     * </p>
+     * <ul>
+     * <li>If this signal is copyable, {@link #copy(Id)} does not throw an {@link UnsupportedOperationException}.</li>
+     * </ul>
+     */
+    protected boolean isCopyable() {
+        return false;
+    }
+
     /**
      * <p>
      * The effect that his signal has if received by the {@linkplain #getReceiver()
@@ -0,0 +1,553 @@
+package uk.badamson.mc.simulation.actor;
+/*
+ * © Copyright Benedict Adamson 2022.
+ *
+ * This file is part of MC-des.
+ *
+ * MC-des is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC-des is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MC-des.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+import uk.badamson.mc.history.ModifiableValueHistory;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * <p>
+ * A {@link Medium} through which {@linkplain Signal signals} propagate through space,
+ * at a finite {@linkplain #getSpeed() speed}.
+ * </p>
+ * <p>
+ * A spatial medium maintains an index of the {@linkplain #getPosition(Actor, Duration) positions}
+ * of the actors it {@linkplain #track(Actor) tracks}, as they change over time.
+ * The index is a uniform grid of cubic cells,
+ * so finding the {@linkplain #getReceivers(Position, double, Duration) receivers}
+ * of a range-limited broadcast examines only the actors in the cells that overlap the range,
+ * rather than scanning all the actors of a {@link Universe}.
+ * The index is updated whenever the state history of a tracked actor changes:
+ * when an {@link Event} is added to the actor, and when events are rolled back.
+ * </p>
+ * <p>
+ * The positions recorded in the index are those of the current (optimistic) state histories
+ * of the actors, so the receivers found for a broadcast at a time might change
+ * if the events of other actors before that time are later rolled back.
+ * A {@link Signal} sent to receivers found through this medium should therefore
+ * check whether it is still in range of its receiver when it is received.
+ * </p>
+ *
+ * @param <STATE> The class of states of the actors. This must be {@link Immutable
+ *                immutable}. It ought to have value semantics, but that is not
+ *                required.
+ */
+@ThreadSafe
+public final class SpatialMedium<STATE> extends Medium {
+
+    @Nonnull
+    private final Function<STATE, Position> positionOfState;
+
+    @Nonnegative
+    private final double cellSize;
+
+    @Nonnegative
+    private final double speed;
+
+    private final Map<Cell, Set<Actor<STATE>>> grid = new ConcurrentHashMap<>();
+
+    private final Map<Actor<STATE>, Track> tracks = new ConcurrentHashMap<>();
+
+    /**
+     * <p>
+     * Construct a spatial medium with given attribute values, which tracks no actors.
+     * </p>
+     * <p>
+     * The {@code positionOfState} function is applied while holding the lock of an actor,
+     * so it should be a simple and fast computation that depends only on the given state.
+     * </p>
+     *
+     * @param positionOfState The position of an actor that has a given (non null) state.
+     * @param cellSize        The length of the sides of the cells of the index grid.
+     *                        Ideally, this is similar to the typical range of a broadcast.
+     * @param speed           The {@linkplain #getSpeed() speed} at which signals propagate,
+     *                        in units of distance per second. May be {@linkplain Double#POSITIVE_INFINITY infinite}.
+     * @throws NullPointerException     If {@code positionOfState} is null.
+     * @throws IllegalArgumentException <ul>
+     *                                  <li>If {@code cellSize} is not positive and finite.</li>
+     *                                  <li>If {@code speed} is not positive.</li>
+     *                                  </ul>
+     */
+    public SpatialMedium(
+            @Nonnull final Function<STATE, Position> positionOfState,
+            @Nonnegative final double cellSize,
+            @Nonnegative final double speed) {
+        this.positionOfState = Objects.requireNonNull(positionOfState, "positionOfState");
+        if (!(0.0 < cellSize && Double.isFinite(cellSize))) {
+            throw new IllegalArgumentException("cellSize " + cellSize);
+        }
+        if (!(0.0 < speed)) {
+            throw new IllegalArgumentException("speed " + speed);
+        }
+        this.cellSize = cellSize;
+        this.speed = speed;
+    }
+
+    /**
+     * <p>
+     * The speed at which signals propagate through this medium,
+     * in units of distance per second.
+     * </p>
+     * <ul>
+     *     <li>Positive.</li>
+     *     <li>May be {@linkplain Double#POSITIVE_INFINITY infinite}.</li>
+     * </ul>
+     */
+    @Nonnegative
+    public double getSpeed() {
+        return speed;
+    }
+
+    /**
+     * <p>
+     * The length of the sides of the cells of the index grid of this medium.
+     * </p>
+     * <ul>
+     *     <li>Positive and finite.</li>
+     * </ul>
+     */
+    @Nonnegative
+    public double getCellSize() {
+        return cellSize;
+    }
+
+    /**
+     * <p>
+     * Start maintaining the position of a given actor in the index of this medium.
+     * </p>
+     * <ul>
+     *     <li>Records the positions of the current state history of the actor.</li>
+     *     <li>Thereafter, the index is updated whenever the state history of the actor changes.</li>
+     *     <li>Tracking an actor that is already tracked has no effect.</li>
+     *     <li>The tracking ends if the actor is removed because the event that created it was rolled back.</li>
+     * </ul>
+     *
+     * @throws NullPointerException If {@code actor} is null.
+     */
+    public void track(@Nonnull final Actor<STATE> actor) {
+        Objects.requireNonNull(actor, "actor");
+        actor.addSpatialMedium(this);
+    }
+
+    /**
+     * <p>
+     * Whether this medium {@linkplain #track(Actor) tracks} a given actor.
+     * </p>
+     */
+    public boolean isTracked(@Nonnull final Actor<STATE> actor) {
+        Objects.requireNonNull(actor, "actor");
+        return tracks.containsKey(actor);
+    }
+
+    /**
+     * <p>
+     * The position, according to the index of this medium, of a given actor at a given time.
+     * </p>
+     * <ul>
+     *     <li>Null if the actor is not {@linkplain #isTracked(Actor) tracked}.</li>
+     *     <li>Null if the actor does not exist at the given time.</li>
+     *     <li>Otherwise, the position of the {@linkplain Actor#getStateHistory() state} of the actor at that time.</li>
+     * </ul>
+     */
+    @Nullable
+    public Position getPosition(@Nonnull final Actor<STATE> actor, @Nonnull final Duration when) {
+        Objects.requireNonNull(actor, "actor");
+        Objects.requireNonNull(when, "when");
+        final var track = tracks.get(actor);
+        return track == null ? null : track.getPosition(when);
+    }
+
+    /**
+     * <p>
+     * The time it takes a signal to propagate through this medium between two positions.
+     * </p>
+     * <ul>
+     *     <li>The {@linkplain Position#distanceTo(Position) distance} between the positions
+     *     divided by the {@linkplain #getSpeed() speed}, rounded up to the next nanosecond.</li>
+     *     <li>Zero if the speed is infinite.</li>
+     * </ul>
+     */
+    @Nonnull
+    @Nonnegative
+    public Duration getPropagationDelay(@Nonnull final Position from, @Nonnull final Position to) {
+        Objects.requireNonNull(from, "from");
+        Objects.requireNonNull(to, "to");
+        return getPropagationDelay(from.distanceTo(to));
+    }
+
+    @Nonnull
+    private Duration getPropagationDelay(final double distance) {
+        final double nanos = Math.ceil(distance * 1.0E9 / speed);
+        if (Long.MAX_VALUE <= nanos) {
+            return Signal.NEVER_RECEIVED;
+        } else {
+            return Duration.ofNanos((long) nanos);
+        }
+    }
+
+    /**
+     * <p>
+     * The {@linkplain #isTracked(Actor) tracked} actors that are within a given range of a given position
+     * at a given time, and the {@linkplain #getPropagationDelay(Position, Position) propagation delays}
+     * of a signal from that position to those actors.
+     * </p>
+     * <ul>
+     *     <li>The keys of the returned map are the tracked actors that have a {@linkplain #getPosition(Actor, Duration) position}
+     *     at the given time that is {@linkplain Position#distanceTo(Position) within} the given range of the given origin.</li>
+     *     <li>The values of the returned map are the propagation delays from the origin to the positions of the actors.</li>
+     * </ul>
+     * <p>
+     * The time complexity is proportional to the number of index cells that overlap the range
+     * (or the number of occupied cells, if that is fewer)
+     * plus the number of actors that have been in those cells
+     * at some time since their {@linkplain Actor#clearEventsBefore(Duration) events were last cleared}.
+     * Rolled back positions are removed from the index.
+     * </p>
+     *
+     * @throws NullPointerException     If any {@link Nonnull} argument is null.
+     * @throws IllegalArgumentException If {@code range} is negative or not finite.
+     */
+    @Nonnull
+    public Map<Actor<STATE>, Duration> getReceivers(
+            @Nonnull final Position origin,
+            @Nonnegative final double range,
+            @Nonnull final Duration when) {
+        Objects.requireNonNull(origin, "origin");
+        Objects.requireNonNull(when, "when");
+        if (!(0.0 <= range && Double.isFinite(range))) {
+            throw new IllegalArgumentException("range " + range);
+        }
+        final Cell lowest = cellOf(origin.x - range, origin.y - range, origin.z - range);
+        final Cell highest = cellOf(origin.x + range, origin.y + range, origin.z + range);
+        final double nCellsInRange = (highest.i - lowest.i + 1.0) * (highest.j - lowest.j + 1.0) * (highest.k - lowest.k + 1.0);
+        final Set<Actor<STATE>> candidates = new HashSet<>();
+        if (grid.size() < nCellsInRange) {
+            grid.forEach((cell, actors) -> {
+                if (cell.isWithin(lowest, highest)) {
+                    candidates.addAll(actors);
+                }
+            });
+        } else {
+            for (long i = lowest.i; i <= highest.i; ++i) {
+                for (long j = lowest.j; j <= highest.j; ++j) {
+                    for (long k = lowest.k; k <= highest.k; ++k) {
+                        final var actors = grid.get(new Cell(i, j, k));
+                        if (actors != null) {
+                            candidates.addAll(actors);
+                        }
+                    }
+                }
+            }
+        }
+        final Map<Actor<STATE>, Duration> receivers = new HashMap<>(candidates.size());
+        for (final var candidate : candidates) {
+            final var position = getPosition(candidate, when);
+            if (position != null) {
+                final double distance = origin.distanceTo(position);
+                if (distance <= range) {
+                    receivers.put(candidate, getPropagationDelay(distance));
+                }
+            }
+        }
+        return Collections.unmodifiableMap(receivers);
+    }
+
+    @Nonnull
+    private Cell cellOf(final double x, final double y, final double z) {
+        return new Cell(index(x), index(y), index(z));
+    }
+
+    private long index(final double coordinate) {
+        return (long) Math.floor(coordinate / cellSize);
+    }
+
+    @Nonnull
+    private Cell cellOf(@Nonnull final Position position) {
+        return cellOf(position.x, position.y, position.z);
+    }
+
+    /*
+     * The following methods are called by the Actor while it holds its lock.
+     */
+
+    void trackWhileLocked(@Nonnull final Actor<STATE> actor, @Nonnull final ModifiableValueHistory<STATE> stateHistory) {
+        final var track = new Track();
+        stateHistory.streamOfTransitions().sequential()
+                .forEachOrdered(transition -> setStateFrom(actor, track, transition.getKey(), transition.getValue()));
+        tracks.put(actor, track);
+    }
+
+    void setStateFromWhileLocked(@Nonnull final Actor<STATE> actor, @Nonnull final Duration when, @Nullable final STATE state) {
+        final var track = tracks.get(actor);
+        if (track != null) {
+            setStateFrom(actor, track, when, state);
+        }
+    }
+
+    void clearBeforeWhileLocked(@Nonnull final Actor<STATE> actor, @Nonnull final Duration when) {
+        final var track = tracks.get(actor);
+        if (track != null) {
+            final Set<Cell> vacated;
+            synchronized (track) {
+                track.positions.setValueUntil(when.minusNanos(1), null);
+                vacated = retainOccupiedCells(track);
+            }
+            removeFromCells(actor, vacated);
+        }
+    }
+
+    void untrackWhileLocked(@Nonnull final Actor<STATE> actor) {
+        final var track = tracks.remove(actor);
+        if (track != null) {
+            final Set<Cell> cells;
+            synchronized (track) {
+                cells = new HashSet<>(track.cells);
+            }
+            removeFromCells(actor, cells);
+        }
+    }
+
+    private void setStateFrom(
+            @Nonnull final Actor<STATE> actor, @Nonnull final Track track,
+            @Nonnull final Duration when, @Nullable final STATE state) {
+        final Position position = state == null ? null : positionOfState.apply(state);
+        final boolean newCell;
+        final Set<Cell> vacated;
+        final Cell cell = position == null ? null : cellOf(position);
+        synchronized (track) {
+            final Duration lastTransitionTime = track.positions.getLastTransitionTime();
+            final boolean truncating = lastTransitionTime != null && when.compareTo(lastTransitionTime) <= 0;
+            track.positions.setValueFrom(when, position);
+            // Appending a position can not vacate a cell, so only a truncation needs the cells recomputing.
+            vacated = truncating ? retainOccupiedCells(track) : Set.of();
+            newCell = cell != null && track.cells.add(cell);
+        }
+        removeFromCells(actor, vacated);
+        if (newCell) {
+            grid.compute(cell, (c, actors) -> {
+                final Set<Actor<STATE>> result = actors == null ? ConcurrentHashMap.newKeySet() : actors;
+                result.add(actor);
+                return result;
+            });
+        }
+    }
+
+    /**
+     * <p>
+     * Reduce the {@linkplain Track#cells cells} of a track to the cells of its positions,
+     * returning the cells that it no longer occupies.
+     * </p>
+     */
+    @GuardedBy("track")
+    @Nonnull
+    private Set<Cell> retainOccupiedCells(@Nonnull final Track track) {
+        final Set<Cell> occupied = new HashSet<>();
+        track.positions.streamOfTransitions()
+                .map(Map.Entry::getValue)
+                .filter(Objects::nonNull)
+                .forEach(position -> occupied.add(cellOf(position)));
+        final Set<Cell> vacated = new HashSet<>(track.cells);
+        vacated.removeAll(occupied);
+        track.cells.retainAll(occupied);
+        return vacated;
+    }
+
+    private void removeFromCells(@Nonnull final Actor<STATE> actor, @Nonnull final Set<Cell> cells) {
+        for (final var cell : cells) {
+            grid.computeIfPresent(cell, (c, actors) -> {
+                actors.remove(actor);
+                return actors.isEmpty() ? null : actors;
+            });
+        }
+    }
+
+    /**
+     * <p>
+     * The number of cells of the index grid that some tracked actor occupies at some time.
+     * </p>
+     */
+    int getNumberOfOccupiedCells() {
+        return grid.size();
+    }
+
+    @Override
+    public String toString() {
+        return "SpatialMedium@" + id;
+    }
+
+    /**
+     * <p>
+     * A point in three-dimensional space.
+     * </p>
+     * <p>
+     * Two-dimensional models can use positions that have a zero {@linkplain #getZ() z coordinate}.
+     * </p>
+     */
+    @Immutable
+    public static final class Position {
+
+        private final double x;
+        private final double y;
+        private final double z;
+
+        /**
+         * <p>
+         * Construct a position with given coordinates.
+         * </p>
+         *
+         * @throws IllegalArgumentException If any coordinate is not finite.
+         */
+        public Position(final double x, final double y, final double z) {
+            if (!(Double.isFinite(x) && Double.isFinite(y) && Double.isFinite(z))) {
+                throw new IllegalArgumentException("coordinates not finite");
+            }
+            this.x = x;
+            this.y = y;
+            this.z = z;
+        }
+
+        public double getX() {
+            return x;
+        }
+
+        public double getY() {
+            return y;
+        }
+
+        public double getZ() {
+            return z;
+        }
+
+        /**
+         * <p>
+         * The Euclidean distance between this position and a given position.
+         * </p>
+         */
+        @Nonnegative
+        public double distanceTo(@Nonnull final Position that) {
+            Objects.requireNonNull(that, "that");
+            final double dx = x - that.x;
+            final double dy = y - that.y;
+            final double dz = z - that.z;
+            return Math.sqrt(dx * dx + dy * dy + dz * dz);
+        }
+
+        /**
+         * Whether this object is <i>equivalent</i> to another.
+         * <p>
+         * This class has value semantics.
+         */
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            final Position that = (Position) o;
+
+            return Double.compare(x, that.x) == 0 && Double.compare(y, that.y) == 0 && Double.compare(z, that.z) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = Double.hashCode(x);
+            result = 31 * result + Double.hashCode(y);
+            result = 31 * result + Double.hashCode(z);
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return "(" + x + ", " + y + ", " + z + ")";
+        }
+    }
+
+    @Immutable
+    private static final class Cell {
+
+        private final long i;
+        private final long j;
+        private final long k;
+
+        Cell(final long i, final long j, final long k) {
+            this.i = i;
+            this.j = j;
+            this.k = k;
+        }
+
+        boolean isWithin(@Nonnull final Cell lowest, @Nonnull final Cell highest) {
+            return lowest.i <= i && i <= highest.i
+                    && lowest.j <= j && j <= highest.j
+                    && lowest.k <= k && k <= highest.k;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            final Cell that = (Cell) o;
+
+            return i == that.i && j == that.j && k == that.k;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = Long.hashCode(i);
+            result = 31 * result + Long.hashCode(j);
+            result = 31 * result + Long.hashCode(k);
+            return result;
+        }
+    }
+
+    /**
+     * <p>
+     * The positions of one tracked actor, and the cells of the index grid that it occupies at some time.
+     * </p>
+     */
+    @ThreadSafe
+    private static final class Track {
+
+        @GuardedBy("this")
+        private final ModifiableValueHistory<Position> positions = new ModifiableValueHistory<>();
+
+        @GuardedBy("this")
+        private final Set<Cell> cells = new HashSet<>();
+
+        @Nullable
+        synchronized Position getPosition(@Nonnull final Duration when) {
+            return positions.get(when);
+        }
+    }
+}
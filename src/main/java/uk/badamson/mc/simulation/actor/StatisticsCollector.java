@@ -0,0 +1,632 @@
+package uk.badamson.mc.simulation.actor;
+/*
+ * © Copyright Benedict Adamson 2022.
+ *
+ * This file is part of MC-des.
+ *
+ * MC-des is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC-des is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MC-des.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.annotation.concurrent.ThreadSafe;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * <p>
+ * An {@link EventObserver} that computes a summary statistic of the events of the actors it observes, online.
+ * </p>
+ * <p>
+ * A collector records the contribution of each event in an <dfn>accumulator</dfn>.
+ * The contribution of an event that is removed is subtracted from an accumulator, with negative weight,
+ * so the statistic is retracted when events are rolled back.
+ * The accumulators of the standard collectors hold sums and counts, which can be added and subtracted in any order,
+ * so the collector can have one accumulator for each thread that reports events.
+ * Each accumulator is therefore updated only by one thread, without contention,
+ * and the statistic is computed by merging the accumulators when it is requested.
+ * Collectors of the same class can also be {@linkplain #merge(StatisticsCollector) merged},
+ * which is useful for combining the results of several replications of a simulation.
+ * </p>
+ * <p>
+ * Because a collector does not need the {@linkplain Actor#getStateHistory() state histories} of the actors,
+ * their events can be {@linkplain Actor#clearEventsBefore(Duration) cleared} as soon as
+ * they can no longer be rolled back.
+ * </p>
+ *
+ * @param <STATE>       The class of states of the actors. This must be {@link Immutable
+ *                      immutable}.
+ * @param <ACCUMULATOR> The class of the accumulators of the contributions of events.
+ */
+@ThreadSafe
+public abstract class StatisticsCollector<STATE, ACCUMULATOR> implements EventObserver<STATE> {
+
+    private final List<ACCUMULATOR> accumulators = new CopyOnWriteArrayList<>();
+
+    private final ThreadLocal<ACCUMULATOR> accumulatorOfThread = ThreadLocal.withInitial(() -> {
+        final ACCUMULATOR accumulator = createAccumulator();
+        accumulators.add(accumulator);
+        return accumulator;
+    });
+
+    /**
+     * <p>
+     * The length of time from one point in time to another, in seconds.
+     * </p>
+     */
+    static double secondsBetween(@Nonnull final Duration from, @Nonnull final Duration to) {
+        return ((double) to.getSeconds() - from.getSeconds()) + (to.getNano() - from.getNano()) * 1E-9;
+    }
+
+    @Override
+    public final void eventAppended(
+            @Nonnull final Event<STATE> event, @Nonnull final Duration previousWhen, @Nonnull final STATE previousState) {
+        accumulate(event, previousWhen, previousState, 1);
+    }
+
+    @Override
+    public final void eventRemoved(
+            @Nonnull final Event<STATE> event, @Nonnull final Duration previousWhen, @Nonnull final STATE previousState) {
+        accumulate(event, previousWhen, previousState, -1);
+    }
+
+    private void accumulate(
+            @Nonnull final Event<STATE> event, @Nonnull final Duration previousWhen, @Nonnull final STATE previousState,
+            final int weight) {
+        final ACCUMULATOR accumulator = accumulatorOfThread.get();
+        // The lock is uncontended, except while the accumulators are being merged.
+        //noinspection SynchronizationOnLocalVariableOrMethodParameter
+        synchronized (accumulator) {
+            accumulate(accumulator, event, previousWhen, previousState, weight);
+        }
+    }
+
+    /**
+     * <p>
+     * Add the contributions recorded by another collector to the contributions recorded by this collector.
+     * </p>
+     * <p>
+     * The other collector is unchanged.
+     * </p>
+     *
+     * @throws NullPointerException     If {@code that} is null.
+     * @throws IllegalArgumentException If {@code that} is not of the same class as this collector.
+     */
+    public final void merge(@Nonnull final StatisticsCollector<STATE, ACCUMULATOR> that) {
+        Objects.requireNonNull(that, "that");
+        if (that.getClass() != getClass()) {
+            throw new IllegalArgumentException("Different class");
+        }
+        final ACCUMULATOR total = that.getTotal();
+        final ACCUMULATOR accumulator = accumulatorOfThread.get();
+        //noinspection SynchronizationOnLocalVariableOrMethodParameter
+        synchronized (accumulator) {
+            merge(accumulator, total);
+        }
+    }
+
+    /**
+     * <p>
+     * A newly created accumulator that holds the sum of the contributions recorded by this collector.
+     * </p>
+     */
+    @Nonnull
+    final ACCUMULATOR getTotal() {
+        final ACCUMULATOR total = createAccumulator();
+        for (final ACCUMULATOR accumulator : accumulators) {
+            //noinspection SynchronizationOnLocalVariableOrMethodParameter
+            synchronized (accumulator) {
+                merge(total, accumulator);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * <p>
+     * Create an accumulator that records no contributions.
+     * </p>
+     */
+    @Nonnull
+    abstract ACCUMULATOR createAccumulator();
+
+    /**
+     * <p>
+     * Add the contribution of an event to an accumulator, with a given weight,
+     * which is 1 for an appended event and -1 for a removed event.
+     * </p>
+     */
+    abstract void accumulate(
+            @Nonnull ACCUMULATOR accumulator,
+            @Nonnull Event<STATE> event, @Nonnull Duration previousWhen, @Nonnull STATE previousState,
+            int weight);
+
+    /**
+     * <p>
+     * Add the contributions recorded by one accumulator to another.
+     * </p>
+     */
+    abstract void merge(@Nonnull ACCUMULATOR destination, @Nonnull ACCUMULATOR source);
+
+    /**
+     * <p>
+     * A {@link StatisticsCollector} that counts the events that satisfy a condition.
+     * </p>
+     *
+     * @param <STATE> The class of states of the actors.
+     */
+    @ThreadSafe
+    public static final class Count<STATE> extends StatisticsCollector<STATE, long[]> {
+
+        @Nonnull
+        private final Predicate<Event<STATE>> condition;
+
+        /**
+         * <p>
+         * Construct a collector that counts the events that satisfy a given condition,
+         * and which has counted no events.
+         * </p>
+         *
+         * @param condition The condition. It is evaluated while holding the lock of an actor,
+         *                  so it should be simple and fast.
+         */
+        public Count(@Nonnull final Predicate<Event<STATE>> condition) {
+            this.condition = Objects.requireNonNull(condition, "condition");
+        }
+
+        /**
+         * <p>
+         * Construct a collector that counts all events, and which has counted no events.
+         * </p>
+         */
+        public Count() {
+            this(event -> true);
+        }
+
+        /**
+         * <p>
+         * The number of events that satisfy the condition.
+         * </p>
+         */
+        public long getCount() {
+            return getTotal()[0];
+        }
+
+        @Nonnull
+        @Override
+        long[] createAccumulator() {
+            return new long[1];
+        }
+
+        @Override
+        void accumulate(
+                @Nonnull final long[] accumulator,
+                @Nonnull final Event<STATE> event, @Nonnull final Duration previousWhen, @Nonnull final STATE previousState,
+                final int weight) {
+            if (condition.test(event)) {
+                accumulator[0] += weight;
+            }
+        }
+
+        @Override
+        void merge(@Nonnull final long[] destination, @Nonnull final long[] source) {
+            destination[0] += source[0];
+        }
+    }
+
+    /**
+     * <p>
+     * A {@link StatisticsCollector} that computes the time-weighted mean of a quantity that is a function of
+     * the states of the actors.
+     * </p>
+     * <p>
+     * Each event contributes the value of the quantity for the previous state of its actor,
+     * weighted by the duration of the previous state.
+     * So the mean is over the states of the actors up to their last events.
+     * The contributions are summed in floating point, so retracting a contribution might not exactly
+     * restore the previous sum.
+     * </p>
+     *
+     * @param <STATE> The class of states of the actors.
+     */
+    @ThreadSafe
+    public static final class TimeWeightedMean<STATE> extends StatisticsCollector<STATE, double[]> {
+
+        private static final int INTEGRAL = 0;
+        private static final int DURATION = 1;
+
+        @Nonnull
+        private final ToDoubleFunction<STATE> quantity;
+
+        /**
+         * <p>
+         * Construct a collector for a given quantity, which has recorded no events.
+         * </p>
+         *
+         * @param quantity The quantity, as a function of the state of an actor. It is evaluated
+         *                 while holding the lock of an actor, so it should be simple and fast.
+         */
+        public TimeWeightedMean(@Nonnull final ToDoubleFunction<STATE> quantity) {
+            this.quantity = Objects.requireNonNull(quantity, "quantity");
+        }
+
+        /**
+         * <p>
+         * The integral of the quantity over the durations of the states, in units of the quantity times seconds.
+         * </p>
+         */
+        public double getIntegral() {
+            return getTotal()[INTEGRAL];
+        }
+
+        /**
+         * <p>
+         * The total of the durations of the states, in seconds.
+         * </p>
+         */
+        public double getDuration() {
+            return getTotal()[DURATION];
+        }
+
+        /**
+         * <p>
+         * The time-weighted mean of the quantity.
+         * </p>
+         * <ul>
+         * <li>The mean is the {@linkplain #getIntegral() integral} divided by the {@linkplain #getDuration() duration}.</li>
+         * <li>The mean is NaN if the duration is zero.</li>
+         * </ul>
+         */
+        public double getMean() {
+            final double[] total = getTotal();
+            return total[INTEGRAL] / total[DURATION];
+        }
+
+        @Nonnull
+        @Override
+        double[] createAccumulator() {
+            return new double[2];
+        }
+
+        @Override
+        void accumulate(
+                @Nonnull final double[] accumulator,
+                @Nonnull final Event<STATE> event, @Nonnull final Duration previousWhen, @Nonnull final STATE previousState,
+                final int weight) {
+            final double duration = weight * secondsBetween(previousWhen, event.getWhen());
+            accumulator[INTEGRAL] += quantity.applyAsDouble(previousState) * duration;
+            accumulator[DURATION] += duration;
+        }
+
+        @Override
+        void merge(@Nonnull final double[] destination, @Nonnull final double[] source) {
+            destination[INTEGRAL] += source[INTEGRAL];
+            destination[DURATION] += source[DURATION];
+        }
+    }
+
+    /**
+     * <p>
+     * A {@link StatisticsCollector} that counts the values of a quantity,
+     * which is a function of the states of the actors, in bins of equal width.
+     * </p>
+     * <p>
+     * Each event contributes the value of the quantity for its {@linkplain Event#getState() state}.
+     * Events that destroy their actor make no contribution.
+     * Values below the range of the bins are counted as <dfn>underflows</dfn>,
+     * and values at or above the range, and NaN values, are counted as <dfn>overflows</dfn>.
+     * </p>
+     *
+     * @param <STATE> The class of states of the actors.
+     */
+    @ThreadSafe
+    public static final class Histogram<STATE> extends StatisticsCollector<STATE, long[]> {
+
+        @Nonnull
+        private final ToDoubleFunction<STATE> quantity;
+        private final double lower;
+        private final double upper;
+        private final int nBins;
+
+        /**
+         * <p>
+         * Construct a collector for a given quantity and range of bins, which has recorded no events.
+         * </p>
+         *
+         * @param quantity The quantity, as a function of the state of an actor. It is evaluated
+         *                 while holding the lock of an actor, so it should be simple and fast.
+         * @param lower    The (inclusive) lower bound of the first bin.
+         * @param upper    The (exclusive) upper bound of the last bin.
+         * @param nBins    The number of bins.
+         * @throws NullPointerException     If {@code quantity} is null.
+         * @throws IllegalArgumentException <ul>
+         *                                  <li>If {@code lower} or {@code upper} is not finite.</li>
+         *                                  <li>If {@code lower} is not less than {@code upper}.</li>
+         *                                  <li>If {@code nBins} is not positive.</li>
+         *                                  </ul>
+         */
+        public Histogram(
+                @Nonnull final ToDoubleFunction<STATE> quantity,
+                final double lower, final double upper, @Nonnegative final int nBins) {
+            this.quantity = Objects.requireNonNull(quantity, "quantity");
+            if (!(Double.isFinite(lower) && Double.isFinite(upper) && lower < upper)) {
+                throw new IllegalArgumentException("Range [" + lower + ", " + upper + ")");
+            }
+            if (nBins <= 0) {
+                throw new IllegalArgumentException("nBins " + nBins);
+            }
+            this.lower = lower;
+            this.upper = upper;
+            this.nBins = nBins;
+        }
+
+        /**
+         * <p>
+         * The counts of the values in each bin.
+         * </p>
+         * <ul>
+         * <li>The returned array is a newly created copy.</li>
+         * <li>The length of the array is the number of bins.</li>
+         * </ul>
+         */
+        @Nonnull
+        public long[] getBinCounts() {
+            return Arrays.copyOfRange(getTotal(), 1, nBins + 1);
+        }
+
+        /**
+         * <p>
+         * The count of the values below the lower bound of the first bin.
+         * </p>
+         */
+        public long getUnderflowCount() {
+            return getTotal()[0];
+        }
+
+        /**
+         * <p>
+         * The count of the values at or above the upper bound of the last bin, and of NaN values.
+         * </p>
+         */
+        public long getOverflowCount() {
+            return getTotal()[nBins + 1];
+        }
+
+        @Nonnull
+        @Override
+        long[] createAccumulator() {
+            return new long[nBins + 2];
+        }
+
+        @Override
+        void accumulate(
+                @Nonnull final long[] accumulator,
+                @Nonnull final Event<STATE> event, @Nonnull final Duration previousWhen, @Nonnull final STATE previousState,
+                final int weight) {
+            final STATE state = event.getState();
+            if (state != null) {
+                accumulator[getIndex(quantity.applyAsDouble(state))] += weight;
+            }
+        }
+
+        private int getIndex(final double value) {
+            if (value < lower) {
+                return 0;
+            } else if (value < upper) {
+                return 1 + Math.min(nBins - 1, (int) ((value - lower) / (upper - lower) * nBins));
+            } else {
+                return nBins + 1;
+            }
+        }
+
+        @Override
+        void merge(@Nonnull final long[] destination, @Nonnull final long[] source) {
+            for (int i = 0; i < destination.length; ++i) {
+                destination[i] += source[i];
+            }
+        }
+    }
+
+    /**
+     * <p>
+     * A {@link StatisticsCollector} that estimates quantiles of the values of a quantity,
+     * which is a function of the states of the actors.
+     * </p>
+     * <p>
+     * Each event contributes the value of the quantity for its {@linkplain Event#getState() state}.
+     * Events that destroy their actor, and NaN values, make no contribution.
+     * The values are counted in buckets with logarithmically spaced bounds,
+     * so the estimate of a quantile has a bounded <dfn>relative accuracy</dfn>,
+     * and the number of buckets grows only logarithmically with the range of the values.
+     * Unlike sketches that sample or compress the values, the bucket counts can be decremented,
+     * so contributions can be retracted when events are rolled back.
+     * </p>
+     *
+     * @param <STATE> The class of states of the actors.
+     */
+    @ThreadSafe
+    public static final class QuantileSketch<STATE> extends StatisticsCollector<STATE, QuantileSketch.Buckets> {
+
+        @Nonnull
+        private final ToDoubleFunction<STATE> quantity;
+        private final double relativeAccuracy;
+        private final double logGamma;
+
+        /**
+         * <p>
+         * Construct a collector for a given quantity and relative accuracy, which has recorded no events.
+         * </p>
+         *
+         * @param quantity         The quantity, as a function of the state of an actor. It is evaluated
+         *                         while holding the lock of an actor, so it should be simple and fast.
+         * @param relativeAccuracy The largest relative error of the estimate of a quantile,
+         *                         for values that are not zero.
+         * @throws NullPointerException     If {@code quantity} is null.
+         * @throws IllegalArgumentException If {@code relativeAccuracy} is not between 0 and 1 (exclusive).
+         */
+        public QuantileSketch(@Nonnull final ToDoubleFunction<STATE> quantity, final double relativeAccuracy) {
+            this.quantity = Objects.requireNonNull(quantity, "quantity");
+            if (!(0.0 < relativeAccuracy && relativeAccuracy < 1.0)) {
+                throw new IllegalArgumentException("relativeAccuracy " + relativeAccuracy);
+            }
+            this.relativeAccuracy = relativeAccuracy;
+            this.logGamma = Math.log((1.0 + relativeAccuracy) / (1.0 - relativeAccuracy));
+        }
+
+        /**
+         * <p>
+         * The largest relative error of the estimate of a quantile, for values that are not zero.
+         * </p>
+         */
+        public double getRelativeAccuracy() {
+            return relativeAccuracy;
+        }
+
+        /**
+         * <p>
+         * The number of values recorded.
+         * </p>
+         */
+        public long getCount() {
+            final Buckets total = getTotal();
+            return total.count(total.negative) + total.zeros + total.count(total.positive);
+        }
+
+        /**
+         * <p>
+         * An estimate of the quantile of the values recorded, for a given probability.
+         * </p>
+         * <ul>
+         * <li>The quantile is NaN if no values have been recorded.</li>
+         * <li>A probability of 0 gives an estimate of the smallest value,
+         * and a probability of 1 gives an estimate of the largest value.</li>
+         * </ul>
+         *
+         * @throws IllegalArgumentException If {@code probability} is not in the range [0, 1].
+         */
+        public double getQuantile(final double probability) {
+            if (!(0.0 <= probability && probability <= 1.0)) {
+                throw new IllegalArgumentException("probability " + probability);
+            }
+            final Buckets total = getTotal();
+            final long nNegative = total.count(total.negative);
+            final long count = nNegative + total.zeros + total.count(total.positive);
+            if (count == 0) {
+                return Double.NaN;
+            }
+            long rank = (long) Math.floor(probability * (count - 1));
+            if (rank < nNegative) {
+                for (final var bucket : total.negative.descendingMap().entrySet()) {
+                    rank -= bucket.getValue();
+                    if (rank < 0) {
+                        return -getValue(bucket.getKey());
+                    }
+                }
+            }
+            rank -= nNegative;
+            if (rank < total.zeros) {
+                return 0.0;
+            }
+            rank -= total.zeros;
+            for (final var bucket : total.positive.entrySet()) {
+                rank -= bucket.getValue();
+                if (rank < 0) {
+                    return getValue(bucket.getKey());
+                }
+            }
+            throw new AssertionError("rank out of range");
+        }
+
+        private int getIndex(final double magnitude) {
+            return (int) Math.ceil(Math.log(magnitude) / logGamma);
+        }
+
+        /**
+         * <p>
+         * The estimate of the magnitudes of the values in a bucket,
+         * which has equal relative error for the smallest and largest magnitudes of the bucket.
+         * </p>
+         */
+        private double getValue(final int index) {
+            final double gamma = Math.exp(logGamma);
+            return 2.0 * Math.pow(gamma, index) / (gamma + 1.0);
+        }
+
+        @Nonnull
+        @Override
+        Buckets createAccumulator() {
+            return new Buckets();
+        }
+
+        @Override
+        void accumulate(
+                @Nonnull final Buckets accumulator,
+                @Nonnull final Event<STATE> event, @Nonnull final Duration previousWhen, @Nonnull final STATE previousState,
+                final int weight) {
+            final STATE state = event.getState();
+            if (state == null) {
+                return;
+            }
+            final double value = quantity.applyAsDouble(state);
+            if (value == 0.0) {
+                accumulator.zeros += weight;
+            } else if (0.0 < value) {
+                Buckets.add(accumulator.positive, getIndex(value), weight);
+            } else if (value < 0.0) {
+                Buckets.add(accumulator.negative, getIndex(-value), weight);
+            }// else NaN
+        }
+
+        @Override
+        void merge(@Nonnull final Buckets destination, @Nonnull final Buckets source) {
+            destination.zeros += source.zeros;
+            source.positive.forEach((index, count) -> Buckets.add(destination.positive, index, count));
+            source.negative.forEach((index, count) -> Buckets.add(destination.negative, index, count));
+        }
+
+        /**
+         * <p>
+         * The counts of values of a {@link QuantileSketch}, in buckets of their magnitudes.
+         * </p>
+         */
+        @NotThreadSafe
+        static final class Buckets {
+            private final TreeMap<Integer, Long> positive = new TreeMap<>();
+            private final TreeMap<Integer, Long> negative = new TreeMap<>();
+            private long zeros;
+
+            private static void add(@Nonnull final Map<Integer, Long> buckets, final int index, final long count) {
+                buckets.merge(index, count, (c1, c2) -> c1 + c2 == 0L ? null : c1 + c2);
+            }
+
+            private long count(@Nonnull final Map<Integer, Long> buckets) {
+                long result = 0L;
+                for (final long count : buckets.values()) {
+                    result += count;
+                }
+                return result;
+            }
+        }
+    }
+}
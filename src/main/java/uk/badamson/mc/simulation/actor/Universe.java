@@ -18,15 +18,29 @@ package uk.badamson.mc.simulation.actor;
  * along with MC-des.  If not, see <https://www.gnu.org/licenses/>.
  */
 
+import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.Immutable;
 import javax.annotation.concurrent.ThreadSafe;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
 /**
  * <p>
@@ -51,10 +65,21 @@ import java.util.concurrent.Future;
 @ThreadSafe
 public final class Universe<STATE> implements Collection<Actor<STATE>> {
 
+    /**
+     * The maximum number of events in each batch of {@linkplain #publishCommittedEvents(Executor, int) committed events}.
+     */
+    static final int COMMITTED_EVENTS_BATCH_SIZE = 1024;
+
     private final Object additionLock = new Object();
 
+    private final List<CommittedEventsPublisher<STATE>> committedEventsPublishers = new CopyOnWriteArrayList<>();
+
+    private final CommitTracker commitTracker = new CommitTracker();
+
     private final Map<UUID, Actor<STATE>> actors = new ConcurrentHashMap<>();
 
+    private volatile int maximumNumberOfEvents = Integer.MAX_VALUE;
+
     /**
      * {@inheritDoc}
      *
@@ -221,6 +246,21 @@ public final class Universe<STATE> implements Collection<Actor<STATE>> {
      * {@linkplain Actor.AffectedActors#getRemoved() removals} to be done in a manner that leads to lost additions.
      * </p>
      *
+     * <p>
+     * If this universe has a {@linkplain #getMaximumNumberOfEvents() maximum number of events},
+     * the advancement stops early if the actors would add more events than that,
+     * and the computation then reclaims memory by <i>cancelback</i>.
+     * It rolls back the most speculative events:
+     * the events of the actors that have advanced furthest into the future.
+     * Events no later than the earliest {@linkplain Actor#getWhenReceiveNextSignal() time of the next signal}
+     * of any actor can not be rolled back, because they can no longer be invalidated;
+     * clearing them, using {@link Actor#clearEventsBefore(Duration)}, is the responsibility of the caller.
+     * Therefore, if the maximum was exceeded, some actors might not have been advanced to the given time,
+     * and a further call will be necessary to advance them.
+     * The actors with the earliest time of the next signal always receive that signal,
+     * even if the maximum has been reached, so repeated calls eventually advance all the actors to the given time.
+     * </p>
+     *
      * @return a Future that {@linkplain Future#isDone() is done} when all the actors have been advanced,
      * or an exception prevents a full computation, providing information about which actors of this universe changed.
      */
@@ -228,19 +268,741 @@ public final class Universe<STATE> implements Collection<Actor<STATE>> {
     public Future<Actor.AffectedActors<STATE>> advanceTo(
             @Nonnull final Duration when,
             @Nonnull final Executor executor
+    ) {
+        return advanceToWithCompletableFuture(when, executor);
+    }
+
+    /**
+     * <p>
+     * Have the actors of this Universe {@link Actor#receiveSignal() receive signals}
+     * until the {@link  Actor#getWhenReceiveNextSignal() time of their next signal}
+     * is {@link Duration#compareTo(Duration) at or after} a given time,
+     * or until a wall-clock time limit has elapsed, or until the computation is cancelled,
+     * whichever is first.
+     * </p>
+     * <p>
+     * This is otherwise the same as {@link #advanceTo(Duration, Executor)}.
+     * It enables an interactive caller to advance the simulation in slices of wall-clock time
+     * (such as one per displayed frame), and to abandon an advancement that is no longer wanted,
+     * without discarding the progress already made.
+     * </p>
+     * <ul>
+     *     <li>The actors check the time limit and the cancellation only before receiving a signal.
+     *     An actor that has started receiving a signal completes it,
+     *     so the actors are always left in a consistent state,
+     *     but the computation can overrun the time limit by the time taken to receive one signal.</li>
+     *     <li>Stopping early is not an error: the returned Future completes normally.</li>
+     *     <li>A further call will advance the actors that were not fully advanced.</li>
+     * </ul>
+     *
+     * @param timeLimit The wall-clock time after which the actors should stop receiving signals.
+     * @param cancelled Indicates whether the computation has been cancelled.
+     *                  It is called often and from the threads of the {@code executor},
+     *                  so it should be fast and threadsafe; for example,
+     *                  the {@link java.util.concurrent.atomic.AtomicBoolean#get()} method of a shared flag.
+     * @return a Future that {@linkplain Future#isDone() is done} when the actors have been advanced as far as possible,
+     * or an exception prevents a full computation,
+     * providing information about which actors changed and how far the actors advanced.
+     * @throws NullPointerException     If any argument is null.
+     * @throws IllegalArgumentException If {@code timeLimit} {@linkplain Duration#isNegative() is negative}.
+     */
+    @Nonnull
+    public Future<Advancement<STATE>> advanceTo(
+            @Nonnull final Duration when,
+            @Nonnull final Executor executor,
+            @Nonnull final Duration timeLimit,
+            @Nonnull final BooleanSupplier cancelled
+    ) {
+        Objects.requireNonNull(timeLimit, "timeLimit");
+        Objects.requireNonNull(cancelled, "cancelled");
+        if (timeLimit.isNegative()) {
+            throw new IllegalArgumentException("timeLimit");
+        }
+        return advanceToWithCompletableFuture(when, executor, toNanosSaturated(timeLimit), cancelled)
+                .thenApply(affectedActors -> new Advancement<>(when, getEarliestWhenReceiveNextSignal(), affectedActors));
+    }
+
+    private static long toNanosSaturated(@Nonnull final Duration duration) {
+        try {
+            return duration.toNanos();
+        } catch (final ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    @Nonnull
+    CompletableFuture<Actor.AffectedActors<STATE>> advanceToWithCompletableFuture(
+            @Nonnull final Duration when,
+            @Nonnull final Executor executor
+    ) {
+        return advanceToWithCompletableFuture(when, executor, Long.MAX_VALUE, () -> false);
+    }
+
+    @Nonnull
+    private CompletableFuture<Actor.AffectedActors<STATE>> advanceToWithCompletableFuture(
+            @Nonnull final Duration when,
+            @Nonnull final Executor executor,
+            final long timeLimitNanos,
+            @Nonnull final BooleanSupplier cancelled
     ) {
         Objects.requireNonNull(when, "when");
+        return advanceToWithCompletableFuture(() -> when, executor, timeLimitNanos, cancelled);
+    }
+
+    /**
+     * @param target Provides the time to advance to. This may increase while the actors are advancing,
+     *               in which case the actors still advancing will try to advance to the increased time.
+     */
+    @Nonnull
+    CompletableFuture<Actor.AffectedActors<STATE>> advanceToWithCompletableFuture(
+            @Nonnull final Supplier<Duration> target,
+            @Nonnull final Executor executor,
+            final long timeLimitNanos,
+            @Nonnull final BooleanSupplier cancelled
+    ) {
+        Objects.requireNonNull(executor, "executor");
+        final int maximum = maximumNumberOfEvents;
+        final EventBudget budget;
+        if (maximum == Integer.MAX_VALUE) {
+            budget = new EventBudget(Long.MAX_VALUE, timeLimitNanos, cancelled);
+        } else {
+            /* Receiving the earliest signals can not be rolled back by cancelback,
+             * so exempting them from the budget guarantees progress. */
+            budget = new EventBudget(maximum - getNumberOfEvents(), getEarliestWhenReceiveNextSignal(),
+                    timeLimitNanos, cancelled);
+        }
+        return Actor.advanceSeveralActors(target, this, executor, budget, commitTracker)
+                .thenApply(this::apply)
+                .thenApply(affectedActors -> cancelBack(affectedActors, maximum))
+                .thenApply(this::publishCommittedEvents);
+    }
+
+    /**
+     * <p>
+     * Start a {@linkplain ContinuousRun continuous run} that advances the actors of this universe
+     * towards a target time, which the caller can raise while the actors are advancing.
+     * </p>
+     * <p>
+     * Each time the {@linkplain ContinuousRun#getFrontier() progress frontier} of the run advances,
+     * the run gives the new frontier to a given listener.
+     * The run calls the listener from the threads of the {@code executor}, but never concurrently,
+     * and with the frontier increasing in each call.
+     * If the listener throws an exception, the run stops.
+     * </p>
+     *
+     * @param target           The initial target time.
+     * @param executor         The executor for advancing the actors and calling the listener.
+     * @param frontierListener The listener for advances of the progress frontier.
+     * @throws NullPointerException If any argument is null.
+     */
+    @Nonnull
+    public ContinuousRun<STATE> runContinuously(
+            @Nonnull final Duration target,
+            @Nonnull final Executor executor,
+            @Nonnull final Consumer<? super Duration> frontierListener) {
+        final var run = new ContinuousRun<>(this, target, executor, frontierListener);
+        run.advanceWhileNecessary();
+        return run;
+    }
+
+    /**
+     * <p>
+     * Create a publisher of the {@linkplain Actor#getEvents() events} of the actors of this universe
+     * that have been <dfn>committed</dfn>.
+     * </p>
+     * <p>
+     * An event is committed if it can no longer be rolled back, and no other event can be added before it:
+     * if it is before the earliest {@linkplain Actor#getWhenReceiveNextSignal() time of the next signal}
+     * of any actor. At the end of each {@linkplain #advanceTo(Duration, Executor) advancement},
+     * the publisher emits the events that have become committed since its previous emission,
+     * so downstream consumers need not poll the actors, and never see events that are later rolled back.
+     * The caller should not {@linkplain Actor#clearEventsBefore(Duration) clear} events until they have been published.
+     * </p>
+     * <ul>
+     *     <li>The publisher emits the events in batches of up to {@value #COMMITTED_EVENTS_BATCH_SIZE} events,
+     *     to amortise the cost of handing them over to subscribers.
+     *     Each batch is an immutable list, backed by an array.</li>
+     *     <li>The events of each emission are in {@linkplain Event#compareTo(Event) ascending order}.</li>
+     *     <li>The first emission includes the committed events that the actors have when it is made,
+     *     even if they were committed before the publisher was created.</li>
+     *     <li>Events committed while the publisher has no subscribers are not emitted to later subscribers.</li>
+     * </ul>
+     * <p>
+     * The publisher delivers the batches to its subscribers using a given {@link Executor},
+     * so consumers can run in a separate thread pool from the simulation.
+     * It respects the demand of each subscriber,
+     * buffering undelivered batches up to a given capacity for each subscriber.
+     * If a subscriber falls so far behind that its buffer is full,
+     * the advancement of this universe blocks until the subscriber catches up.
+     * </p>
+     *
+     * @param executor          The executor for delivering batches to subscribers.
+     * @param maxBufferCapacity The maximum number of batches buffered for each subscriber.
+     * @throws NullPointerException     If {@code executor} is null.
+     * @throws IllegalArgumentException If {@code maxBufferCapacity} is not positive.
+     * @see #closeCommittedEventsPublishers()
+     */
+    @Nonnull
+    public Flow.Publisher<List<Event<STATE>>> publishCommittedEvents(
+            @Nonnull final Executor executor, @Nonnegative final int maxBufferCapacity) {
         Objects.requireNonNull(executor, "executor");
-        return Actor.advanceSeveralActors(when, this, executor)
-                .thenApply(this::apply);
+        final var publisher = new CommittedEventsPublisher<STATE>(executor, maxBufferCapacity);
+        committedEventsPublishers.add(publisher);
+        return publisher.publisher;
+    }
+
+    /**
+     * <p>
+     * Stop the {@linkplain #publishCommittedEvents(Executor, int) publishers of committed events} of this universe
+     * from publishing any more events,
+     * {@linkplain Flow.Subscriber#onComplete() completing} their subscriptions once they have
+     * delivered the events already published.
+     * </p>
+     */
+    public void closeCommittedEventsPublishers() {
+        for (final var publisher : committedEventsPublishers) {
+            committedEventsPublishers.remove(publisher);
+            publisher.publisher.close();
+        }
     }
 
     @Nonnull
-    private Actor.AffectedActors<STATE> apply(@Nonnull final Actor.AffectedActors<STATE> affectedActors) {
+    private Actor.AffectedActors<STATE> publishCommittedEvents(@Nonnull final Actor.AffectedActors<STATE> affectedActors) {
+        if (!committedEventsPublishers.isEmpty()) {
+            final Duration until = getEarliestWhenReceiveNextSignal();
+            for (final var publisher : committedEventsPublishers) {
+                publisher.publishUntil(until, actors.values());
+            }
+        }
+        return affectedActors;
+    }
+
+    /**
+     * <p>
+     * A consistent snapshot of the {@linkplain Actor#getState(Duration) states} of the actors of this universe
+     * at a given point in time.
+     * </p>
+     * <p>
+     * The states are read in parallel, using the {@linkplain ForkJoinPool#commonPool() common fork-join pool},
+     * without copying the state histories of the actors.
+     * The point in time must be before the earliest {@linkplain Actor#getWhenReceiveNextSignal() time of the next signal}
+     * of any actor, because the states at such a time can no longer change.
+     * While an actor is still delivering the signals of the {@linkplain Event#getMulticastsEmitted() multicasts}
+     * emitted by one of its events, the time of that event counts as the time of a next signal,
+     * because the receivers of the undelivered signals do not yet have them as signals to receive.
+     * That earliest time is computed before any states are read, and includes the times of the signals
+     * that actors receive while it is computed,
+     * so the snapshot is consistent even if this universe is being {@linkplain #advanceTo(Duration, Executor) advanced}.
+     * It is not consistent if the actors are also being changed by some means other than advancing this universe.
+     * </p>
+     * <ul>
+     *     <li>The snapshot includes only the actors that have a (non null) state at the given time.</li>
+     * </ul>
+     *
+     * @throws NullPointerException  If {@code when} is null.
+     * @throws IllegalStateException If {@code when} is not before the earliest time of the next signal of any actor.
+     * @see #statesAt(Duration, Predicate)
+     */
+    @Nonnull
+    public Snapshot<STATE> statesAt(@Nonnull final Duration when) {
+        return statesAt(when, state -> true);
+    }
+
+    /**
+     * <p>
+     * A consistent snapshot of the {@linkplain Actor#getState(Duration) states} of the actors of this universe
+     * at a given point in time, including only the states that satisfy a given condition.
+     * </p>
+     * <p>
+     * This is the same as {@link #statesAt(Duration)}, except that
+     * the snapshot includes only the actors for which the condition is true of their state.
+     * The condition is evaluated in parallel, in the threads of the common fork-join pool.
+     * </p>
+     *
+     * @throws NullPointerException  If {@code when} or {@code condition} is null.
+     * @throws IllegalStateException If {@code when} is not before the earliest time of the next signal of any actor.
+     */
+    @Nonnull
+    public Snapshot<STATE> statesAt(@Nonnull final Duration when, @Nonnull final Predicate<? super STATE> condition) {
+        Objects.requireNonNull(when, "when");
+        Objects.requireNonNull(condition, "condition");
+        /* The committed time must be known before reading any states,
+         * because a state read before a concurrent change at an earlier time could be rolled back. */
+        final Duration committedTime = commitTracker.computeCommittedTime(() -> actors.values().parallelStream()
+                .map(Actor::getWhenUncommitted)
+                .reduce(Signal.NEVER_RECEIVED, BinaryOperator.minBy(Comparator.naturalOrder())));
+        if (committedTime.compareTo(when) <= 0) {
+            throw new IllegalStateException("when not before the earliest whenReceiveNextSignal");
+        }
+        final Object[] candidates = actors.values().toArray();
+        final Object[] states = new Object[candidates.length];
+        IntStream.range(0, candidates.length).parallel().forEach(i -> {
+            @SuppressWarnings("unchecked") final var actor = (Actor<STATE>) candidates[i];
+            final STATE state = actor.getState(when);
+            if (state != null && condition.test(state)) {
+                states[i] = state;
+            }
+        });
+        int n = 0;
+        for (int i = 0; i < candidates.length; ++i) {
+            if (states[i] != null) {
+                candidates[n] = candidates[i];
+                states[n] = states[i];
+                ++n;
+            }
+        }
+        return new Snapshot<>(when, Arrays.copyOf(candidates, n), Arrays.copyOf(states, n));
+    }
+
+    /**
+     * <p>
+     * The earliest time at which any actor of this universe might next receive a signal,
+     * and thus the time before which the states of the actors are committed.
+     * </p>
+     * <p>
+     * This includes the signals of {@linkplain Event#getMulticastsEmitted() multicasts}
+     * that their senders have not yet delivered,
+     * using the {@linkplain Actor#getWhenUncommitted() uncommitted time} of each actor.
+     * </p>
+     * <p>
+     * This is safe to use while this universe is being {@linkplain #advanceTo(Duration, Executor) advanced}:
+     * it also includes the times of the signals that actors were receiving, and the changes that actors were
+     * rolling back, while the actors were being read, so it is never later than the true committed time.
+     * It is not safe if the actors are also being changed by some means other than advancing this universe.
+     * </p>
+     */
+    @Nonnull
+    Duration getEarliestWhenReceiveNextSignal() {
+        return commitTracker.computeCommittedTime(() -> actors.values().stream()
+                .map(Actor::getWhenUncommitted)
+                .min(Comparator.naturalOrder())
+                .orElse(Signal.NEVER_RECEIVED));
+    }
+
+    /**
+     * <p>
+     * Create an independent copy of this universe,
+     * which can be {@linkplain #advanceTo(Duration, Executor) advanced} separately from this universe.
+     * </p>
+     * <p>
+     * This supports <i>what-if</i> branching and rare-event splitting methods (such as RESTART):
+     * advance a universe to a time of interest, then fork it into many continuations.
+     * Forking is cheap because the fork does not copy the {@linkplain Actor#getEvents() events}
+     * of the actors, which are all committed, and shares the (immutable) states of the actors.
+     * The committed history before the fork remains available from the actors of this universe.
+     * </p>
+     * <ul>
+     *     <li>The fork has the same number of actors as this universe,
+     *     but they are new actors, distinct from the actors of this universe.</li>
+     *     <li>Each actor of the fork has no events, and has the same
+     *     {@linkplain Actor#getStateHistory() states} as the corresponding actor of this universe
+     *     from its {@linkplain Actor#getStart() start} time,
+     *     which is no later than the time of the last event of the corresponding actor.</li>
+     *     <li>Each actor of the fork has
+     *     {@linkplain Signal#copy(Signal.Id) copies} of the {@linkplain Actor#getSignalsToReceive() signals to receive}
+     *     of the corresponding actor of this universe,
+     *     with the senders and receivers replaced by the corresponding actors of the fork.</li>
+     *     <li>The fork has the same {@linkplain #getMaximumNumberOfEvents() memory budget} as this universe.</li>
+     *     <li>Each actor of the fork has the same {@linkplain Actor#getRandomSeed() random seed}
+     *     as the corresponding actor of this universe,
+     *     so the fork will evolve in the same manner as this universe.</li>
+     * </ul>
+     * <p>
+     * This universe should not be {@linkplain #advanceTo(Duration, Executor) advancing} while it is forked.
+     * The {@linkplain Actor#getStateHistory() states} of the actors should not refer to actors,
+     * because the states of the fork will refer to the actors of this universe.
+     * </p>
+     *
+     * @throws IllegalStateException         If any actor of this universe has an event after the earliest
+     *                                       {@linkplain Actor#getWhenReceiveNextSignal() time of the next signal}
+     *                                       of any actor. Such a speculative event might yet be invalidated,
+     *                                       so it can not be committed to the fork.
+     * @throws UnsupportedOperationException If any of the signals to receive is not
+     *                                       {@linkplain Signal#isCopyable() copyable}.
+     *                                       This universe is checked before any actors are copied.
+     */
+    @Nonnull
+    public Universe<STATE> fork() {
+        return fork(null);
+    }
+
+    /**
+     * <p>
+     * Create an independent copy of this universe,
+     * with actors that have different random number streams from the actors of this universe.
+     * </p>
+     * <p>
+     * This is the same as {@link #fork()}, except that
+     * the {@linkplain Actor#getRandomSeed() random seed} of each actor of the fork is derived from the seed
+     * of the corresponding actor of this universe and the given {@code randomSeed}.
+     * Forks created using different seeds can therefore evolve differently, reproducibly.
+     * </p>
+     *
+     * @see #fork()
+     */
+    @Nonnull
+    public Universe<STATE> fork(final long randomSeed) {
+        return fork(Long.valueOf(randomSeed));
+    }
+
+    @Nonnull
+    private Universe<STATE> fork(@Nullable final Long randomSeed) {
+        final Universe<STATE> fork = new Universe<>();
+        fork.maximumNumberOfEvents = maximumNumberOfEvents;
+        synchronized (additionLock) {
+            final Duration earliestWhenReceiveNextSignal = getEarliestWhenReceiveNextSignal();
+            for (final var actor : actors.values()) {
+                final Duration whenLastEvent = actor.getSummary().getWhenLastEvent();
+                if (whenLastEvent != null && earliestWhenReceiveNextSignal.compareTo(whenLastEvent) < 0) {
+                    throw new IllegalStateException("Speculative event of " + actor);
+                }
+                for (final var signal : actor.getSignalsToReceive()) {
+                    if (!signal.isCopyable()) {
+                        throw new UnsupportedOperationException("Signal can not be copied: " + signal.getClass());
+                    }
+                }
+            }
+            final Map<Actor<STATE>, Actor<STATE>> forkedActors = new HashMap<>();
+            for (final var actor : actors.values()) {
+                final long actorRandomSeed = randomSeed == null ?
+                        actor.getRandomSeed() : Actor.deriveRandomSeed(actor.getRandomSeed(), randomSeed);
+                forkedActors.put(actor, actor.forkWithoutSignals(actorRandomSeed));
+            }
+            for (final var entry : forkedActors.entrySet()) {
+                for (final var signal : entry.getKey().getSignalsToReceive()) {
+                    entry.getValue().addSignalToReceive(copy(signal, forkedActors));
+                }
+            }
+            for (final var forkedActor : forkedActors.values()) {
+                fork.actors.put(forkedActor.lock, forkedActor);
+            }
+        }
+        return fork;
+    }
+
+    @Nonnull
+    private static <STATE> Signal<STATE> copy(
+            @Nonnull final Signal<STATE> signal,
+            @Nonnull final Map<Actor<STATE>, Actor<STATE>> forkedActors) {
+        final Signal.Id<STATE> id = signal.getId();
+        final Actor<STATE> sender = id.getSender();
+        final Actor<STATE> receiver = id.getReceiver();
+        return signal.copy(new Signal.Id<>(
+                id.getWhenSent(),
+                sender == null ? null : forkedActors.getOrDefault(sender, sender),
+                forkedActors.getOrDefault(receiver, receiver),
+                id.getMedium()));
+    }
+
+    /**
+     * <p>
+     * The total {@linkplain Actor#getNumberOfEvents() number of events} of the actors of this universe.
+     * </p>
+     * <p>
+     * This does not acquire the locks of the actors,
+     * so it is a snapshot only if no actors are changing.
+     * </p>
+     */
+    @Nonnegative
+    public long getNumberOfEvents() {
+        long result = 0L;
+        for (final var actor : actors.values()) {
+            result += actor.getNumberOfEvents();
+        }
+        return result;
+    }
+
+    /**
+     * <p>
+     * The memory budget of this universe,
+     * expressed as the maximum {@linkplain #getNumberOfEvents() number of events} that
+     * {@linkplain #advanceTo(Duration, Executor) advancing} the actors may retain.
+     * </p>
+     * <ul>
+     *     <li>{@link Integer#MAX_VALUE} (the initial value) indicates that there is no budget.</li>
+     * </ul>
+     *
+     * @see #setMaximumNumberOfEvents(int)
+     */
+    @Nonnegative
+    public int getMaximumNumberOfEvents() {
+        return maximumNumberOfEvents;
+    }
+
+    /**
+     * <p>
+     * Change the {@linkplain #getMaximumNumberOfEvents() memory budget} of this universe.
+     * </p>
+     * <p>
+     * The new budget is used by subsequent calls of {@link #advanceTo(Duration, Executor)}.
+     * </p>
+     *
+     * @throws IllegalArgumentException If {@code maximumNumberOfEvents} is negative.
+     */
+    public void setMaximumNumberOfEvents(@Nonnegative final int maximumNumberOfEvents) {
+        if (maximumNumberOfEvents < 0) {
+            throw new IllegalArgumentException("maximumNumberOfEvents " + maximumNumberOfEvents);
+        }
+        this.maximumNumberOfEvents = maximumNumberOfEvents;
+    }
+
+    @Nonnull
+    private Actor.AffectedActors<STATE> cancelBack(
+            @Nonnull final Actor.AffectedActors<STATE> affectedActors,
+            final int maximum) {
+        long numberOfEvents = getNumberOfEvents();
+        if (numberOfEvents <= maximum) {
+            return affectedActors;
+        }
+        final Duration earliestWhenReceiveNextSignal = getEarliestWhenReceiveNextSignal();
+        final AffectedActorsAccumulator<STATE> cancelledBack = new AffectedActorsAccumulator<>();
+        final PriorityQueue<Map.Entry<Duration, Actor<STATE>>> mostSpeculative = new PriorityQueue<>(
+                Map.Entry.<Duration, Actor<STATE>>comparingByKey().reversed());
+        for (final var actor : actors.values()) {
+            addIfSpeculative(mostSpeculative, actor, earliestWhenReceiveNextSignal);
+        }
+        // Rolling back returns signals to receive, which are all after the committed time.
+        commitTracker.startChange(earliestWhenReceiveNextSignal);
+        try {
+            while (maximum < numberOfEvents && !mostSpeculative.isEmpty()) {
+                final var entry = mostSpeculative.remove();
+                final var actor = entry.getValue();
+                if (entry.getKey().equals(actor.getSummary().getWhenLastEvent())) {
+                    if (actor.cancelBackLastEvent(earliestWhenReceiveNextSignal, cancelledBack)) {
+                        numberOfEvents--;
+                        if (numberOfEvents <= maximum) {
+                            // Rolling back can also remove events of other actors, so recount.
+                            numberOfEvents = getNumberOfEvents();
+                        }
+                    }
+                }// else the key is out of date, because the actor has changed
+                addIfSpeculative(mostSpeculative, actor, earliestWhenReceiveNextSignal);
+            }
+        } finally {
+            commitTracker.finishChange(earliestWhenReceiveNextSignal);
+        }
+        return affectedActors.plus(apply(cancelledBack));
+    }
+
+    private static <STATE> void addIfSpeculative(
+            @Nonnull final PriorityQueue<Map.Entry<Duration, Actor<STATE>>> mostSpeculative,
+            @Nonnull final Actor<STATE> actor,
+            @Nonnull final Duration earliestWhenReceiveNextSignal) {
+        final Duration whenLastEvent = actor.getSummary().getWhenLastEvent();
+        if (whenLastEvent != null && earliestWhenReceiveNextSignal.compareTo(whenLastEvent) < 0) {
+            mostSpeculative.add(Map.entry(whenLastEvent, actor));
+        }
+    }
+
+    @Nonnull
+    private Actor.AffectedActors<STATE> apply(@Nonnull final AffectedActorsAccumulator<STATE> accumulatedAffectedActors) {
+        final Actor.AffectedActors<STATE> affectedActors = accumulatedAffectedActors.toAffectedActors();
         synchronized (additionLock) {
             removeAllWhileLocked(affectedActors.getRemoved());
             addAllWhileLocked(affectedActors.getAdded());
         }
+        commitTracker.createdActorsAdded();
         return affectedActors;
     }
+
+    /**
+     * <p>
+     * A snapshot of the {@linkplain Actor#getState(Duration) states} of some actors at a point in time.
+     * </p>
+     * <p>
+     * The actors and their states are held in two parallel arrays,
+     * so a snapshot of a large universe is compact, and quick to iterate.
+     * The actors are in no particular order.
+     * </p>
+     *
+     * @param <STATE> The class of states of the actors.
+     * @see Universe#statesAt(Duration)
+     */
+    @Immutable
+    public static final class Snapshot<STATE> {
+
+        @Nonnull
+        private final Duration when;
+        @Nonnull
+        private final Object[] actors;
+        @Nonnull
+        private final Object[] states;
+
+        Snapshot(@Nonnull final Duration when, @Nonnull final Object[] actors, @Nonnull final Object[] states) {
+            assert actors.length == states.length;
+            this.when = when;
+            this.actors = actors;
+            this.states = states;
+        }
+
+        /**
+         * <p>
+         * The point in time of the states.
+         * </p>
+         */
+        @Nonnull
+        public Duration getWhen() {
+            return when;
+        }
+
+        /**
+         * <p>
+         * The number of actors in this snapshot.
+         * </p>
+         */
+        @Nonnegative
+        public int size() {
+            return actors.length;
+        }
+
+        /**
+         * <p>
+         * The actor with a given index.
+         * </p>
+         *
+         * @throws IndexOutOfBoundsException If {@code index} is negative or not less than the {@linkplain #size() size}.
+         */
+        @Nonnull
+        @SuppressWarnings("unchecked")
+        public Actor<STATE> getActor(@Nonnegative final int index) {
+            return (Actor<STATE>) actors[index];
+        }
+
+        /**
+         * <p>
+         * The state, at the {@linkplain #getWhen() time} of this snapshot, of the actor with a given index.
+         * </p>
+         *
+         * @throws IndexOutOfBoundsException If {@code index} is negative or not less than the {@linkplain #size() size}.
+         */
+        @Nonnull
+        @SuppressWarnings("unchecked")
+        public STATE getState(@Nonnegative final int index) {
+            return (STATE) states[index];
+        }
+
+        /**
+         * <p>
+         * Perform an action for each actor of this snapshot and its state.
+         * </p>
+         */
+        public void forEach(@Nonnull final BiConsumer<? super Actor<STATE>, ? super STATE> action) {
+            Objects.requireNonNull(action, "action");
+            for (int i = 0; i < actors.length; ++i) {
+                action.accept(getActor(i), getState(i));
+            }
+        }
+    }
+
+    /**
+     * <p>
+     * The outcome of a {@linkplain #advanceTo(Duration, Executor, Duration, BooleanSupplier) time-limited advancement}
+     * of a {@link Universe}.
+     * </p>
+     */
+    @Immutable
+    public static final class Advancement<STATE> {
+
+        @Nonnull
+        private final Duration when;
+        @Nonnull
+        private final Duration whenReached;
+        @Nonnull
+        private final Actor.AffectedActors<STATE> affectedActors;
+
+        Advancement(
+                @Nonnull final Duration when,
+                @Nonnull final Duration earliestWhenReceiveNextSignal,
+                @Nonnull final Actor.AffectedActors<STATE> affectedActors) {
+            this.when = when;
+            this.whenReached = earliestWhenReceiveNextSignal.compareTo(when) < 0 ? earliestWhenReceiveNextSignal : when;
+            this.affectedActors = affectedActors;
+        }
+
+        /**
+         * <p>
+         * The point in time to which the actors were to be advanced.
+         * </p>
+         */
+        @Nonnull
+        public Duration getWhen() {
+            return when;
+        }
+
+        /**
+         * <p>
+         * The point in time to which all the actors have been advanced.
+         * </p>
+         * <ul>
+         *     <li>This is the earliest {@linkplain Actor#getWhenReceiveNextSignal() time of the next signal}
+         *     of any actor, or the {@linkplain #getWhen() requested time}, whichever is earlier.</li>
+         *     <li>The states of all the actors before this time are known,
+         *     and their events before this time are committed.</li>
+         * </ul>
+         */
+        @Nonnull
+        public Duration getWhenReached() {
+            return whenReached;
+        }
+
+        /**
+         * <p>
+         * Whether all the actors have been advanced to the {@linkplain #getWhen() requested time}.
+         * </p>
+         * <ul>
+         *     <li>Complete iff the {@linkplain #getWhenReached() time reached} is the requested time.</li>
+         * </ul>
+         */
+        public boolean isComplete() {
+            return whenReached.equals(when);
+        }
+
+        /**
+         * <p>
+         * Which actors of the universe changed.
+         * </p>
+         */
+        @Nonnull
+        public Actor.AffectedActors<STATE> getAffectedActors() {
+            return affectedActors;
+        }
+    }
+
+    @ThreadSafe
+    private static final class CommittedEventsPublisher<STATE> {
+
+        @Nonnull
+        private final SubmissionPublisher<List<Event<STATE>>> publisher;
+
+        /**
+         * The time before which events have been published, or null if no events have been published.
+         */
+        @GuardedBy("this")
+        @Nullable
+        private Duration publishedUntil;
+
+        CommittedEventsPublisher(@Nonnull final Executor executor, final int maxBufferCapacity) {
+            publisher = new SubmissionPublisher<>(executor, maxBufferCapacity);
+        }
+
+        synchronized void publishUntil(@Nonnull final Duration until, @Nonnull final Collection<Actor<STATE>> actors) {
+            if (publisher.isClosed() || publishedUntil != null && until.compareTo(publishedUntil) <= 0) {
+                return;
+            }
+            final Duration from = publishedUntil;
+            publishedUntil = until;
+            if (!publisher.hasSubscribers()) {
+                return;
+            }
+            final List<Event<STATE>> events = new ArrayList<>();
+            for (final var actor : actors) {
+                actor.addEvents(from, until, events);
+            }
+            events.sort(Comparator.naturalOrder());
+            final int nEvents = events.size();
+            for (int first = 0; first < nEvents; first += COMMITTED_EVENTS_BATCH_SIZE) {
+                publisher.submit(List.copyOf(events.subList(first, Math.min(nEvents, first + COMMITTED_EVENTS_BATCH_SIZE))));
+            }
+        }
+    }
 }
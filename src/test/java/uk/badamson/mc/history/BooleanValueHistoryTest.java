@@ -0,0 +1,226 @@
+package uk.badamson.mc.history;
+/*
+ * © Copyright Benedict Adamson 2022.
+ *
+ * This file is part of MC-des.
+ *
+ * MC-des is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC-des is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MC-des.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import uk.badamson.dbc.assertions.ObjectVerifier;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BooleanValueHistoryTest {
+
+    private static final Duration WHEN_1 = Duration.ZERO;
+    private static final Duration WHEN_2 = Duration.ofSeconds(2);
+    private static final Duration WHEN_3 = Duration.ofSeconds(3);
+
+    public static void assertInvariants(final BooleanValueHistory history) {
+        ObjectVerifier.assertInvariants(history);// inherited
+        final ValueHistory<Boolean> view = history.asValueHistory();
+        ValueHistoryTest.assertInvariants(view);
+        assertAll("Consistent with value history view",
+                () -> assertEquals(view.getFirstValue(), history.getFirstValueAsBoolean(), "firstValue"),
+                () -> assertEquals(view.getLastValue(), history.getLastValueAsBoolean(), "lastValue"),
+                () -> assertEquals(view.getTransitionTimes(), history.getTransitionTimes(), "transitionTimes"),
+                () -> assertEquals(view.getTransitionTimes().size(), history.getNumberOfTransitions(), "numberOfTransitions"),
+                () -> assertEquals(view.isEmpty(), history.isEmpty(), "empty"),
+                () -> assertEquals(view.hashCode(), history.hashCode(), "hashCode"));
+    }
+
+    public static void assertInvariants(final BooleanValueHistory history1, final BooleanValueHistory history2) {
+        ObjectVerifier.assertInvariants(history1, history2);// inherited
+        ValueHistoryTest.assertInvariants(history1.asValueHistory(), history2.asValueHistory());
+        assertEquals(history1.equals(history2), history1.asValueHistory().equals(history2.asValueHistory()),
+                "Value semantics consistent with value history views");
+    }
+
+    @Test
+    public void constructor() {
+        final BooleanValueHistory history = new BooleanValueHistory(false);
+
+        assertInvariants(history);
+        assertAll(() -> assertEquals(false, history.getFirstValueAsBoolean(), "firstValue"),
+                () -> assertTrue(history.isEmpty(), "empty"),
+                () -> assertEquals(new ConstantValueHistory<>(false), history.asValueHistory(), "view"));
+    }
+
+    @Nested
+    public class AppendTransition {
+
+        @Test
+        public void one() {
+            final BooleanValueHistory history = new BooleanValueHistory(false);
+            final ModifiableValueHistory<Boolean> expected = new ModifiableValueHistory<>(false);
+            expected.appendTransition(WHEN_1, true);
+
+            history.appendTransition(WHEN_1, true);
+
+            assertInvariants(history);
+            assertAll(() -> assertEquals(expected, history.asValueHistory(), "view"),
+                    () -> assertEquals(true, history.getAsBoolean(WHEN_1), "value at transition"),
+                    () -> assertEquals(false, history.getAsBoolean(WHEN_1.minusNanos(1)), "value before transition"));
+        }
+
+        @Test
+        public void two() {
+            final BooleanValueHistory history = new BooleanValueHistory(false);
+            history.appendTransition(WHEN_1, true);
+            final BooleanValueHistory history0 = new BooleanValueHistory(false);
+            history0.appendTransition(WHEN_1, true);
+            final ModifiableValueHistory<Boolean> expected = new ModifiableValueHistory<>(false);
+            expected.appendTransition(WHEN_1, true);
+            expected.appendTransition(WHEN_2, false);
+
+            history.appendTransition(WHEN_2, false);
+
+            assertInvariants(history);
+            assertInvariants(history0, history);
+            assertAll(() -> assertEquals(expected, history.asValueHistory(), "view"),
+                    () -> assertNotEquals(history0, history, "changed"));
+        }
+
+        @Test
+        public void equalValues() {
+            final BooleanValueHistory history = new BooleanValueHistory(false);
+
+            assertThrows(IllegalStateException.class, () -> history.appendTransition(WHEN_1, false));
+            assertInvariants(history);
+            assertTrue(history.isEmpty(), "unchanged");
+        }
+
+        @Test
+        public void outOfOrder() {
+            final BooleanValueHistory history = new BooleanValueHistory(false);
+            history.appendTransition(WHEN_2, true);
+
+            assertThrows(IllegalStateException.class, () -> history.appendTransition(WHEN_2, false));
+            assertThrows(IllegalStateException.class, () -> history.appendTransition(WHEN_1, false));
+            assertInvariants(history);
+            assertEquals(1, history.getNumberOfTransitions(), "unchanged");
+        }
+    }
+
+    @Nested
+    public class SetValueFrom {
+
+        @Test
+        public void startOfTime() {
+            final BooleanValueHistory history = new BooleanValueHistory(false);
+            history.appendTransition(WHEN_1, true);
+
+            history.setValueFrom(ValueHistory.START_OF_TIME, true);
+
+            assertInvariants(history);
+            assertEquals(new BooleanValueHistory(true), history);
+        }
+
+        @Test
+        public void replaceLater() {
+            final BooleanValueHistory history = new BooleanValueHistory(false);
+            history.appendTransition(WHEN_1, true);
+            history.appendTransition(WHEN_3, false);
+            final ModifiableValueHistory<Boolean> expected = new ModifiableValueHistory<>(false);
+            expected.appendTransition(WHEN_1, true);
+            expected.appendTransition(WHEN_3, false);
+            expected.setValueFrom(WHEN_2, false);
+
+            history.setValueFrom(WHEN_2, false);
+
+            assertInvariants(history);
+            assertEquals(expected, history.asValueHistory());
+        }
+
+        @Test
+        public void sameAsPrevious() {
+            final BooleanValueHistory history = new BooleanValueHistory(false);
+            history.appendTransition(WHEN_1, true);
+            history.appendTransition(WHEN_3, false);
+
+            history.setValueFrom(WHEN_2, true);
+
+            assertInvariants(history);
+            assertAll(() -> assertEquals(1, history.getNumberOfTransitions(), "numberOfTransitions"),
+                    () -> assertEquals(true, history.getLastValueAsBoolean(), "lastValue"));
+        }
+    }
+
+    @Nested
+    public class SetValueUntil {
+
+        @Test
+        public void endOfTime() {
+            final BooleanValueHistory history = new BooleanValueHistory(false);
+            history.appendTransition(WHEN_1, true);
+
+            history.setValueUntil(ValueHistory.END_OF_TIME, false);
+
+            assertInvariants(history);
+            assertEquals(new BooleanValueHistory(false), history);
+        }
+
+        @Test
+        public void prepend() {
+            final BooleanValueHistory history = new BooleanValueHistory(false);
+            history.appendTransition(WHEN_2, true);
+            final ModifiableValueHistory<Boolean> expected = new ModifiableValueHistory<>(false);
+            expected.appendTransition(WHEN_2, true);
+            expected.setValueUntil(WHEN_1, true);
+
+            history.setValueUntil(WHEN_1, true);
+
+            assertInvariants(history);
+            assertAll(() -> assertEquals(expected, history.asValueHistory(), "view"),
+                    () -> assertEquals(true, history.getFirstValueAsBoolean(), "firstValue"),
+                    () -> assertEquals(false, history.getAsBoolean(WHEN_1.plusNanos(1)), "value just after"));
+        }
+
+        @Test
+        public void replaceEarlier() {
+            final BooleanValueHistory history = new BooleanValueHistory(false);
+            history.appendTransition(WHEN_1, true);
+            history.appendTransition(WHEN_3, false);
+            final ModifiableValueHistory<Boolean> expected = new ModifiableValueHistory<>(false);
+            expected.appendTransition(WHEN_1, true);
+            expected.appendTransition(WHEN_3, false);
+            expected.setValueUntil(WHEN_2, true);
+
+            history.setValueUntil(WHEN_2, true);
+
+            assertInvariants(history);
+            assertEquals(expected, history.asValueHistory());
+        }
+    }
+
+    @Test
+    public void removeTransitionsFrom() {
+        final BooleanValueHistory history = new BooleanValueHistory(false);
+        history.appendTransition(WHEN_1, true);
+        history.appendTransition(WHEN_2, false);
+        history.appendTransition(WHEN_3, true);
+
+        history.removeTransitionsFrom(WHEN_2);
+
+        assertInvariants(history);
+        assertAll(() -> assertEquals(WHEN_1, history.getLastTransitionTime(), "lastTransitionTime"),
+                () -> assertEquals(true, history.getLastValueAsBoolean(), "lastValue"));
+    }
+}
@@ -22,6 +22,8 @@ import edu.umd.cs.findbugs.annotations.Nullable;
 import org.junit.jupiter.api.Test;
 import uk.badamson.dbc.assertions.ObjectVerifier;
 
+import java.time.Duration;
+
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.junit.jupiter.api.Assertions.assertAll;
@@ -92,4 +94,16 @@ public class ConstantValueHistoryTest {
     public void constructor_null() {
         constructor((Boolean) null);
     }
+
+    @Test
+    public void subHistory() {
+        final ConstantValueHistory<Integer> history = new ConstantValueHistory<>(1);
+        final Duration from = Duration.ZERO;
+        final Duration to = Duration.ofSeconds(1);
+
+        assertAll(
+                () -> ValueHistoryTest.assertSubHistoryInvariants(history, from, to, history.subHistory(from, to)),
+                () -> ValueHistoryTest.assertSubHistoryInvariants(history, ValueHistory.START_OF_TIME, to, history.headHistory(to)),
+                () -> ValueHistoryTest.assertSubHistoryInvariants(history, from, null, history.tailHistory(from)));
+    }
 }
@@ -0,0 +1,337 @@
+package uk.badamson.mc.history;
+/*
+ * © Copyright Benedict Adamson 2022.
+ *
+ * This file is part of MC-des.
+ *
+ * MC-des is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC-des is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MC-des.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import uk.badamson.dbc.assertions.ObjectVerifier;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DoubleValueHistoryTest {
+
+    private static final Duration WHEN_1 = Duration.ZERO;
+    private static final Duration WHEN_2 = Duration.ofSeconds(2);
+    private static final Duration WHEN_3 = Duration.ofSeconds(3);
+
+    public static void assertInvariants(final DoubleValueHistory history) {
+        ObjectVerifier.assertInvariants(history);// inherited
+        final ValueHistory<Double> view = history.asValueHistory();
+        ValueHistoryTest.assertInvariants(view);
+        assertAll("Consistent with value history view",
+                () -> assertEquals(view.getFirstValue(), history.getFirstValueAsDouble(), "firstValue"),
+                () -> assertEquals(view.getLastValue(), history.getLastValueAsDouble(), "lastValue"),
+                () -> assertEquals(view.getTransitionTimes(), history.getTransitionTimes(), "transitionTimes"),
+                () -> assertEquals(view.getTransitionTimes().size(), history.getNumberOfTransitions(), "numberOfTransitions"),
+                () -> assertEquals(view.isEmpty(), history.isEmpty(), "empty"),
+                () -> assertEquals(view.hashCode(), history.hashCode(), "hashCode"));
+    }
+
+    public static void assertInvariants(final DoubleValueHistory history1, final DoubleValueHistory history2) {
+        ObjectVerifier.assertInvariants(history1, history2);// inherited
+        ValueHistoryTest.assertInvariants(history1.asValueHistory(), history2.asValueHistory());
+        assertEquals(history1.equals(history2), history1.asValueHistory().equals(history2.asValueHistory()),
+                "Value semantics consistent with value history views");
+    }
+
+    @Test
+    public void constructor() {
+        final DoubleValueHistory history = new DoubleValueHistory(1.0);
+
+        assertInvariants(history);
+        assertAll(() -> assertEquals(1.0, history.getFirstValueAsDouble(), "firstValue"),
+                () -> assertTrue(history.isEmpty(), "empty"),
+                () -> assertEquals(new ConstantValueHistory<>(1.0), history.asValueHistory(), "view"));
+    }
+
+    @Nested
+    public class AppendTransition {
+
+        @Test
+        public void one() {
+            final DoubleValueHistory history = new DoubleValueHistory(1.0);
+            final ModifiableValueHistory<Double> expected = new ModifiableValueHistory<>(1.0);
+            expected.appendTransition(WHEN_1, -2.5);
+
+            history.appendTransition(WHEN_1, -2.5);
+
+            assertInvariants(history);
+            assertAll(() -> assertEquals(expected, history.asValueHistory(), "view"),
+                    () -> assertEquals(-2.5, history.getAsDouble(WHEN_1), "value at transition"),
+                    () -> assertEquals(1.0, history.getAsDouble(WHEN_1.minusNanos(1)), "value before transition"));
+        }
+
+        @Test
+        public void two() {
+            final DoubleValueHistory history = new DoubleValueHistory(1.0);
+            history.appendTransition(WHEN_1, -2.5);
+            final DoubleValueHistory history0 = new DoubleValueHistory(1.0);
+            history0.appendTransition(WHEN_1, -2.5);
+            final ModifiableValueHistory<Double> expected = new ModifiableValueHistory<>(1.0);
+            expected.appendTransition(WHEN_1, -2.5);
+            expected.appendTransition(WHEN_2, 1.0);
+
+            history.appendTransition(WHEN_2, 1.0);
+
+            assertInvariants(history);
+            assertInvariants(history0, history);
+            assertAll(() -> assertEquals(expected, history.asValueHistory(), "view"),
+                    () -> assertNotEquals(history0, history, "changed"));
+        }
+
+        @Test
+        public void many() {
+            final int n = 100;
+            final DoubleValueHistory history = new DoubleValueHistory(-1);
+            final ModifiableValueHistory<Double> expected = new ModifiableValueHistory<>(-1.0);
+            for (int i = 0; i < n; ++i) {
+                expected.appendTransition(WHEN_1.plusSeconds(i), (double) i);
+            }
+
+            for (int i = 0; i < n; ++i) {
+                history.appendTransition(WHEN_1.plusSeconds(i), i);
+            }
+
+            assertInvariants(history);
+            assertAll(() -> assertEquals(expected, history.asValueHistory(), "view"),
+                    () -> assertEquals(n - 1, history.getAsDouble(WHEN_1.plusSeconds(n - 1)), "last value"));
+        }
+
+        @Test
+        public void equalValues() {
+            final DoubleValueHistory history = new DoubleValueHistory(1.0);
+
+            assertThrows(IllegalStateException.class, () -> history.appendTransition(WHEN_1, 1.0));
+            assertInvariants(history);
+            assertTrue(history.isEmpty(), "unchanged");
+        }
+
+        @Test
+        public void outOfOrder() {
+            final DoubleValueHistory history = new DoubleValueHistory(1.0);
+            history.appendTransition(WHEN_2, -2.5);
+
+            assertThrows(IllegalStateException.class, () -> history.appendTransition(WHEN_2, 1.0));
+            assertThrows(IllegalStateException.class, () -> history.appendTransition(WHEN_1, 1.0));
+            assertInvariants(history);
+            assertEquals(1, history.getNumberOfTransitions(), "unchanged");
+        }
+    }
+
+    @Nested
+    public class SetValueFrom {
+
+        @Test
+        public void startOfTime() {
+            final DoubleValueHistory history = new DoubleValueHistory(1.0);
+            history.appendTransition(WHEN_1, -2.5);
+
+            history.setValueFrom(ValueHistory.START_OF_TIME, -2.5);
+
+            assertInvariants(history);
+            assertEquals(new DoubleValueHistory(-2.5), history);
+        }
+
+        @Test
+        public void replaceLater() {
+            final DoubleValueHistory history = new DoubleValueHistory(1.0);
+            history.appendTransition(WHEN_1, -2.5);
+            history.appendTransition(WHEN_3, 1.0);
+            final ModifiableValueHistory<Double> expected = new ModifiableValueHistory<>(1.0);
+            expected.appendTransition(WHEN_1, -2.5);
+            expected.appendTransition(WHEN_3, 1.0);
+            expected.setValueFrom(WHEN_2, 1.0);
+
+            history.setValueFrom(WHEN_2, 1.0);
+
+            assertInvariants(history);
+            assertEquals(expected, history.asValueHistory());
+        }
+
+        @Test
+        public void sameAsPrevious() {
+            final DoubleValueHistory history = new DoubleValueHistory(1.0);
+            history.appendTransition(WHEN_1, -2.5);
+            history.appendTransition(WHEN_3, 1.0);
+
+            history.setValueFrom(WHEN_2, -2.5);
+
+            assertInvariants(history);
+            assertAll(() -> assertEquals(1, history.getNumberOfTransitions(), "numberOfTransitions"),
+                    () -> assertEquals(-2.5, history.getLastValueAsDouble(), "lastValue"));
+        }
+    }
+
+    @Nested
+    public class SetValueUntil {
+
+        @Test
+        public void endOfTime() {
+            final DoubleValueHistory history = new DoubleValueHistory(1.0);
+            history.appendTransition(WHEN_1, -2.5);
+
+            history.setValueUntil(ValueHistory.END_OF_TIME, 1.0);
+
+            assertInvariants(history);
+            assertEquals(new DoubleValueHistory(1.0), history);
+        }
+
+        @Test
+        public void prepend() {
+            final DoubleValueHistory history = new DoubleValueHistory(1.0);
+            history.appendTransition(WHEN_2, -2.5);
+            final ModifiableValueHistory<Double> expected = new ModifiableValueHistory<>(1.0);
+            expected.appendTransition(WHEN_2, -2.5);
+            expected.setValueUntil(WHEN_1, -2.5);
+
+            history.setValueUntil(WHEN_1, -2.5);
+
+            assertInvariants(history);
+            assertAll(() -> assertEquals(expected, history.asValueHistory(), "view"),
+                    () -> assertEquals(-2.5, history.getFirstValueAsDouble(), "firstValue"),
+                    () -> assertEquals(1.0, history.getAsDouble(WHEN_1.plusNanos(1)), "value just after"));
+        }
+
+        @Test
+        public void replaceEarlier() {
+            final DoubleValueHistory history = new DoubleValueHistory(1.0);
+            history.appendTransition(WHEN_1, -2.5);
+            history.appendTransition(WHEN_3, 1.0);
+            final ModifiableValueHistory<Double> expected = new ModifiableValueHistory<>(1.0);
+            expected.appendTransition(WHEN_1, -2.5);
+            expected.appendTransition(WHEN_3, 1.0);
+            expected.setValueUntil(WHEN_2, -2.5);
+
+            history.setValueUntil(WHEN_2, -2.5);
+
+            assertInvariants(history);
+            assertEquals(expected, history.asValueHistory());
+        }
+    }
+
+    @Test
+    public void removeTransitionsFrom() {
+        final DoubleValueHistory history = new DoubleValueHistory(1.0);
+        history.appendTransition(WHEN_1, -2.5);
+        history.appendTransition(WHEN_2, 1.0);
+        history.appendTransition(WHEN_3, -2.5);
+
+        history.removeTransitionsFrom(WHEN_2);
+
+        assertInvariants(history);
+        assertAll(() -> assertEquals(WHEN_1, history.getLastTransitionTime(), "lastTransitionTime"),
+                () -> assertEquals(-2.5, history.getLastValueAsDouble(), "lastValue"));
+    }
+
+    @Nested
+    public class Aggregates {
+
+        private DoubleValueHistory createHistory() {
+            final DoubleValueHistory history = new DoubleValueHistory(1.0);
+            history.appendTransition(WHEN_1, -2.5);
+            history.appendTransition(WHEN_2, 4.0);
+            history.appendTransition(WHEN_3, 0.5);
+            return history;
+        }
+
+        @Test
+        public void constant() {
+            final DoubleValueHistory history = new DoubleValueHistory(2.0);
+
+            assertAll(() -> assertEquals(6.0, history.integral(WHEN_1, WHEN_3), 1E-9, "integral"),
+                    () -> assertEquals(2.0, history.timeAverage(WHEN_1, WHEN_3), 1E-9, "timeAverage"),
+                    () -> assertEquals(2.0, history.min(WHEN_1, WHEN_3), "min"),
+                    () -> assertEquals(2.0, history.max(WHEN_1, WHEN_3), "max"));
+        }
+
+        @Test
+        public void withinOneTransition() {
+            final DoubleValueHistory history = createHistory();
+            final Duration from = WHEN_1.plusMillis(500);
+            final Duration to = WHEN_1.plusMillis(1500);
+
+            assertAll(() -> assertEquals(-2.5, history.integral(from, to), 1E-9, "integral"),
+                    () -> assertEquals(-2.5, history.min(from, to), "min"),
+                    () -> assertEquals(-2.5, history.max(from, to), "max"));
+        }
+
+        @Test
+        public void acrossTransitions() {
+            final DoubleValueHistory history = createHistory();
+            final Duration from = WHEN_1.minusSeconds(1);
+            final Duration to = WHEN_3.plusSeconds(2);
+            final double expectedIntegral = 1.0 * 1 + -2.5 * 2 + 4.0 * 1 + 0.5 * 2;
+
+            assertAll(() -> assertEquals(expectedIntegral, history.integral(from, to), 1E-9, "integral"),
+                    () -> assertEquals(expectedIntegral / 6.0, history.timeAverage(from, to), 1E-9, "timeAverage"),
+                    () -> assertEquals(-2.5, history.min(from, to), "min"),
+                    () -> assertEquals(4.0, history.max(from, to), "max"));
+        }
+
+        @Test
+        public void endExclusive() {
+            final DoubleValueHistory history = createHistory();
+
+            assertAll(() -> assertEquals(-2.5, history.max(WHEN_1, WHEN_2), "max"),
+                    () -> assertEquals(4.0, history.min(WHEN_2, WHEN_3), "min"));
+        }
+
+        @Test
+        public void afterModification() {
+            final DoubleValueHistory history = createHistory();
+            final Duration from = WHEN_1.minusSeconds(1);
+            final Duration to = WHEN_3.plusSeconds(2);
+            history.max(from, to);// build the index
+
+            history.setValueFrom(WHEN_2, -8.0);
+            history.setValueUntil(WHEN_1.plusSeconds(1), 3.0);
+
+            assertAll(() -> assertEquals(3.0 * 2 + -2.5 * 1 + -8.0 * 3, history.integral(from, to), 1E-6, "integral"),
+                    () -> assertEquals(-8.0, history.min(from, to), "min"),
+                    () -> assertEquals(3.0, history.max(from, to), "max"));
+        }
+
+        @Test
+        public void manyTransitions() {
+            final DoubleValueHistory history = new DoubleValueHistory(0.0);
+            for (int i = 1; i <= 100; ++i) {
+                history.appendTransition(Duration.ofSeconds(i), i % 2 == 0 ? i : -i);
+            }
+            final Duration from = Duration.ofSeconds(10);
+            final Duration to = Duration.ofSeconds(20);
+
+            assertAll(() -> assertEquals(-5.0, history.integral(from, to), 1E-9, "integral"),
+                    () -> assertEquals(-19.0, history.min(from, to), "min"),
+                    () -> assertEquals(18.0, history.max(from, to), "max"));
+        }
+
+        @Test
+        public void invalidRange() {
+            final DoubleValueHistory history = createHistory();
+
+            assertThrows(IllegalArgumentException.class, () -> history.integral(WHEN_2, WHEN_2));
+            assertThrows(IllegalArgumentException.class, () -> history.timeAverage(WHEN_3, WHEN_2));
+            assertThrows(IllegalArgumentException.class, () -> history.min(WHEN_2, WHEN_1));
+            assertThrows(IllegalArgumentException.class, () -> history.max(WHEN_2, WHEN_2));
+        }
+    }
+}
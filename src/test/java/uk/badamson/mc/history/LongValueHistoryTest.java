@@ -0,0 +1,244 @@
+package uk.badamson.mc.history;
+/*
+ * © Copyright Benedict Adamson 2022.
+ *
+ * This file is part of MC-des.
+ *
+ * MC-des is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC-des is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MC-des.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import uk.badamson.dbc.assertions.ObjectVerifier;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LongValueHistoryTest {
+
+    private static final Duration WHEN_1 = Duration.ZERO;
+    private static final Duration WHEN_2 = Duration.ofSeconds(2);
+    private static final Duration WHEN_3 = Duration.ofSeconds(3);
+
+    public static void assertInvariants(final LongValueHistory history) {
+        ObjectVerifier.assertInvariants(history);// inherited
+        final ValueHistory<Long> view = history.asValueHistory();
+        ValueHistoryTest.assertInvariants(view);
+        assertAll("Consistent with value history view",
+                () -> assertEquals(view.getFirstValue(), history.getFirstValueAsLong(), "firstValue"),
+                () -> assertEquals(view.getLastValue(), history.getLastValueAsLong(), "lastValue"),
+                () -> assertEquals(view.getTransitionTimes(), history.getTransitionTimes(), "transitionTimes"),
+                () -> assertEquals(view.getTransitionTimes().size(), history.getNumberOfTransitions(), "numberOfTransitions"),
+                () -> assertEquals(view.isEmpty(), history.isEmpty(), "empty"),
+                () -> assertEquals(view.hashCode(), history.hashCode(), "hashCode"));
+    }
+
+    public static void assertInvariants(final LongValueHistory history1, final LongValueHistory history2) {
+        ObjectVerifier.assertInvariants(history1, history2);// inherited
+        ValueHistoryTest.assertInvariants(history1.asValueHistory(), history2.asValueHistory());
+        assertEquals(history1.equals(history2), history1.asValueHistory().equals(history2.asValueHistory()),
+                "Value semantics consistent with value history views");
+    }
+
+    @Test
+    public void constructor() {
+        final LongValueHistory history = new LongValueHistory(1L);
+
+        assertInvariants(history);
+        assertAll(() -> assertEquals(1L, history.getFirstValueAsLong(), "firstValue"),
+                () -> assertTrue(history.isEmpty(), "empty"),
+                () -> assertEquals(new ConstantValueHistory<>(1L), history.asValueHistory(), "view"));
+    }
+
+    @Nested
+    public class AppendTransition {
+
+        @Test
+        public void one() {
+            final LongValueHistory history = new LongValueHistory(1L);
+            final ModifiableValueHistory<Long> expected = new ModifiableValueHistory<>(1L);
+            expected.appendTransition(WHEN_1, Long.MAX_VALUE);
+
+            history.appendTransition(WHEN_1, Long.MAX_VALUE);
+
+            assertInvariants(history);
+            assertAll(() -> assertEquals(expected, history.asValueHistory(), "view"),
+                    () -> assertEquals(Long.MAX_VALUE, history.getAsLong(WHEN_1), "value at transition"),
+                    () -> assertEquals(1L, history.getAsLong(WHEN_1.minusNanos(1)), "value before transition"));
+        }
+
+        @Test
+        public void two() {
+            final LongValueHistory history = new LongValueHistory(1L);
+            history.appendTransition(WHEN_1, Long.MAX_VALUE);
+            final LongValueHistory history0 = new LongValueHistory(1L);
+            history0.appendTransition(WHEN_1, Long.MAX_VALUE);
+            final ModifiableValueHistory<Long> expected = new ModifiableValueHistory<>(1L);
+            expected.appendTransition(WHEN_1, Long.MAX_VALUE);
+            expected.appendTransition(WHEN_2, 1L);
+
+            history.appendTransition(WHEN_2, 1L);
+
+            assertInvariants(history);
+            assertInvariants(history0, history);
+            assertAll(() -> assertEquals(expected, history.asValueHistory(), "view"),
+                    () -> assertNotEquals(history0, history, "changed"));
+        }
+
+        @Test
+        public void many() {
+            final int n = 100;
+            final LongValueHistory history = new LongValueHistory(-1);
+            final ModifiableValueHistory<Long> expected = new ModifiableValueHistory<>(-1L);
+            for (int i = 0; i < n; ++i) {
+                expected.appendTransition(WHEN_1.plusSeconds(i), (long) i);
+            }
+
+            for (int i = 0; i < n; ++i) {
+                history.appendTransition(WHEN_1.plusSeconds(i), i);
+            }
+
+            assertInvariants(history);
+            assertAll(() -> assertEquals(expected, history.asValueHistory(), "view"),
+                    () -> assertEquals(n - 1, history.getAsLong(WHEN_1.plusSeconds(n - 1)), "last value"));
+        }
+
+        @Test
+        public void equalValues() {
+            final LongValueHistory history = new LongValueHistory(1L);
+
+            assertThrows(IllegalStateException.class, () -> history.appendTransition(WHEN_1, 1L));
+            assertInvariants(history);
+            assertTrue(history.isEmpty(), "unchanged");
+        }
+
+        @Test
+        public void outOfOrder() {
+            final LongValueHistory history = new LongValueHistory(1L);
+            history.appendTransition(WHEN_2, Long.MAX_VALUE);
+
+            assertThrows(IllegalStateException.class, () -> history.appendTransition(WHEN_2, 1L));
+            assertThrows(IllegalStateException.class, () -> history.appendTransition(WHEN_1, 1L));
+            assertInvariants(history);
+            assertEquals(1, history.getNumberOfTransitions(), "unchanged");
+        }
+    }
+
+    @Nested
+    public class SetValueFrom {
+
+        @Test
+        public void startOfTime() {
+            final LongValueHistory history = new LongValueHistory(1L);
+            history.appendTransition(WHEN_1, Long.MAX_VALUE);
+
+            history.setValueFrom(ValueHistory.START_OF_TIME, Long.MAX_VALUE);
+
+            assertInvariants(history);
+            assertEquals(new LongValueHistory(Long.MAX_VALUE), history);
+        }
+
+        @Test
+        public void replaceLater() {
+            final LongValueHistory history = new LongValueHistory(1L);
+            history.appendTransition(WHEN_1, Long.MAX_VALUE);
+            history.appendTransition(WHEN_3, 1L);
+            final ModifiableValueHistory<Long> expected = new ModifiableValueHistory<>(1L);
+            expected.appendTransition(WHEN_1, Long.MAX_VALUE);
+            expected.appendTransition(WHEN_3, 1L);
+            expected.setValueFrom(WHEN_2, 1L);
+
+            history.setValueFrom(WHEN_2, 1L);
+
+            assertInvariants(history);
+            assertEquals(expected, history.asValueHistory());
+        }
+
+        @Test
+        public void sameAsPrevious() {
+            final LongValueHistory history = new LongValueHistory(1L);
+            history.appendTransition(WHEN_1, Long.MAX_VALUE);
+            history.appendTransition(WHEN_3, 1L);
+
+            history.setValueFrom(WHEN_2, Long.MAX_VALUE);
+
+            assertInvariants(history);
+            assertAll(() -> assertEquals(1, history.getNumberOfTransitions(), "numberOfTransitions"),
+                    () -> assertEquals(Long.MAX_VALUE, history.getLastValueAsLong(), "lastValue"));
+        }
+    }
+
+    @Nested
+    public class SetValueUntil {
+
+        @Test
+        public void endOfTime() {
+            final LongValueHistory history = new LongValueHistory(1L);
+            history.appendTransition(WHEN_1, Long.MAX_VALUE);
+
+            history.setValueUntil(ValueHistory.END_OF_TIME, 1L);
+
+            assertInvariants(history);
+            assertEquals(new LongValueHistory(1L), history);
+        }
+
+        @Test
+        public void prepend() {
+            final LongValueHistory history = new LongValueHistory(1L);
+            history.appendTransition(WHEN_2, Long.MAX_VALUE);
+            final ModifiableValueHistory<Long> expected = new ModifiableValueHistory<>(1L);
+            expected.appendTransition(WHEN_2, Long.MAX_VALUE);
+            expected.setValueUntil(WHEN_1, Long.MAX_VALUE);
+
+            history.setValueUntil(WHEN_1, Long.MAX_VALUE);
+
+            assertInvariants(history);
+            assertAll(() -> assertEquals(expected, history.asValueHistory(), "view"),
+                    () -> assertEquals(Long.MAX_VALUE, history.getFirstValueAsLong(), "firstValue"),
+                    () -> assertEquals(1L, history.getAsLong(WHEN_1.plusNanos(1)), "value just after"));
+        }
+
+        @Test
+        public void replaceEarlier() {
+            final LongValueHistory history = new LongValueHistory(1L);
+            history.appendTransition(WHEN_1, Long.MAX_VALUE);
+            history.appendTransition(WHEN_3, 1L);
+            final ModifiableValueHistory<Long> expected = new ModifiableValueHistory<>(1L);
+            expected.appendTransition(WHEN_1, Long.MAX_VALUE);
+            expected.appendTransition(WHEN_3, 1L);
+            expected.setValueUntil(WHEN_2, Long.MAX_VALUE);
+
+            history.setValueUntil(WHEN_2, Long.MAX_VALUE);
+
+            assertInvariants(history);
+            assertEquals(expected, history.asValueHistory());
+        }
+    }
+
+    @Test
+    public void removeTransitionsFrom() {
+        final LongValueHistory history = new LongValueHistory(1L);
+        history.appendTransition(WHEN_1, Long.MAX_VALUE);
+        history.appendTransition(WHEN_2, 1L);
+        history.appendTransition(WHEN_3, Long.MAX_VALUE);
+
+        history.removeTransitionsFrom(WHEN_2);
+
+        assertInvariants(history);
+        assertAll(() -> assertEquals(WHEN_1, history.getLastTransitionTime(), "lastTransitionTime"),
+                () -> assertEquals(Long.MAX_VALUE, history.getLastValueAsLong(), "lastValue"));
+    }
+}
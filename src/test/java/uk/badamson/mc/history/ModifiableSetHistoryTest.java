@@ -398,4 +398,49 @@ public class ModifiableSetHistoryTest {
         }
 
     }
+
+    @Nested
+    public class SubHistory {
+
+        private ModifiableSetHistory<Integer> createHistory() {
+            final ModifiableSetHistory<Integer> history = new ModifiableSetHistory<>();
+            history.addUntil(WHEN_1, 1);
+            history.addFrom(WHEN_2, 2);
+            history.addFrom(WHEN_3, 3);
+            return history;
+        }
+
+        @Test
+        public void head() {
+            final var history = createHistory();
+
+            final var subHistory = history.headHistory(WHEN_3);
+
+            ValueHistoryTest.assertSubHistoryInvariants(history, ValueHistory.START_OF_TIME, WHEN_3, subHistory);
+            SetHistoryTest.assertInvariants(subHistory, 2);
+            assertThat(subHistory.getLastValue(), is(Set.of(2)));
+        }
+
+        @Test
+        public void sub() {
+            final var history = createHistory();
+
+            final var subHistory = history.subHistory(WHEN_1, WHEN_3);
+
+            ValueHistoryTest.assertSubHistoryInvariants(history, WHEN_1, WHEN_3, subHistory);
+            SetHistoryTest.assertInvariants(subHistory, 1);
+            assertThat(subHistory.getTransitionTimes(), contains(WHEN_1.plusNanos(1), WHEN_2));
+        }
+
+        @Test
+        public void tail() {
+            final var history = createHistory();
+
+            final var subHistory = history.tailHistory(WHEN_2);
+
+            ValueHistoryTest.assertSubHistoryInvariants(history, WHEN_2, null, subHistory);
+            SetHistoryTest.assertInvariants(subHistory, 3);
+            assertThat(subHistory.getFirstValue(), is(Set.of(2)));
+        }
+    }
 }
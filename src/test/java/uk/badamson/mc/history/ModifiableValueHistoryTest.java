@@ -28,7 +28,9 @@ import java.time.Duration;
 import java.util.*;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.anEmptyMap;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.jupiter.api.Assertions.*;
 
 public class ModifiableValueHistoryTest {
@@ -199,6 +201,108 @@ public class ModifiableValueHistoryTest {
         }
     }
 
+    @Nested
+    public class BuilderTest {
+
+        @Test
+        public void none() {
+            final var history = new ModifiableValueHistory.Builder<>(1).build();
+
+            assertInvariants(history);
+            assertEquals(new ModifiableValueHistory<>(1), history);
+        }
+
+        @Test
+        public void append() {
+            final var history = new ModifiableValueHistory.Builder<>(1)
+                    .append(WHEN_1, 2)
+                    .append(WHEN_2, 3)
+                    .build();
+
+            assertInvariants(history);
+            final ModifiableValueHistory<Integer> expected = new ModifiableValueHistory<>(1);
+            expected.appendTransition(WHEN_1, 2);
+            expected.appendTransition(WHEN_2, 3);
+            assertEquals(expected, history);
+        }
+
+        @Test
+        public void appendAllArrays() {
+            final var history = new ModifiableValueHistory.Builder<>(1)
+                    .appendAll(new Duration[]{WHEN_1, WHEN_2, WHEN_3}, new Integer[]{2, 3, 1})
+                    .build();
+
+            assertInvariants(history);
+            assertAll(() -> assertEquals(Set.of(WHEN_1, WHEN_2, WHEN_3), history.getTransitionTimes(), "transitionTimes"),
+                    () -> assertEquals(3, history.get(WHEN_2), "value"));
+        }
+
+        @Test
+        public void appendAllNanos() {
+            final var history = new ModifiableValueHistory.Builder<>(Boolean.FALSE)
+                    .appendAll(new long[]{WHEN_2.toNanos(), WHEN_4.toNanos()}, new Boolean[]{Boolean.TRUE, Boolean.FALSE})
+                    .build();
+
+            assertInvariants(history);
+            assertEquals(Set.of(WHEN_2, WHEN_4), history.getTransitionTimes(), "transitionTimes");
+        }
+
+        @Test
+        public void appendAllStream() {
+            final ModifiableValueHistory<Integer> that = new ModifiableValueHistory<>(0);
+            that.appendTransition(WHEN_1, 1);
+            that.appendTransition(WHEN_3, 2);
+
+            final var history = new ModifiableValueHistory.Builder<>(0)
+                    .appendAll(that.streamOfTransitions())
+                    .build();
+
+            assertInvariants(history);
+            assertEquals(that, history);
+        }
+
+        @Test
+        public void buildTwice() {
+            final var builder = new ModifiableValueHistory.Builder<>(0).append(WHEN_1, 1);
+            final var history1 = builder.build();
+            builder.append(WHEN_2, 2);
+
+            final var history2 = builder.build();
+
+            assertInvariants(history1, history2);
+            assertAll(() -> assertEquals(Set.of(WHEN_1), history1.getTransitionTimes(), "unchanged"),
+                    () -> assertEquals(Set.of(WHEN_1, WHEN_2), history2.getTransitionTimes(), "further appended"));
+        }
+
+        @Nested
+        public class Invalid {
+
+            @Test
+            public void equalsFirstValue() {
+                final var builder = new ModifiableValueHistory.Builder<>(0);
+
+                assertThrows(IllegalArgumentException.class, () -> builder.append(WHEN_1, 0));
+            }
+
+            @Test
+            public void lengthsDiffer() {
+                final var builder = new ModifiableValueHistory.Builder<>(0);
+
+                assertThrows(IllegalArgumentException.class,
+                        () -> builder.appendAll(new Duration[]{WHEN_1, WHEN_2}, new Integer[]{1}));
+            }
+
+            @Test
+            public void outOfOrder() {
+                final var builder = new ModifiableValueHistory.Builder<>(0).append(WHEN_1, 1);
+
+                assertThrows(IllegalArgumentException.class,
+                        () -> builder.appendAll(new Duration[]{WHEN_3, WHEN_2}, new Integer[]{2, 3}));
+                assertEquals(Set.of(WHEN_1), builder.build().getTransitionTimes(), "unchanged");
+            }
+        }
+    }
+
     @Nested
     public class Constructor {
 
@@ -328,6 +432,50 @@ public class ModifiableValueHistoryTest {
         }
     }
 
+    @Nested
+    public class EqualsAndHashCode {
+
+        @Test
+        public void differentModifications() {
+            final ModifiableValueHistory<Integer> history1 = new ModifiableValueHistory<>(1);
+            history1.appendTransition(WHEN_1, 2);
+            history1.appendTransition(WHEN_2, 3);
+            final ModifiableValueHistory<Integer> history2 = new ModifiableValueHistory<>(0);
+            history2.setValueFrom(WHEN_3, 4);
+            history2.setValueFrom(WHEN_2, 3);
+            history2.setValueUntil(WHEN_1.minusNanos(1), 1);
+            history2.setValueFrom(WHEN_1, 2);
+            history2.setValueFrom(WHEN_2, 3);
+
+            assertInvariants(history1, history2);
+            assertAll(() -> assertEquals(history1, history2, "equals"),
+                    () -> assertEquals(history1.hashCode(), history2.hashCode(), "hashCode"));
+        }
+
+        @Test
+        public void differentValues() {
+            final ModifiableValueHistory<Integer> history1 = new ModifiableValueHistory<>(1);
+            history1.appendTransition(WHEN_1, 2);
+            final ModifiableValueHistory<Integer> history2 = new ModifiableValueHistory<>(1);
+            history2.appendTransition(WHEN_1, 3);
+
+            assertInvariants(history1, history2);
+            assertNotEquals(history1, history2);
+        }
+
+        @Test
+        public void otherValueHistoryType() {
+            final ModifiableValueHistory<Integer> history1 = new ModifiableValueHistory<>(1);
+            final ValueHistory<Integer> history2 = new ConstantValueHistory<>(1);
+            history1.setValueFrom(WHEN_1, 2);
+            history1.removeTransitionsFrom(WHEN_1);
+
+            assertAll(() -> assertEquals(history1, history2, "equals"),
+                    () -> assertEquals(history2, history1, "equals [symmetric]"),
+                    () -> assertEquals(history1.hashCode(), history2.hashCode(), "hashCode"));
+        }
+    }
+
     @Nested
     public class RemoveTransitionsFrom {
 
@@ -620,6 +768,29 @@ public class ModifiableValueHistoryTest {
                 setValueUntil_2(1, WHEN_2, 2, WHEN_1, 3);
             }
 
+            @Test
+            public void prepend_withTransitionAfter() {
+                final ModifiableValueHistory<Integer> history = new ModifiableValueHistory<>(1);
+                history.appendTransition(WHEN_1, 2);
+                history.appendTransition(WHEN_4, 3);
+
+                setValueUntil(history, WHEN_2, 4);
+
+                assertAll(() -> assertEquals(2, history.get(WHEN_3), "unchanged after"),
+                        () -> assertEquals(Set.of(WHEN_2.plusNanos(1), WHEN_4), history.getTransitionTimes(),
+                                "transitionTimes"));
+            }
+
+            @Test
+            public void prepend_sameAsNext() {
+                final ModifiableValueHistory<Integer> history = new ModifiableValueHistory<>(1);
+                history.appendTransition(WHEN_2, 2);
+
+                setValueUntil(history, WHEN_2.minusNanos(1), 2);
+
+                assertEquals(new ModifiableValueHistory<>(2), history);
+            }
+
             @Test
             public void prepend_B() {
                 setValueUntil_2(5, WHEN_3, 7, WHEN_2, 11);
@@ -641,4 +812,197 @@ public class ModifiableValueHistoryTest {
 
         }
     }
+
+    @Nested
+    public class SubHistory {
+
+        private ModifiableValueHistory<Integer> createHistory() {
+            final ModifiableValueHistory<Integer> history = new ModifiableValueHistory<>(0);
+            history.appendTransition(WHEN_1, 1);
+            history.appendTransition(WHEN_2, 2);
+            history.appendTransition(WHEN_3, 3);
+            history.appendTransition(WHEN_4, 4);
+            return history;
+        }
+
+        @Test
+        public void head() {
+            final var history = createHistory();
+
+            final var subHistory = history.headHistory(WHEN_3);
+
+            ValueHistoryTest.assertSubHistoryInvariants(history, ValueHistory.START_OF_TIME, WHEN_3, subHistory);
+            assertEquals(Set.of(WHEN_1, WHEN_2), subHistory.getTransitionTimes());
+        }
+
+        @Test
+        public void sub() {
+            final var history = createHistory();
+
+            final var subHistory = history.subHistory(WHEN_1, WHEN_3.plusNanos(1));
+
+            ValueHistoryTest.assertSubHistoryInvariants(history, WHEN_1, WHEN_3.plusNanos(1), subHistory);
+            assertAll(() -> assertEquals(Set.of(WHEN_2, WHEN_3), subHistory.getTransitionTimes(), "transitionTimes"),
+                    () -> assertEquals(1, subHistory.getFirstValue(), "firstValue"),
+                    () -> assertEquals(3, subHistory.get(WHEN_4), "value after end"));
+        }
+
+        @Test
+        public void subBetweenTransitions() {
+            final var history = createHistory();
+            final Duration from = WHEN_1.plusNanos(1);
+
+            final var subHistory = history.subHistory(from, WHEN_2);
+
+            ValueHistoryTest.assertSubHistoryInvariants(history, from, WHEN_2, subHistory);
+            assertEquals(new ConstantValueHistory<>(1), subHistory);
+        }
+
+        @Test
+        public void tail() {
+            final var history = createHistory();
+            final Duration from = WHEN_2.plusNanos(1);
+
+            final var subHistory = history.tailHistory(from);
+
+            ValueHistoryTest.assertSubHistoryInvariants(history, from, null, subHistory);
+            assertEquals(Set.of(WHEN_3, WHEN_4), subHistory.getTransitionTimes());
+        }
+
+        @Test
+        public void subOfSub() {
+            final var history = createHistory();
+            final var subHistory = history.subHistory(WHEN_1, WHEN_4);
+
+            final var subSubHistory = subHistory.tailHistory(WHEN_2);
+
+            ValueHistoryTest.assertSubHistoryInvariants(subHistory, WHEN_2, null, subSubHistory);
+            assertEquals(Set.of(WHEN_3), subSubHistory.getTransitionTimes());
+        }
+
+        @Test
+        public void view() {
+            final var history = createHistory();
+            final var subHistory = history.tailHistory(WHEN_2);
+
+            history.setValueFrom(WHEN_3, 7);
+
+            ValueHistoryTest.assertSubHistoryInvariants(history, WHEN_2, null, subHistory);
+            assertEquals(7, subHistory.getLastValue());
+        }
+
+        @Test
+        public void invalidRange() {
+            final var history = createHistory();
+
+            assertThrows(IllegalArgumentException.class, () -> history.subHistory(WHEN_2, WHEN_2));
+        }
+    }
+
+    @Nested
+    public class TruncateAfter {
+
+        private <VALUE> SortedMap<Duration, VALUE> truncateAfter(final ModifiableValueHistory<VALUE> history,
+                                                                 final Duration when) {
+            final VALUE firstValue0 = history.getFirstValue();
+            final VALUE value0 = history.get(when);
+            final SortedMap<Duration, VALUE> transitions0 = history.getTransitions();
+
+            final var removed = history.truncateAfter(when);
+
+            assertInvariants(history);
+            assertThat(removed, notNullValue());
+            final SortedMap<Duration, VALUE> restored = new TreeMap<>(history.getTransitions());
+            restored.putAll(removed);
+            assertAll(() -> assertSame(firstValue0, history.getFirstValue(), "firstValue unchanged"),
+                    () -> assertSame(value0, history.get(when), "value at time unchanged"),
+                    () -> assertSame(value0, history.getLastValue(), "lastValue"),
+                    () -> assertTrue(removed.isEmpty() || when.compareTo(removed.firstKey()) < 0, "removed after"),
+                    () -> assertEquals(transitions0, restored, "removed transitions returned"));
+            return removed;
+        }
+
+        @Test
+        public void empty() {
+            final ModifiableValueHistory<Integer> history = new ModifiableValueHistory<>(1);
+
+            assertThat(truncateAfter(history, WHEN_1), anEmptyMap());
+        }
+
+        @Test
+        public void atTransition() {
+            final ModifiableValueHistory<Integer> history = new ModifiableValueHistory<>(1);
+            history.appendTransition(WHEN_1, 2);
+            history.appendTransition(WHEN_2, 3);
+
+            final var removed = truncateAfter(history, WHEN_1);
+
+            assertEquals(Map.of(WHEN_2, 3), removed);
+        }
+
+        @Test
+        public void between() {
+            final ModifiableValueHistory<Integer> history = new ModifiableValueHistory<>(1);
+            history.appendTransition(WHEN_1, 2);
+            history.appendTransition(WHEN_3, 3);
+            history.appendTransition(WHEN_4, 4);
+
+            final var removed = truncateAfter(history, WHEN_2);
+
+            assertEquals(Map.of(WHEN_3, 3, WHEN_4, 4), removed);
+        }
+    }
+
+    @Nested
+    public class TruncateBefore {
+
+        private <VALUE> SortedMap<Duration, VALUE> truncateBefore(final ModifiableValueHistory<VALUE> history,
+                                                                  final Duration when) {
+            final VALUE value0 = history.get(when);
+            final VALUE lastValue0 = history.getLastValue();
+            final SortedMap<Duration, VALUE> transitions0 = history.getTransitions();
+
+            final var removed = history.truncateBefore(when);
+
+            assertInvariants(history);
+            assertThat(removed, notNullValue());
+            final SortedMap<Duration, VALUE> restored = new TreeMap<>(history.getTransitions());
+            restored.putAll(removed);
+            assertAll(() -> assertSame(value0, history.getFirstValue(), "firstValue"),
+                    () -> assertSame(value0, history.get(when), "value at time unchanged"),
+                    () -> assertSame(lastValue0, history.getLastValue(), "lastValue unchanged"),
+                    () -> assertTrue(removed.isEmpty() || removed.lastKey().compareTo(when) <= 0, "removed at or before"),
+                    () -> assertEquals(transitions0, restored, "removed transitions returned"));
+            return removed;
+        }
+
+        @Test
+        public void empty() {
+            final ModifiableValueHistory<Integer> history = new ModifiableValueHistory<>(1);
+
+            assertThat(truncateBefore(history, WHEN_1), anEmptyMap());
+        }
+
+        @Test
+        public void atTransition() {
+            final ModifiableValueHistory<Integer> history = new ModifiableValueHistory<>(1);
+            history.appendTransition(WHEN_1, 2);
+            history.appendTransition(WHEN_2, 3);
+
+            final var removed = truncateBefore(history, WHEN_2);
+
+            assertEquals(Map.of(WHEN_1, 2, WHEN_2, 3), removed);
+        }
+
+        @Test
+        public void between() {
+            final ModifiableValueHistory<Integer> history = new ModifiableValueHistory<>(1);
+            history.appendTransition(WHEN_1, 2);
+            history.appendTransition(WHEN_3, 3);
+
+            final var removed = truncateBefore(history, WHEN_2);
+
+            assertEquals(Map.of(WHEN_1, 2), removed);
+        }
+    }
 }
@@ -22,6 +22,7 @@ import uk.badamson.dbc.assertions.EqualsSemanticsVerifier;
 
 import java.time.Duration;
 import java.util.*;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -128,6 +129,24 @@ public class ValueHistoryTest {
                         ValueHistory::getTransitions));
     }
 
+    public static <VALUE> void assertSubHistoryInvariants(
+            final ValueHistory<VALUE> history, final Duration from, final Duration to,
+            final ValueHistory<VALUE> subHistory) {
+        assertThat("subHistory", subHistory, notNullValue());
+        assertInvariants(subHistory);
+        final var expectedTransitionTimes = history.getTransitionTimes().stream()
+                .filter(t -> from.compareTo(t) < 0 && (to == null || t.compareTo(to) < 0))
+                .collect(Collectors.toSet());
+        final var valueJustBeforeTo = to == null ? history.getLastValue() : history.get(to.minusNanos(1L));
+        assertAll("subHistory",
+                () -> assertThat("firstValue", subHistory.getFirstValue(), is(history.get(from))),
+                () -> assertThat("lastValue", subHistory.getLastValue(), is(valueJustBeforeTo)),
+                () -> assertThat("transitionTimes", subHistory.getTransitionTimes(), is(expectedTransitionTimes)),
+                () -> assertAll("values within range", history.getTransitionTimes().stream()
+                        .filter(t -> from.compareTo(t) <= 0 && (to == null || t.compareTo(to) < 0))
+                        .map(t -> () -> assertThat("at " + t, subHistory.get(t), is(history.get(t))))));
+    }
+
     public static <VALUE> Map<Duration, VALUE> getTransitionValues(final ValueHistory<VALUE> history) {
         return history.streamOfTransitions().collect(HashMap::new, (m, e) -> m.put(e.getKey(), e.getValue()),
                 HashMap::putAll);
@@ -0,0 +1,86 @@
+package uk.badamson.mc.simulation.actor;
+/*
+ * © Copyright Benedict Adamson 2022.
+ *
+ * This file is part of MC-des.
+ *
+ * MC-des is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC-des is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MC-des.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+public class ActorLoadTest {
+
+    public static void assertInvariants(@Nonnull final ActorLoad load) {
+        assertAll(
+                () -> assertThat("processingTime", load.getProcessingTime(), notNullValue()),
+                () -> assertThat("processingTime not negative", load.getProcessingTime().isNegative(), is(false)),
+                () -> assertThat("numberOfSignalsReceived", load.getNumberOfSignalsReceived(), greaterThanOrEqualTo(0L)),
+                () -> assertThat("numberOfEventsAdded", load.getNumberOfEventsAdded(), greaterThanOrEqualTo(0L)),
+                () -> assertThat("numberOfEventsRolledBack", load.getNumberOfEventsRolledBack(), greaterThanOrEqualTo(0L)));
+    }
+
+    @Test
+    public void constructor() {
+        final var load = new ActorLoad();
+
+        assertInvariants(load);
+        assertAll(
+                () -> assertThat("processingTime", load.getProcessingTime(), is(Duration.ZERO)),
+                () -> assertThat("numberOfSignalsReceived", load.getNumberOfSignalsReceived(), is(0L)),
+                () -> assertThat("numberOfEventsAdded", load.getNumberOfEventsAdded(), is(0L)),
+                () -> assertThat("numberOfEventsRolledBack", load.getNumberOfEventsRolledBack(), is(0L)));
+    }
+
+    @Test
+    public void recorded() {
+        final var load = new ActorLoad();
+
+        load.recordSignalReceived(1000L);
+        load.recordSignalReceived(500L);
+        load.recordEventAdded();
+        load.recordEventsRolledBack(3);
+
+        assertInvariants(load);
+        assertAll(
+                () -> assertThat("processingTime", load.getProcessingTime(), is(Duration.ofNanos(1500L))),
+                () -> assertThat("numberOfSignalsReceived", load.getNumberOfSignalsReceived(), is(2L)),
+                () -> assertThat("numberOfEventsAdded", load.getNumberOfEventsAdded(), is(1L)),
+                () -> assertThat("numberOfEventsRolledBack", load.getNumberOfEventsRolledBack(), is(3L)));
+    }
+
+    @Test
+    public void advancedActor() throws Exception {
+        final var actor = new Actor<>(Duration.ZERO, 0);
+        actor.addSignalToReceive(new SignalTest.StrobingTestSignal(Duration.ZERO, actor, actor, ActorTest.MEDIUM_A));
+        final var universe = new Universe<Integer>();
+        universe.add(actor);
+
+        universe.advanceTo(Duration.ofSeconds(10), Runnable::run).get();
+
+        final var load = actor.getLoad();
+        assertInvariants(load);
+        assertAll(
+                () -> assertThat("numberOfSignalsReceived", load.getNumberOfSignalsReceived(), greaterThan(0L)),
+                () -> assertThat("numberOfEventsAdded", load.getNumberOfEventsAdded(), is((long) actor.getNumberOfEvents())));
+    }
+}
@@ -34,7 +34,11 @@ import javax.annotation.concurrent.Immutable;
 import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Stream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -63,14 +67,19 @@ public class ActorTest {
         final var stateHistory = actor.getStateHistory();
         final var signalsToReceive = actor.getSignalsToReceive();
         final var whenReceiveNextSignal = actor.getWhenReceiveNextSignal();
+        final var summary = actor.getSummary();
+        final var numberOfSignalsToReceive = actor.getNumberOfSignalsToReceive();
 
         assertAll(() -> assertThat("events", events, notNullValue()),
                 () -> assertThat("start", start, notNullValue()),
                 () -> assertThat("stateHistory", stateHistory, notNullValue()),
                 () -> assertThat("signalsToReceive", signalsToReceive, notNullValue()),
-                () -> assertThat("whenReceiveNextSignal", whenReceiveNextSignal, notNullValue())
+                () -> assertThat("whenReceiveNextSignal", whenReceiveNextSignal, notNullValue()),
+                () -> assertThat("summary", summary, notNullValue()),
+                () -> assertThat("load", actor.getLoad(), notNullValue())
         );
         ValueHistoryTest.assertInvariants(stateHistory);
+        ActorLoadTest.assertInvariants(actor.getLoad());
 
         assertAll(() -> assertAll("events", createEventsAssertions(actor)),
                 () -> assertAll("signalsToReceive", createSignalsToReceiveAssertions(actor)),
@@ -83,12 +92,27 @@ public class ActorTest {
                 () -> assertAll("stateHistory",
                         () -> assertThat("firstTransitionTime", stateHistory.getFirstTransitionTime(), is(start)),
                         () -> assertThat("firstValue", stateHistory.getFirstValue(), nullValue()),
-                        () -> assertThat("empty", stateHistory.isEmpty(), is(false))
+                        () -> assertThat("empty", stateHistory.isEmpty(), is(false)),
+                        () -> assertThat("lastValue is the state of the last event, if there is a last event",
+                                lastEvent == null || stateHistory.getLastValue() == lastEvent.getState())
                 ),
+                () -> assertThat("state at start", actor.getState(start), is(stateHistory.get(start))),
                 () -> assertAll("whenReceiveNextSignal",
                         () -> assertThat("after start", whenReceiveNextSignal, greaterThan(start)),
                         () -> assertThat("NEVER_RECEIVED if no signals to receive", signalsToReceive.isEmpty() &&
                                 !Signal.NEVER_RECEIVED.equals(whenReceiveNextSignal), is(false))
+                ),
+                () -> assertThat("numberOfSignalsToReceive", numberOfSignalsToReceive, is(signalsToReceive.size())),
+                () -> assertThat("numberOfEvents", actor.getNumberOfEvents(), is(events.size())),
+                () -> assertAll("summary",
+                        () -> assertThat("start", summary.getStart(), is(start)),
+                        () -> assertThat("numberOfSignalsToReceive", summary.getNumberOfSignalsToReceive(),
+                                is(numberOfSignalsToReceive)),
+                        () -> assertThat("whenReceiveNextSignal", summary.getWhenReceiveNextSignal(),
+                                anyOf(nullValue(), is(whenReceiveNextSignal))),
+                        () -> assertThat("numberOfEvents", summary.getNumberOfEvents(), is(events.size())),
+                        () -> assertThat("whenLastEvent", summary.getWhenLastEvent(),
+                                is(lastEvent == null ? null : lastEvent.getWhen()))
                 )
         );
     }
@@ -545,6 +569,74 @@ public class ActorTest {
         }
     }
 
+    /**
+     * Records whether the lock of the receiver was held while the methods of the signal were called.
+     */
+    static final class LockCheckingSignal extends Signal<Integer> {
+
+        private final AtomicBoolean calledWhileLocked = new AtomicBoolean(false);
+
+        LockCheckingSignal(@Nonnull final Duration whenSent, @Nonnull final Actor<Integer> receiver) {
+            super(whenSent, null, receiver, MEDIUM_A);
+        }
+
+        boolean isCalledWhileLocked() {
+            return calledWhileLocked.get();
+        }
+
+        private void recordLocking() {
+            if (Thread.holdsLock(getReceiver().lock)) {
+                calledWhileLocked.set(true);
+            }
+        }
+
+        @Nonnull
+        @Override
+        protected Duration getPropagationDelay(@Nonnull final Integer receiverState) {
+            recordLocking();
+            return Duration.ofSeconds(1);
+        }
+
+        @Nonnull
+        @Override
+        protected Event<Integer> receive(@Nonnull final Duration when, @Nonnull final Integer receiverState) {
+            recordLocking();
+            return new Event<>(this, when, receiverState + 1, Set.of(), Set.of());
+        }
+    }
+
+    /**
+     * Runs a given operation the next time its propagation delay is computed.
+     */
+    static final class HookedSignal extends Signal<Integer> {
+
+        private final AtomicReference<Runnable> hook = new AtomicReference<>();
+
+        HookedSignal(@Nonnull final Duration whenSent, @Nonnull final Actor<Integer> receiver) {
+            super(whenSent, null, receiver, MEDIUM_A);
+        }
+
+        void setHook(@Nonnull final Runnable hook) {
+            this.hook.set(hook);
+        }
+
+        @Nonnull
+        @Override
+        protected Duration getPropagationDelay(@Nonnull final Integer receiverState) {
+            final Runnable operation = hook.getAndSet(null);
+            if (operation != null) {
+                operation.run();
+            }
+            return Duration.ofSeconds(1);
+        }
+
+        @Nonnull
+        @Override
+        protected Event<Integer> receive(@Nonnull final Duration when, @Nonnull final Integer receiverState) {
+            return new Event<>(this, when, receiverState + 1, Set.of(), Set.of());
+        }
+    }
+
     @Nested
     public class Constructor {
 
@@ -563,6 +655,40 @@ public class ActorTest {
 
         }
 
+        @Nested
+        public class RandomSeed {
+
+            @Test
+            public void a() {
+                test(WHEN_A, 0, 0L);
+            }
+
+            @Test
+            public void b() {
+                test(WHEN_B, 1, 17L);
+            }
+
+            @Test
+            public void defaultSeedsDiffer() {
+                final var actorA = new Actor<>(WHEN_A, 0);
+                final var actorB = new Actor<>(WHEN_A, 0);
+
+                assertThat(actorA.getRandomSeed(), not(actorB.getRandomSeed()));
+            }
+
+            private <STATE> void test(@Nonnull final Duration start, @Nonnull final STATE state, final long randomSeed) {
+                final var actor = new Actor<>(start, state, randomSeed);
+
+                assertInvariants(actor);
+                assertAll(
+                        () -> assertThat("start", actor.getStart(), sameInstance(start)),
+                        () -> assertThat("stateTransitions", actor.getStateHistory().getTransitions(),
+                                is(Map.of(start, state))),
+                        () -> assertThat("randomSeed", actor.getRandomSeed(), is(randomSeed)),
+                        () -> assertThat("events", actor.getEvents(), empty()));
+            }
+        }
+
     }
 
     @Nested
@@ -593,6 +719,24 @@ public class ActorTest {
 
         }
 
+        @Test
+        public void summary() {
+            final var sender = new Actor<>(WHEN_A, 0);
+            final var receiver = new Actor<>(WHEN_A, 0);
+            final long version0 = receiver.getSummary().getVersion();
+            final Signal<Integer> signal = new SignalTest.SimpleTestSignal(WHEN_B, sender, receiver, MEDIUM_A);
+
+            receiver.addSignalToReceive(signal);
+            receiver.addSignalToReceive(signal);
+
+            assertInvariants(receiver);
+            final var summary = receiver.getSummary();
+            assertAll(() -> assertThat("version", summary.getVersion(), greaterThan(version0)),
+                    () -> assertThat("numberOfSignalsToReceive", summary.getNumberOfSignalsToReceive(), is(1)),
+                    () -> assertThat("whenReceiveNextSignal", summary.getWhenReceiveNextSignal(),
+                            is(signal.getWhenReceived(0))));
+        }
+
         @Nested
         public class AlreadyReceived {
 
@@ -698,6 +842,20 @@ public class ActorTest {
             }
         }
 
+        @Test
+        public void signalMethodsCalledWithoutLock() {
+            final var receiver = new Actor<>(WHEN_A, 0);
+            final var signal = new LockCheckingSignal(WHEN_B, receiver);
+            receiver.addSignalToReceive(signal);
+
+            final var affectedActors = receiveSignal(receiver);
+
+            assertThat("events", receiver.getEvents(), hasSize(1));
+            assertThat(affectedActors.getChanged(), contains(receiver));
+            assertThat("Signal methods called while the receiver lock was held",
+                    signal.isCalledWhileLocked(), is(false));
+        }
+
         @Nested
         public class Invalidating {
 
@@ -763,6 +921,64 @@ public class ActorTest {
             }
         }
 
+        @Nested
+        public class RollingBack {
+
+            @Test
+            public void stateSaving() {
+                final var sender = new Actor<>(WHEN_A, 0);
+                final var receiver = new Actor<>(WHEN_A, 0);
+                final Signal<Integer> signal1 = new SignalTest.SimpleTestSignal(WHEN_B, sender, receiver, MEDIUM_A);
+                final Signal<Integer> signal2 = new SignalTest.SimpleTestSignal(WHEN_C, sender, receiver, MEDIUM_A);
+
+                test(receiver, signal1, signal2);
+            }
+
+            @Test
+            public void forked() {
+                final var actor = new Actor<>(WHEN_A, 0);
+                actor.addSignalToReceive(new SignalTest.SimpleTestSignal(WHEN_A, null, actor, MEDIUM_A));
+                actor.receiveSignal();
+                final var stateAtFork = actor.getStateHistory().getLastValue();
+                final var fork = actor.forkWithoutSignals(actor.getRandomSeed());
+                fork.addSignalToReceive(new SignalTest.SimpleTestSignal(WHEN_C, null, fork, MEDIUM_A));
+                fork.receiveSignal();
+                final var whenEvent = fork.getEvents().last().getWhen();
+
+                final boolean rolledBack = fork.cancelBackLastEvent(WHEN_A, new AffectedActorsAccumulator<>());
+
+                assertInvariants(fork);
+                final var stateHistory = fork.getStateHistory();
+                assertAll(
+                        () -> assertThat("rolled back", rolledBack, is(true)),
+                        () -> assertThat("events", fork.getEvents(), empty()),
+                        () -> assertThat("state of the original actor before the rolled back event",
+                                stateHistory.get(whenEvent), is(stateAtFork)),
+                        () -> assertThat("lastValue", stateHistory.getLastValue(), is(stateAtFork)));
+            }
+
+            private void test(
+                    @Nonnull final Actor<Integer> receiver,
+                    @Nonnull final Signal<Integer> signal1, @Nonnull final Signal<Integer> signal2) {
+                receiver.addSignalToReceive(signal2);
+                receiver.receiveSignal();
+                receiver.addSignalToReceive(signal1);
+
+                receiveSignal(receiver);
+
+                final var events = receiver.getEvents();
+                final var stateHistory = receiver.getStateHistory();
+                assertThat("events", events, hasSize(1));
+                final var event1 = events.first();
+                assertAll(
+                        () -> assertThat("event 1 resulted from receiving signal 1", event1.getCausingSignal(),
+                                sameInstance(signal1)),
+                        () -> assertThat("Rolled back state", stateHistory.getLastValue(), is(event1.getState())),
+                        () -> assertThat("No stale states", stateHistory.getTransitionTimes(),
+                                contains(receiver.getStart(), event1.getWhen())));
+            }
+        }
+
         @Nested
         public class InvalidatingEmittedSignal {
 
@@ -804,6 +1020,165 @@ public class ActorTest {
             }
         }
 
+        @Nested
+        public class InvalidatingReceivedEmittedSignal {
+
+            @Test
+            public void a() {
+                final var actor1 = new Actor<>(WHEN_A, 0);
+                final var actor2 = new Actor<>(WHEN_A, 0);
+                final Signal<Integer> signal1 = new SignalTest.EchoingTestSignal(WHEN_B, actor2, actor1, MEDIUM_A);
+                final Signal<Integer> straggler = new SignalTest.SimpleTestSignal(WHEN_A, null, actor1, MEDIUM_B);
+                actor1.addSignalToReceive(signal1);
+                actor1.receiveSignal();
+                final var echo = actor1.getEvents().first().getSignalsEmitted().iterator().next();
+                actor2.receiveSignal();
+                actor1.addSignalToReceive(straggler);
+
+                receiveSignal(actor1);
+
+                assertInvariants(actor2);
+                assertAll(
+                        () -> assertThat("actor 1 received the straggler", actor1.getEvents().first().getCausingSignal(),
+                                sameInstance(straggler)),
+                        () -> assertThat("actor 1 signals to receive", actor1.getSignalsToReceive(), contains(signal1)),
+                        () -> assertThat("actor 2 events", actor2.getEvents(), empty()),
+                        () -> assertThat("actor 2 will not receive the invalidated signal",
+                                actor2.getSignalsToReceive(), not(hasItem(echo))));
+            }
+        }
+
+        @Nested
+        public class EmittingMulticast {
+
+            @Test
+            public void one() {
+                test(1);
+            }
+
+            @Test
+            public void severalBatches() {
+                test(Actor.MULTICAST_BATCH_SIZE * 2 + 1);
+            }
+
+            @Test
+            public void rollBack() {
+                final var sender = new Actor<>(WHEN_A, 0);
+                final Set<Actor<Integer>> listeners = createListeners(Actor.MULTICAST_BATCH_SIZE + 1);
+                final Signal<Integer> signal = new SignalTest.MulticastingTestSignal(WHEN_B, null, sender, MEDIUM_A, listeners);
+                final Signal<Integer> straggler = new SignalTest.SimpleTestSignal(WHEN_A, null, sender, MEDIUM_B);
+                sender.addSignalToReceive(signal);
+                sender.receiveSignal();
+                sender.addSignalToReceive(straggler);
+
+                receiveSignal(sender);
+
+                assertAll(
+                        () -> assertThat("sender received the straggler", sender.getEvents().first().getCausingSignal(),
+                                sameInstance(straggler)),
+                        () -> assertThat("sender signals to receive", sender.getSignalsToReceive(), contains(signal)));
+                assertAll("listeners no longer have signals to receive", listeners.stream().map(listener -> () -> {
+                    assertInvariants(listener);
+                    assertThat(listener.getSignalsToReceive(), empty());
+                }));
+            }
+
+            @Test
+            public void whileDelivering() throws Exception {
+                final var sender = new Actor<>(WHEN_A, 0);
+                final var listener = new Actor<>(WHEN_A, 0);
+                final Signal<Integer> signal = new SignalTest.MulticastingTestSignal(WHEN_A, null, sender, MEDIUM_A, Set.of(listener));
+                sender.addSignalToReceive(signal);
+                final Future<?> future;
+                final Actor.Summary summaryWhileDelivering;
+                synchronized (listener.lock) {
+                    future = ForkJoinPool.commonPool().submit(sender::receiveSignal);
+                    Actor.Summary summary;
+                    do {
+                        Thread.onSpinWait();
+                        summary = sender.getSummary();
+                    } while (summary.getNumberOfEvents() == 0);
+                    summaryWhileDelivering = summary;
+                }
+                future.get(10, TimeUnit.SECONDS);
+
+                assertInvariants(sender);
+                assertInvariants(listener);
+                assertAll(
+                        () -> assertThat("undelivered while delivering",
+                                summaryWhileDelivering.getWhenUndeliveredMulticasts(),
+                                is(summaryWhileDelivering.getWhenLastEvent())),
+                        () -> assertThat("undelivered after delivering",
+                                sender.getSummary().getWhenUndeliveredMulticasts(), nullValue()),
+                        () -> assertThat("listener signals to receive", listener.getSignalsToReceive(), hasSize(1)));
+            }
+
+            private void test(final int nListeners) {
+                final var sender = new Actor<>(WHEN_A, 0);
+                final Set<Actor<Integer>> listeners = createListeners(nListeners);
+                final Signal<Integer> signal = new SignalTest.MulticastingTestSignal(WHEN_A, null, sender, MEDIUM_A, listeners);
+                sender.addSignalToReceive(signal);
+
+                final var affectedActors = receiveSignal(sender);
+
+                final var event = sender.getLastEvent();
+                assertThat("event", event, notNullValue());
+                final var multicasts = event.getMulticastsEmitted();
+                assertThat("multicastsEmitted", multicasts, hasSize(1));
+                final var multicast = multicasts.iterator().next();
+                assertAll(
+                        () -> assertThat("changed", affectedActors.getChanged(), hasItem(sender)),
+                        () -> assertThat("changed", affectedActors.getChanged().containsAll(listeners), is(true)),
+                        () -> assertThat("undelivered", sender.getSummary().getWhenUndeliveredMulticasts(), nullValue()));
+                assertAll("listeners", multicast.getSignals().stream().map(emitted -> () -> {
+                    final var listener = emitted.getReceiver();
+                    assertInvariants(listener);
+                    assertThat(listener.getSignalsToReceive(), contains(emitted));
+                }));
+            }
+
+            @Nonnull
+            private Set<Actor<Integer>> createListeners(final int nListeners) {
+                final Set<Actor<Integer>> listeners = new HashSet<>();
+                for (int l = 0; l < nListeners; ++l) {
+                    listeners.add(new Actor<>(WHEN_A, 0));
+                }
+                return listeners;
+            }
+        }
+
+        @Nested
+        public class InvalidatingRelayedSignal {
+
+            @Test
+            public void a() {
+                final var actor1 = new Actor<>(WHEN_A, 0);
+                final var actor2 = new Actor<>(WHEN_A, 0);
+                final var actor3 = new Actor<>(WHEN_A, 0);
+                final Signal<Integer> signal1 = new SignalTest.RelayingTestSignal(WHEN_B, null, actor1, MEDIUM_A,
+                        List.of(actor2, actor3));
+                final Signal<Integer> straggler = new SignalTest.SimpleTestSignal(WHEN_A, null, actor1, MEDIUM_B);
+                actor1.addSignalToReceive(signal1);
+                actor1.receiveSignal();
+                actor2.receiveSignal();
+                actor3.receiveSignal();
+                actor1.addSignalToReceive(straggler);
+
+                final var affectedActors = receiveSignal(actor1);
+
+                assertInvariants(actor2);
+                assertInvariants(actor3);
+                assertAll(
+                        () -> assertThat("actor 1 received the straggler", actor1.getEvents().first().getCausingSignal(),
+                                sameInstance(straggler)),
+                        () -> assertThat("actor 2 events", actor2.getEvents(), empty()),
+                        () -> assertThat("actor 3 events", actor3.getEvents(), empty()),
+                        () -> assertThat("actor 3 signals to receive", actor3.getSignalsToReceive(), empty()),
+                        () -> assertThat("changed", affectedActors.getChanged(),
+                                containsInAnyOrder(actor1, actor2, actor3)));
+            }
+        }
+
         @Nested
         public class InvalidatingCreatedActor {
 
@@ -1040,4 +1415,132 @@ public class ActorTest {
 
     }
 
+    @Nested
+    public class AddEventObserver {
+
+        @Test
+        public void existingEvent() {
+            final var actor = new Actor<>(WHEN_A, 0);
+            final Signal<Integer> signal = new SignalTest.SimpleTestSignal(WHEN_A, actor, actor, MEDIUM_A);
+            actor.addSignalToReceive(signal);
+            actor.receiveSignal();
+            final var event = actor.getLastEvent();
+            final var observer = new RecordingEventObserver();
+
+            addEventObserver(actor, observer);
+
+            assertThat(observer.getRecords(), contains(List.of(true, event, WHEN_A, 0)));
+        }
+
+        @Test
+        public void twice() {
+            final var actor = new Actor<>(WHEN_A, 0);
+            final Signal<Integer> signal = new SignalTest.SimpleTestSignal(WHEN_A, actor, actor, MEDIUM_A);
+            actor.addSignalToReceive(signal);
+            actor.receiveSignal();
+            final var observer = new RecordingEventObserver();
+            actor.addEventObserver(observer);
+
+            addEventObserver(actor, observer);
+
+            assertThat(observer.getRecords(), hasSize(1));
+        }
+
+        @Test
+        public void rollingBack() {
+            final var sender = new Actor<>(WHEN_A, 0);
+            final var receiver = new Actor<>(WHEN_A, 0);
+            final Signal<Integer> signal1 = new SignalTest.SimpleTestSignal(WHEN_B, sender, receiver, MEDIUM_A);
+            final Signal<Integer> signal2 = new SignalTest.SimpleTestSignal(WHEN_C, sender, receiver, MEDIUM_A);
+            final var observer = new RecordingEventObserver();
+            addEventObserver(receiver, observer);
+            receiver.addSignalToReceive(signal2);
+            receiver.receiveSignal();
+            final var event2 = receiver.getLastEvent();
+            receiver.addSignalToReceive(signal1);
+
+            receiveSignal(receiver);
+
+            final var event1 = receiver.getLastEvent();
+            assertThat(observer.getRecords(), contains(
+                    List.of(true, event2, WHEN_A, 0),
+                    List.of(false, event2, WHEN_A, 0),
+                    List.of(true, event1, WHEN_A, 0)));
+        }
+
+        private void addEventObserver(
+                @Nonnull final Actor<Integer> actor, @Nonnull final EventObserver<Integer> observer) {
+            actor.addEventObserver(observer);
+
+            assertInvariants(actor);
+        }
+    }
+
+    static final class RecordingEventObserver implements EventObserver<Integer> {
+
+        private final List<List<Object>> records = new ArrayList<>();
+
+        @Override
+        public synchronized void eventAppended(
+                @Nonnull final Event<Integer> event, @Nonnull final Duration previousWhen, @Nonnull final Integer previousState) {
+            records.add(List.of(true, event, previousWhen, previousState));
+        }
+
+        @Override
+        public synchronized void eventRemoved(
+                @Nonnull final Event<Integer> event, @Nonnull final Duration previousWhen, @Nonnull final Integer previousState) {
+            records.add(List.of(false, event, previousWhen, previousState));
+        }
+
+        synchronized List<List<Object>> getRecords() {
+            return new ArrayList<>(records);
+        }
+    }
+
+    @Nested
+    public class AdvanceSeveralActors {
+
+        @Test
+        public void longChain() throws Exception {
+            final var actor = new Actor<>(WHEN_A, 0);
+            actor.addSignalToReceive(new SignalTest.StrobingTestSignal(WHEN_A, actor, actor, MEDIUM_A));
+            final Duration until = Duration.ofSeconds(50_000_000);
+
+            final var future = Actor.advanceSeveralActors(
+                    () -> until, List.of(actor), ForkJoinPool.commonPool(), EventBudget.unlimited(),
+                    new CommitTracker());
+
+            future.get(10, TimeUnit.SECONDS);
+            assertInvariants(actor);
+            assertAll(
+                    () -> assertThat("number of events", actor.getNumberOfEvents(), greaterThan(1000)),
+                    () -> assertThat("whenReceiveNextSignal",
+                            actor.getWhenReceiveNextSignal(), greaterThanOrEqualTo(until)));
+        }
+
+        @Test
+        public void nextSignalChangedConcurrently() {
+            final var sender = new Actor<>(WHEN_A, 0);
+            final var receiver = new Actor<>(WHEN_A, 0);
+            final var lateSignal = new HookedSignal(WHEN_B, receiver);
+            receiver.addSignalToReceive(lateSignal);
+            receiver.receiveSignal();
+            sender.addSignalToReceive(new SignalTest.EchoingTestSignal(WHEN_A, receiver, sender, MEDIUM_A));
+            sender.receiveSignal();
+            final Duration until = WHEN_B.minusSeconds(1);
+            assert receiver.getWhenReceiveNextSignal().compareTo(until) < 0;
+            // Invalidates the echo to the receiver while the receiver is rolling back the late signal.
+            lateSignal.setHook(() -> sender.cancelBackLastEvent(WHEN_A, new AffectedActorsAccumulator<>()));
+
+            Actor.advanceSeveralActors(() -> until, List.of(receiver), Runnable::run, EventBudget.unlimited(),
+                    new CommitTracker()).join();
+
+            assertInvariants(receiver);
+            assertAll(
+                    () -> assertThat("receiver events", receiver.getEvents(), empty()),
+                    () -> assertThat("receiver whenReceiveNextSignal",
+                            receiver.getWhenReceiveNextSignal(), greaterThanOrEqualTo(until)));
+        }
+    }
+
 }
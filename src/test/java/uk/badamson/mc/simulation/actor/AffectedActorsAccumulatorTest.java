@@ -0,0 +1,125 @@
+package uk.badamson.mc.simulation.actor;
+/*
+ * © Copyright Benedict Adamson 2022.
+ *
+ * This file is part of MC-des.
+ *
+ * MC-des is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC-des is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MC-des.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nonnull;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+public class AffectedActorsAccumulatorTest {
+
+    private static <STATE> Actor.AffectedActors<STATE> toAffectedActors(
+            @Nonnull final AffectedActorsAccumulator<STATE> accumulator) {
+        final Actor.AffectedActors<STATE> affectedActors = accumulator.toAffectedActors();
+        ActorTest.AffectedActorsTest.assertInvariants(affectedActors);
+        assertThat("empty", accumulator.isEmpty(), is(affectedActors.isEmpty()));
+        return affectedActors;
+    }
+
+    private static <STATE> void add(
+            @Nonnull final Actor.AffectedActors<STATE> affectedA,
+            @Nonnull final Actor.AffectedActors<STATE> affectedB) {
+        final var accumulatorAB = new AffectedActorsAccumulator<STATE>();
+        accumulatorAB.add(affectedA);
+        accumulatorAB.add(affectedB);
+        final var accumulatorB = new AffectedActorsAccumulator<STATE>();
+        accumulatorB.add(affectedB);
+        final var accumulatorBA = new AffectedActorsAccumulator<STATE>();
+        accumulatorBA.add(affectedA);
+        accumulatorBA.add(accumulatorB);
+
+        final var expected = affectedA.plus(affectedB);
+        assertAll("Same as plus",
+                () -> assertThat("AB", toAffectedActors(accumulatorAB), is(expected)),
+                () -> assertThat("A then accumulated B", toAffectedActors(accumulatorBA), is(expected)));
+    }
+
+    @Test
+    public void constructor() {
+        final var accumulator = new AffectedActorsAccumulator<Integer>();
+
+        assertThat(toAffectedActors(accumulator), is(Actor.AffectedActors.emptyInstance()));
+    }
+
+    @Test
+    public void addChanged() {
+        final var actor = new Actor<>(ActorTest.WHEN_A, 0);
+        final var accumulator = new AffectedActorsAccumulator<Integer>();
+
+        accumulator.addChanged(actor);
+
+        assertThat(toAffectedActors(accumulator), is(new Actor.AffectedActors<>(Set.of(actor), Set.of(), Set.of())));
+        assertThat("changedOrAdded", accumulator.getChangedOrAdded(), is(Set.of(actor)));
+    }
+
+    @Nested
+    public class Add {
+
+        private final Actor<Integer> actorA = new Actor<>(ActorTest.WHEN_A, 0);
+        private final Actor<Integer> actorB = new Actor<>(ActorTest.WHEN_A, 1);
+
+        @Test
+        public void empty() {
+            add(Actor.AffectedActors.emptyInstance(), Actor.AffectedActors.emptyInstance());
+        }
+
+        @Test
+        public void changedDisjoint() {
+            add(new Actor.AffectedActors<>(Set.of(actorA), Set.of(), Set.of()),
+                    new Actor.AffectedActors<>(Set.of(actorB), Set.of(), Set.of()));
+        }
+
+        @Test
+        public void changedThenAdded() {
+            add(new Actor.AffectedActors<>(Set.of(actorA), Set.of(), Set.of()),
+                    new Actor.AffectedActors<>(Set.of(), Set.of(actorA), Set.of()));
+        }
+
+        @Test
+        public void addedThenChanged() {
+            add(new Actor.AffectedActors<>(Set.of(), Set.of(actorA), Set.of()),
+                    new Actor.AffectedActors<>(Set.of(actorA, actorB), Set.of(), Set.of()));
+        }
+
+        @Test
+        public void addedThenRemoved() {
+            add(new Actor.AffectedActors<>(Set.of(actorB), Set.of(actorA), Set.of()),
+                    new Actor.AffectedActors<>(Set.of(), Set.of(), Set.of(actorA)));
+        }
+
+        @Test
+        public void removedThenAdded() {
+            add(new Actor.AffectedActors<>(Set.of(), Set.of(), Set.of(actorA)),
+                    new Actor.AffectedActors<>(Set.of(actorB), Set.of(actorA), Set.of()));
+        }
+
+        @Test
+        public void changedThenRemoved() {
+            add(new Actor.AffectedActors<>(Set.of(actorA, actorB), Set.of(), Set.of()),
+                    new Actor.AffectedActors<>(Set.of(), Set.of(), Set.of(actorA)));
+        }
+    }
+}
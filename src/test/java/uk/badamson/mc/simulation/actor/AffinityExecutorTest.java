@@ -0,0 +1,435 @@
+package uk.badamson.mc.simulation.actor;
+/*
+ * © Copyright Benedict Adamson 2022.
+ *
+ * This file is part of MC-des.
+ *
+ * MC-des is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC-des is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MC-des.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class AffinityExecutorTest {
+
+    private static final Duration WHEN_A = Duration.ofSeconds(0);
+
+    private static final Duration WHEN_B = Duration.ofSeconds(30);
+
+    private static final long TIMEOUT_SECONDS = 10L;
+
+    public static void assertInvariants(@Nonnull final AffinityExecutor executor) {
+        assertAll(
+                () -> assertThat("numberOfWorkers", executor.getNumberOfWorkers(), greaterThan(0)),
+                () -> assertThat("numberOfLocalSubmissions", executor.getNumberOfLocalSubmissions(), greaterThanOrEqualTo(0L)),
+                () -> assertThat("numberOfRemoteSubmissions", executor.getNumberOfRemoteSubmissions(), greaterThanOrEqualTo(0L)),
+                () -> assertThat("numberOfMigrations", executor.getNumberOfMigrations(), greaterThanOrEqualTo(0L)));
+    }
+
+    public static void assertInvariants(@Nonnull final AffinityExecutor.Rebalancing rebalancing) {
+        assertAll(
+                () -> assertThat("interval", rebalancing.getInterval(), notNullValue()),
+                () -> assertThat("numberOfActors", rebalancing.getNumberOfActors(), greaterThanOrEqualTo(0)),
+                () -> assertThat("numberOfMigrations", rebalancing.getNumberOfMigrations(), allOf(
+                        greaterThanOrEqualTo(0), lessThanOrEqualTo(rebalancing.getNumberOfActors()))),
+                () -> assertThat("eventsPerSecond", rebalancing.getEventsPerSecond(), greaterThanOrEqualTo(0.0)),
+                () -> assertThat("loadImbalanceBefore", rebalancing.getLoadImbalanceBefore(), greaterThanOrEqualTo(0.0)),
+                () -> assertThat("loadImbalanceAfter", rebalancing.getLoadImbalanceAfter(), greaterThanOrEqualTo(-1.0E-9)),
+                () -> assertThat("rollbackImbalanceBefore", rebalancing.getRollbackImbalanceBefore(), greaterThanOrEqualTo(0.0)),
+                () -> assertThat("rollbackImbalanceAfter", rebalancing.getRollbackImbalanceAfter(), greaterThanOrEqualTo(-1.0E-9)));
+    }
+
+    private static void shutdown(@Nonnull final AffinityExecutor executor) throws InterruptedException {
+        executor.shutdown();
+
+        assertInvariants(executor);
+        assertThat("shutdown", executor.isShutdown(), is(true));
+        assertThat("terminated", executor.awaitTermination(TIMEOUT_SECONDS, TimeUnit.SECONDS), is(true));
+    }
+
+    @Nonnull
+    private static Universe<Integer> createStrobingUniverse(final int nActors) {
+        final var universe = new Universe<Integer>();
+        for (int a = 0; a < nActors; ++a) {
+            final var actor = new Actor<>(WHEN_A, a);
+            actor.addSignalToReceive(new SignalTest.StrobingTestSignal(WHEN_A, actor, actor, ActorTest.MEDIUM_A));
+            universe.add(actor);
+        }
+        return universe;
+    }
+
+    @Nested
+    public class Constructor {
+
+        @Test
+        public void one() throws Exception {
+            test(1);
+        }
+
+        @Test
+        public void several() throws Exception {
+            test(4);
+        }
+
+        @Test
+        public void zero() {
+            assertThrows(IllegalArgumentException.class, () -> new AffinityExecutor(0));
+        }
+
+        private void test(final int numberOfWorkers) throws Exception {
+            final var executor = new AffinityExecutor(numberOfWorkers);
+            try {
+                assertInvariants(executor);
+                assertAll(
+                        () -> assertThat("numberOfWorkers", executor.getNumberOfWorkers(), is(numberOfWorkers)),
+                        () -> assertThat("shutdown", executor.isShutdown(), is(false)),
+                        () -> assertThat("numberOfMigrations", executor.getNumberOfMigrations(), is(0L)));
+            } finally {
+                shutdown(executor);
+            }
+        }
+    }
+
+    @Nested
+    public class Execute {
+
+        @Test
+        public void task() throws Exception {
+            final var executor = new AffinityExecutor(2);
+            try {
+                final var done = new CountDownLatch(1);
+
+                executor.execute(done::countDown);
+
+                assertThat("done", done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS), is(true));
+                assertInvariants(executor);
+            } finally {
+                shutdown(executor);
+            }
+        }
+
+        @Test
+        public void sameActor() throws Exception {
+            final var executor = new AffinityExecutor(4);
+            try {
+                final var actor = new Actor<>(WHEN_A, 0);
+                final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+                for (int i = 0; i < 8; ++i) {
+                    final var done = new CountDownLatch(1);
+                    executor.execute(actor, () -> {
+                        threads.add(Thread.currentThread());
+                        done.countDown();
+                    });
+                    assertThat("done", done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS), is(true));
+                }
+
+                assertInvariants(executor);
+                assertThat("threads", threads, hasSize(1));
+                assertThat("homeWorker", executor.getHomeWorker(actor), allOf(
+                        greaterThanOrEqualTo(0), lessThan(executor.getNumberOfWorkers())));
+            } finally {
+                shutdown(executor);
+            }
+        }
+
+        @Test
+        public void local() throws Exception {
+            final var executor = new AffinityExecutor(2);
+            try {
+                final var actor1 = new Actor<>(WHEN_A, 1);
+                final var actor2 = new Actor<>(WHEN_A, 2);
+                final var done = new CountDownLatch(1);
+
+                executor.execute(actor1, () -> executor.execute(actor2, done::countDown));
+
+                assertThat("done", done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS), is(true));
+                assertInvariants(executor);
+                assertAll(
+                        () -> assertThat("numberOfLocalSubmissions", executor.getNumberOfLocalSubmissions(), is(1L)),
+                        () -> assertThat("same home", executor.getHomeWorker(actor2), is(executor.getHomeWorker(actor1))));
+            } finally {
+                shutdown(executor);
+            }
+        }
+
+        @Test
+        public void migrates() throws Exception {
+            final var executor = new AffinityExecutor(2);
+            try {
+                final var blocker = new Actor<>(WHEN_A, 0);
+                executor.execute(blocker, () -> {
+                });
+                final int busyWorker = executor.getHomeWorker(blocker);
+                final var release = new CountDownLatch(1);
+                executor.execute(blocker, () -> {
+                    try {
+                        release.await();
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                final int nActors = 2 * AffinityExecutor.MIGRATION_THRESHOLD;
+                // Tasks left when the queue is shorter than the threshold wait for the busy worker.
+                final var done = new CountDownLatch(nActors - AffinityExecutor.MIGRATION_THRESHOLD + 1);
+                for (int a = 1; a <= nActors; ++a) {
+                    final var actor = new Actor<>(WHEN_A, a);
+                    executor.setHomeWorker(actor, busyWorker);
+                    executor.execute(actor, done::countDown);
+                }
+
+                final boolean doneWhileBlocked = done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                release.countDown();
+
+                assertInvariants(executor);
+                assertThat("done while busy worker blocked", doneWhileBlocked, is(true));
+                assertThat("numberOfMigrations", executor.getNumberOfMigrations(), greaterThan(0L));
+            } finally {
+                shutdown(executor);
+            }
+        }
+
+        @Test
+        public void afterShutdown() throws Exception {
+            final var executor = new AffinityExecutor(1);
+            shutdown(executor);
+
+            assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> {
+            }));
+        }
+    }
+
+    @Nested
+    public class AdvanceUniverse {
+
+        @Test
+        public void sameAsDirect() throws Exception {
+            final var expectedUniverse = createStrobingUniverse(16);
+            final var universe = createStrobingUniverse(16);
+            expectedUniverse.advanceTo(WHEN_B, Runnable::run).get();
+            final var executor = new AffinityExecutor(4);
+            try {
+
+                universe.advanceTo(WHEN_B, executor).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+                assertInvariants(executor);
+                UniverseTest.assertInvariants(universe);
+                assertThat("numberOfEvents", universe.getNumberOfEvents(), is(expectedUniverse.getNumberOfEvents()));
+                for (final var actor : universe) {
+                    assertThat(actor.getWhenReceiveNextSignal(), greaterThanOrEqualTo(WHEN_B));
+                    assertThat("homeWorker", executor.getHomeWorker(actor), greaterThanOrEqualTo(0));
+                }
+                assertThat("numberOfLocalSubmissions", executor.getNumberOfLocalSubmissions(), greaterThan(0L));
+                for (final var actor : universe) {
+                    assertThat("signals received", actor.getLoad().getNumberOfSignalsReceived(), greaterThan(0L));
+                }
+            } finally {
+                shutdown(executor);
+            }
+        }
+    }
+
+    @Nested
+    public class ComputeImbalance {
+
+        @Test
+        public void balanced() {
+            assertThat(AffinityExecutor.computeImbalance(new double[]{2.0, 2.0}), closeTo(0.0, 1.0E-9));
+        }
+
+        @Test
+        public void noLoad() {
+            assertThat(AffinityExecutor.computeImbalance(new double[]{0.0, 0.0}), is(0.0));
+        }
+
+        @Test
+        public void allOnOne() {
+            assertThat(AffinityExecutor.computeImbalance(new double[]{0.0, 4.0, 0.0, 0.0}), closeTo(3.0, 1.0E-9));
+        }
+    }
+
+    @Nested
+    public class Rebalance {
+
+        @Test
+        public void noActors() throws Exception {
+            final var executor = new AffinityExecutor(2);
+            try {
+                final var rebalancing = rebalance(executor, List.of());
+
+                assertThat("numberOfActors", rebalancing.getNumberOfActors(), is(0));
+            } finally {
+                shutdown(executor);
+            }
+        }
+
+        @Test
+        public void processingOnOneWorker() throws Exception {
+            final var executor = new AffinityExecutor(2);
+            try {
+                final List<Actor<Integer>> actors = createActorsHomedAt(executor, 4, 0);
+                for (final var actor : actors) {
+                    actor.getLoad().recordSignalReceived(1000L);
+                }
+
+                final var rebalancing = rebalance(executor, actors);
+
+                assertAll(
+                        () -> assertThat("numberOfActors", rebalancing.getNumberOfActors(), is(4)),
+                        () -> assertThat("numberOfMigrations", rebalancing.getNumberOfMigrations(), is(2)),
+                        () -> assertThat("loadImbalanceBefore", rebalancing.getLoadImbalanceBefore(), closeTo(1.0, 1.0E-9)),
+                        () -> assertThat("loadImbalanceAfter", rebalancing.getLoadImbalanceAfter(), closeTo(0.0, 1.0E-9)),
+                        () -> assertThat("executor.numberOfMigrations", executor.getNumberOfMigrations(), is(2L)),
+                        () -> assertThat("homes", actors.stream().filter(a -> executor.getHomeWorker(a) == 1).count(), is(2L)));
+            } finally {
+                shutdown(executor);
+            }
+        }
+
+        @Test
+        public void rollbacksOnOneWorker() throws Exception {
+            final var executor = new AffinityExecutor(2);
+            try {
+                final List<Actor<Integer>> actors = createActorsHomedAt(executor, 2, 0);
+                actors.addAll(createActorsHomedAt(executor, 2, 1));
+                for (final var actor : actors) {
+                    actor.getLoad().recordSignalReceived(1000L);
+                }
+                actors.get(0).getLoad().recordEventsRolledBack(10);
+                actors.get(1).getLoad().recordEventsRolledBack(10);
+
+                final var rebalancing = rebalance(executor, actors);
+
+                assertAll(
+                        () -> assertThat("numberOfMigrations", rebalancing.getNumberOfMigrations(), is(2)),
+                        () -> assertThat("rollbackImbalanceBefore", rebalancing.getRollbackImbalanceBefore(), closeTo(1.0, 1.0E-9)),
+                        () -> assertThat("rollbackImbalanceAfter", rebalancing.getRollbackImbalanceAfter(), closeTo(0.0, 1.0E-9)),
+                        () -> assertThat("loadImbalanceAfter", rebalancing.getLoadImbalanceAfter(), closeTo(0.0, 1.0E-9)));
+            } finally {
+                shutdown(executor);
+            }
+        }
+
+        @Test
+        public void noFurtherLoad() throws Exception {
+            final var executor = new AffinityExecutor(2);
+            try {
+                final List<Actor<Integer>> actors = createActorsHomedAt(executor, 4, 0);
+                for (final var actor : actors) {
+                    actor.getLoad().recordSignalReceived(1000L);
+                }
+                rebalance(executor, actors);
+
+                final var rebalancing = rebalance(executor, actors);
+
+                assertAll(
+                        () -> assertThat("numberOfActors", rebalancing.getNumberOfActors(), is(0)),
+                        () -> assertThat("numberOfMigrations", rebalancing.getNumberOfMigrations(), is(0)),
+                        () -> assertThat("idle actors lose their homes",
+                                actors.stream().allMatch(a -> executor.getHomeWorker(a) == -1), is(true)));
+            } finally {
+                shutdown(executor);
+            }
+        }
+
+        @Test
+        public void discardedActors() throws Exception {
+            final var executor = new AffinityExecutor(2);
+            try {
+                final List<Actor<Integer>> actors = createActorsHomedAt(executor, 2, 0);
+                final List<Actor<Integer>> discardedActors = createActorsHomedAt(executor, 2, 1);
+                for (final var actor : actors) {
+                    actor.getLoad().recordSignalReceived(1000L);
+                }
+
+                rebalance(executor, actors);
+
+                assertAll(
+                        () -> assertThat("retained homes",
+                                actors.stream().allMatch(a -> 0 <= executor.getHomeWorker(a)), is(true)),
+                        () -> assertThat("discarded actors lose their homes",
+                                discardedActors.stream().allMatch(a -> executor.getHomeWorker(a) == -1), is(true)));
+            } finally {
+                shutdown(executor);
+            }
+        }
+
+        @Test
+        public void scheduled() throws Exception {
+            final var executor = new AffinityExecutor(2);
+            final var scheduler = Executors.newSingleThreadScheduledExecutor();
+            try {
+                final List<Actor<Integer>> actors = createActorsHomedAt(executor, 4, 0);
+                final var rebalanced = new CountDownLatch(2);
+
+                final var future = executor.scheduleRebalancing(scheduler, actors, Duration.ofMillis(1), rebalancing -> {
+                    AffinityExecutorTest.assertInvariants(rebalancing);
+                    rebalanced.countDown();
+                });
+
+                assertThat("rebalanced", rebalanced.await(TIMEOUT_SECONDS, TimeUnit.SECONDS), is(true));
+                future.cancel(false);
+            } finally {
+                scheduler.shutdown();
+                shutdown(executor);
+            }
+        }
+
+        @Nonnull
+        private List<Actor<Integer>> createActorsHomedAt(
+                @Nonnull final AffinityExecutor executor, final int nActors, final int home) {
+            final List<Actor<Integer>> actors = new ArrayList<>(nActors);
+            for (int a = 0; a < nActors; ++a) {
+                final var actor = new Actor<>(WHEN_A, a);
+                executor.setHomeWorker(actor, home);
+                actors.add(actor);
+            }
+            return actors;
+        }
+
+        @Nonnull
+        private AffinityExecutor.Rebalancing rebalance(
+                @Nonnull final AffinityExecutor executor, @Nonnull final Collection<? extends Actor<?>> actors) {
+            final var rebalancing = executor.rebalance(actors);
+
+            assertInvariants(executor);
+            assertInvariants(rebalancing);
+            assertThat("numberOfActors", rebalancing.getNumberOfActors(), lessThanOrEqualTo(actors.size()));
+            assertThat("numberOfMigrations", rebalancing.getNumberOfMigrations(), lessThanOrEqualTo(rebalancing.getNumberOfActors()));
+            assertThat("loadImbalanceAfter not worse",
+                    rebalancing.getLoadImbalanceAfter(), lessThanOrEqualTo(rebalancing.getLoadImbalanceBefore() + 1.0E-9));
+            for (final var actor : actors) {
+                assertThat("homeWorker", executor.getHomeWorker(actor), lessThan(executor.getNumberOfWorkers()));
+            }
+            return rebalancing;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package uk.badamson.mc.simulation.actor;
+/*
+ * © Copyright Benedict Adamson 2022.
+ *
+ * This file is part of MC-des.
+ *
+ * MC-des is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC-des is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MC-des.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class CommitTrackerTest {
+
+    private static final Duration WHEN_A = Duration.ofSeconds(1);
+
+    private static final Duration WHEN_B = Duration.ofSeconds(2);
+
+    private static final Duration WHEN_C = Duration.ofSeconds(3);
+
+    @Nonnull
+    private static Duration computeCommittedTime(
+            @Nonnull final CommitTracker tracker,
+            @Nonnull final Supplier<Duration> earliestUncommittedTimeOfActors) {
+        final Duration[] earliestRead = new Duration[1];
+        final Duration committedTime = tracker.computeCommittedTime(() -> {
+            earliestRead[0] = earliestUncommittedTimeOfActors.get();
+            return earliestRead[0];
+        });
+
+        assertThat("not after the earliest uncommitted time of the actors", committedTime,
+                lessThanOrEqualTo(earliestRead[0]));
+        return committedTime;
+    }
+
+    @Nested
+    public class ComputeCommittedTime {
+
+        @Test
+        public void noChanges() {
+            final var tracker = new CommitTracker();
+
+            assertThat(computeCommittedTime(tracker, () -> WHEN_B), is(WHEN_B));
+        }
+
+        @Test
+        public void finishedChange() {
+            final var tracker = new CommitTracker();
+            tracker.startChange(WHEN_A);
+            tracker.finishChange(WHEN_A);
+
+            assertThat(computeCommittedTime(tracker, () -> WHEN_B), is(WHEN_B));
+        }
+
+        @Test
+        public void changeInProgress() {
+            final var tracker = new CommitTracker();
+            tracker.startChange(WHEN_A);
+
+            assertThat(computeCommittedTime(tracker, () -> WHEN_B), is(WHEN_A));
+        }
+
+        @Test
+        public void simultaneousChanges() {
+            final var tracker = new CommitTracker();
+            tracker.startChange(WHEN_A);
+            tracker.startChange(WHEN_A);
+            tracker.finishChange(WHEN_A);
+
+            assertThat(computeCommittedTime(tracker, () -> WHEN_B), is(WHEN_A));
+        }
+
+        @Test
+        public void changeStartedAndFinishedWhileReading() {
+            final var tracker = new CommitTracker();
+
+            /* As if an actor not yet read received a signal at WHEN_A, which sent a signal to an actor
+             * already read, then advanced past that time before it was read. */
+            final Duration committedTime = computeCommittedTime(tracker, () -> {
+                tracker.startChange(WHEN_A);
+                tracker.finishChange(WHEN_A);
+                return WHEN_C;
+            });
+
+            assertThat(committedTime, is(WHEN_A));
+        }
+
+        @Test
+        public void changeFinishedWhileReading() {
+            final var tracker = new CommitTracker();
+            tracker.startChange(WHEN_A);
+
+            final Duration committedTime = computeCommittedTime(tracker, () -> {
+                tracker.finishChange(WHEN_A);
+                return WHEN_C;
+            });
+
+            assertThat(committedTime, is(WHEN_A));
+        }
+
+        @Test
+        public void changeStartedWhileReading() {
+            final var tracker = new CommitTracker();
+
+            final Duration committedTime = computeCommittedTime(tracker, () -> {
+                tracker.startChange(WHEN_A);
+                return WHEN_C;
+            });
+
+            assertThat(committedTime, is(WHEN_A));
+        }
+
+        @Test
+        public void changeAfterReading() {
+            final var tracker = new CommitTracker();
+            computeCommittedTime(tracker, () -> WHEN_C);
+            tracker.startChange(WHEN_A);
+            tracker.finishChange(WHEN_A);
+
+            assertThat(computeCommittedTime(tracker, () -> WHEN_C), is(WHEN_C));
+        }
+
+        @Test
+        public void actorsCreated() {
+            final var tracker = new CommitTracker();
+            tracker.actorsCreated(WHEN_A);
+
+            assertThat(computeCommittedTime(tracker, () -> WHEN_B), is(WHEN_A));
+        }
+
+        @Test
+        public void createdActorsAdded() {
+            final var tracker = new CommitTracker();
+            tracker.actorsCreated(WHEN_A);
+            tracker.createdActorsAdded();
+
+            assertThat(computeCommittedTime(tracker, () -> WHEN_B), is(WHEN_B));
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package uk.badamson.mc.simulation.actor;
+/*
+ * © Copyright Benedict Adamson 2022.
+ *
+ * This file is part of MC-des.
+ *
+ * MC-des is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC-des is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MC-des.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import uk.badamson.mc.simulation.benchmark.Phold;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ContinuousRunTest {
+
+    private static final Duration WHEN_A = Duration.ofSeconds(0);
+
+    private static final Duration WHEN_B = Duration.ofSeconds(20);
+
+    private static final Duration WHEN_C = Duration.ofSeconds(50);
+
+    private static final Executor DIRECT_EXECUTOR = Runnable::run;
+
+    public static void assertInvariants(@Nonnull final ContinuousRun<?> run) {
+        assertThat("target", run.getTarget(), notNullValue());
+        assertThat("frontier", run.getFrontier(), notNullValue());
+        assertThat("frontier not after target", run.getFrontier(), lessThanOrEqualTo(run.getTarget()));
+    }
+
+    @Nonnull
+    private static Universe<Integer> createStrobingUniverse(final int nActors) {
+        final var universe = new Universe<Integer>();
+        for (int a = 0; a < nActors; ++a) {
+            final var actor = new Actor<>(WHEN_A, a);
+            actor.addSignalToReceive(new SignalTest.StrobingTestSignal(WHEN_A, actor, actor, ActorTest.MEDIUM_A));
+            universe.add(actor);
+        }
+        return universe;
+    }
+
+    @Nonnull
+    private static <STATE> ContinuousRun<STATE> runContinuously(
+            @Nonnull final Universe<STATE> universe, @Nonnull final Duration target,
+            @Nonnull final Executor executor, @Nonnull final List<Duration> frontiers) {
+        final var run = universe.runContinuously(target, executor, frontiers::add);
+
+        // The actors may still be advancing, so the invariants of the universe can not be checked here.
+        assertInvariants(run);
+        assertThat("target", run.getTarget(), is(target));
+        return run;
+    }
+
+    private static void raiseTargetTo(@Nonnull final ContinuousRun<?> run, @Nonnull final Duration when) {
+        final var targetBefore = run.getTarget();
+        final var frontierBefore = run.getFrontier();
+
+        run.raiseTargetTo(when);
+
+        assertInvariants(run);
+        assertThat("target not decreased", run.getTarget(), greaterThanOrEqualTo(targetBefore));
+        assertThat("target at least the given time", run.getTarget(), greaterThanOrEqualTo(when));
+        assertThat("frontier not decreased", run.getFrontier(), greaterThanOrEqualTo(frontierBefore));
+    }
+
+    private static void assertFrontiersIncreasing(@Nonnull final List<Duration> frontiers) {
+        for (int i = 1; i < frontiers.size(); ++i) {
+            assertThat("frontiers increasing", frontiers.get(i), greaterThan(frontiers.get(i - 1)));
+        }
+    }
+
+    private static void addEventsBefore(
+            @Nonnull final Phold model, @Nonnull final Duration when, @Nonnull final Set<Event<Long>> events) {
+        for (final var actor : model.getActors()) {
+            for (final var event : actor.getEvents()) {
+                if (event.getWhen().compareTo(when) < 0) {
+                    events.add(event);
+                }
+            }
+        }
+    }
+
+    @Nested
+    public class RunContinuously {
+
+        @Test
+        public void empty() {
+            final var universe = new Universe<Integer>();
+            final List<Duration> frontiers = new CopyOnWriteArrayList<>();
+
+            final var run = runContinuously(universe, WHEN_B, DIRECT_EXECUTOR, frontiers);
+
+            assertAll(
+                    () -> assertThat("frontier", run.getFrontier(), is(WHEN_B)),
+                    () -> assertThat("frontiers", frontiers, Matchers.empty()));
+        }
+
+        @Test
+        public void direct() {
+            final var universe = createStrobingUniverse(2);
+            final List<Duration> frontiers = new CopyOnWriteArrayList<>();
+
+            final var run = runContinuously(universe, WHEN_B, DIRECT_EXECUTOR, frontiers);
+
+            UniverseTest.assertInvariants(universe);
+            assertAll(
+                    () -> assertThat("frontier", run.getFrontier(), is(WHEN_B)),
+                    () -> assertThat("frontiers", frontiers, is(List.of(WHEN_B))));
+        }
+
+        @Test
+        public void longAdvancement() throws Exception {
+            final var universe = createStrobingUniverse(1);
+            final var target = Duration.ofSeconds(50_000_000);
+            final List<Duration> frontiers = new CopyOnWriteArrayList<>();
+            final ExecutorService executor = Executors.newFixedThreadPool(2);
+            try {
+                final var run = runContinuously(universe, target, executor, frontiers);
+                while (run.getFrontier().compareTo(target) < 0) {
+                    Thread.onSpinWait();
+                }
+
+                run.stop().get(10, TimeUnit.SECONDS);
+
+                assertInvariants(run);
+                UniverseTest.assertInvariants(universe);
+                assertFrontiersIncreasing(frontiers);
+                assertAll(
+                        () -> assertThat("reported progress during the advancement", frontiers, hasSize(greaterThan(1))),
+                        () -> assertThat("last frontier", frontiers.get(frontiers.size() - 1), is(target)));
+            } finally {
+                executor.shutdown();
+            }
+        }
+
+        @Test
+        public void interacting() throws Exception {
+            final var model = new Phold(16, 4, 0.5, Duration.ZERO, Duration.ofSeconds(1), 42L);
+            final var universe = model.getUniverse();
+            final var target = Duration.ofSeconds(100);
+            // Identity matters, because an event that is rolled back and received again can be equal to the original.
+            final Set<Event<Long>> eventsBeforeFrontiers = Collections.synchronizedSet(
+                    Collections.newSetFromMap(new IdentityHashMap<>()));
+            final ExecutorService executor = Executors.newFixedThreadPool(4);
+            try {
+                final var run = universe.runContinuously(target, executor,
+                        frontier -> addEventsBefore(model, frontier, eventsBeforeFrontiers));
+                while (run.getFrontier().compareTo(target) < 0) {
+                    // Also sample the committed time much more often than the run refreshes its frontier.
+                    addEventsBefore(model, universe.getEarliestWhenReceiveNextSignal(), eventsBeforeFrontiers);
+                }
+
+                run.stop().get(10, TimeUnit.SECONDS);
+
+                assertInvariants(run);
+                final Set<Event<Long>> events = Collections.newSetFromMap(new IdentityHashMap<>());
+                for (final var actor : model.getActors()) {
+                    events.addAll(actor.getEvents());
+                }
+                final List<Event<Long>> rolledBack = new ArrayList<>();
+                synchronized (eventsBeforeFrontiers) {
+                    for (final var event : eventsBeforeFrontiers) {
+                        if (!events.contains(event)) {
+                            rolledBack.add(event);
+                        }
+                    }
+                }
+                assertAll(
+                        () -> assertThat("events before frontiers", eventsBeforeFrontiers, not(Matchers.empty())),
+                        () -> assertThat("events before frontiers rolled back", rolledBack, Matchers.empty()));
+            } finally {
+                executor.shutdown();
+            }
+        }
+    }
+
+    @Nested
+    public class RaiseTargetTo {
+
+        @Test
+        public void raised() {
+            final var universe = createStrobingUniverse(2);
+            final List<Duration> frontiers = new CopyOnWriteArrayList<>();
+            final var run = runContinuously(universe, WHEN_B, DIRECT_EXECUTOR, frontiers);
+
+            raiseTargetTo(run, WHEN_C);
+
+            assertAll(
+                    () -> assertThat("target", run.getTarget(), is(WHEN_C)),
+                    () -> assertThat("frontier", run.getFrontier(), is(WHEN_C)),
+                    () -> assertThat("frontiers", frontiers, is(List.of(WHEN_B, WHEN_C))));
+            UniverseTest.assertInvariants(universe);
+        }
+
+        @Test
+        public void lowered() {
+            final var universe = createStrobingUniverse(1);
+            final List<Duration> frontiers = new CopyOnWriteArrayList<>();
+            final var run = runContinuously(universe, WHEN_C, DIRECT_EXECUTOR, frontiers);
+
+            raiseTargetTo(run, WHEN_B);
+
+            assertAll(
+                    () -> assertThat("target", run.getTarget(), is(WHEN_C)),
+                    () -> assertThat("frontiers", frontiers, is(List.of(WHEN_C))));
+        }
+
+        @Test
+        public void afterStop() {
+            final var universe = createStrobingUniverse(1);
+            final List<Duration> frontiers = new CopyOnWriteArrayList<>();
+            final var run = runContinuously(universe, WHEN_B, DIRECT_EXECUTOR, frontiers);
+            run.stop();
+
+            raiseTargetTo(run, WHEN_C);
+
+            assertAll(
+                    () -> assertThat("frontier", run.getFrontier(), is(WHEN_B)),
+                    () -> assertThat("frontiers", frontiers, is(List.of(WHEN_B))));
+        }
+
+        @Test
+        public void multiThreaded() throws Exception {
+            final var universe = createStrobingUniverse(16);
+            final List<Duration> frontiers = new CopyOnWriteArrayList<>();
+            final ExecutorService executor = Executors.newFixedThreadPool(4);
+            try {
+                final var run = runContinuously(universe, WHEN_A, executor, frontiers);
+                for (int s = 1; s <= 100; ++s) {
+                    raiseTargetTo(run, Duration.ofSeconds(s));
+                }
+                final var target = run.getTarget();
+                while (run.getFrontier().compareTo(target) < 0) {
+                    Thread.onSpinWait();
+                }
+
+                run.stop().get(10, TimeUnit.SECONDS);
+
+                assertInvariants(run);
+                assertThat("stopped", run.isStopped(), is(true));
+                assertFrontiersIncreasing(frontiers);
+                assertThat("last frontier", frontiers.get(frontiers.size() - 1), is(target));
+                for (final var actor : universe) {
+                    assertThat(actor.getWhenReceiveNextSignal(), greaterThanOrEqualTo(target));
+                }
+            } finally {
+                executor.shutdown();
+            }
+        }
+    }
+
+    @Nested
+    public class Stop {
+
+        @Test
+        public void idle() throws Exception {
+            final var universe = createStrobingUniverse(1);
+            final var run = runContinuously(universe, WHEN_B, DIRECT_EXECUTOR, new CopyOnWriteArrayList<>());
+
+            final var future = run.stop();
+
+            assertInvariants(run);
+            assertThat("done", future.isDone(), is(true));
+            assertThat("stopped", run.isStopped(), is(true));
+            future.get();
+        }
+
+        @Test
+        public void listenerFails() {
+            final var universe = createStrobingUniverse(1);
+            final var run = universe.runContinuously(WHEN_B, DIRECT_EXECUTOR, frontier -> {
+                throw new IllegalStateException("Test");
+            });
+
+            final var future = run.stop();
+
+            assertInvariants(run);
+            assertThat("stopped", run.isStopped(), is(true));
+            final var exception = assertThrows(ExecutionException.class, future::get);
+            assertThat(exception.getCause(), instanceOf(IllegalStateException.class));
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package uk.badamson.mc.simulation.actor;
+/*
+ * © Copyright Benedict Adamson 2022.
+ *
+ * This file is part of MC-des.
+ *
+ * MC-des is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC-des is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MC-des.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CriticalPathAnalyserTest {
+
+    private static final Duration WHEN_A = Duration.ofSeconds(0);
+
+    private static final Duration WHEN_B = Duration.ofSeconds(60);
+
+    private static final Duration INTERVAL = Duration.ofSeconds(10);
+
+    public static void assertInvariants(@Nonnull final CriticalPathAnalyser<?> analyser) {
+        final var profile = analyser.getParallelismProfile();
+        assertAll(
+                () -> assertThat("criticalPathLength", analyser.getCriticalPathLength(), allOf(
+                        greaterThanOrEqualTo(0L), lessThanOrEqualTo(analyser.getNumberOfEvents()))),
+                () -> assertThat("maximumSpeedUp", analyser.getMaximumSpeedUp(), greaterThanOrEqualTo(1.0)),
+                () -> assertThat("numberOfUnresolvedDependencies", analyser.getNumberOfUnresolvedDependencies(), allOf(
+                        greaterThanOrEqualTo(0L), lessThanOrEqualTo(analyser.getNumberOfEvents()))),
+                () -> assertThat("numberOfRetainedSendingEvents", analyser.getNumberOfRetainedSendingEvents(), greaterThanOrEqualTo(0)),
+                () -> assertThat("profile", profile, notNullValue()),
+                () -> assertThat("profile events", profile.stream()
+                        .mapToLong(CriticalPathAnalyser.ParallelismSample::getNumberOfEvents).sum(), is(analyser.getNumberOfEvents())));
+        for (int i = 0; i < profile.size(); ++i) {
+            final var sample = profile.get(i);
+            assertAll(
+                    () -> assertThat("numberOfEvents", sample.getNumberOfEvents(), greaterThan(0L)),
+                    () -> assertThat("numberOfLevels", sample.getNumberOfLevels(), allOf(
+                            greaterThan(0L), lessThanOrEqualTo(sample.getNumberOfEvents()))),
+                    () -> assertThat("availableParallelism", sample.getAvailableParallelism(), greaterThanOrEqualTo(1.0)),
+                    () -> assertThat("end after start", sample.getEnd(), greaterThan(sample.getStart())));
+            if (0 < i) {
+                assertThat("ascending", sample.getStart(), greaterThanOrEqualTo(profile.get(i - 1).getEnd()));
+            }
+        }
+    }
+
+    @Nonnull
+    private static List<Event<Integer>> createCommittedEvents(final int nActors) throws Exception {
+        final var universe = new Universe<Integer>();
+        for (int a = 0; a < nActors; ++a) {
+            final var actor = new Actor<>(WHEN_A, 0);
+            actor.addSignalToReceive(new SignalTest.StrobingTestSignal(WHEN_A, actor, actor, ActorTest.MEDIUM_A));
+            universe.add(actor);
+        }
+        universe.advanceTo(WHEN_B, Runnable::run).get();
+        final List<Event<Integer>> events = new ArrayList<>();
+        for (final var actor : universe) {
+            events.addAll(actor.getEvents());
+        }
+        Collections.sort(events);
+        return events;
+    }
+
+    @Nonnull
+    private static <STATE> CriticalPathAnalyser<STATE> analyse(
+            @Nonnull final CriticalPathAnalyser<STATE> analyser, @Nonnull final List<Event<STATE>> events) {
+        for (final var event : events) {
+            analyser.accept(event);
+        }
+
+        assertInvariants(analyser);
+        assertThat("numberOfEvents", analyser.getNumberOfEvents(), is((long) events.size()));
+        return analyser;
+    }
+
+    @Nested
+    public class Constructor {
+
+        @Test
+        public void noHorizon() {
+            final var analyser = new CriticalPathAnalyser<Integer>(INTERVAL);
+
+            assertInvariants(analyser);
+            assertAll(
+                    () -> assertThat("numberOfEvents", analyser.getNumberOfEvents(), is(0L)),
+                    () -> assertThat("criticalPathLength", analyser.getCriticalPathLength(), is(0L)),
+                    () -> assertThat("maximumSpeedUp", analyser.getMaximumSpeedUp(), is(1.0)),
+                    () -> assertThat("profile", analyser.getParallelismProfile(), empty()));
+        }
+
+        @Test
+        public void horizon() {
+            final var analyser = new CriticalPathAnalyser<Integer>(INTERVAL, Duration.ofSeconds(5));
+
+            assertInvariants(analyser);
+            assertThat("numberOfEvents", analyser.getNumberOfEvents(), is(0L));
+        }
+
+        @Test
+        public void zeroInterval() {
+            assertThrows(IllegalArgumentException.class, () -> new CriticalPathAnalyser<Integer>(Duration.ZERO));
+        }
+
+        @Test
+        public void negativeHorizon() {
+            assertThrows(IllegalArgumentException.class,
+                    () -> new CriticalPathAnalyser<Integer>(INTERVAL, Duration.ofSeconds(-1)));
+        }
+    }
+
+    @Nested
+    public class Accept {
+
+        @Test
+        public void sequential() throws Exception {
+            final var events = createCommittedEvents(1);
+
+            final var analyser = analyse(new CriticalPathAnalyser<>(INTERVAL), events);
+
+            assertAll(
+                    () -> assertThat("criticalPathLength", analyser.getCriticalPathLength(), is((long) events.size())),
+                    () -> assertThat("maximumSpeedUp", analyser.getMaximumSpeedUp(), closeTo(1.0, 1.0E-9)));
+        }
+
+        @Test
+        public void independent() throws Exception {
+            final int nActors = 4;
+            final var events = createCommittedEvents(nActors);
+
+            final var analyser = analyse(new CriticalPathAnalyser<>(INTERVAL), events);
+
+            assertAll(
+                    () -> assertThat("criticalPathLength", analyser.getCriticalPathLength(), is((long) events.size() / nActors)),
+                    () -> assertThat("maximumSpeedUp", analyser.getMaximumSpeedUp(), closeTo(nActors, 1.0E-9)),
+                    () -> assertThat("unresolved initial signals",
+                            analyser.getNumberOfUnresolvedDependencies(), is((long) nActors)));
+        }
+
+        @Test
+        public void horizon() throws Exception {
+            final var events = createCommittedEvents(4);
+
+            final var analyser = analyse(new CriticalPathAnalyser<>(INTERVAL, Duration.ofSeconds(5)), events);
+
+            assertThat("numberOfRetainedSendingEvents", analyser.getNumberOfRetainedSendingEvents(), lessThanOrEqualTo(4));
+        }
+
+        @Test
+        public void outOfOrder() throws Exception {
+            final var events = createCommittedEvents(1);
+            final var analyser = new CriticalPathAnalyser<Integer>(INTERVAL);
+            analyser.accept(events.get(1));
+
+            assertThrows(IllegalArgumentException.class, () -> analyser.accept(events.get(0)));
+        }
+    }
+}
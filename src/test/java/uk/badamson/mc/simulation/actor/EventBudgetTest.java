@@ -0,0 +1,200 @@
+package uk.badamson.mc.simulation.actor;
+/*
+ * © Copyright Benedict Adamson 2022.
+ *
+ * This file is part of MC-des.
+ *
+ * MC-des is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC-des is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MC-des.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import uk.badamson.mc.history.ValueHistory;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class EventBudgetTest {
+
+    public static void assertInvariants(final EventBudget budget) {
+        if (budget.getRemaining() <= 0L) {
+            assertThat("exhausted if no remaining events", budget.isExhausted(), is(true));
+        }
+        if (!budget.isExhausted()) {
+            assertThat("not exhausted for any time if not exhausted",
+                    budget.isExhaustedFor(ValueHistory.END_OF_TIME), is(false));
+        }
+    }
+
+    private static void consume(final EventBudget budget, final long nEvents) {
+        budget.consume(nEvents);
+
+        assertInvariants(budget);
+    }
+
+    @Test
+    public void unlimited() {
+        final var budget = EventBudget.unlimited();
+
+        assertInvariants(budget);
+        assertThat("exhausted", budget.isExhausted(), is(false));
+    }
+
+    @Nested
+    public class Constructor {
+
+        @Test
+        public void positive() {
+            test(3L);
+        }
+
+        @Test
+        public void zero() {
+            test(0L);
+        }
+
+        @Test
+        public void negative() {
+            test(-2L);
+        }
+
+        private void test(final long remaining) {
+            final var budget = new EventBudget(remaining);
+
+            assertInvariants(budget);
+            assertThat("remaining", budget.getRemaining(), is(remaining));
+        }
+    }
+
+    @Nested
+    public class Consume {
+
+        @Test
+        public void some() {
+            final var budget = new EventBudget(3L);
+
+            consume(budget, 2L);
+
+            assertThat("remaining", budget.getRemaining(), is(1L));
+        }
+
+        @Test
+        public void all() {
+            final var budget = new EventBudget(3L);
+
+            consume(budget, 3L);
+
+            assertThat("exhausted", budget.isExhausted(), is(true));
+        }
+
+        @Test
+        public void returned() {
+            final var budget = new EventBudget(0L);
+
+            consume(budget, -2L);
+
+            assertThat("exhausted", budget.isExhausted(), is(false));
+        }
+
+        @Test
+        public void saturates() {
+            final var budget = EventBudget.unlimited();
+
+            consume(budget, -1L);
+
+            assertThat("remaining", budget.getRemaining(), is(Long.MAX_VALUE));
+        }
+    }
+
+    @Nested
+    public class CommittedTime {
+
+        @Test
+        public void atCommittedTime() {
+            final var budget = new EventBudget(0L, Duration.ofSeconds(1), Long.MAX_VALUE, () -> false);
+
+            assertInvariants(budget);
+            assertThat("exhausted", budget.isExhausted(), is(true));
+            assertThat("exhausted for committed time", budget.isExhaustedFor(Duration.ofSeconds(1)), is(false));
+        }
+
+        @Test
+        public void afterCommittedTime() {
+            final var budget = new EventBudget(0L, Duration.ofSeconds(1), Long.MAX_VALUE, () -> false);
+
+            assertInvariants(budget);
+            assertThat("exhausted for later time", budget.isExhaustedFor(Duration.ofSeconds(2)), is(true));
+        }
+
+        @Test
+        public void remaining() {
+            final var budget = new EventBudget(1L, Duration.ofSeconds(1), Long.MAX_VALUE, () -> false);
+
+            assertInvariants(budget);
+            assertThat("exhausted for later time", budget.isExhaustedFor(Duration.ofSeconds(2)), is(false));
+        }
+
+        @Test
+        public void cancelled() {
+            final var budget = new EventBudget(1L, Duration.ofSeconds(1), Long.MAX_VALUE, () -> true);
+
+            assertInvariants(budget);
+            assertThat("exhausted for committed time", budget.isExhaustedFor(Duration.ofSeconds(1)), is(true));
+        }
+    }
+
+    @Nested
+    public class TimeLimitAndCancellation {
+
+        @Test
+        public void noLimit() {
+            final var budget = new EventBudget(3L, Long.MAX_VALUE, () -> false);
+
+            assertInvariants(budget);
+            assertThat("exhausted", budget.isExhausted(), is(false));
+        }
+
+        @Test
+        public void timedOut() {
+            final var budget = new EventBudget(3L, 0L, () -> false);
+
+            assertInvariants(budget);
+            assertThat("exhausted", budget.isExhausted(), is(true));
+            assertThat("remaining", budget.getRemaining(), is(3L));
+        }
+
+        @Test
+        public void notTimedOut() {
+            final var budget = new EventBudget(3L, Duration.ofDays(1).toNanos(), () -> false);
+
+            assertInvariants(budget);
+            assertThat("exhausted", budget.isExhausted(), is(false));
+        }
+
+        @Test
+        public void cancelled() {
+            final var cancelled = new AtomicBoolean(false);
+            final var budget = new EventBudget(3L, Long.MAX_VALUE, cancelled::get);
+
+            cancelled.set(true);
+
+            assertInvariants(budget);
+            assertThat("exhausted", budget.isExhausted(), is(true));
+        }
+    }
+}
@@ -33,6 +33,7 @@ import java.util.Set;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @SuppressFBWarnings(justification = "Checking contract", value = "EC_NULL_ARG")
 public class EventTest {
@@ -63,6 +64,7 @@ public class EventTest {
         final var affectedObject = event.getAffectedObject();
         final var causingSignal = event.getCausingSignal();
         final var signalsEmitted = event.getSignalsEmitted();
+        final var multicastsEmitted = event.getMulticastsEmitted();
         final var createdActors = event.getCreatedActors();
         final var when = event.getWhen();
         final var id = event.getId();
@@ -70,6 +72,7 @@ public class EventTest {
         assertAll(() -> assertThat("affectedObject", affectedObject, notNullValue()),
                 () -> assertThat("causingSignal", causingSignal, notNullValue()),
                 () -> assertThat("signalsEmitted", signalsEmitted, notNullValue()),
+                () -> assertThat("multicastsEmitted", multicastsEmitted, notNullValue()),
                 () -> assertThat("when", when, notNullValue()),
                 () -> assertThat("createdActors", createdActors, notNullValue()),
                 () -> assertThat("id", id, notNullValue()));
@@ -82,6 +85,16 @@ public class EventTest {
                     assertThat("sender", signal.getSender(), sameInstance(affectedObject));
                     assertThat("whenSent", signal.getWhenSent(), sameInstance(when));
                 }));
+        assertAll("multicastsEmitted",
+                multicastsEmitted.stream().map(multicast -> () -> {
+                    assertThat(multicast, notNullValue());
+                    MulticastTest.assertInvariants(multicast);
+                    assertAll(
+                            () -> assertThat("sender", multicast.getSender(), sameInstance(affectedObject)),
+                            () -> assertThat("whenSent", multicast.getWhenSent(), sameInstance(when)),
+                            () -> assertThat("signals are signalsEmitted",
+                                    signalsEmitted.containsAll(multicast.getSignals()), is(true)));
+                }));
         assertAll(
                 createdActors.stream().map(actor -> () -> {
                     assertThat(actor, notNullValue());
@@ -174,6 +187,68 @@ public class EventTest {
         constructor(SIGNAL_B, when, 1, Set.of(), Set.of(actorCreated));
     }
 
+    @Nested
+    public class MulticastEmitted {
+
+        @Test
+        public void one() {
+            final var when = WHEN_A;
+            final var multicast = new MulticastTest.SimpleTestMulticast(when, ACTOR_B, MEDIUM_A, Set.of(ACTOR_A, ACTOR_B));
+
+            final var event = new Event<>(SIGNAL_A, when, 0, Set.of(), Set.of(multicast), Set.of());
+
+            assertInvariants(event);
+            assertAll(
+                    () -> assertThat("multicastsEmitted", event.getMulticastsEmitted(), contains(multicast)),
+                    () -> assertThat("signalsEmitted", event.getSignalsEmitted(),
+                            containsInAnyOrder(multicast.getSignals().toArray())));
+        }
+
+        @Test
+        public void withSignal() {
+            final var when = WHEN_A;
+            final var signal = new SignalTest.SimpleTestSignal(when, ACTOR_B, ACTOR_A, MEDIUM_A);
+            final var multicast = new MulticastTest.SimpleTestMulticast(when, ACTOR_B, MEDIUM_B, Set.of(ACTOR_A));
+
+            final var event = new Event<>(SIGNAL_A, when, 0, Set.of(signal), Set.of(multicast), Set.of());
+
+            assertInvariants(event);
+            final var multicastSignal = multicast.getSignals().get(0);
+            assertAll(
+                    () -> assertThat("signalsEmitted", event.getSignalsEmitted(), containsInAnyOrder(signal, multicastSignal)),
+                    () -> assertThat("signalsEmitted size", event.getSignalsEmitted(), hasSize(2)));
+        }
+
+        @Test
+        public void overlappingSignal() {
+            final var when = WHEN_A;
+            final var signal = new SignalTest.SimpleTestSignal(when, ACTOR_B, ACTOR_A, MEDIUM_A);
+            final var multicast = new MulticastTest.SimpleTestMulticast(when, ACTOR_B, MEDIUM_A, Set.of(ACTOR_A));
+
+            assertThrows(IllegalArgumentException.class,
+                    () -> new Event<>(SIGNAL_A, when, 0, Set.of(signal), Set.of(multicast), Set.of()));
+        }
+
+        @Test
+        public void overlappingMulticasts() {
+            final var when = WHEN_A;
+            final var multicast1 = new MulticastTest.SimpleTestMulticast(when, ACTOR_B, MEDIUM_A, Set.of(ACTOR_A));
+            final var multicast2 = new MulticastTest.SimpleTestMulticast(when, ACTOR_B, MEDIUM_A, Set.of(ACTOR_A, ACTOR_B));
+
+            assertThrows(IllegalArgumentException.class,
+                    () -> new Event<>(SIGNAL_A, when, 0, Set.of(), Set.of(multicast1, multicast2), Set.of()));
+        }
+
+        @Test
+        public void wrongSender() {
+            final var when = WHEN_A;
+            final var multicast = new MulticastTest.SimpleTestMulticast(when, ACTOR_A, MEDIUM_A, Set.of(ACTOR_B));
+
+            assertThrows(IllegalArgumentException.class,
+                    () -> new Event<>(SIGNAL_A, when, 0, Set.of(), Set.of(multicast), Set.of()));
+        }
+    }
+
     public static class IdTest {
 
 
@@ -0,0 +1,188 @@
+package uk.badamson.mc.simulation.actor;
+/*
+ * © Copyright Benedict Adamson 2022.
+ *
+ * This file is part of MC-des.
+ *
+ * MC-des is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC-des is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MC-des.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import uk.badamson.dbc.assertions.ObjectVerifier;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class MulticastTest {
+
+    private static final Duration WHEN_A = Duration.ofMillis(0);
+
+    private static final Duration WHEN_B = Duration.ofMillis(5000);
+
+    private static final Medium MEDIUM_A = new Medium();
+
+    private static final Medium MEDIUM_B = new Medium();
+
+    public static <STATE> void assertInvariants(@Nonnull final Multicast<STATE> multicast) {
+        ObjectVerifier.assertInvariants(multicast);// inherited
+
+        final var whenSent = multicast.getWhenSent();
+        final var sender = multicast.getSender();
+        final var medium = multicast.getMedium();
+        final var receivers = multicast.getReceivers();
+        final var signals = multicast.getSignals();
+        assertAll(
+                () -> assertThat("whenSent", whenSent, notNullValue()),
+                () -> assertThat("sender", sender, notNullValue()),
+                () -> assertThat("medium", medium, notNullValue()),
+                () -> assertThat("receivers", receivers, not(hasItem(nullValue()))),
+                () -> assertThat("signals is constant", multicast.getSignals(), sameInstance(signals)),
+                () -> assertThat("signals has one signal for each receiver",
+                        signals.stream().map(Signal::getReceiver).collect(Collectors.toUnmodifiableSet()),
+                        is(receivers)),
+                () -> assertThat("signals has one signal for each receiver", signals, hasSize(receivers.size())));
+        assertAll("signals",
+                signals.stream().map(signal -> () -> {
+                    SignalTest.assertInvariants(signal);
+                    assertAll(
+                            () -> assertThat("whenSent", signal.getWhenSent(), is(whenSent)),
+                            () -> assertThat("sender", signal.getSender(), sameInstance(sender)),
+                            () -> assertThat("medium", signal.getMedium(), is(medium)),
+                            () -> assertThat("contains", multicast.contains(signal), is(true)));
+                }));
+    }
+
+    @Nested
+    public class Constructor {
+
+        @Test
+        public void noReceivers() {
+            final var sender = new Actor<>(WHEN_A, 0);
+
+            final var multicast = new SimpleTestMulticast(WHEN_A, sender, MEDIUM_A, Set.of());
+
+            assertInvariants(multicast);
+            assertThat("signals", multicast.getSignals(), empty());
+        }
+
+        @Test
+        public void oneReceiver() {
+            test(WHEN_A, MEDIUM_A, 1);
+        }
+
+        @Test
+        public void severalReceivers() {
+            test(WHEN_B, MEDIUM_B, 3);
+        }
+
+        @Test
+        public void manyReceivers() {
+            test(WHEN_A, MEDIUM_A, Actor.MULTICAST_BATCH_SIZE * 2 + 1);
+        }
+
+        private void test(@Nonnull final Duration whenSent, @Nonnull final Medium medium, final int nReceivers) {
+            final var sender = new Actor<>(whenSent, 0);
+            final Set<Actor<Integer>> receivers = new HashSet<>();
+            for (int r = 0; r < nReceivers; ++r) {
+                receivers.add(new Actor<>(whenSent, 0));
+            }
+
+            final var multicast = new SimpleTestMulticast(whenSent, sender, medium, receivers);
+
+            assertInvariants(multicast);
+            assertAll(
+                    () -> assertThat("whenSent", multicast.getWhenSent(), sameInstance(whenSent)),
+                    () -> assertThat("sender", multicast.getSender(), sameInstance(sender)),
+                    () -> assertThat("medium", multicast.getMedium(), sameInstance(medium)),
+                    () -> assertThat("receivers", multicast.getReceivers(), is(receivers)));
+        }
+    }
+
+    @Nested
+    public class Contains {
+
+        @Test
+        public void otherMedium() {
+            final var sender = new Actor<>(WHEN_A, 0);
+            final var receiver = new Actor<>(WHEN_A, 0);
+            final var multicast = new SimpleTestMulticast(WHEN_A, sender, MEDIUM_A, Set.of(receiver));
+            final var signal = new SignalTest.SimpleTestSignal(WHEN_A, sender, receiver, MEDIUM_B);
+
+            assertThat(multicast.contains(signal), is(false));
+        }
+
+        @Test
+        public void otherReceiver() {
+            final var sender = new Actor<>(WHEN_A, 0);
+            final var receiver = new Actor<>(WHEN_A, 0);
+            final var multicast = new SimpleTestMulticast(WHEN_A, sender, MEDIUM_A, Set.of(receiver));
+            final var signal = new SignalTest.SimpleTestSignal(WHEN_A, sender, sender, MEDIUM_A);
+
+            assertThat(multicast.contains(signal), is(false));
+        }
+
+        @Test
+        public void equivalentSignal() {
+            final var sender = new Actor<>(WHEN_A, 0);
+            final var receiver = new Actor<>(WHEN_A, 0);
+            final var multicast = new SimpleTestMulticast(WHEN_A, sender, MEDIUM_A, Set.of(receiver));
+            final var signal = new SignalTest.SimpleTestSignal(WHEN_A, sender, receiver, MEDIUM_A);
+
+            assertThat(multicast.contains(signal), is(true));
+        }
+    }
+
+    @Test
+    public void createSignalWithWrongId() {
+        final var sender = new Actor<>(WHEN_A, 0);
+        final var receiver = new Actor<>(WHEN_A, 0);
+        final var multicast = new Multicast<>(WHEN_A, sender, MEDIUM_A, Set.of(receiver)) {
+
+            @Nonnull
+            @Override
+            protected Signal<Integer> createSignal(@Nonnull final Signal.Id<Integer> id) {
+                return new SignalTest.SimpleTestSignal(id.getWhenSent(), id.getSender(), id.getReceiver(), MEDIUM_B);
+            }
+        };
+
+        assertThrows(IllegalStateException.class, multicast::getSignals);
+    }
+
+    static final class SimpleTestMulticast extends Multicast<Integer> {
+
+        SimpleTestMulticast(
+                @Nonnull final Duration whenSent,
+                @Nonnull final Actor<Integer> sender,
+                @Nonnull final Medium medium,
+                @Nonnull final Set<Actor<Integer>> receivers) {
+            super(whenSent, sender, medium, receivers);
+        }
+
+        @Nonnull
+        @Override
+        protected Signal<Integer> createSignal(@Nonnull final Signal.Id<Integer> id) {
+            return new SignalTest.SimpleTestSignal(id.getWhenSent(), id.getSender(), id.getReceiver(), id.getMedium());
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package uk.badamson.mc.simulation.actor;
+/*
+ * © Copyright Benedict Adamson 2022.
+ *
+ * This file is part of MC-des.
+ *
+ * MC-des is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC-des is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MC-des.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ReplicationRunnerTest {
+
+    private static final Executor DIRECT_EXECUTOR = Runnable::run;
+
+    private static final Duration WHEN = Duration.ofSeconds(30);
+
+    public static <STATE> void assertInvariants(@Nonnull final ReplicationRunner<STATE> runner) {
+        assertAll(
+                () -> assertThat("universeFactory", runner.getUniverseFactory(), notNullValue()),
+                () -> assertThat("executor", runner.getExecutor(), notNullValue()),
+                () -> assertThat("maximumConcurrentReplications", runner.getMaximumConcurrentReplications(),
+                        greaterThan(0)));
+    }
+
+    @Nonnull
+    private static Universe<Integer> createStrobingUniverse(final int replication) {
+        final var actor = new Actor<>(Duration.ZERO, 1 + replication % 3);
+        actor.addSignalToReceive(new SignalTest.StrobingTestSignal(Duration.ZERO, actor, actor, UniverseTest.MEDIUM_A));
+        final var universe = new Universe<Integer>();
+        universe.add(actor);
+        return universe;
+    }
+
+    private static <STATE> List<Long> run(
+            @Nonnull final ReplicationRunner<STATE> runner, final int nReplications) throws Exception {
+        final CompletableFuture<List<Long>> future = runner.run(
+                nReplications, WHEN, Universe::getNumberOfEvents, Collectors.toList());
+
+        assertInvariants(runner);
+        assertThat(future, notNullValue());
+        final List<Long> results = future.get(10, TimeUnit.SECONDS);
+        assertThat("results", results, hasSize(nReplications));
+        return results;
+    }
+
+    @Nested
+    public class Constructor {
+
+        @Test
+        public void defaultConcurrency() {
+            final IntFunction<Universe<Integer>> factory = ReplicationRunnerTest::createStrobingUniverse;
+
+            final var runner = new ReplicationRunner<>(factory, DIRECT_EXECUTOR);
+
+            assertInvariants(runner);
+            assertAll(
+                    () -> assertThat("universeFactory", runner.getUniverseFactory(), sameInstance(factory)),
+                    () -> assertThat("executor", runner.getExecutor(), sameInstance(DIRECT_EXECUTOR)));
+        }
+
+        @Test
+        public void givenConcurrency() {
+            final var runner = new ReplicationRunner<>(ReplicationRunnerTest::createStrobingUniverse,
+                    DIRECT_EXECUTOR, 3);
+
+            assertInvariants(runner);
+            assertThat("maximumConcurrentReplications", runner.getMaximumConcurrentReplications(), is(3));
+        }
+
+        @Test
+        public void zeroConcurrency() {
+            assertThrows(IllegalArgumentException.class, () -> new ReplicationRunner<>(
+                    ReplicationRunnerTest::createStrobingUniverse, DIRECT_EXECUTOR, 0));
+        }
+    }
+
+    @Nested
+    public class Run {
+
+        @Test
+        public void none() throws Exception {
+            final var runner = new ReplicationRunner<>(ReplicationRunnerTest::createStrobingUniverse, DIRECT_EXECUTOR);
+
+            run(runner, 0);
+        }
+
+        @Test
+        public void directExecutor() throws Exception {
+            test(DIRECT_EXECUTOR, 1, 5);
+        }
+
+        @Test
+        public void manyWithDirectExecutor() throws Exception {
+            test(DIRECT_EXECUTOR, 4, 2000);
+        }
+
+        @Test
+        public void forkJoinPool() throws Exception {
+            test(ForkJoinPool.commonPool(), 2, 50);
+        }
+
+        @Test
+        public void failure() {
+            final var runner = new ReplicationRunner<Integer>(replication -> {
+                if (replication == 3) {
+                    throw new IllegalStateException("Failure for test");
+                }
+                return createStrobingUniverse(replication);
+            }, DIRECT_EXECUTOR, 2);
+
+            final var future = runner.run(10, WHEN, Universe::getNumberOfEvents, Collectors.toList());
+
+            assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+        }
+
+        private void test(@Nonnull final Executor executor, final int maximumConcurrentReplications,
+                          final int nReplications) throws Exception {
+            final AtomicInteger nRunning = new AtomicInteger(0);
+            final AtomicInteger maxRunning = new AtomicInteger(0);
+            final var runner = new ReplicationRunner<>(replication -> {
+                maxRunning.accumulateAndGet(nRunning.incrementAndGet(), Math::max);
+                return createStrobingUniverse(replication);
+            }, executor, maximumConcurrentReplications);
+
+            final CompletableFuture<List<Long>> future = runner.run(nReplications, WHEN, universe -> {
+                nRunning.decrementAndGet();
+                return universe.getNumberOfEvents();
+            }, Collectors.toList());
+
+            final List<Long> results = future.get(10, TimeUnit.SECONDS);
+            final var expectedResults = IntStream.range(0, nReplications)
+                    .mapToObj(replication -> {
+                        final var universe = createStrobingUniverse(replication);
+                        universe.advanceTo(WHEN, DIRECT_EXECUTOR);
+                        return universe.getNumberOfEvents();
+                    })
+                    .sorted()
+                    .collect(Collectors.toUnmodifiableList());
+            assertAll(
+                    () -> assertThat("results", results.stream().sorted().collect(Collectors.toUnmodifiableList()),
+                            is(expectedResults)),
+                    () -> assertThat("maximum concurrent replications", maxRunning.get(),
+                            lessThanOrEqualTo(maximumConcurrentReplications)));
+        }
+    }
+}
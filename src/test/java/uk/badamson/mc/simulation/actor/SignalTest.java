@@ -31,8 +31,10 @@ import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.time.Duration;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.SplittableRandom;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
@@ -271,12 +273,16 @@ public class SignalTest {
             final Integer newState = receiverState + 1;
             return new Event<>(
                     this, when, newState,
-                    signalsEmitted(when), actorsCreated(when)
+                    signalsEmitted(when), multicastsEmitted(when), actorsCreated(when)
             );
         }
 
         protected abstract Set<Signal<Integer>> signalsEmitted(@Nonnull final Duration when);
 
+        protected Set<Multicast<Integer>> multicastsEmitted(@Nonnull final Duration when) {
+            return Set.of();
+        }
+
         protected Set<Actor<Integer>> actorsCreated(@Nonnull final Duration when) {
             return Set.of();
         }
@@ -295,6 +301,17 @@ public class SignalTest {
         protected Set<Signal<Integer>> signalsEmitted(@Nonnull final Duration when) {
             return Set.of();
         }
+
+        @Nonnull
+        @Override
+        protected Signal<Integer> copy(@Nonnull final Id<Integer> id) {
+            return new SimpleTestSignal(id.getWhenSent(), id.getSender(), id.getReceiver(), id.getMedium());
+        }
+
+        @Override
+        protected boolean isCopyable() {
+            return true;
+        }
     }
 
     static class StrobingTestSignal extends AbstractTestSignal {
@@ -311,6 +328,19 @@ public class SignalTest {
             return Set.of(new StrobingTestSignal(when, getReceiver(), getReceiver(), getMedium()));
         }
 
+        @Nonnull
+        @Override
+        protected Signal<Integer> copy(@Nonnull final Id<Integer> id) {
+            final Actor<Integer> sender = id.getSender();
+            assert sender != null;
+            return new StrobingTestSignal(id.getWhenSent(), sender, id.getReceiver(), id.getMedium());
+        }
+
+        @Override
+        protected boolean isCopyable() {
+            return true;
+        }
+
     }
 
     static class EchoingTestSignal extends AbstractTestSignal {
@@ -331,6 +361,55 @@ public class SignalTest {
 
     }
 
+    static final class MulticastingTestSignal extends AbstractTestSignal {
+
+        @Nonnull
+        private final Set<Actor<Integer>> listeners;
+
+        MulticastingTestSignal(
+                @Nonnull final Duration whenSent,
+                @Nullable final Actor<Integer> sender, @Nonnull final Actor<Integer> receiver,
+                @Nonnull final Medium medium,
+                @Nonnull final Set<Actor<Integer>> listeners) {
+            super(sender, whenSent, receiver, medium);
+            this.listeners = Set.copyOf(listeners);
+        }
+
+        @Override
+        protected Set<Signal<Integer>> signalsEmitted(@Nonnull final Duration when) {
+            return Set.of();
+        }
+
+        @Override
+        protected Set<Multicast<Integer>> multicastsEmitted(@Nonnull final Duration when) {
+            return Set.of(new MulticastTest.SimpleTestMulticast(when, getReceiver(), getMedium(), listeners));
+        }
+    }
+
+    static class RelayingTestSignal extends AbstractTestSignal {
+
+        private final List<Actor<Integer>> route;
+
+        RelayingTestSignal(
+                @Nonnull final Duration whenSent,
+                @Nullable final Actor<Integer> sender, @Nonnull final Actor<Integer> receiver,
+                @Nonnull final Medium medium, @Nonnull final List<Actor<Integer>> route) {
+            super(sender, whenSent, receiver, medium);
+            this.route = List.copyOf(route);
+        }
+
+        @Override
+        protected Set<Signal<Integer>> signalsEmitted(@Nonnull final Duration when) {
+            if (route.isEmpty()) {
+                return Set.of();
+            } else {
+                return Set.of(new RelayingTestSignal(when, getReceiver(), route.get(0), getMedium(),
+                        route.subList(1, route.size())));
+            }
+        }
+
+    }
+
     static class ActorCreatingTestSignal extends AbstractTestSignal {
 
         ActorCreatingTestSignal(
@@ -573,6 +652,90 @@ public class SignalTest {
         }
     }
 
+    @Nested
+    public class CreateRandom {
+
+        @Test
+        public void reproducible() {
+            final var receiver = new Actor<>(WHEN_A, 0, 1L);
+            final Signal<Integer> signal1 = new SimpleTestSignal(WHEN_A, null, receiver, MEDIUM_A);
+            final Signal<Integer> signal2 = new SimpleTestSignal(WHEN_A, null, receiver, MEDIUM_A);
+
+            assertThat(createRandom(signal1, WHEN_B).nextLong(), is(createRandom(signal2, WHEN_B).nextLong()));
+        }
+
+        @Test
+        public void differentWhen() {
+            final var receiver = new Actor<>(WHEN_A, 0, 1L);
+            final Signal<Integer> signal = new SimpleTestSignal(WHEN_A, null, receiver, MEDIUM_A);
+
+            assertThat(createRandom(signal, WHEN_B).nextLong(), not(createRandom(signal, WHEN_C).nextLong()));
+        }
+
+        @Test
+        public void differentWhenSent() {
+            final var receiver = new Actor<>(WHEN_A, 0, 1L);
+            final Signal<Integer> signal1 = new SimpleTestSignal(WHEN_A, null, receiver, MEDIUM_A);
+            final Signal<Integer> signal2 = new SimpleTestSignal(WHEN_A.plusNanos(1L), null, receiver, MEDIUM_A);
+
+            assertThat(createRandom(signal1, WHEN_C).nextLong(), not(createRandom(signal2, WHEN_C).nextLong()));
+        }
+
+        @Test
+        public void differentReceiver() {
+            final var receiver1 = new Actor<>(WHEN_A, 0, 1L);
+            final var receiver2 = new Actor<>(WHEN_A, 0, 2L);
+            final Signal<Integer> signal1 = new SimpleTestSignal(WHEN_A, null, receiver1, MEDIUM_A);
+            final Signal<Integer> signal2 = new SimpleTestSignal(WHEN_A, null, receiver2, MEDIUM_A);
+
+            assertThat(createRandom(signal1, WHEN_B).nextLong(), not(createRandom(signal2, WHEN_B).nextLong()));
+        }
+
+        @Test
+        public void differentSender() {
+            final var receiver = new Actor<>(WHEN_A, 0, 1L);
+            final var sender = new Actor<>(WHEN_A, 0, 2L);
+            final Signal<Integer> signal1 = new SimpleTestSignal(WHEN_A, null, receiver, MEDIUM_A);
+            final Signal<Integer> signal2 = new SimpleTestSignal(WHEN_A, sender, receiver, MEDIUM_A);
+
+            assertThat(createRandom(signal1, WHEN_B).nextLong(), not(createRandom(signal2, WHEN_B).nextLong()));
+        }
+
+        @Nonnull
+        private SplittableRandom createRandom(@Nonnull final Signal<Integer> signal, @Nonnull final Duration when) {
+            final var random = signal.createRandom(when);
+            assertThat(random, notNullValue());
+            return random;
+        }
+    }
+
+    @Nested
+    public class Copy {
+
+        @Test
+        public void supported() {
+            final Signal<Integer> signal = new SimpleTestSignal(WHEN_A, ACTOR_A, ACTOR_B, MEDIUM_A);
+            final var id = new Signal.Id<>(WHEN_B, ACTOR_B, ACTOR_A, MEDIUM_B);
+            assertThat("copyable", signal.isCopyable(), is(true));
+
+            final var copy = signal.copy(id);
+
+            assertInvariants(copy);
+            assertAll(
+                    () -> assertThat("id", copy.getId(), is(id)),
+                    () -> assertThat("class", copy.getClass(), sameInstance(signal.getClass())));
+        }
+
+        @Test
+        public void unsupported() {
+            final Signal<Integer> signal = new ThrowingSignal(WHEN_A, ACTOR_A, ACTOR_B, MEDIUM_A);
+            final var id = new Signal.Id<>(WHEN_B, ACTOR_B, ACTOR_A, MEDIUM_B);
+            assertThat("copyable", signal.isCopyable(), is(false));
+
+            assertThrows(UnsupportedOperationException.class, () -> signal.copy(id));
+        }
+    }
+
     @Nested
     public class Receive {
 
@@ -0,0 +1,398 @@
+package uk.badamson.mc.simulation.actor;
+/*
+ * © Copyright Benedict Adamson 2022.
+ *
+ * This file is part of MC-des.
+ *
+ * MC-des is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC-des is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MC-des.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import uk.badamson.dbc.assertions.ObjectVerifier;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SpatialMediumTest {
+
+    private static final Duration WHEN_A = Duration.ofMillis(0);
+
+    private static final Duration WHEN_B = Duration.ofMillis(5000);
+
+    private static final Duration WHEN_C = Duration.ofMillis(7000);
+
+    private static final Medium MEDIUM_B = new Medium();
+
+    private static final Function<Integer, SpatialMedium.Position> POSITION_OF_STATE =
+            state -> new SpatialMedium.Position(state, 0, 0);
+
+    public static <STATE> void assertInvariants(@Nonnull final SpatialMedium<STATE> medium) {
+        MediumTest.assertInvariants(medium);// inherited
+
+        assertAll(
+                () -> assertThat("cellSize", medium.getCellSize(), greaterThan(0.0)),
+                () -> assertThat("speed", medium.getSpeed(), greaterThan(0.0)));
+    }
+
+    public static <STATE> void assertInvariants(
+            @Nonnull final SpatialMedium<STATE> medium,
+            @Nonnull final Function<STATE, SpatialMedium.Position> positionOfState,
+            @Nonnull final Actor<STATE> actor,
+            @Nonnull final Duration when) {
+        assertInvariants(medium);
+        final var state = actor.getStateHistory().get(when);
+        final var expected = medium.isTracked(actor) && state != null ? positionOfState.apply(state) : null;
+        assertThat("position", medium.getPosition(actor, when), is(expected));
+    }
+
+    public static void assertInvariants(@Nonnull final SpatialMedium.Position position) {
+        ObjectVerifier.assertInvariants(position);// inherited
+    }
+
+    private static <STATE> void track(@Nonnull final SpatialMedium<STATE> medium, @Nonnull final Actor<STATE> actor) {
+        medium.track(actor);
+
+        assertInvariants(medium);
+        ActorTest.assertInvariants(actor);
+        assertThat("tracked", medium.isTracked(actor), is(true));
+    }
+
+    private static <STATE> Map<Actor<STATE>, Duration> getReceivers(
+            @Nonnull final SpatialMedium<STATE> medium,
+            @Nonnull final SpatialMedium.Position origin, final double range, @Nonnull final Duration when) {
+        final var receivers = medium.getReceivers(origin, range, when);
+
+        assertInvariants(medium);
+        assertThat("receivers", receivers, notNullValue());
+        assertAll("receivers", receivers.entrySet().stream().map(entry -> () -> {
+            final var actor = entry.getKey();
+            final var position = medium.getPosition(actor, when);
+            assertThat("tracked", medium.isTracked(actor), is(true));
+            assertThat("position", position, notNullValue());
+            assertThat("within range", origin.distanceTo(position), lessThanOrEqualTo(range));
+            assertThat("delay", entry.getValue(), is(medium.getPropagationDelay(origin, position)));
+        }));
+        return receivers;
+    }
+
+    @Nested
+    public class Constructor {
+
+        @Test
+        public void a() {
+            test(1.0, 1.0);
+        }
+
+        @Test
+        public void b() {
+            test(100.0, 3.0E8);
+        }
+
+        @Test
+        public void infiniteSpeed() {
+            final var medium = test(10.0, Double.POSITIVE_INFINITY);
+
+            assertThat(medium.getPropagationDelay(
+                            new SpatialMedium.Position(0, 0, 0), new SpatialMedium.Position(5, 0, 0)),
+                    is(Duration.ZERO));
+        }
+
+        @Test
+        public void zeroCellSize() {
+            assertThrows(IllegalArgumentException.class, () -> new SpatialMedium<>(POSITION_OF_STATE, 0.0, 1.0));
+        }
+
+        @Test
+        public void infiniteCellSize() {
+            assertThrows(IllegalArgumentException.class,
+                    () -> new SpatialMedium<>(POSITION_OF_STATE, Double.POSITIVE_INFINITY, 1.0));
+        }
+
+        @Test
+        public void zeroSpeed() {
+            assertThrows(IllegalArgumentException.class, () -> new SpatialMedium<>(POSITION_OF_STATE, 1.0, 0.0));
+        }
+
+        @Test
+        public void nanSpeed() {
+            assertThrows(IllegalArgumentException.class, () -> new SpatialMedium<>(POSITION_OF_STATE, 1.0, Double.NaN));
+        }
+
+        private SpatialMedium<Integer> test(final double cellSize, final double speed) {
+            final var medium = new SpatialMedium<>(POSITION_OF_STATE, cellSize, speed);
+
+            assertInvariants(medium);
+            MediumTest.assertInvariants(medium, MEDIUM_B);
+            assertAll(
+                    () -> assertThat("cellSize", medium.getCellSize(), is(cellSize)),
+                    () -> assertThat("speed", medium.getSpeed(), is(speed)));
+            return medium;
+        }
+    }
+
+    @Nested
+    public class PositionTest {
+
+        @Test
+        public void constructor() {
+            final var position = new SpatialMedium.Position(1, 2, 3);
+
+            assertInvariants(position);
+            assertAll(
+                    () -> assertThat("x", position.getX(), is(1.0)),
+                    () -> assertThat("y", position.getY(), is(2.0)),
+                    () -> assertThat("z", position.getZ(), is(3.0)));
+        }
+
+        @Test
+        public void equivalent() {
+            final var position1 = new SpatialMedium.Position(1, 2, 3);
+            final var position2 = new SpatialMedium.Position(1, 2, 3);
+
+            ObjectVerifier.assertInvariants(position1, position2);
+            assertThat(position1, is(position2));
+        }
+
+        @Test
+        public void distanceTo() {
+            final var position1 = new SpatialMedium.Position(1, 2, 3);
+            final var position2 = new SpatialMedium.Position(4, 6, 3);
+
+            assertThat(position1.distanceTo(position2), closeTo(5.0, 1.0E-9));
+        }
+
+        @Test
+        public void notFinite() {
+            assertThrows(IllegalArgumentException.class, () -> new SpatialMedium.Position(0, Double.NaN, 0));
+        }
+    }
+
+    @Nested
+    public class Track {
+
+        @Test
+        public void once() {
+            final var medium = new SpatialMedium<>(POSITION_OF_STATE, 1.0, 1.0);
+            final var actor = new Actor<>(WHEN_A, 3);
+
+            track(medium, actor);
+
+            assertInvariants(medium, POSITION_OF_STATE, actor, WHEN_A);
+            assertThat("position", medium.getPosition(actor, WHEN_A), is(new SpatialMedium.Position(3, 0, 0)));
+        }
+
+        @Test
+        public void twice() {
+            final var medium = new SpatialMedium<>(POSITION_OF_STATE, 1.0, 1.0);
+            final var actor = new Actor<>(WHEN_A, 3);
+            medium.track(actor);
+
+            track(medium, actor);
+
+            assertInvariants(medium, POSITION_OF_STATE, actor, WHEN_A);
+        }
+
+        @Test
+        public void notTracked() {
+            final var medium = new SpatialMedium<>(POSITION_OF_STATE, 1.0, 1.0);
+            final var actor = new Actor<>(WHEN_A, 3);
+
+            assertAll(
+                    () -> assertThat("tracked", medium.isTracked(actor), is(false)),
+                    () -> assertThat("position", medium.getPosition(actor, WHEN_A), nullValue()));
+        }
+
+        @Test
+        public void beforeStart() {
+            final var medium = new SpatialMedium<>(POSITION_OF_STATE, 1.0, 1.0);
+            final var actor = new Actor<>(WHEN_B, 3);
+
+            track(medium, actor);
+
+            assertInvariants(medium, POSITION_OF_STATE, actor, WHEN_A);
+            assertThat("position", medium.getPosition(actor, WHEN_A), nullValue());
+        }
+    }
+
+    @Nested
+    public class GetReceivers {
+
+        @Test
+        public void inRange() {
+            final var medium = new SpatialMedium<>(POSITION_OF_STATE, 1.0, 2.0);
+            final var actor = new Actor<>(WHEN_A, 3);
+            medium.track(actor);
+
+            final var receivers = getReceivers(medium, new SpatialMedium.Position(0, 0, 0), 3.0, WHEN_A);
+
+            assertThat(receivers, is(Map.of(actor, Duration.ofMillis(1500))));
+        }
+
+        @Test
+        public void outOfRange() {
+            final var medium = new SpatialMedium<>(POSITION_OF_STATE, 1.0, 2.0);
+            final var actor = new Actor<>(WHEN_A, 3);
+            medium.track(actor);
+
+            final var receivers = getReceivers(medium, new SpatialMedium.Position(0, 0, 0), 2.5, WHEN_A);
+
+            assertThat(receivers, anEmptyMap());
+        }
+
+        @Test
+        public void diagonal() {
+            final var medium = new SpatialMedium<>(POSITION_OF_STATE, 1.0, 1.0);
+            final var actor = new Actor<>(WHEN_A, 3);
+            medium.track(actor);
+
+            final var receivers = getReceivers(medium, new SpatialMedium.Position(2, 2, 0), 2.0, WHEN_A);
+
+            assertThat("in bounding box but out of range", receivers, anEmptyMap());
+        }
+
+        @Test
+        public void beforeStart() {
+            final var medium = new SpatialMedium<>(POSITION_OF_STATE, 1.0, 1.0);
+            final var actor = new Actor<>(WHEN_B, 3);
+            medium.track(actor);
+
+            final var receivers = getReceivers(medium, new SpatialMedium.Position(3, 0, 0), 1.0, WHEN_A);
+
+            assertThat(receivers, anEmptyMap());
+        }
+
+        @Test
+        public void several() {
+            final var medium = new SpatialMedium<>(POSITION_OF_STATE, 4.0, 1.0);
+            final var actor1 = new Actor<>(WHEN_A, -3);
+            final var actor2 = new Actor<>(WHEN_A, 1);
+            final var actor3 = new Actor<>(WHEN_A, 20);
+            medium.track(actor1);
+            medium.track(actor2);
+            medium.track(actor3);
+
+            final var receivers = getReceivers(medium, new SpatialMedium.Position(0, 0, 0), 5.0, WHEN_A);
+
+            assertThat(receivers.keySet(), is(Set.of(actor1, actor2)));
+        }
+
+        @Test
+        public void rangeLargerThanGrid() {
+            final var medium = new SpatialMedium<>(POSITION_OF_STATE, 1.0, 1.0);
+            final var actor1 = new Actor<>(WHEN_A, -3000);
+            final var actor2 = new Actor<>(WHEN_A, 1000);
+            medium.track(actor1);
+            medium.track(actor2);
+
+            final var receivers = getReceivers(medium, new SpatialMedium.Position(0, 0, 0), 1.0E6, WHEN_A);
+
+            assertThat(receivers.keySet(), is(Set.of(actor1, actor2)));
+        }
+
+        @Test
+        public void negativeRange() {
+            final var medium = new SpatialMedium<>(POSITION_OF_STATE, 1.0, 1.0);
+            final var origin = new SpatialMedium.Position(0, 0, 0);
+
+            assertThrows(IllegalArgumentException.class, () -> medium.getReceivers(origin, -1.0, WHEN_A));
+        }
+    }
+
+    @Nested
+    public class StateHistoryChanges {
+
+        @Test
+        public void addEvent() {
+            final var medium = new SpatialMedium<>(POSITION_OF_STATE, 1.0, 1.0);
+            final var actor = new Actor<>(WHEN_A, 0);
+            medium.track(actor);
+            final var signal = new SignalTest.SimpleTestSignal(WHEN_A, null, actor, MEDIUM_B);
+
+            actor.addEvent(new Event<>(signal, WHEN_B, 10, Set.of(), Set.of()));
+
+            assertInvariants(medium, POSITION_OF_STATE, actor, WHEN_A);
+            assertInvariants(medium, POSITION_OF_STATE, actor, WHEN_B);
+            final var origin = new SpatialMedium.Position(10, 0, 0);
+            assertAll(
+                    () -> assertThat("before", getReceivers(medium, origin, 1.0, WHEN_A), anEmptyMap()),
+                    () -> assertThat("after", getReceivers(medium, origin, 1.0, WHEN_B).keySet(), is(Set.of(actor))));
+        }
+
+        @Test
+        public void rollBack() {
+            final var medium = new SpatialMedium<>(POSITION_OF_STATE, 1.0, 1.0);
+            final var actor = new Actor<>(WHEN_A, 0);
+            medium.track(actor);
+            actor.addSignalToReceive(new SignalTest.SimpleTestSignal(WHEN_B, null, actor, MEDIUM_B));
+            actor.receiveSignal();
+            final var whenFirstReceived = actor.getLastEvent().getWhen();
+            actor.addSignalToReceive(new SignalTest.SimpleTestSignal(WHEN_A, null, actor, MEDIUM_B));
+
+            actor.receiveSignal();
+
+            assertInvariants(medium, POSITION_OF_STATE, actor, WHEN_A);
+            assertInvariants(medium, POSITION_OF_STATE, actor, actor.getLastEvent().getWhen());
+            assertInvariants(medium, POSITION_OF_STATE, actor, whenFirstReceived);
+        }
+
+        @Test
+        public void rollBackSeveral() {
+            final var medium = new SpatialMedium<>(POSITION_OF_STATE, 1.0, 1.0);
+            final var actor = new Actor<>(WHEN_A, 0);
+            medium.track(actor);
+            actor.addSignalToReceive(new SignalTest.SimpleTestSignal(WHEN_B, null, actor, MEDIUM_B));
+            actor.addSignalToReceive(new SignalTest.SimpleTestSignal(WHEN_C, null, actor, MEDIUM_B));
+            actor.receiveSignal();
+            actor.receiveSignal();
+            final var origin = new SpatialMedium.Position(2, 0, 0);
+            final var whenLastReceived = actor.getLastEvent().getWhen();
+            assert medium.getNumberOfOccupiedCells() == 3;
+            actor.addSignalToReceive(new SignalTest.SimpleTestSignal(WHEN_A, null, actor, MEDIUM_B));
+
+            actor.receiveSignal();
+
+            assertInvariants(medium, POSITION_OF_STATE, actor, whenLastReceived);
+            assertAll(
+                    () -> assertThat("rolled back positions no longer indexed",
+                            getReceivers(medium, origin, 0.5, whenLastReceived), anEmptyMap()),
+                    () -> assertThat("occupied cells", medium.getNumberOfOccupiedCells(), is(2)));
+        }
+
+        @Test
+        public void clearEventsBefore() {
+            final var medium = new SpatialMedium<>(POSITION_OF_STATE, 1.0, 1.0);
+            final var actor = new Actor<>(WHEN_A, 0);
+            medium.track(actor);
+            final var signal = new SignalTest.SimpleTestSignal(WHEN_A, null, actor, MEDIUM_B);
+            actor.addEvent(new Event<>(signal, WHEN_B, 10, Set.of(), Set.of()));
+
+            actor.clearEventsBefore(WHEN_C);
+
+            assertInvariants(medium, POSITION_OF_STATE, actor, WHEN_A);
+            assertInvariants(medium, POSITION_OF_STATE, actor, WHEN_C);
+            assertThat("no longer indexed at old position",
+                    getReceivers(medium, new SpatialMedium.Position(0, 0, 0), 1.0, WHEN_A), anEmptyMap());
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package uk.badamson.mc.simulation.actor;
+/*
+ * © Copyright Benedict Adamson 2022.
+ *
+ * This file is part of MC-des.
+ *
+ * MC-des is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC-des is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MC-des.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class StatisticsCollectorTest {
+
+    private static final Duration WHEN_A = Duration.ofSeconds(0);
+
+    private static final Duration WHEN_B = Duration.ofSeconds(5);
+
+    private static final Duration WHEN_C = Duration.ofSeconds(7);
+
+    private static final Actor<Integer> ACTOR = new Actor<>(WHEN_A, 0);
+
+    private static final Signal<Integer> SIGNAL = new SignalTest.SimpleTestSignal(WHEN_A, null, ACTOR, ActorTest.MEDIUM_A);
+
+    @Nonnull
+    private static Event<Integer> event(@Nonnull final Duration when, final Integer state) {
+        return new Event<>(SIGNAL, when, state);
+    }
+
+    @Nested
+    public class CountTest {
+
+        @Test
+        public void none() {
+            assertThat(new StatisticsCollector.Count<Integer>().getCount(), is(0L));
+        }
+
+        @Test
+        public void appendedAndRemoved() {
+            final var collector = new StatisticsCollector.Count<Integer>();
+            final var event1 = event(WHEN_B, 1);
+            final var event2 = event(WHEN_C, 2);
+            collector.eventAppended(event1, WHEN_A, 0);
+            collector.eventAppended(event2, WHEN_B, 1);
+
+            collector.eventRemoved(event2, WHEN_B, 1);
+
+            assertThat(collector.getCount(), is(1L));
+        }
+
+        @Test
+        public void condition() {
+            final var collector = new StatisticsCollector.Count<Integer>(event -> event.getState() == null);
+
+            collector.eventAppended(event(WHEN_B, 1), WHEN_A, 0);
+            collector.eventAppended(event(WHEN_C, null), WHEN_B, 1);
+
+            assertThat(collector.getCount(), is(1L));
+        }
+
+        @Test
+        public void manyThreads() throws ExecutionException, InterruptedException {
+            final int nThreads = 4;
+            final int nEventsPerThread = 1000;
+            final var collector = new StatisticsCollector.Count<Integer>();
+            final var event = event(WHEN_B, 1);
+            final CountDownLatch ready = new CountDownLatch(1);
+            final ExecutorService executor = Executors.newFixedThreadPool(nThreads);
+            try {
+                final List<Future<?>> futures = new ArrayList<>(nThreads);
+                for (int t = 0; t < nThreads; ++t) {
+                    futures.add(executor.submit(() -> {
+                        ready.await();
+                        for (int e = 0; e < nEventsPerThread; ++e) {
+                            collector.eventAppended(event, WHEN_A, 0);
+                        }
+                        return null;
+                    }));
+                }
+                ready.countDown();
+                for (final var future : futures) {
+                    future.get();
+                }
+            } finally {
+                executor.shutdown();
+            }
+
+            assertThat(collector.getCount(), is((long) nThreads * nEventsPerThread));
+        }
+
+        @Test
+        public void merge() {
+            final var collector1 = new StatisticsCollector.Count<Integer>();
+            final var collector2 = new StatisticsCollector.Count<Integer>();
+            collector1.eventAppended(event(WHEN_B, 1), WHEN_A, 0);
+            collector2.eventAppended(event(WHEN_B, 1), WHEN_A, 0);
+            collector2.eventAppended(event(WHEN_C, 2), WHEN_B, 1);
+
+            collector1.merge(collector2);
+
+            assertAll(
+                    () -> assertThat("merged", collector1.getCount(), is(3L)),
+                    () -> assertThat("other unchanged", collector2.getCount(), is(2L)));
+        }
+
+        @Test
+        public void observingActor() {
+            final var actor = new Actor<>(WHEN_A, 0);
+            final Signal<Integer> signal1 = new SignalTest.SimpleTestSignal(WHEN_B, null, actor, ActorTest.MEDIUM_A);
+            final Signal<Integer> signal2 = new SignalTest.SimpleTestSignal(WHEN_C, null, actor, ActorTest.MEDIUM_A);
+            final var collector = new StatisticsCollector.Count<Integer>();
+            actor.addEventObserver(collector);
+            actor.addSignalToReceive(signal2);
+            actor.receiveSignal();
+            actor.addSignalToReceive(signal1);
+
+            actor.receiveSignal();// rolls back the event for signal 2
+
+            assertThat(collector.getCount(), is((long) actor.getNumberOfEvents()));
+        }
+    }
+
+    @Nested
+    public class TimeWeightedMeanTest {
+
+        @Test
+        public void none() {
+            final var collector = new StatisticsCollector.TimeWeightedMean<Integer>(state -> state);
+
+            assertAll(
+                    () -> assertThat("duration", collector.getDuration(), is(0.0)),
+                    () -> assertThat("mean", collector.getMean(), notANumber()));
+        }
+
+        @Test
+        public void two() {
+            final var collector = new StatisticsCollector.TimeWeightedMean<Integer>(state -> state);
+
+            collector.eventAppended(event(WHEN_B, 4), WHEN_A, 2);
+            collector.eventAppended(event(WHEN_C, 1), WHEN_B, 4);
+
+            assertAll(
+                    () -> assertThat("integral", collector.getIntegral(), closeTo(18.0, 1E-9)),
+                    () -> assertThat("duration", collector.getDuration(), closeTo(7.0, 1E-9)),
+                    () -> assertThat("mean", collector.getMean(), closeTo(18.0 / 7.0, 1E-9)));
+        }
+
+        @Test
+        public void removed() {
+            final var collector = new StatisticsCollector.TimeWeightedMean<Integer>(state -> state);
+            final var event2 = event(WHEN_C, 1);
+            collector.eventAppended(event(WHEN_B, 4), WHEN_A, 2);
+            collector.eventAppended(event2, WHEN_B, 4);
+
+            collector.eventRemoved(event2, WHEN_B, 4);
+
+            assertThat(collector.getMean(), closeTo(2.0, 1E-9));
+        }
+    }
+
+    @Nested
+    public class HistogramTest {
+
+        @Test
+        public void counts() {
+            final var collector = new StatisticsCollector.Histogram<Integer>(state -> state, 0.0, 10.0, 5);
+            final var removed = event(WHEN_C, 9);
+
+            collector.eventAppended(event(WHEN_B, 1), WHEN_A, 0);
+            collector.eventAppended(event(WHEN_B, 3), WHEN_A, 0);
+            collector.eventAppended(event(WHEN_B, 3), WHEN_A, 0);
+            collector.eventAppended(event(WHEN_B, 12), WHEN_A, 0);
+            collector.eventAppended(event(WHEN_B, -1), WHEN_A, 0);
+            collector.eventAppended(event(WHEN_B, null), WHEN_A, 0);
+            collector.eventAppended(removed, WHEN_B, 3);
+            collector.eventRemoved(removed, WHEN_B, 3);
+
+            assertAll(
+                    () -> assertThat("bins", collector.getBinCounts(), is(new long[]{1, 2, 0, 0, 0})),
+                    () -> assertThat("underflow", collector.getUnderflowCount(), is(1L)),
+                    () -> assertThat("overflow", collector.getOverflowCount(), is(1L)));
+        }
+
+        @Test
+        public void emptyRange() {
+            assertThrows(IllegalArgumentException.class,
+                    () -> new StatisticsCollector.Histogram<Integer>(state -> state, 1.0, 1.0, 5));
+        }
+
+        @Test
+        public void noBins() {
+            assertThrows(IllegalArgumentException.class,
+                    () -> new StatisticsCollector.Histogram<Integer>(state -> state, 0.0, 1.0, 0));
+        }
+    }
+
+    @Nested
+    public class QuantileSketchTest {
+
+        @Test
+        public void none() {
+            final var collector = new StatisticsCollector.QuantileSketch<Integer>(state -> state, 0.01);
+
+            assertAll(
+                    () -> assertThat("count", collector.getCount(), is(0L)),
+                    () -> assertThat("quantile", collector.getQuantile(0.5), notANumber()));
+        }
+
+        @Test
+        public void positive() {
+            final var collector = new StatisticsCollector.QuantileSketch<Integer>(state -> state, 0.01);
+            for (int value = 1; value <= 100; ++value) {
+                collector.eventAppended(event(WHEN_B, value), WHEN_A, 0);
+            }
+
+            assertAll(
+                    () -> assertThat("count", collector.getCount(), is(100L)),
+                    () -> assertThat("min", collector.getQuantile(0.0), closeTo(1.0, 0.02)),
+                    () -> assertThat("median", collector.getQuantile(0.5), closeTo(50.0, 0.5)),
+                    () -> assertThat("max", collector.getQuantile(1.0), closeTo(100.0, 1.0)));
+        }
+
+        @Test
+        public void mixedSigns() {
+            final var collector = new StatisticsCollector.QuantileSketch<Integer>(state -> state, 0.01);
+            collector.eventAppended(event(WHEN_B, -5), WHEN_A, 0);
+            collector.eventAppended(event(WHEN_B, 0), WHEN_A, 0);
+            collector.eventAppended(event(WHEN_B, 5), WHEN_A, 0);
+
+            assertAll(
+                    () -> assertThat("min", collector.getQuantile(0.0), closeTo(-5.0, 0.05)),
+                    () -> assertThat("median", collector.getQuantile(0.5), is(0.0)),
+                    () -> assertThat("max", collector.getQuantile(1.0), closeTo(5.0, 0.05)));
+        }
+
+        @Test
+        public void removed() {
+            final var collector = new StatisticsCollector.QuantileSketch<Integer>(state -> state, 0.01);
+            final var removed = event(WHEN_C, 1000);
+            collector.eventAppended(event(WHEN_B, 10), WHEN_A, 0);
+            collector.eventAppended(removed, WHEN_B, 10);
+
+            collector.eventRemoved(removed, WHEN_B, 10);
+
+            assertAll(
+                    () -> assertThat("count", collector.getCount(), is(1L)),
+                    () -> assertThat("max", collector.getQuantile(1.0), closeTo(10.0, 0.1)));
+        }
+
+        @Test
+        public void invalidProbability() {
+            final var collector = new StatisticsCollector.QuantileSketch<Integer>(state -> state, 0.01);
+
+            assertThrows(IllegalArgumentException.class, () -> collector.getQuantile(1.5));
+        }
+    }
+}
@@ -23,6 +23,7 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import uk.badamson.dbc.assertions.CollectionVerifier;
 import uk.badamson.dbc.assertions.ObjectVerifier;
+import uk.badamson.mc.simulation.benchmark.Phold;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
@@ -30,8 +31,12 @@ import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
 import java.util.stream.Collectors;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -54,6 +59,8 @@ public class UniverseTest {
 
     private static final Executor DIRECT_EXECUTOR = Runnable::run;
 
+    private static final Duration UNLIMITED = Duration.ofDays(365);
+
     public static <STATE> void assertInvariants(@Nonnull final Universe<STATE> universe) {
         ObjectVerifier.assertInvariants(universe);// inherited
 
@@ -62,6 +69,11 @@ public class UniverseTest {
             ActorTest.assertInvariants(actor);
         });
         assertThat(universe.toArray().length, is(universe.size()));
+        assertAll(
+                () -> assertThat("numberOfEvents", universe.getNumberOfEvents(),
+                        is(universe.stream().mapToLong(Actor::getNumberOfEvents).sum())),
+                () -> assertThat("maximumNumberOfEvents", universe.getMaximumNumberOfEvents(),
+                        greaterThanOrEqualTo(0)));
     }
 
     public static <STATE> void assertInvariants(@Nonnull final Universe<STATE> universe1,
@@ -167,6 +179,162 @@ public class UniverseTest {
         assertThat(universe.size(), is(0));
         assertThat("iterator.next", !universe.iterator().hasNext());
         assertThat(universe.toArray(), emptyArray());
+        assertThat("numberOfEvents", universe.getNumberOfEvents(), is(0L));
+        assertThat("no memory budget", universe.getMaximumNumberOfEvents(), is(Integer.MAX_VALUE));
+    }
+
+    @Nested
+    public class Fork {
+
+        @Test
+        public void empty() {
+            final var universe = new Universe<Integer>();
+
+            final var fork = fork(universe);
+
+            assertThat(fork, Matchers.empty());
+        }
+
+        @Test
+        public void advanced() throws Exception {
+            final var actor = new Actor<>(WHEN_A, 1);
+            actor.addSignalToReceive(new SignalTest.StrobingTestSignal(WHEN_A, actor, actor, MEDIUM_A));
+            final var universe = new Universe<Integer>();
+            universe.add(actor);
+            universe.setMaximumNumberOfEvents(1000);
+            final var whenFork = Duration.ofSeconds(20);
+            final var whenEnd = Duration.ofSeconds(100);
+            advanceTo(universe, whenFork, DIRECT_EXECUTOR).get();
+            final var stateAtFork = actor.getStateHistory().getLastValue();
+            final var numberOfEventsAtFork = actor.getNumberOfEvents();
+
+            final var fork = fork(universe);
+
+            assertThat(fork, hasSize(1));
+            final var forkedActor = fork.iterator().next();
+            assertAll(
+                    () -> assertThat("forked actor", forkedActor, not(sameInstance(actor))),
+                    () -> assertThat("forked actor events", forkedActor.getEvents(), Matchers.empty()),
+                    () -> assertThat("forked actor state", forkedActor.getStateHistory().getLastValue(), is(stateAtFork)),
+                    () -> assertThat("forked actor whenReceiveNextSignal", forkedActor.getWhenReceiveNextSignal(),
+                            is(actor.getWhenReceiveNextSignal())),
+                    () -> assertThat("maximumNumberOfEvents", fork.getMaximumNumberOfEvents(), is(1000)));
+
+            advanceTo(fork, whenEnd, DIRECT_EXECUTOR).get();
+
+            assertInvariants(fork);
+            assertThat("original not changed by advancing fork", actor.getNumberOfEvents(), is(numberOfEventsAtFork));
+            advanceTo(universe, whenEnd, DIRECT_EXECUTOR).get();
+            assertAll("fork and original diverge independently but deterministically",
+                    () -> assertThat("state", forkedActor.getStateHistory().getLastValue(),
+                            is(actor.getStateHistory().getLastValue())),
+                    () -> assertThat("whenReceiveNextSignal", forkedActor.getWhenReceiveNextSignal(),
+                            is(actor.getWhenReceiveNextSignal())));
+        }
+
+        @Test
+        public void withRandomSeed() {
+            final var actor = new Actor<>(WHEN_A, 1, 3L);
+            final var universe = new Universe<Integer>();
+            universe.add(actor);
+
+            final var fork1 = universe.fork(1L);
+            final var fork2 = universe.fork(2L);
+            final var fork3 = universe.fork();
+
+            assertInvariants(fork1);
+            assertInvariants(fork2);
+            final long seed1 = fork1.iterator().next().getRandomSeed();
+            final long seed2 = fork2.iterator().next().getRandomSeed();
+            assertAll(
+                    () -> assertThat("seeds changed", seed1, not(actor.getRandomSeed())),
+                    () -> assertThat("seeds differ", seed1, not(seed2)),
+                    () -> assertThat("reproducible", universe.fork(1L).iterator().next().getRandomSeed(), is(seed1)),
+                    () -> assertThat("seed unchanged without a seed", fork3.iterator().next().getRandomSeed(),
+                            is(actor.getRandomSeed())));
+        }
+
+        @Test
+        public void speculative() {
+            final var actor = new Actor<>(WHEN_A, 1);
+            actor.addSignalToReceive(new SignalTest.StrobingTestSignal(WHEN_A, actor, actor, MEDIUM_A));
+            actor.receiveSignal();
+            actor.receiveSignal();
+            final var laggingActor = new Actor<>(WHEN_A, 0);
+            laggingActor.addSignalToReceive(new SignalTest.SimpleTestSignal(WHEN_A, null, laggingActor, MEDIUM_A));
+            final var universe = new Universe<Integer>();
+            universe.add(actor);
+            universe.add(laggingActor);
+
+            assertThrows(IllegalStateException.class, universe::fork);
+        }
+
+        @Test
+        public void uncopyableSignal() {
+            final var actor = new Actor<>(WHEN_A, 1);
+            actor.addSignalToReceive(new SignalTest.ThrowingSignal(WHEN_A, null, actor, MEDIUM_A));
+            final var universe = new Universe<Integer>();
+            universe.add(actor);
+
+            assertThrows(UnsupportedOperationException.class, universe::fork);
+        }
+
+        @Test
+        public void uncopyableSignalAmongCopyable() {
+            final var actorA = new Actor<>(WHEN_A, 1);
+            final var actorB = new Actor<>(WHEN_A, 2);
+            actorA.addSignalToReceive(new SignalTest.SimpleTestSignal(WHEN_A, null, actorA, MEDIUM_A));
+            actorB.addSignalToReceive(new SignalTest.SimpleTestSignal(WHEN_A, actorA, actorB, MEDIUM_A));
+            actorB.addSignalToReceive(new SignalTest.ThrowingSignal(WHEN_A, null, actorB, MEDIUM_A));
+            final var universe = new Universe<Integer>();
+            universe.add(actorA);
+            universe.add(actorB);
+
+            assertThrows(UnsupportedOperationException.class, universe::fork);
+            assertInvariants(universe);
+        }
+
+        @Nonnull
+        private <STATE> Universe<STATE> fork(@Nonnull final Universe<STATE> universe) {
+            final var fork = universe.fork();
+
+            assertInvariants(universe);
+            assertInvariants(fork);
+            assertThat(fork, not(sameInstance(universe)));
+            assertThat(fork, hasSize(universe.size()));
+            assertThat("fork has new actors", fork.stream().noneMatch(universe::contains), is(true));
+            return fork;
+        }
+    }
+
+    @Nested
+    public class SetMaximumNumberOfEvents {
+
+        @Test
+        public void zero() {
+            test(0);
+        }
+
+        @Test
+        public void positive() {
+            test(100);
+        }
+
+        @Test
+        public void negative() {
+            final var universe = new Universe<Integer>();
+
+            assertThrows(IllegalArgumentException.class, () -> universe.setMaximumNumberOfEvents(-1));
+        }
+
+        private void test(final int maximumNumberOfEvents) {
+            final var universe = new Universe<Integer>();
+
+            universe.setMaximumNumberOfEvents(maximumNumberOfEvents);
+
+            assertInvariants(universe);
+            assertThat(universe.getMaximumNumberOfEvents(), is(maximumNumberOfEvents));
+        }
     }
 
     @Nested
@@ -754,6 +922,35 @@ public class UniverseTest {
                         () -> assertThat(affectedActors.getChanged(), containsInAnyOrder(universe.toArray())));
             }
 
+            @Test
+            public void multicastConcurrent() throws Exception {
+                final int nThreads = 16;
+                final int nListeners = Actor.MULTICAST_BATCH_SIZE * 4;
+                final var sender = new Actor<>(WHEN_A, 0);
+                final Universe<Integer> universe = new Universe<>();
+                universe.add(sender);
+                final Set<Actor<Integer>> listeners = new HashSet<>();
+                for (int l = 0; l < nListeners; ++l) {
+                    final var listener = new Actor<>(WHEN_A, 0);
+                    listeners.add(listener);
+                    universe.add(listener);
+                }
+                sender.addSignalToReceive(new SignalTest.MulticastingTestSignal(WHEN_A, null, sender, MEDIUM_A, listeners));
+                final var when = WHEN_A.plusSeconds(10);
+                final ExecutorService executor = Executors.newFixedThreadPool(nThreads);
+                try {
+                    final var future = advanceTo(universe, when, executor);
+                    final Actor.AffectedActors<Integer> affectedActors = future.get();
+
+                    assertAllHaveAdvancedTo(when, universe);
+                    assertAll(
+                            () -> assertThat("changed", affectedActors.getChanged(), containsInAnyOrder(universe.toArray())),
+                            () -> assertThat("events", universe.getNumberOfEvents(), is(nListeners + 1L)));
+                } finally {
+                    executor.shutdown();
+                }
+            }
+
             @Test
             public void receiveSignalThrowsException() {
                 final Duration margin = Duration.ofSeconds(10);
@@ -844,6 +1041,88 @@ public class UniverseTest {
             }
         }
 
+        @Nested
+        public class WithMemoryBudget {
+
+            @Test
+            public void throttled() throws Exception {
+                final int maximumNumberOfEvents = 3;
+                final var actor = new Actor<>(WHEN_A, 1);
+                actor.addSignalToReceive(new SignalTest.StrobingTestSignal(WHEN_A, actor, actor, MEDIUM_A));
+                final var when = Duration.ofDays(1);
+                final Universe<Integer> universe = new Universe<>();
+                universe.add(actor);
+                universe.setMaximumNumberOfEvents(maximumNumberOfEvents);
+
+                final var future = advanceTo(universe, when, DIRECT_EXECUTOR);
+                final Actor.AffectedActors<Integer> affectedActors = future.get();
+
+                assertInvariants(universe);
+                ActorTest.AffectedActorsTest.assertInvariants(affectedActors);
+                assertAll(
+                        () -> assertThat("numberOfEvents", universe.getNumberOfEvents(),
+                                is((long) maximumNumberOfEvents)),
+                        () -> assertThat("stopped early", actor.getWhenReceiveNextSignal(), lessThan(when)),
+                        () -> assertThat(affectedActors.getChanged(), contains(actor)));
+            }
+
+            @Test
+            public void cancelBack() throws Exception {
+                final var speculativeActor = new Actor<>(WHEN_A, 1);
+                speculativeActor.addSignalToReceive(
+                        new SignalTest.StrobingTestSignal(WHEN_A, speculativeActor, speculativeActor, MEDIUM_A));
+                final Universe<Integer> universe = new Universe<>();
+                universe.add(speculativeActor);
+                advanceTo(universe, Duration.ofSeconds(20), DIRECT_EXECUTOR).get();
+                final var laggingActor = new Actor<>(WHEN_A, 0);
+                laggingActor.addSignalToReceive(
+                        new SignalTest.StrobingTestSignal(WHEN_A, laggingActor, laggingActor, MEDIUM_A));
+                universe.add(laggingActor);
+                final long numberOfEvents0 = universe.getNumberOfEvents();
+                assert 2 < numberOfEvents0;
+                universe.setMaximumNumberOfEvents(1);
+
+                final var future = advanceTo(universe, Duration.ofSeconds(20), DIRECT_EXECUTOR);
+                final Actor.AffectedActors<Integer> affectedActors = future.get();
+
+                assertInvariants(universe);
+                ActorTest.AffectedActorsTest.assertInvariants(affectedActors);
+                final var earliestWhenReceiveNextSignal = universe.getEarliestWhenReceiveNextSignal();
+                assertAll(
+                        () -> assertThat("numberOfEvents", universe.getNumberOfEvents(), lessThan(numberOfEvents0)),
+                        () -> assertThat("Rolled back speculative events",
+                                speculativeActor.getLastEvent().getWhen(),
+                                lessThanOrEqualTo(earliestWhenReceiveNextSignal)),
+                        () -> assertThat("lagging actor advanced despite the budget", laggingActor.getEvents(),
+                                hasSize(1)),
+                        () -> assertThat(affectedActors.getChanged(),
+                                containsInAnyOrder(speculativeActor, laggingActor)));
+            }
+
+            @Test
+            public void repeatedlyUntilDone() throws Exception {
+                final int nActors = 4;
+                final Universe<Integer> universe = new Universe<>();
+                for (int a = 0; a < nActors; ++a) {
+                    final var actor = new Actor<>(WHEN_A, a);
+                    actor.addSignalToReceive(new SignalTest.StrobingTestSignal(WHEN_A, actor, actor, MEDIUM_A));
+                    universe.add(actor);
+                }
+                universe.setMaximumNumberOfEvents(2);
+                final var when = Duration.ofSeconds(100);
+                final int maximumNumberOfCalls = 1000;
+
+                int nCalls = 0;
+                while (universe.getEarliestWhenReceiveNextSignal().compareTo(when) < 0 && nCalls < maximumNumberOfCalls) {
+                    advanceTo(universe, when, DIRECT_EXECUTOR).get();
+                    ++nCalls;
+                }
+
+                assertInvariants(universe);
+                assertAllHaveAdvancedTo(when, universe);
+            }
+        }
+
         @Nested
         public class WhenReceivingASignalIsUnnecessary {
 
@@ -882,4 +1161,370 @@ public class UniverseTest {
             }
         }
     }
+
+    @Nested
+    public class PublishCommittedEvents {
+
+        @Test
+        public void advanced() throws Exception {
+            final var actor = new Actor<>(WHEN_A, 1);
+            actor.addSignalToReceive(new SignalTest.StrobingTestSignal(WHEN_A, actor, actor, MEDIUM_A));
+            final var universe = new Universe<Integer>();
+            universe.add(actor);
+            final var subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+            universe.publishCommittedEvents(DIRECT_EXECUTOR, 4).subscribe(subscriber);
+
+            advanceTo(universe, Duration.ofSeconds(20), DIRECT_EXECUTOR).get();
+
+            assertThat(subscriber.getEvents(), contains(actor.getEvents().toArray()));
+        }
+
+        @Test
+        public void advancedTwice() throws Exception {
+            final var actor = new Actor<>(WHEN_A, 1);
+            actor.addSignalToReceive(new SignalTest.StrobingTestSignal(WHEN_A, actor, actor, MEDIUM_A));
+            final var universe = new Universe<Integer>();
+            universe.add(actor);
+            final var subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+            universe.publishCommittedEvents(DIRECT_EXECUTOR, 4).subscribe(subscriber);
+            advanceTo(universe, Duration.ofSeconds(20), DIRECT_EXECUTOR).get();
+
+            advanceTo(universe, Duration.ofSeconds(40), DIRECT_EXECUTOR).get();
+
+            assertThat("each event published once", subscriber.getEvents(), contains(actor.getEvents().toArray()));
+        }
+
+        @Test
+        public void speculative() throws Exception {
+            final var speculativeActor = new Actor<>(WHEN_A, 1);
+            speculativeActor.addSignalToReceive(
+                    new SignalTest.StrobingTestSignal(WHEN_A, speculativeActor, speculativeActor, MEDIUM_A));
+            final var universe = new Universe<Integer>();
+            universe.add(speculativeActor);
+            advanceTo(universe, Duration.ofSeconds(20), DIRECT_EXECUTOR).get();
+            final var laggingActor = new Actor<>(WHEN_A, 0);
+            laggingActor.addSignalToReceive(new SignalTest.SimpleTestSignal(WHEN_B, null, laggingActor, MEDIUM_A));
+            universe.add(laggingActor);
+            final var subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+            universe.publishCommittedEvents(DIRECT_EXECUTOR, 4).subscribe(subscriber);
+            final var earliestWhenReceiveNextSignal = laggingActor.getWhenReceiveNextSignal();
+
+            final var committedEvents = speculativeActor.getEvents().stream()
+                    .filter(event -> event.getWhen().compareTo(earliestWhenReceiveNextSignal) < 0)
+                    .toArray();
+            assertThat("has committed events", committedEvents.length, greaterThan(0));
+
+            advanceTo(universe, WHEN_A, DIRECT_EXECUTOR).get();
+
+            assertThat("only the committed events", subscriber.getEvents(), contains(committedEvents));
+        }
+
+        @Test
+        public void demand() throws Exception {
+            final var actor = new Actor<>(WHEN_A, 1);
+            actor.addSignalToReceive(new SignalTest.StrobingTestSignal(WHEN_A, actor, actor, MEDIUM_A));
+            final var universe = new Universe<Integer>();
+            universe.add(actor);
+            final var subscriber = new RecordingSubscriber(0L);
+            universe.publishCommittedEvents(DIRECT_EXECUTOR, 4).subscribe(subscriber);
+            advanceTo(universe, Duration.ofSeconds(20), DIRECT_EXECUTOR).get();
+            assertThat("no demand", subscriber.getEvents(), empty());
+
+            subscriber.request(1L);
+
+            assertThat(subscriber.getEvents(), contains(actor.getEvents().toArray()));
+        }
+
+        @Test
+        public void close() {
+            final var universe = new Universe<Integer>();
+            final var subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+            universe.publishCommittedEvents(DIRECT_EXECUTOR, 4).subscribe(subscriber);
+
+            universe.closeCommittedEventsPublishers();
+
+            assertThat("complete", subscriber.isComplete(), is(true));
+        }
+    }
+
+    @Nested
+    public class StatesAt {
+
+        @Test
+        public void empty() {
+            final var universe = new Universe<Integer>();
+
+            final var snapshot = statesAt(universe, WHEN_A);
+
+            assertThat(snapshot.size(), is(0));
+        }
+
+        @Test
+        public void advanced() throws Exception {
+            final var actor1 = new Actor<>(WHEN_A, 1);
+            actor1.addSignalToReceive(new SignalTest.StrobingTestSignal(WHEN_A, actor1, actor1, MEDIUM_A));
+            final var actor2 = new Actor<>(WHEN_B, 10);
+            final var universe = new Universe<Integer>();
+            universe.add(actor1);
+            universe.add(actor2);
+            advanceTo(universe, Duration.ofSeconds(20), DIRECT_EXECUTOR).get();
+            final var when = Duration.ofSeconds(8);
+            final var expectedState1 = actor1.getStateHistory().get(when);
+
+            final var snapshot = statesAt(universe, when);
+
+            assertThat(snapshot.size(), is(2));
+            final Map<Actor<Integer>, Integer> states = new HashMap<>();
+            snapshot.forEach(states::put);
+            assertThat(states, is(Map.of(actor1, expectedState1, actor2, 10)));
+        }
+
+        @Test
+        public void beforeStart() {
+            final var actor1 = new Actor<>(WHEN_A, 1);
+            final var actor2 = new Actor<>(WHEN_C, 2);
+            final var universe = new Universe<Integer>();
+            universe.add(actor1);
+            universe.add(actor2);
+
+            final var snapshot = statesAt(universe, WHEN_B);
+
+            assertAll(
+                    () -> assertThat("size", snapshot.size(), is(1)),
+                    () -> assertThat("actor", snapshot.getActor(0), sameInstance(actor1)),
+                    () -> assertThat("state", snapshot.getState(0), is(1)));
+        }
+
+        @Test
+        public void filtered() {
+            final var actor1 = new Actor<>(WHEN_A, 1);
+            final var actor2 = new Actor<>(WHEN_A, 2);
+            final var universe = new Universe<Integer>();
+            universe.add(actor1);
+            universe.add(actor2);
+
+            final var snapshot = universe.statesAt(WHEN_B, state -> state % 2 == 0);
+
+            assertAll(
+                    () -> assertThat("size", snapshot.size(), is(1)),
+                    () -> assertThat("actor", snapshot.getActor(0), sameInstance(actor2)));
+        }
+
+        @Test
+        public void speculative() {
+            final var actor = new Actor<>(WHEN_A, 1);
+            actor.addSignalToReceive(new SignalTest.SimpleTestSignal(WHEN_A, null, actor, MEDIUM_A));
+            final var universe = new Universe<Integer>();
+            universe.add(actor);
+            final var whenReceiveNextSignal = actor.getWhenReceiveNextSignal();
+
+            assertThrows(IllegalStateException.class, () -> universe.statesAt(whenReceiveNextSignal));
+        }
+
+        @Test
+        public void whileAdvancing() throws Exception {
+            final var model = new Phold(16, 4, 0.5, Duration.ZERO, Duration.ofSeconds(1), 42L);
+            final var universe = model.getUniverse();
+            final List<Universe.Snapshot<Long>> snapshots = new ArrayList<>();
+            final ExecutorService executor = Executors.newFixedThreadPool(4);
+            try {
+                final var future = universe.advanceTo(Duration.ofSeconds(100), executor);
+                while (!future.isDone()) {
+                    // The committed time never decreases, so the snapshot is possible.
+                    final var when = universe.getEarliestWhenReceiveNextSignal().minusNanos(1L);
+                    snapshots.add(universe.statesAt(when));
+                }
+                future.get();
+            } finally {
+                executor.shutdown();
+            }
+
+            assertInvariants(universe);
+            assertThat("snapshots", snapshots, not(Matchers.empty()));
+            for (final var snapshot : snapshots) {
+                final var when = snapshot.getWhen();
+                for (int i = 0; i < snapshot.size(); ++i) {
+                    assertThat("state", snapshot.getState(i), is(snapshot.getActor(i).getState(when)));
+                }
+            }
+        }
+
+        private Universe.Snapshot<Integer> statesAt(
+                @Nonnull final Universe<Integer> universe, @Nonnull final Duration when) {
+            final var snapshot = universe.statesAt(when);
+
+            assertInvariants(universe);
+            assertThat(snapshot, notNullValue());
+            assertThat("when", snapshot.getWhen(), is(when));
+            for (int i = 0; i < snapshot.size(); ++i) {
+                final var actor = snapshot.getActor(i);
+                assertThat("contains actor", universe.contains(actor), is(true));
+                assertThat("state", snapshot.getState(i), is(actor.getState(when)));
+            }
+            return snapshot;
+        }
+    }
+
+    @Nested
+    public class AdvanceToWithTimeLimit {
+
+        @Test
+        public void empty() throws Exception {
+            final var universe = new Universe<Integer>();
+
+            final var advancement = advanceTo(universe, WHEN_B, UNLIMITED, () -> false);
+
+            assertThat("complete", advancement.isComplete(), is(true));
+        }
+
+        @Test
+        public void unlimited() throws Exception {
+            final var universe = createStrobingUniverse();
+            final var when = Duration.ofSeconds(20);
+
+            final var advancement = advanceTo(universe, when, UNLIMITED, () -> false);
+
+            assertThat("complete", advancement.isComplete(), is(true));
+            assertAllHaveAdvancedTo(when, universe);
+        }
+
+        @Test
+        public void zeroTimeLimit() throws Exception {
+            final var universe = createStrobingUniverse();
+            final var whenReceiveNextSignal = universe.iterator().next().getWhenReceiveNextSignal();
+
+            final var advancement = advanceTo(universe, Duration.ofSeconds(20), Duration.ZERO, () -> false);
+
+            assertAll(
+                    () -> assertThat("complete", advancement.isComplete(), is(false)),
+                    () -> assertThat("whenReached", advancement.getWhenReached(), is(whenReceiveNextSignal)),
+                    () -> assertThat("numberOfEvents", universe.getNumberOfEvents(), is(0L)));
+        }
+
+        @Test
+        public void cancelledBeforeStart() throws Exception {
+            final var universe = createStrobingUniverse();
+            final var whenReceiveNextSignal = universe.iterator().next().getWhenReceiveNextSignal();
+
+            final var advancement = advanceTo(universe, Duration.ofSeconds(20), UNLIMITED, () -> true);
+
+            assertAll(
+                    () -> assertThat("complete", advancement.isComplete(), is(false)),
+                    () -> assertThat("whenReached", advancement.getWhenReached(), is(whenReceiveNextSignal)),
+                    () -> assertThat("numberOfEvents", universe.getNumberOfEvents(), is(0L)));
+        }
+
+        @Test
+        public void cancelledPartWay() throws Exception {
+            final var universe = createStrobingUniverse();
+            final var when = Duration.ofSeconds(20);
+            final var checks = new AtomicInteger(0);
+
+            final var advancement = advanceTo(universe, when, UNLIMITED, () -> checks.incrementAndGet() > 3);
+
+            assertAll(
+                    () -> assertThat("complete", advancement.isComplete(), is(false)),
+                    () -> assertThat("whenReached", advancement.getWhenReached(), greaterThan(WHEN_A)),
+                    () -> assertThat("numberOfEvents", universe.getNumberOfEvents(), greaterThan(0L)));
+        }
+
+        @Test
+        public void resumed() throws Exception {
+            final var universe = createStrobingUniverse();
+            final var when = Duration.ofSeconds(20);
+            final var checks = new AtomicInteger(0);
+            advanceTo(universe, when, UNLIMITED, () -> checks.incrementAndGet() > 3);
+
+            final var advancement = advanceTo(universe, when, UNLIMITED, () -> false);
+
+            assertThat("complete", advancement.isComplete(), is(true));
+            assertAllHaveAdvancedTo(when, universe);
+        }
+
+        @Test
+        public void negativeTimeLimit() {
+            final var universe = new Universe<Integer>();
+
+            assertThrows(IllegalArgumentException.class,
+                    () -> universe.advanceTo(WHEN_B, DIRECT_EXECUTOR, Duration.ofMillis(-1), () -> false));
+        }
+
+        @Nonnull
+        private Universe<Integer> createStrobingUniverse() {
+            final var actor = new Actor<>(WHEN_A, 0);
+            actor.addSignalToReceive(new SignalTest.StrobingTestSignal(WHEN_A, actor, actor, MEDIUM_A));
+            final var universe = new Universe<Integer>();
+            universe.add(actor);
+            return universe;
+        }
+
+        @Nonnull
+        private Universe.Advancement<Integer> advanceTo(
+                @Nonnull final Universe<Integer> universe, @Nonnull final Duration when,
+                @Nonnull final Duration timeLimit, @Nonnull final BooleanSupplier cancelled) throws Exception {
+            final var advancement = universe.advanceTo(when, DIRECT_EXECUTOR, timeLimit, cancelled).get();
+
+            assertInvariants(universe);
+            assertThat(advancement, notNullValue());
+            assertAll(
+                    () -> assertThat("when", advancement.getWhen(), is(when)),
+                    () -> assertThat("whenReached", advancement.getWhenReached(), lessThanOrEqualTo(when)),
+                    () -> assertThat("affectedActors", advancement.getAffectedActors(), notNullValue()),
+                    () -> assertThat("complete iff reached requested time",
+                            advancement.isComplete(), is(advancement.getWhenReached().equals(when))));
+            return advancement;
+        }
+    }
+
+    private static final class RecordingSubscriber implements Flow.Subscriber<List<Event<Integer>>> {
+
+        private final long initialDemand;
+        private final List<Event<Integer>> events = new ArrayList<>();
+        private Flow.Subscription subscription;
+        private boolean complete;
+
+        RecordingSubscriber(final long initialDemand) {
+            this.initialDemand = initialDemand;
+        }
+
+        @Override
+        public synchronized void onSubscribe(@Nonnull final Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (0L < initialDemand) {
+                subscription.request(initialDemand);
+            }
+        }
+
+        @Override
+        public synchronized void onNext(@Nonnull final List<Event<Integer>> batch) {
+            assertThat("batch size", batch.size(), lessThanOrEqualTo(Universe.COMMITTED_EVENTS_BATCH_SIZE));
+            events.addAll(batch);
+        }
+
+        @Override
+        public synchronized void onError(@Nonnull final Throwable throwable) {
+            throw new AssertionError(throwable);
+        }
+
+        @Override
+        public synchronized void onComplete() {
+            complete = true;
+        }
+
+        void request(final long n) {
+            final Flow.Subscription s;
+            synchronized (this) {
+                s = subscription;
+            }
+            s.request(n);
+        }
+
+        synchronized List<Event<Integer>> getEvents() {
+            return new ArrayList<>(events);
+        }
+
+        synchronized boolean isComplete() {
+            return complete;
+        }
+    }
 }
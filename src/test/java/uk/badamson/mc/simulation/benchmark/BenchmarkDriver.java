@@ -0,0 +1,206 @@
+package uk.badamson.mc.simulation.benchmark;
+/*
+ * © Copyright Benedict Adamson 2022.
+ *
+ * This file is part of MC-des.
+ *
+ * MC-des is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC-des is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MC-des.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * <p>
+ * Runs {@linkplain BenchmarkModel benchmark models} for a long simulated time,
+ * with different numbers of threads, and reports their performance.
+ * </p>
+ * <p>
+ * For each number of threads it reports the number of committed events per second of wall-clock time,
+ * the efficiency (the number of committed events divided by the number of events processed),
+ * and the speed-up relative to the first (smallest) number of threads.
+ * </p>
+ * <p>
+ * Run it from the command line, after building the test classes, for example:
+ * </p>
+ * <pre>
+ * java -cp target/classes:target/test-classes uk.badamson.mc.simulation.benchmark.BenchmarkDriver phold 1000 16
+ * </pre>
+ * <p>
+ * The arguments are the model ({@code phold} or {@code cqn}), the simulated duration in seconds,
+ * and the maximum number of threads.
+ * </p>
+ */
+public final class BenchmarkDriver {
+
+    private BenchmarkDriver() {
+        throw new AssertionError("Class should not be instantiated");
+    }
+
+    /**
+     * <p>
+     * Run a model created by a given factory until a given simulated time,
+     * using a given number of threads, and measure its performance.
+     * </p>
+     *
+     * @throws ExecutionException   If advancing the model failed.
+     * @throws InterruptedException If interrupted while waiting for the model to advance.
+     */
+    @Nonnull
+    public static Measurement measure(
+            @Nonnull final Supplier<? extends BenchmarkModel<?>> modelFactory,
+            @Nonnull final Duration until,
+            @Nonnegative final int nThreads) throws ExecutionException, InterruptedException {
+        Objects.requireNonNull(modelFactory, "modelFactory");
+        Objects.requireNonNull(until, "until");
+        final BenchmarkModel<?> model = modelFactory.get();
+        final ForkJoinPool pool = new ForkJoinPool(nThreads);
+        try {
+            final long start = System.nanoTime();
+            model.getUniverse().advanceTo(until, pool).get();
+            final long end = System.nanoTime();
+            return new Measurement(nThreads, Duration.ofNanos(end - start),
+                    model.getUniverse().getNumberOfEvents(), model.getNumberOfEventsProcessed());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Nonnull
+    private static Supplier<? extends BenchmarkModel<?>> createModelFactory(@Nonnull final String name) {
+        switch (name) {
+            case "phold":
+                return () -> new Phold(256, 4, 0.5, Duration.ofMillis(100), Duration.ofSeconds(1), 1L);
+            case "cqn":
+                return () -> new ClosedQueueingNetwork(256, 1024, Duration.ofSeconds(1), Duration.ofMillis(100), 1L);
+            default:
+                throw new IllegalArgumentException("Unknown model " + name);
+        }
+    }
+
+    public static void main(@Nonnull final String[] args) throws ExecutionException, InterruptedException {
+        final String modelName = args.length < 1 ? "phold" : args[0];
+        final Duration until = Duration.ofSeconds(args.length < 2 ? 1000L : Long.parseLong(args[1]));
+        final int maxThreads = args.length < 3 ? Runtime.getRuntime().availableProcessors() : Integer.parseInt(args[2]);
+        final var modelFactory = createModelFactory(modelName);
+        final PrintStream out = new PrintStream(System.out, true, StandardCharsets.UTF_8);
+
+        out.println("threads,seconds,committed,processed,committed/s,efficiency,speed-up");
+        final List<Measurement> measurements = new ArrayList<>();
+        for (int nThreads = 1; nThreads <= maxThreads; nThreads *= 2) {
+            final Measurement measurement = measure(modelFactory, until, nThreads);
+            measurements.add(measurement);
+            out.printf(Locale.ROOT, "%d,%.3f,%d,%d,%.1f,%.3f,%.2f%n",
+                    measurement.getNumberOfThreads(),
+                    measurement.getWallClockTime().toNanos() * 1E-9,
+                    measurement.getNumberOfEventsCommitted(),
+                    measurement.getNumberOfEventsProcessed(),
+                    measurement.getCommittedEventRate(),
+                    measurement.getEfficiency(),
+                    measurement.getSpeedUp(measurements.get(0)));
+        }
+    }
+
+    /**
+     * <p>
+     * The performance of one run of a benchmark model.
+     * </p>
+     */
+    @Immutable
+    public static final class Measurement {
+
+        @Nonnegative
+        private final int numberOfThreads;
+
+        @Nonnull
+        private final Duration wallClockTime;
+
+        @Nonnegative
+        private final long numberOfEventsCommitted;
+
+        @Nonnegative
+        private final long numberOfEventsProcessed;
+
+        Measurement(@Nonnegative final int numberOfThreads,
+                    @Nonnull final Duration wallClockTime,
+                    @Nonnegative final long numberOfEventsCommitted,
+                    @Nonnegative final long numberOfEventsProcessed) {
+            this.numberOfThreads = numberOfThreads;
+            this.wallClockTime = wallClockTime;
+            this.numberOfEventsCommitted = numberOfEventsCommitted;
+            this.numberOfEventsProcessed = numberOfEventsProcessed;
+        }
+
+        @Nonnegative
+        public int getNumberOfThreads() {
+            return numberOfThreads;
+        }
+
+        @Nonnull
+        public Duration getWallClockTime() {
+            return wallClockTime;
+        }
+
+        @Nonnegative
+        public long getNumberOfEventsCommitted() {
+            return numberOfEventsCommitted;
+        }
+
+        @Nonnegative
+        public long getNumberOfEventsProcessed() {
+            return numberOfEventsProcessed;
+        }
+
+        /**
+         * <p>
+         * The number of committed events per second of wall-clock time.
+         * </p>
+         */
+        public double getCommittedEventRate() {
+            return numberOfEventsCommitted / (Math.max(1L, wallClockTime.toNanos()) * 1E-9);
+        }
+
+        /**
+         * <p>
+         * The number of committed events divided by the number of events processed,
+         * or 1 if no events were processed.
+         * </p>
+         */
+        public double getEfficiency() {
+            return numberOfEventsProcessed == 0L ? 1.0 : (double) numberOfEventsCommitted / numberOfEventsProcessed;
+        }
+
+        /**
+         * <p>
+         * The ratio of the {@linkplain #getCommittedEventRate() committed event rate} of this measurement
+         * to that of a given baseline measurement.
+         * </p>
+         */
+        public double getSpeedUp(@Nonnull final Measurement baseline) {
+            return getCommittedEventRate() / baseline.getCommittedEventRate();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package uk.badamson.mc.simulation.benchmark;
+/*
+ * © Copyright Benedict Adamson 2022.
+ *
+ * This file is part of MC-des.
+ *
+ * MC-des is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC-des is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MC-des.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+public class BenchmarkDriverTest {
+
+    public static void assertInvariants(final BenchmarkDriver.Measurement measurement) {
+        assertAll(
+                () -> assertThat("numberOfThreads", measurement.getNumberOfThreads(), greaterThan(0)),
+                () -> assertThat("wallClockTime", measurement.getWallClockTime().isNegative(), is(false)),
+                () -> assertThat("processed at least the committed events", measurement.getNumberOfEventsProcessed(),
+                        greaterThanOrEqualTo(measurement.getNumberOfEventsCommitted())),
+                () -> assertThat("efficiency", measurement.getEfficiency(),
+                        allOf(greaterThanOrEqualTo(0.0), lessThanOrEqualTo(1.0))),
+                () -> assertThat("speedUp relative to itself", measurement.getSpeedUp(measurement), closeTo(1.0, 1E-9)));
+    }
+
+    @Test
+    public void measurePhold() throws Exception {
+        final var measurement = BenchmarkDriver.measure(
+                () -> new Phold(8, 2, 0.5, Duration.ofMillis(100), Duration.ofSeconds(1), 1L),
+                Duration.ofSeconds(10), 2);
+
+        assertInvariants(measurement);
+        assertThat("numberOfThreads", measurement.getNumberOfThreads(), is(2));
+        assertThat("committed events", measurement.getNumberOfEventsCommitted(), greaterThan(0L));
+    }
+
+    @Test
+    public void measureClosedQueueingNetwork() throws Exception {
+        final var measurement = BenchmarkDriver.measure(
+                () -> new ClosedQueueingNetwork(8, 16, Duration.ofSeconds(1), Duration.ofMillis(100), 1L),
+                Duration.ofSeconds(10), 1);
+
+        assertInvariants(measurement);
+        assertThat("committed events", measurement.getNumberOfEventsCommitted(), greaterThan(0L));
+    }
+}
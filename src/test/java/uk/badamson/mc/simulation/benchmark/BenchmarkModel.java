@@ -0,0 +1,55 @@
+package uk.badamson.mc.simulation.benchmark;
+/*
+ * © Copyright Benedict Adamson 2022.
+ *
+ * This file is part of MC-des.
+ *
+ * MC-des is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC-des is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MC-des.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+import uk.badamson.mc.simulation.actor.Universe;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+/**
+ * <p>
+ * A standard simulation model, used for measuring the performance of the simulation engine.
+ * </p>
+ *
+ * @param <STATE> The class of states of the simulated objects of the model.
+ */
+public interface BenchmarkModel<STATE> {
+
+    /**
+     * <p>
+     * The universe that contains the actors of the model.
+     * </p>
+     */
+    @Nonnull
+    Universe<STATE> getUniverse();
+
+    /**
+     * <p>
+     * The number of events that the model has computed, including events that were later rolled back.
+     * </p>
+     * <p>
+     * The simulation engine can compute an event more than once, so this is at least
+     * the number of committed events.
+     * </p>
+     */
+    @Nonnegative
+    long getNumberOfEventsProcessed();
+}
@@ -0,0 +1,251 @@
+package uk.badamson.mc.simulation.benchmark;
+/*
+ * © Copyright Benedict Adamson 2022.
+ *
+ * This file is part of MC-des.
+ *
+ * MC-des is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC-des is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MC-des.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+import uk.badamson.mc.simulation.actor.Actor;
+import uk.badamson.mc.simulation.actor.Event;
+import uk.badamson.mc.simulation.actor.Medium;
+import uk.badamson.mc.simulation.actor.Signal;
+import uk.badamson.mc.simulation.actor.Universe;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ * A closed queueing network benchmark model.
+ * </p>
+ * <p>
+ * A fixed number of jobs circulate among a fixed number of servers.
+ * Each server serves the jobs that arrive at it in order of arrival,
+ * with exponentially distributed service times.
+ * When a job has been served it moves to a randomly chosen server, which takes a fixed transit time.
+ * The transit time provides the lookahead of the model.
+ * </p>
+ */
+@ThreadSafe
+public final class ClosedQueueingNetwork implements BenchmarkModel<ClosedQueueingNetwork.Server> {
+
+    @Nonnull
+    private final Duration meanServiceTime;
+
+    @Nonnull
+    private final Duration transitTime;
+
+    @Nonnull
+    private final List<Actor<Server>> servers;
+
+    private final Universe<Server> universe = new Universe<>();
+
+    private final LongAdder numberOfEventsProcessed = new LongAdder();
+
+    /**
+     * <p>
+     * Construct a closed queueing network with given parameters.
+     * </p>
+     *
+     * @param nServers        The number of servers.
+     * @param nJobs           The number of jobs. Initially the jobs are distributed evenly over the servers,
+     *                        arriving at them at slightly different times.
+     * @param meanServiceTime The mean of the exponentially distributed service time of a job at a server.
+     * @param transitTime     The time it takes for a job to move from one server to another.
+     * @param randomSeed      The seed from which the random number streams of the servers are derived.
+     * @throws IllegalArgumentException <ul>
+     *                                  <li>If {@code nServers} is not positive.</li>
+     *                                  <li>If {@code nJobs} is negative.</li>
+     *                                  <li>If {@code meanServiceTime} is negative.</li>
+     *                                  <li>If {@code transitTime} is not positive.</li>
+     *                                  </ul>
+     */
+    public ClosedQueueingNetwork(@Nonnegative final int nServers,
+                                 @Nonnegative final int nJobs,
+                                 @Nonnull final Duration meanServiceTime,
+                                 @Nonnull final Duration transitTime,
+                                 final long randomSeed) {
+        Objects.requireNonNull(meanServiceTime, "meanServiceTime");
+        Objects.requireNonNull(transitTime, "transitTime");
+        if (nServers <= 0) {
+            throw new IllegalArgumentException("nServers " + nServers);
+        }
+        if (nJobs < 0) {
+            throw new IllegalArgumentException("nJobs " + nJobs);
+        }
+        if (meanServiceTime.isNegative()) {
+            throw new IllegalArgumentException("meanServiceTime " + meanServiceTime);
+        }
+        if (transitTime.isNegative() || transitTime.isZero()) {
+            throw new IllegalArgumentException("transitTime " + transitTime);
+        }
+        this.meanServiceTime = meanServiceTime;
+        this.transitTime = transitTime;
+
+        final SplittableRandom random = new SplittableRandom(randomSeed);
+        final List<Actor<Server>> serverList = new ArrayList<>(nServers);
+        for (int s = 0; s < nServers; ++s) {
+            serverList.add(new Actor<>(Duration.ZERO, Server.IDLE, random.nextLong()));
+        }
+        servers = List.copyOf(serverList);
+        universe.addAll(servers);
+        for (int j = 0; j < nJobs; ++j) {
+            final var server = servers.get(j % nServers);
+            // Stagger the arrivals, so the order of simultaneous events does not depend on the (random) media.
+            server.addSignalToReceive(new Job(Duration.ZERO, null, server, new Medium(), this,
+                    transitTime.plusNanos(j)));
+        }
+    }
+
+    @Nonnull
+    @Override
+    public Universe<Server> getUniverse() {
+        return universe;
+    }
+
+    /**
+     * <p>
+     * The servers of this network, in the order of their creation.
+     * </p>
+     */
+    @Nonnull
+    public List<Actor<Server>> getServers() {
+        return servers;
+    }
+
+    @Override
+    public long getNumberOfEventsProcessed() {
+        return numberOfEventsProcessed.sum();
+    }
+
+    /**
+     * <p>
+     * The state of a server.
+     * </p>
+     */
+    @Immutable
+    public static final class Server {
+
+        static final Server IDLE = new Server(Duration.ZERO, 0L);
+
+        @Nonnull
+        private final Duration busyUntil;
+
+        @Nonnegative
+        private final long numberOfJobsServed;
+
+        Server(@Nonnull final Duration busyUntil, @Nonnegative final long numberOfJobsServed) {
+            this.busyUntil = busyUntil;
+            this.numberOfJobsServed = numberOfJobsServed;
+        }
+
+        /**
+         * <p>
+         * The time at which the server finishes serving the jobs that have arrived at it.
+         * </p>
+         */
+        @Nonnull
+        public Duration getBusyUntil() {
+            return busyUntil;
+        }
+
+        @Nonnegative
+        public long getNumberOfJobsServed() {
+            return numberOfJobsServed;
+        }
+
+        @Override
+        public boolean equals(final Object that) {
+            if (this == that) return true;
+            if (that == null || getClass() != that.getClass()) return false;
+
+            final Server server = (Server) that;
+            return numberOfJobsServed == server.numberOfJobsServed && busyUntil.equals(server.busyUntil);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * busyUntil.hashCode() + Long.hashCode(numberOfJobsServed);
+        }
+
+        @Override
+        public String toString() {
+            return "Server{" +
+                    "busyUntil=" + busyUntil +
+                    ", numberOfJobsServed=" + numberOfJobsServed +
+                    '}';
+        }
+    }
+
+    /**
+     * <p>
+     * The arrival of a job at a server.
+     * The {@linkplain #getMedium() medium} of the signal identifies the job.
+     * </p>
+     */
+    @Immutable
+    static final class Job extends Signal<Server> {
+
+        @Nonnull
+        private final ClosedQueueingNetwork model;
+
+        @Nonnull
+        private final Duration delay;
+
+        Job(@Nonnull final Duration whenSent,
+            final Actor<Server> sender,
+            @Nonnull final Actor<Server> receiver,
+            @Nonnull final Medium medium,
+            @Nonnull final ClosedQueueingNetwork model,
+            @Nonnull final Duration delay) {
+            super(whenSent, sender, receiver, medium);
+            this.model = model;
+            this.delay = delay;
+        }
+
+        @Nonnull
+        @Override
+        protected Duration getPropagationDelay(@Nonnull final Server receiverState) {
+            return delay;
+        }
+
+        @Nonnull
+        @Override
+        protected Event<Server> receive(@Nonnull final Duration when, @Nonnull final Server receiverState) {
+            model.numberOfEventsProcessed.increment();
+            final SplittableRandom random = createRandom(when);
+            final Duration start = when.compareTo(receiverState.busyUntil) < 0 ? receiverState.busyUntil : when;
+            final double exponential = -Math.log(1.0 - random.nextDouble());
+            final Duration finish = start.plusNanos(Math.round(exponential * model.meanServiceTime.toNanos()));
+            final Actor<Server> receiver = getReceiver();
+            final Actor<Server> destination = model.servers.get(random.nextInt(model.servers.size()));
+            final Job departure = new Job(when, receiver, destination, getMedium(), model,
+                    finish.minus(when).plus(model.transitTime));
+            return new Event<>(this, when, new Server(finish, receiverState.numberOfJobsServed + 1L),
+                    Set.of(departure), Set.of());
+        }
+    }
+}
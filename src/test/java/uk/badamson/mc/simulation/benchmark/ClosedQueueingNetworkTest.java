@@ -0,0 +1,120 @@
+package uk.badamson.mc.simulation.benchmark;
+/*
+ * © Copyright Benedict Adamson 2022.
+ *
+ * This file is part of MC-des.
+ *
+ * MC-des is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC-des is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MC-des.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import uk.badamson.mc.simulation.actor.Actor;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ClosedQueueingNetworkTest {
+
+    private static final Duration MEAN_SERVICE_TIME = Duration.ofSeconds(1);
+
+    private static final Duration TRANSIT_TIME = Duration.ofMillis(100);
+
+    private static final Duration UNTIL = Duration.ofSeconds(30);
+
+    public static void assertInvariants(final ClosedQueueingNetwork model) {
+        final var servers = model.getServers();
+        final var universe = model.getUniverse();
+        assertAll(
+                () -> assertThat("servers", servers, not(empty())),
+                () -> assertThat("universe contains the servers", universe.containsAll(servers), is(true)),
+                () -> assertThat("processed at least the committed events", model.getNumberOfEventsProcessed(),
+                        greaterThanOrEqualTo(universe.getNumberOfEvents())));
+    }
+
+    private static List<ClosedQueueingNetwork.Server> getFinalStates(final ClosedQueueingNetwork model) {
+        return model.getServers().stream()
+                .map(Actor::getStateHistory)
+                .map(history -> history.getLastValue())
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    private static ClosedQueueingNetwork run(final int nServers, final int nJobs,
+                                             final int nThreads) throws Exception {
+        final var model = new ClosedQueueingNetwork(nServers, nJobs, MEAN_SERVICE_TIME, TRANSIT_TIME, 11L);
+        final ForkJoinPool pool = new ForkJoinPool(nThreads);
+        try {
+            model.getUniverse().advanceTo(UNTIL, pool).get();
+        } finally {
+            pool.shutdown();
+        }
+
+        assertInvariants(model);
+        final long jobsServed = getFinalStates(model).stream()
+                .mapToLong(ClosedQueueingNetwork.Server::getNumberOfJobsServed)
+                .sum();
+        assertAll(
+                () -> assertThat("committed events", model.getUniverse().getNumberOfEvents(), greaterThan(0L)),
+                () -> assertThat("servers count the committed events", jobsServed,
+                        is(model.getUniverse().getNumberOfEvents())));
+        return model;
+    }
+
+    @Nested
+    public class Constructor {
+
+        @Test
+        public void valid() {
+            final var model = new ClosedQueueingNetwork(3, 5, MEAN_SERVICE_TIME, TRANSIT_TIME, 1L);
+
+            assertInvariants(model);
+            assertThat("servers", model.getServers(), hasSize(3));
+            assertThat("universe", model.getUniverse(), hasSize(3));
+        }
+
+        @Test
+        public void zeroTransitTime() {
+            assertThrows(IllegalArgumentException.class,
+                    () -> new ClosedQueueingNetwork(3, 5, MEAN_SERVICE_TIME, Duration.ZERO, 1L));
+        }
+    }
+
+    @Nested
+    public class Advance {
+
+        @Test
+        public void oneServer() throws Exception {
+            run(1, 3, 1);
+        }
+
+        @Test
+        public void several() throws Exception {
+            run(8, 20, 1);
+        }
+
+        @Test
+        public void reproducibleInParallel() throws Exception {
+            final var expected = getFinalStates(run(16, 40, 1));
+            assertThat(getFinalStates(run(16, 40, 4)), is(expected));
+        }
+    }
+}
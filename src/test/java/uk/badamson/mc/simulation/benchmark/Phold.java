@@ -0,0 +1,200 @@
+package uk.badamson.mc.simulation.benchmark;
+/*
+ * © Copyright Benedict Adamson 2022.
+ *
+ * This file is part of MC-des.
+ *
+ * MC-des is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC-des is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MC-des.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+import uk.badamson.mc.simulation.actor.Actor;
+import uk.badamson.mc.simulation.actor.Event;
+import uk.badamson.mc.simulation.actor.Medium;
+import uk.badamson.mc.simulation.actor.Signal;
+import uk.badamson.mc.simulation.actor.Universe;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ * The PHOLD benchmark model.
+ * </p>
+ * <p>
+ * A fixed number of messages circulate among a fixed number of actors.
+ * Receiving a message causes an actor to send a message, either to itself or to
+ * a randomly chosen actor (a <i>remote</i> message).
+ * The delay of each message is the <i>lookahead</i> plus an exponentially distributed random delay.
+ * The state of each actor is the number of messages it has received.
+ * </p>
+ */
+@ThreadSafe
+public final class Phold implements BenchmarkModel<Long> {
+
+    @Nonnegative
+    private final double remoteFraction;
+
+    @Nonnull
+    private final Duration lookahead;
+
+    @Nonnull
+    private final Duration meanDelay;
+
+    @Nonnull
+    private final List<Actor<Long>> actors;
+
+    private final Universe<Long> universe = new Universe<>();
+
+    private final LongAdder numberOfEventsProcessed = new LongAdder();
+
+    /**
+     * <p>
+     * Construct a PHOLD model with given parameters.
+     * </p>
+     *
+     * @param nActors        The number of actors.
+     * @param eventDensity   The number of messages per actor.
+     * @param remoteFraction The probability that an actor sends a message to a randomly chosen actor,
+     *                       rather than to itself.
+     * @param lookahead      The minimum delay of each message.
+     * @param meanDelay      The mean of the exponentially distributed delay of each message, in addition to the
+     *                       lookahead.
+     * @param randomSeed     The seed from which the random number streams of the actors are derived.
+     * @throws IllegalArgumentException <ul>
+     *                                  <li>If {@code nActors} is not positive.</li>
+     *                                  <li>If {@code eventDensity} is negative.</li>
+     *                                  <li>If {@code remoteFraction} is not in the range [0, 1].</li>
+     *                                  <li>If the sum of {@code lookahead} and {@code meanDelay} is not positive.</li>
+     *                                  </ul>
+     */
+    public Phold(@Nonnegative final int nActors,
+                 @Nonnegative final int eventDensity,
+                 @Nonnegative final double remoteFraction,
+                 @Nonnull final Duration lookahead,
+                 @Nonnull final Duration meanDelay,
+                 final long randomSeed) {
+        Objects.requireNonNull(lookahead, "lookahead");
+        Objects.requireNonNull(meanDelay, "meanDelay");
+        if (nActors <= 0) {
+            throw new IllegalArgumentException("nActors " + nActors);
+        }
+        if (eventDensity < 0) {
+            throw new IllegalArgumentException("eventDensity " + eventDensity);
+        }
+        if (!(0.0 <= remoteFraction && remoteFraction <= 1.0)) {
+            throw new IllegalArgumentException("remoteFraction " + remoteFraction);
+        }
+        if (lookahead.isNegative() || meanDelay.isNegative() || lookahead.plus(meanDelay).isZero()) {
+            throw new IllegalArgumentException("lookahead and meanDelay");
+        }
+        this.remoteFraction = remoteFraction;
+        this.lookahead = lookahead;
+        this.meanDelay = meanDelay;
+
+        final SplittableRandom random = new SplittableRandom(randomSeed);
+        final List<Actor<Long>> actorList = new ArrayList<>(nActors);
+        for (int a = 0; a < nActors; ++a) {
+            actorList.add(new Actor<>(Duration.ZERO, 0L, random.nextLong()));
+        }
+        actors = List.copyOf(actorList);
+        universe.addAll(actors);
+        for (final var actor : actors) {
+            for (int m = 0; m < eventDensity; ++m) {
+                actor.addSignalToReceive(new Message(Duration.ZERO, null, actor, new Medium(), this,
+                        nextDelay(random)));
+            }
+        }
+    }
+
+    @Nonnull
+    private Duration nextDelay(@Nonnull final SplittableRandom random) {
+        final double exponential = -Math.log(1.0 - random.nextDouble());
+        return lookahead.plusNanos(Math.max(1L, Math.round(exponential * meanDelay.toNanos())));
+    }
+
+    @Nonnull
+    @Override
+    public Universe<Long> getUniverse() {
+        return universe;
+    }
+
+    /**
+     * <p>
+     * The actors of this model, in the order of their creation.
+     * </p>
+     */
+    @Nonnull
+    public List<Actor<Long>> getActors() {
+        return actors;
+    }
+
+    @Override
+    public long getNumberOfEventsProcessed() {
+        return numberOfEventsProcessed.sum();
+    }
+
+    @Immutable
+    static final class Message extends Signal<Long> {
+
+        @Nonnull
+        private final Phold model;
+
+        @Nonnull
+        private final Duration delay;
+
+        Message(@Nonnull final Duration whenSent,
+                final Actor<Long> sender,
+                @Nonnull final Actor<Long> receiver,
+                @Nonnull final Medium medium,
+                @Nonnull final Phold model,
+                @Nonnull final Duration delay) {
+            super(whenSent, sender, receiver, medium);
+            this.model = model;
+            this.delay = delay;
+        }
+
+        @Nonnull
+        @Override
+        protected Duration getPropagationDelay(@Nonnull final Long receiverState) {
+            return delay;
+        }
+
+        @Nonnull
+        @Override
+        protected Event<Long> receive(@Nonnull final Duration when, @Nonnull final Long receiverState) {
+            model.numberOfEventsProcessed.increment();
+            final SplittableRandom random = createRandom(when);
+            final Actor<Long> receiver = getReceiver();
+            final Actor<Long> destination;
+            if (random.nextDouble() < model.remoteFraction) {
+                destination = model.actors.get(random.nextInt(model.actors.size()));
+            } else {
+                destination = receiver;
+            }
+            final Message message = new Message(when, receiver, destination, getMedium(), model,
+                    model.nextDelay(random));
+            return new Event<>(this, when, receiverState + 1L, Set.of(message), Set.of());
+        }
+    }
+}
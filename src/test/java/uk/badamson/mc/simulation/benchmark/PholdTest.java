@@ -0,0 +1,122 @@
+package uk.badamson.mc.simulation.benchmark;
+/*
+ * © Copyright Benedict Adamson 2022.
+ *
+ * This file is part of MC-des.
+ *
+ * MC-des is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MC-des is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MC-des.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import uk.badamson.mc.simulation.actor.Actor;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PholdTest {
+
+    private static final Duration LOOKAHEAD = Duration.ofMillis(100);
+
+    private static final Duration MEAN_DELAY = Duration.ofSeconds(1);
+
+    private static final Duration UNTIL = Duration.ofSeconds(30);
+
+    public static void assertInvariants(final Phold model) {
+        final var actors = model.getActors();
+        final var universe = model.getUniverse();
+        assertAll(
+                () -> assertThat("actors", actors, not(empty())),
+                () -> assertThat("universe contains the actors", universe.containsAll(actors), is(true)),
+                () -> assertThat("processed at least the committed events", model.getNumberOfEventsProcessed(),
+                        greaterThanOrEqualTo(universe.getNumberOfEvents())));
+    }
+
+    private static List<Long> getFinalStates(final Phold model) {
+        return model.getActors().stream()
+                .map(Actor::getStateHistory)
+                .map(history -> history.getLastValue())
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    private static Phold run(final int nActors, final int eventDensity, final double remoteFraction,
+                             final int nThreads) throws Exception {
+        final var model = new Phold(nActors, eventDensity, remoteFraction, LOOKAHEAD, MEAN_DELAY, 7L);
+        final ForkJoinPool pool = new ForkJoinPool(nThreads);
+        try {
+            model.getUniverse().advanceTo(UNTIL, pool).get();
+        } finally {
+            pool.shutdown();
+        }
+
+        assertInvariants(model);
+        final long sumOfStates = getFinalStates(model).stream().mapToLong(Long::longValue).sum();
+        assertAll(
+                () -> assertThat("committed events", model.getUniverse().getNumberOfEvents(), greaterThan(0L)),
+                () -> assertThat("states count the committed events", sumOfStates,
+                        is(model.getUniverse().getNumberOfEvents())));
+        return model;
+    }
+
+    @Nested
+    public class Constructor {
+
+        @Test
+        public void valid() {
+            final var model = new Phold(3, 2, 0.5, LOOKAHEAD, MEAN_DELAY, 1L);
+
+            assertInvariants(model);
+            assertThat("actors", model.getActors(), hasSize(3));
+            assertThat("universe", model.getUniverse(), hasSize(3));
+        }
+
+        @Test
+        public void invalidRemoteFraction() {
+            assertThrows(IllegalArgumentException.class, () -> new Phold(3, 2, 1.5, LOOKAHEAD, MEAN_DELAY, 1L));
+        }
+
+        @Test
+        public void noActors() {
+            assertThrows(IllegalArgumentException.class, () -> new Phold(0, 2, 0.5, LOOKAHEAD, MEAN_DELAY, 1L));
+        }
+    }
+
+    @Nested
+    public class Advance {
+
+        @Test
+        public void local() throws Exception {
+            run(4, 1, 0.0, 1);
+        }
+
+        @Test
+        public void remote() throws Exception {
+            run(8, 2, 0.5, 1);
+        }
+
+        @Test
+        public void reproducibleInParallel() throws Exception {
+            final var expected = getFinalStates(run(16, 2, 0.5, 1));
+            assertThat(getFinalStates(run(16, 2, 0.5, 4)), is(expected));
+        }
+    }
+}